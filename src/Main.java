@@ -1,6 +1,8 @@
 import assets.AssetEngine;
 import coderunner.CodeRunner;
+import coderunner.runner.ClassDataArchive;
 import database.Database;
+import server.ServerConfig;
 import server.WebServer;
 import server.handler.Handler;
 import server.handler.routes.AboutRoute;
@@ -58,12 +60,52 @@ public class Main {
             // Instantiate singleton dependencies
             TemplateEngine templateEngine = new TemplateEngine("frontend/templates");
 
+            // Compile the hottest templates to classes (disable with -Dthoj.template.compile=false)
+            if (Boolean.parseBoolean(System.getProperty("thoj.template.compile", "true"))) {
+                Map<String, Class<?>> specializations = new LinkedHashMap<>();
+                specializations.put("frontend/templates/problems.th", ProblemsRoute.Data.class);
+                specializations.put("frontend/templates/problem.th", ProblemRoute.Data.class);
+
+                for (Map.Entry<String, Class<?>> specialization : specializations.entrySet()) {
+                    if (!templateEngine.specialize(specialization.getKey(), specialization.getValue())) {
+                        System.out.println(ANSI_RED + "[STATUS] Interpreting " + specialization.getKey() + " as it cannot be compiled" + ANSI_RESET);
+                    }
+                }
+            }
+
             AssetEngine assetEngine = new AssetEngine("frontend/styles", "frontend/images", "frontend/js", "frontend/favicon");
 
+            System.out.print(ANSI_BLUE + "[INFO] Loaded assets\n" + assetEngine.getLoadReport() + ANSI_RESET);
+
+            // Link templates to the fingerprinted URLs of assets
+            templateEngine.setAssetResolver(assetEngine::resolveUrl);
+
+            // Bundle all stylesheets and scripts (enable with -Dthoj.assets.bundle=true)
+            if (Boolean.parseBoolean(System.getProperty("thoj.assets.bundle", "false"))) {
+                assetEngine.bundle("frontend/styles/", "all.css");
+                assetEngine.bundle("frontend/js/", "all.js");
+            }
+
+            // Reload changed templates and assets without restarting (disable with -Dthoj.watch=false)
+            if (Boolean.parseBoolean(System.getProperty("thoj.watch", "true"))) {
+                templateEngine.watch();
+                assetEngine.watch();
+            }
+
+            // Judge submissions concurrently (set the pool size with -Dthoj.judge.workers=N)
             CodeRunner codeRunner = new CodeRunner();
 
+            System.out.println(ANSI_BLUE + "[INFO] Judging with " + codeRunner.getWorkers() + " workers, " + codeRunner.getTestParallelism() + " tests at a time each, " + codeRunner.getCompileCache() + ANSI_RESET);
+            System.out.println(ANSI_BLUE + "[INFO] Class data sharing archive: " + ClassDataArchive.getArchive() + ANSI_RESET);
+
             Database database = new Database();
 
+            // Evict cached problem fragments whenever problems change
+            database.problems().addChangeListener(() -> {
+                templateEngine.getFragmentCache().invalidate("problem-list");
+                templateEngine.getFragmentCache().invalidate("problem");
+            });
+
             // Initialize problems and admin
             String username = "Tommy_Shan";
 
@@ -102,7 +144,10 @@ public class Main {
                 System.out.println(ANSI_BLUE + "[INFO] " + statusLine.getMethod() + " " + statusLine.getUrl() + " " + statusLine.getProtocol() + ANSI_RESET);
             };
 
-            WebServer server = new WebServer(templateEngine, assetEngine, routes, assets, notFoundHandler, logger);
+            // Server settings (e.g. -Dthoj.server.connectionMode=nio)
+            ServerConfig config = ServerConfig.fromSystemProperties();
+
+            WebServer server = new WebServer(templateEngine, assetEngine, routes, assets, notFoundHandler, logger, config);
 
             server.serve(5000, port -> System.out.println(ANSI_RED + "[STATUS] Accepting clients on port " + port + ANSI_RESET));
         } catch (Exception e) {
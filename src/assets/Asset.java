@@ -0,0 +1,175 @@
+package assets;
+
+import server.response.ContentEncoding;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A static asset registered in the {@link AssetEngine}.
+ * Small assets are kept in memory, while large assets are only referenced by their file,
+ * so they can be sent straight from the file to the client without being copied onto the heap.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class Asset {
+    /** the file the asset was read from */
+    private final Path file;
+
+    /** the size of the asset in bytes */
+    private final long size;
+
+    /** the contents of the asset, or null if it is not kept in memory */
+    private final byte[] content;
+
+    /** the strong entity tag of the asset, including its quotes */
+    private final String etag;
+
+    /** the time the file was last modified in milliseconds since the epoch */
+    private final long lastModified;
+
+    /** the compressed variants of the asset, which are always kept in memory */
+    private final Map<ContentEncoding, byte[]> variants;
+
+    /** the media type the asset is served as */
+    private final String contentType;
+
+    /**
+     * Constructs an asset which is kept in memory
+     * @param file the file the asset was read from
+     * @param content the contents of the asset
+     * @param etag the strong entity tag of the contents, including its quotes
+     * @param lastModified the time the file was last modified in milliseconds since the epoch
+     * @param variants the compressed variants of the contents
+     * @param contentType the media type the asset is served as
+     */
+    public Asset(Path file, byte[] content, String etag, long lastModified, Map<ContentEncoding, byte[]> variants, String contentType) {
+        this.file = file;
+        this.size = content.length;
+        this.content = content;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.variants = variants;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Constructs an asset which is read from its file whenever it is needed
+     * @param file the file of the asset
+     * @param size the size of the file in bytes
+     * @param etag the strong entity tag of the file, including its quotes
+     * @param lastModified the time the file was last modified in milliseconds since the epoch
+     * @param variants the compressed variants of the file
+     * @param contentType the media type the asset is served as
+     */
+    public Asset(Path file, long size, String etag, long lastModified, Map<ContentEncoding, byte[]> variants, String contentType) {
+        this.file = file;
+        this.size = size;
+        this.content = null;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.variants = variants;
+        this.contentType = contentType;
+    }
+
+    /**
+     * getFile
+     * gets the file of the asset
+     * @return the path of the file
+     */
+    public Path getFile() {
+        return this.file;
+    }
+
+    /**
+     * getSize
+     * gets the size of the asset
+     * @return the size in bytes
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * getETag
+     * gets the strong entity tag of the asset, which changes whenever its contents change
+     * @return the entity tag, including its quotes
+     */
+    public String getETag() {
+        return this.etag;
+    }
+
+    /**
+     * getLastModified
+     * gets the time the file of the asset was last modified
+     * @return the time in milliseconds since the epoch
+     */
+    public long getLastModified() {
+        return this.lastModified;
+    }
+
+    /**
+     * getContentType
+     * gets the media type the asset is served as
+     * @return the value of the Content-Type header
+     */
+    public String getContentType() {
+        return this.contentType;
+    }
+
+    /**
+     * getEncodings
+     * gets the content codings the asset has a compressed variant in
+     * @return the available codings
+     */
+    public Set<ContentEncoding> getEncodings() {
+        return Collections.unmodifiableSet(this.variants.keySet());
+    }
+
+    /**
+     * getVariant
+     * gets the variant of the asset compressed with a coding
+     * @param encoding the content coding
+     * @return the compressed contents, or null if there is no variant with the coding
+     */
+    public byte[] getVariant(ContentEncoding encoding) {
+        return this.variants.get(encoding);
+    }
+
+    /**
+     * isInMemory
+     * determines if the contents of the asset are kept in memory
+     * @return if the contents are kept in memory
+     */
+    public boolean isInMemory() {
+        return this.content != null;
+    }
+
+    /**
+     * getContent
+     * gets the contents of the asset, reading them from the file if they are not kept in memory
+     * @return the contents of the asset
+     * @throws IOException if an error occurs while reading the file
+     */
+    public byte[] getContent() throws IOException {
+        if (this.content != null) {
+            return this.content;
+        }
+
+        return Files.readAllBytes(this.file);
+    }
+
+    /**
+     * toString
+     * returns a string representation of this object
+     * @return the string representation
+     */
+    @Override
+    public String toString() {
+        return "Asset{" + this.file + ", " + this.size + " bytes, " + this.etag + ", variants " + this.variants.keySet() + (this.isInMemory() ? "" : ", on disk") + "}";
+    }
+}
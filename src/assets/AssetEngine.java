@@ -1,21 +1,36 @@
 package assets;
 
-import java.io.BufferedReader;
+import server.response.ContentEncoding;
+import server.response.EntityTags;
+import watcher.DirectoryWatcher;
+
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 /**
  * Responsible for managing all static assets in the web application
+ * Assets can be reloaded while the server is running. Each reload publishes a new immutable registry,
+ * so requests never take a lock, and always see either the old or the new version of an asset.
+ * Hosted assets are also served on a fingerprinted URL containing a hash of their contents,
+ * which never changes meaning and can be cached by clients forever.
  * @author Harry Xu
  * @version 1.0 - June 8th 2023
  */
@@ -26,6 +41,9 @@ public class AssetEngine {
     /** Common extensions of image files */
     private final static Set<String> IMAGE_EXTENSIONS = new HashSet<>();
 
+    /** The media type of each extension, which assets are served as */
+    private final static Map<String, String> CONTENT_TYPES = new HashMap<>();
+
     static {
         // Text extensions
         TEXT_EXTENSIONS.add("css");
@@ -37,10 +55,37 @@ public class AssetEngine {
         IMAGE_EXTENSIONS.add("jpeg");
         IMAGE_EXTENSIONS.add("png");
         IMAGE_EXTENSIONS.add("ico");
+
+        // Content types
+        CONTENT_TYPES.put("css", "text/css");
+        CONTENT_TYPES.put("html", "text/html");
+        CONTENT_TYPES.put("js", "text/javascript");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("jpeg", "image/jpeg");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("ico", "image/x-icon");
     }
 
-    /** the registry for assets */
-    private final Map<String, byte[]> assets;
+    /** Files larger than this many bytes are not kept in memory, and are sent to clients straight from disk */
+    private final static long STREAMING_THRESHOLD = 64 * 1024;
+
+    /** The number of hexadecimal digits of the entity tag used in fingerprinted URLs */
+    private final static int FINGERPRINT_LENGTH = 10;
+
+    /** the current version of the registered assets and their URLs, which is replaced as a whole whenever an asset changes */
+    private volatile Registry registry;
+
+    /** the directories whose assets are registered, and new assets in them are registered when they are created */
+    private final Set<Path> directories;
+
+    /** the URL each directory of assets is hosted on */
+    private final Map<String, String> mounts;
+
+    /** the directory each bundle combines the files of, by the registered path of the bundle */
+    private final Map<String, String> bundles;
+
+    /** the time taken to load each registered path, reported once the server starts */
+    private final String loadReport;
 
     /**
      * Constructs an {@link AssetEngine} with predefined assets registered
@@ -53,120 +98,437 @@ public class AssetEngine {
             throw new NullPointerException("paths cannot be null");
         }
 
-        this.assets = new HashMap<>();
+        Map<String, Asset> assets = new HashMap<>();
+        this.directories = new LinkedHashSet<>();
+        this.mounts = new LinkedHashMap<>();
+        this.bundles = new LinkedHashMap<>();
+
+        StringBuilder loadReport = new StringBuilder();
 
         for (String path : paths) {
+            long start = System.nanoTime();
+            int loadedBefore = assets.size();
             File dir = new File(path);
 
             if (dir.isDirectory()) {
+                this.directories.add(dir.toPath());
+
                 File[] files = dir.listFiles();
 
                 if (files != null) {
                     for (File file : files) {
                         String filename = file.getPath();
 
-                        this.assets.put(filename.replace("\\", "/"), this.read(filename));
+                        assets.put(filename.replace("\\", "/"), this.load(filename));
                     }
                 }
             }
 
             if (dir.isFile()) {
-                this.assets.put(path, this.read(path));
+                assets.put(path, this.load(path));
+            }
+
+            // Record how long the path took to load
+            long bytes = 0;
+
+            for (Asset asset : assets.values()) {
+                if (asset.getFile().startsWith(dir.toPath())) {
+                    bytes += asset.getSize();
+                }
+            }
+
+            loadReport.append(String.format(
+                    "%s: %d assets, %d KB in %.1f ms%n",
+                    path,
+                    assets.size() - loadedBefore,
+                    bytes / 1024,
+                    (System.nanoTime() - start) / 1e6
+            ));
+        }
+
+        this.publish(assets);
+        this.loadReport = loadReport.toString();
+    }
+
+    /**
+     * getLoadReport
+     * gets a report of the time taken to load each registered directory or file
+     * @return one line for each registered path with the number of assets, their size, and the load time
+     */
+    public String getLoadReport() {
+        return this.loadReport;
+    }
+
+    /**
+     * mount
+     * hosts the assets of a directory on a URL, so they can be found by the URL they are requested on
+     * @param directory the registered directory, ending with a slash (e.g. frontend/styles/)
+     * @param url the URL the directory is hosted on, ending with a slash (e.g. /static/css/)
+     */
+    public synchronized void mount(String directory, String url) {
+        this.mounts.put(directory, url);
+        this.publish(this.registry.files);
+    }
+
+    /**
+     * bundle
+     * registers a bundle which concatenates and minifies every stylesheet or script directly in a directory,
+     * so a page can load all of them in one request. The bundle is built again whenever one of its files is reloaded.
+     * @param directory the registered directory, ending with a slash (e.g. frontend/styles/)
+     * @param name the file name of the bundle, whose extension selects the files (e.g. all.css)
+     * @throws ExtensionNotFoundException if the name does not end with .css or .js
+     */
+    public synchronized void bundle(String directory, String name) {
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+
+        if ((!extension.equals("css")) && (!extension.equals("js"))) {
+            throw new ExtensionNotFoundException("Only .css and .js files can be bundled");
+        }
+
+        this.bundles.put(directory + name, directory);
+        this.publish(this.registry.files);
+    }
+
+    /**
+     * resolveUrl
+     * resolves the URL of an asset to its fingerprinted URL, which changes whenever the asset changes
+     * @param url the URL the asset is hosted on (e.g. /static/css/nav.css)
+     * @return the fingerprinted URL (e.g. /static/css/nav.3f9a1c07d2.css), or the URL as is if it is not fingerprinted
+     */
+    public String resolveUrl(String url) {
+        return this.registry.fingerprints.getOrDefault(url, url);
+    }
+
+    /**
+     * isImmutableUrl
+     * determines if a URL is fingerprinted, so its contents never change and can be cached forever
+     * @param url the requested URL, without its query string
+     * @return true if the URL is fingerprinted
+     */
+    public boolean isImmutableUrl(String url) {
+        return this.registry.immutableUrls.contains(url);
+    }
+
+    /**
+     * publish
+     * builds the bundles and URL indexes for a new version of the files, and replaces the registry with it
+     * @param files the assets loaded from files by their registered path
+     * @throws UncheckedIOException if a file of a bundle cannot be read
+     */
+    private void publish(Map<String, Asset> files) {
+        Map<String, Asset> assets = new HashMap<>(files);
+
+        for (Map.Entry<String, String> bundle : this.bundles.entrySet()) {
+            assets.put(bundle.getKey(), this.buildBundle(bundle.getKey(), bundle.getValue(), files));
+        }
+
+        Map<String, Asset> assetsByUrl = new HashMap<>();
+        Map<String, String> fingerprints = new HashMap<>();
+        Set<String> immutableUrls = new HashSet<>();
+
+        for (Map.Entry<String, Asset> asset : assets.entrySet()) {
+            String path = asset.getKey();
+
+            for (Map.Entry<String, String> mount : this.mounts.entrySet()) {
+                String directory = mount.getKey();
+
+                // Only files directly in the directory are hosted
+                if ((!path.startsWith(directory)) || (path.indexOf('/', directory.length()) != -1)) {
+                    continue;
+                }
+
+                String url = mount.getValue() + path.substring(directory.length());
+                assetsByUrl.put(url, asset.getValue());
+
+                // Files hosted on the root have well known names (e.g. favicon.ico), so they are not fingerprinted
+                if (!mount.getValue().equals("/")) {
+                    String fingerprinted = fingerprint(url, asset.getValue().getETag());
+
+                    assetsByUrl.put(fingerprinted, asset.getValue());
+                    fingerprints.put(url, fingerprinted);
+                    immutableUrls.add(fingerprinted);
+                }
+
+                break;
+            }
+        }
+
+        this.registry = new Registry(files, assets, assetsByUrl, fingerprints, immutableUrls);
+    }
+
+    /**
+     * fingerprint
+     * inserts the start of an entity tag before the extension of a URL
+     * @param url the URL of the asset
+     * @param etag the entity tag of the asset, including its quotes
+     * @return the fingerprinted URL
+     */
+    private static String fingerprint(String url, String etag) {
+        String hash = etag.substring(1, 1 + FINGERPRINT_LENGTH);
+        int extensionStart = url.lastIndexOf('.');
+
+        if (extensionStart <= url.lastIndexOf('/')) {
+            return url + "." + hash;
+        }
+
+        return url.substring(0, extensionStart) + "." + hash + url.substring(extensionStart);
+    }
+
+    /**
+     * buildBundle
+     * concatenates and minifies the stylesheets or scripts directly in a directory, in order of their names
+     * @param path the registered path of the bundle
+     * @param directory the directory of the files
+     * @param files the assets loaded from files by their registered path
+     * @return the bundle, which is kept in memory
+     * @throws UncheckedIOException if a file cannot be read
+     */
+    private Asset buildBundle(String path, String directory, Map<String, Asset> files) {
+        String extension = path.substring(path.lastIndexOf('.') + 1);
+
+        List<String> members = new ArrayList<>();
+
+        for (String member : files.keySet()) {
+            if ((member.startsWith(directory)) && (member.indexOf('/', directory.length()) == -1) && (member.endsWith("." + extension)) && (!member.equals(path))) {
+                members.add(member);
+            }
+        }
+
+        Collections.sort(members);
+
+        StringBuilder combined = new StringBuilder();
+        long lastModified = 0;
+
+        for (String member : members) {
+            Asset asset = files.get(member);
+            String text;
+
+            try {
+                text = new String(asset.getContent(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            // Scripts are separated so one without a trailing semicolon cannot run into the next
+            if (extension.equals("css")) {
+                combined.append(Minifier.minifyCss(text)).append('\n');
+            } else {
+                combined.append(Minifier.minifyJs(text)).append(";\n");
+            }
+
+            lastModified = Math.max(lastModified, asset.getLastModified());
+        }
+
+        byte[] content = combined.toString().getBytes(StandardCharsets.UTF_8);
+
+        return new Asset(Paths.get(path), content, EntityTags.of(content), lastModified, compress(content), CONTENT_TYPES.get(extension));
+    }
+
+    /**
+     * findAssetByUrl
+     * gets the asset hosted on a URL
+     * @param url the requested URL, without its query string
+     * @return the asset
+     * @throws AssetNotFoundException if no asset is hosted on the URL
+     */
+    public Asset findAssetByUrl(String url) {
+        Asset asset = this.registry.assetsByUrl.get(url);
+
+        if (asset == null) {
+            throw new AssetNotFoundException("Asset " + url + " cannot be found");
+        }
+
+        return asset;
+    }
+
+    /**
+     * reload
+     * reads, hashes, and compresses an asset again after its file has changed,
+     * registering it if it is new or removing it if it was deleted. Every other asset is left as is.
+     * @param path the path of the asset, relative to the working directory like the paths it was registered with
+     * @throws IOException if an error occurs while reading the file
+     */
+    public synchronized void reload(String path) throws IOException {
+        Map<String, Asset> current = this.registry.files;
+        File file = new File(path);
+
+        // Only registered assets and assets in registered directories are reloaded
+        Path directory = file.toPath().getParent();
+
+        if ((!current.containsKey(path)) && ((directory == null) || (!this.directories.contains(directory)))) {
+            return;
+        }
+
+        Map<String, Asset> files = new HashMap<>(current);
+
+        if (file.isFile()) {
+            try {
+                files.put(path, this.load(path));
+            } catch (ExtensionNotFoundException e) {
+                // Files which cannot be served, such as editor backups, are not registered
+                return;
+            }
+        } else if (files.remove(path) == null) {
+            return;
+        }
+
+        // Bundles and URLs are derived from the files, so they are rebuilt along with them
+        this.publish(files);
+    }
+
+    /**
+     * watch
+     * starts reloading assets on a background thread whenever their files change
+     * @return the watcher, which can be closed to stop reloading
+     * @throws IOException if the directories of the assets cannot be watched
+     */
+    public DirectoryWatcher watch() throws IOException {
+        Set<Path> watched = new LinkedHashSet<>(this.directories);
+
+        // Assets registered individually are watched through their directory
+        for (String path : this.registry.files.keySet()) {
+            Path directory = Paths.get(path).getParent();
+
+            if (directory != null) {
+                watched.add(directory);
             }
         }
+
+        DirectoryWatcher watcher = new DirectoryWatcher(watched, file -> {
+            try {
+                this.reload(file.toString().replace("\\", "/"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        watcher.start("asset-watcher");
+
+        return watcher;
     }
 
     /**
      * getAsset
      * get the raw asset from the registry as an HTTP compatible array of bytes
      * This is necessary to implement 404 and other error pages, as well as non asset files such as stylesheets
+     * Assets which are not kept in memory are read from disk on every call, so {@link #findAsset(String)} should be preferred for them
      * @param path the registered path of the asset
      * @return the read asset string
      * @throws AssetNotFoundException if no asset is registered under the path
+     * @throws UncheckedIOException if the asset is not kept in memory and its file cannot be read
      * */
     public byte[] getAsset(String path) {
-        if (!this.assets.containsKey(path)) {
-            throw new AssetNotFoundException("Asset " + path + " cannot be found");
+        try {
+            return this.findAsset(path).getContent();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-
-        return this.assets.get(path);
     }
 
     /**
-     * read
-     * opens and reads a file into a format compatible with HTTP
-     * @param inputFile the path of the file to read from
-     * @return the contents of the input file as a string
-     * @throws IOException if an error occurs while opening or reading the file
+     * findAsset
+     * gets the asset registered under a path, which may either be kept in memory or only on disk
+     * @param path the registered path of the asset
+     * @return the asset
+     * @throws AssetNotFoundException if no asset is registered under the path
      */
-    private byte[] read(String inputFile) throws IOException {
-        String extension = inputFile.substring(inputFile.lastIndexOf('.') + 1);
+    public Asset findAsset(String path) {
+        Asset asset = this.registry.assets.get(path);
 
-        if (TEXT_EXTENSIONS.contains(extension)) {
-            return readText(inputFile).getBytes(StandardCharsets.UTF_8);
-        }
-
-        if (IMAGE_EXTENSIONS.contains(extension)) {
-            return readImage(inputFile);
+        if (asset == null) {
+            throw new AssetNotFoundException("Asset " + path + " cannot be found");
         }
 
-        throw new ExtensionNotFoundException("File extension " + extension + " does not a have a defined way to read it");
+        return asset;
     }
 
     /**
-     * readText
-     * opens and reads a file and joins its content together into one string
-     * @param inputFile the path of the file to read from
-     * @return the contents of the input file as a string
+     * load
+     * registers a file as an asset, reading it into memory unless it is larger than the streaming threshold
+     * @param inputFile the path of the file to load
+     * @return the loaded asset
      * @throws IOException if an error occurs while opening or reading the file
      */
-    private String readText(String inputFile) throws IOException {
-        StringBuilder content = new StringBuilder();
+    private Asset load(String inputFile) throws IOException {
+        File file = new File(inputFile);
+        long size = file.length();
+        long lastModified = file.lastModified();
 
-        try (BufferedReader input = new BufferedReader(new FileReader(inputFile))) {
-            int currentChar = input.read();
+        if (size > STREAMING_THRESHOLD) {
+            String extension = inputFile.substring(inputFile.lastIndexOf('.') + 1);
 
-            while (currentChar != -1) {
-                content.append((char) currentChar);
+            // Large files are still restricted to the extensions which can be read
+            if ((!TEXT_EXTENSIONS.contains(extension)) && (!IMAGE_EXTENSIONS.contains(extension))) {
+                throw new ExtensionNotFoundException("File extension " + extension + " does not a have a defined way to read it");
+            }
+
+            // Hash the file through a mapping so it is never copied onto the heap.
+            // The mapping is not kept, so the file can still be replaced while the server is running
+            MessageDigest digest = EntityTags.newDigest();
+
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                digest.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+            }
+
+            // Compressed variants are small enough to keep in memory even if the file is not
+            Map<ContentEncoding, byte[]> variants = new EnumMap<>(ContentEncoding.class);
 
-                currentChar = input.read();
+            if (TEXT_EXTENSIONS.contains(extension)) {
+                variants = compress(Files.readAllBytes(file.toPath()));
             }
+
+            return new Asset(file.toPath(), size, EntityTags.fromHash(digest.digest()), lastModified, variants, CONTENT_TYPES.get(extension));
+        }
+
+        byte[] content = this.read(inputFile);
+        String extension = inputFile.substring(inputFile.lastIndexOf('.') + 1);
+
+        Map<ContentEncoding, byte[]> variants = new EnumMap<>(ContentEncoding.class);
+
+        if (TEXT_EXTENSIONS.contains(extension)) {
+            variants = compress(content);
         }
 
-        return content.toString();
+        return new Asset(file.toPath(), content, EntityTags.of(content), lastModified, variants, CONTENT_TYPES.get(extension));
     }
 
     /**
-     * readImage
-     * opens and reads a file and joins its content together into one string
-     * @param inputFile the path of the file to read from
-     * @return the contents of the input file as a string
-     * @throws IOException if an error occurs while opening or reading the file
+     * compress
+     * creates a compressed variant of text content with every supported content coding.
+     * Variants which are not smaller than the content are left out, since sending them would only waste time.
+     * @param content the content to compress
+     * @return the compressed variants by their coding
      */
-    private byte[] readImage(String inputFile) throws IOException {
-        File imageFile = new File(inputFile);
-
-        // Initial buffer size
-        List<Byte> bytes = new ArrayList<>(10000);
+    private static Map<ContentEncoding, byte[]> compress(byte[] content) {
+        Map<ContentEncoding, byte[]> variants = new EnumMap<>(ContentEncoding.class);
 
-        try (InputStream stream = Files.newInputStream(imageFile.toPath())) {
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            byte[] compressed = encoding.encode(content);
 
-            int currentChar = stream.read();
-
-            while (currentChar != -1) {
-                bytes.add((byte) currentChar);
-                currentChar = stream.read();
+            if (compressed.length < content.length) {
+                variants.put(encoding, compressed);
             }
         }
 
-        // Copy list to primitive array
-        byte[] buffer = new byte[bytes.size()];
+        return variants;
+    }
+
+    /**
+     * read
+     * opens and reads a file into a format compatible with HTTP.
+     * Every supported file is sent exactly as it is stored, so the whole file is read in one call.
+     * @param inputFile the path of the file to read from
+     * @return the contents of the input file
+     * @throws IOException if an error occurs while opening or reading the file
+     */
+    private byte[] read(String inputFile) throws IOException {
+        String extension = inputFile.substring(inputFile.lastIndexOf('.') + 1);
 
-        for (int i = 0; i < bytes.size(); i++) {
-            buffer[i] = bytes.get(i);
+        if ((!TEXT_EXTENSIONS.contains(extension)) && (!IMAGE_EXTENSIONS.contains(extension))) {
+            throw new ExtensionNotFoundException("File extension " + extension + " does not a have a defined way to read it");
         }
 
-        return buffer;
+        return Files.readAllBytes(Paths.get(inputFile));
     }
 
     /**
@@ -176,6 +538,44 @@ public class AssetEngine {
      */
     @Override
     public String toString() {
-        return "AssetEngine{" + this.assets + "}";
+        return "AssetEngine{" + this.registry.assets + "}";
+    }
+
+    /**
+     * A version of the registered assets and the URLs they are hosted on, which is never modified once it is published
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Registry {
+        /** the assets loaded from files by their registered path */
+        private final Map<String, Asset> files;
+
+        /** the assets loaded from files and the bundles by their registered path */
+        private final Map<String, Asset> assets;
+
+        /** the assets by every URL they are hosted on, including their fingerprinted URLs */
+        private final Map<String, Asset> assetsByUrl;
+
+        /** the fingerprinted URL of each asset by the URL it is hosted on */
+        private final Map<String, String> fingerprints;
+
+        /** the fingerprinted URLs, whose contents never change */
+        private final Set<String> immutableUrls;
+
+        /**
+         * Constructs a version of the assets, taking ownership of the collections
+         * @param files the assets loaded from files by their registered path
+         * @param assets the assets loaded from files and the bundles by their registered path
+         * @param assetsByUrl the assets by every URL they are hosted on
+         * @param fingerprints the fingerprinted URL of each asset by the URL it is hosted on
+         * @param immutableUrls the fingerprinted URLs
+         */
+        Registry(Map<String, Asset> files, Map<String, Asset> assets, Map<String, Asset> assetsByUrl, Map<String, String> fingerprints, Set<String> immutableUrls) {
+            this.files = Collections.unmodifiableMap(files);
+            this.assets = Collections.unmodifiableMap(assets);
+            this.assetsByUrl = Collections.unmodifiableMap(assetsByUrl);
+            this.fingerprints = Collections.unmodifiableMap(fingerprints);
+            this.immutableUrls = Collections.unmodifiableSet(immutableUrls);
+        }
     }
 }
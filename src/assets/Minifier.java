@@ -0,0 +1,115 @@
+package assets;
+
+/**
+ * Conservative minification of stylesheets and scripts for asset bundles.
+ * Only changes which can never alter the meaning of the code are made, so the output is larger than a full minifier's.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+final class Minifier {
+    /** Characters which whitespace around them can be removed from in stylesheets */
+    private static final String CSS_PUNCTUATION = "{};,";
+
+    /**
+     * Private constructor of this static utility class
+     */
+    private Minifier() {
+    }
+
+    /**
+     * minifyCss
+     * removes comments from a stylesheet and collapses its whitespace, leaving strings as they are
+     * @param css the stylesheet
+     * @return the minified stylesheet
+     */
+    static String minifyCss(String css) {
+        StringBuilder minified = new StringBuilder(css.length());
+        int i = 0;
+
+        while (i < css.length()) {
+            char c = css.charAt(i);
+
+            if ((c == '"') || (c == '\'')) {
+                // Copy strings as they are
+                int end = endOfString(css, i);
+                minified.append(css, i, end);
+                i = end;
+            } else if ((c == '/') && (i + 1 < css.length()) && (css.charAt(i + 1) == '*')) {
+                // Skip comments
+                int end = css.indexOf("*/", i + 2);
+                i = (end == -1) ? css.length() : end + 2;
+            } else if (Character.isWhitespace(c)) {
+                while ((i < css.length()) && (Character.isWhitespace(css.charAt(i)))) {
+                    i++;
+                }
+
+                // A single space is only needed between two tokens which are not punctuation
+                if ((minified.length() > 0) && (i < css.length())) {
+                    char previous = minified.charAt(minified.length() - 1);
+                    char next = css.charAt(i);
+
+                    if ((CSS_PUNCTUATION.indexOf(previous) == -1) && (previous != ':') && (CSS_PUNCTUATION.indexOf(next) == -1)) {
+                        minified.append(' ');
+                    }
+                }
+            } else {
+                minified.append(c);
+                i++;
+            }
+        }
+
+        return minified.toString();
+    }
+
+    /**
+     * minifyJs
+     * removes indentation, trailing whitespace, and blank lines from a script.
+     * Line breaks are kept so automatic semicolon insertion is unaffected,
+     * and scripts with template literals are left as they are, since their lines may be part of a string.
+     * @param js the script
+     * @return the minified script
+     */
+    static String minifyJs(String js) {
+        if (js.indexOf('`') != -1) {
+            return js;
+        }
+
+        StringBuilder minified = new StringBuilder(js.length());
+
+        for (String line : js.split("\r?\n")) {
+            String trimmed = line.trim();
+
+            if (!trimmed.isEmpty()) {
+                minified.append(trimmed).append('\n');
+            }
+        }
+
+        return minified.toString();
+    }
+
+    /**
+     * endOfString
+     * finds the end of a quoted string
+     * @param text the text containing the string
+     * @param start the index of the opening quote
+     * @return the index after the closing quote, or the end of the line or text if the string is not closed
+     */
+    private static int endOfString(String text, int start) {
+        char quote = text.charAt(start);
+        int i = start + 1;
+
+        while (i < text.length()) {
+            char c = text.charAt(i);
+
+            if (c == '\\') {
+                i += 2;
+            } else if ((c == quote) || (c == '\n')) {
+                return i + 1;
+            } else {
+                i++;
+            }
+        }
+
+        return text.length();
+    }
+}
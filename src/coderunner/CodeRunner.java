@@ -1,45 +1,138 @@
 package coderunner;
 
-import coderunner.test.TestCode;
-import coderunner.test.TestResult;
+import coderunner.runner.ClassDataArchive;
+import coderunner.runner.RunnerPool;
 
 import java.io.IOException;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A class to run submitted java source code and evaluate the results.
- * This class runs all its submissions in a singular background thread,
- * which is queued to allow all submissions to be processed
+ * This class runs its submissions on a pool of background worker threads,
+ * each of which judges one submission at a time in its own working directory.
+ * Submissions are queued to allow all submissions to be processed in order of arrival.
  * @author Harry Xu
  * @version 1.0 - June 4th 2023
  */
 public class CodeRunner {
+    /** The directory containing the working directories of the workers */
+    public static final String JUDGE_DIRECTORY = "judge";
+
     /** The queue of submissions to be processed */
-    private final Deque<Submission> submissionQueue;
+    private final SubmissionQueue submissionQueue;
 
     /** A cache of previous submissions so each submission can be completed appropriately */
     private final Map<String, Submission> submissionHistories;
 
-    /** The current submission being processed */
-    private Submission currentSubmission;
+    /** The submissions currently being processed by a worker, keyed by submission id */
+    private final Map<String, Submission> runningSubmissions;
+
+    /** The number of workers processing submissions */
+    private final int workers;
+
+    /** The compilations of previously submitted source code */
+    private final CompileCache compileCache;
+
+    /** The number of tests of one submission run at the same time */
+    private final int testParallelism;
+
+    /** Runs the tests of a submission beyond the one its worker runs, or null if tests run one at a time */
+    private final ExecutorService testExecutor;
+
+    /** The warm JVMs tests are run on, or null if each test starts a java process */
+    private final RunnerPool runners;
 
-    /** An object used to block the submission processing thread if there are no entries to process */
-    private final Object syncObject;
+    /** The number of submissions judged between reports of the compile cache statistics, or 0 to never report them */
+    private final int cacheReportInterval;
+
+    /** The number of submissions judged so far by all workers */
+    private final AtomicLong judgedSubmissions;
 
     /**
-     * Constructs a CodeRunner and starts the processing thread.
+     * Constructs a CodeRunner and starts the processing threads.
+     * The number of workers is read from the {@code thoj.judge.workers} system property
+     * and defaults to half the available processors, as each test runs in its own process.
      */
     public CodeRunner() {
-        this.submissionQueue = new ArrayDeque<>();
-        this.submissionHistories = new HashMap<>();
-        this.syncObject = new Object();
+        this(Integer.getInteger("thoj.judge.workers", Math.max(1, Runtime.getRuntime().availableProcessors() / 2)));
+    }
 
-        // Start processing thread
-        Thread processingThread = new Thread(new CodeTest());
-        processingThread.start();
+    /**
+     * Constructs a CodeRunner and starts the processing threads.
+     * The number of tests of one submission run at the same time is read from the
+     * {@code thoj.judge.tests.parallel} system property and defaults to sharing the available processors between the workers.
+     * @param workers the number of submissions to judge concurrently
+     * @throws IllegalArgumentException if {@code workers} is not positive
+     */
+    public CodeRunner(int workers) {
+        this(workers, Integer.getInteger("thoj.judge.tests.parallel", Math.max(1, Runtime.getRuntime().availableProcessors() / workers)));
+    }
+
+    /**
+     * Constructs a CodeRunner and starts the processing threads.
+     * @param workers the number of submissions to judge concurrently
+     * @param testParallelism the number of tests of one submission to run at the same time
+     * @throws IllegalArgumentException if {@code workers} or {@code testParallelism} is not positive
+     */
+    public CodeRunner(int workers, int testParallelism) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("A code runner needs at least one worker");
+        }
+
+        if (testParallelism <= 0) {
+            throw new IllegalArgumentException("A code runner needs to run at least one test at a time");
+        }
+
+        this.submissionQueue = new SubmissionQueue();
+        this.submissionHistories = new ConcurrentHashMap<>();
+        this.runningSubmissions = new ConcurrentHashMap<>();
+        this.workers = workers;
+        this.testParallelism = testParallelism;
+
+        // Each worker runs one test itself and the rest of its tests on this executor
+        if (testParallelism > 1) {
+            AtomicInteger threads = new AtomicInteger();
+
+            this.testExecutor = Executors.newFixedThreadPool(workers * (testParallelism - 1), (runnable) -> {
+                Thread thread = new Thread(runnable, "judge-test-" + threads.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.testExecutor = null;
+        }
+
+        // Bounded by the thoj.judge.cache.megabytes system property
+        this.compileCache = new CompileCache(
+                JUDGE_DIRECTORY + "/cache",
+                Long.getLong("thoj.judge.cache.megabytes", 64) * 1024 * 1024
+        );
+
+        // Child JVMs start faster with the JDK classes they use archived (disable with -Dthoj.judge.cds=false)
+        if (Boolean.parseBoolean(System.getProperty("thoj.judge.cds", "true"))) {
+            ClassDataArchive.build(JUDGE_DIRECTORY + "/cds");
+        }
+
+        // One runner for every test that can run at the same time
+        this.runners = startRunners(workers * testParallelism);
+
+        // Set with -Dthoj.judge.cache.reportEvery=N, or 0 to disable
+        this.cacheReportInterval = Integer.getInteger("thoj.judge.cache.reportEvery", 100);
+        this.judgedSubmissions = new AtomicLong();
+
+        // Start processing threads
+        for (int i = 0; i < workers; i++) {
+            Thread processingThread = new Thread(new CodeTest(JUDGE_DIRECTORY + "/worker-" + i), "judge-worker-" + i);
+            processingThread.setDaemon(true);
+            processingThread.start();
+        }
     }
 
     /**
@@ -48,42 +141,50 @@ public class CodeRunner {
      * @param submission the submission to be processed
      */
     public void enqueue(Submission submission) {
-        // Push onto queue
-        this.submissionQueue.addLast(submission);
+        // Cache submission with id before queueing it
+        // so that it can always be found by the polling clients
+        this.submissionHistories.put(submission.getSubmissionId(), submission);
 
-        // Blocks until syncObject is available
-        synchronized (this.syncObject) {
-            this.syncObject.notify();
-        }
+        // Push onto queue
+        this.submissionQueue.offer(submission);
     }
 
     /**
      * indexInQueue
-     * finds the index of the submission with a certain id in the submission queue.
+     * finds the index of the submission with a certain id in the submission queue in constant time.
      * @param id the submission id
      * @return the index of the submission or -1 if not found.
      */
     public int indexInQueue(String id) {
-        int i = 0;
-
-        for (Submission submission : this.submissionQueue) {
-            if (submission.getSubmissionId().equals(id)) {
-                return i;
-            }
+        return this.submissionQueue.indexOf(id);
+    }
 
-            i++;
-        }
+    /**
+     * getQueueSize
+     * gets the number of submissions waiting for a worker.
+     * @return the number of queued submissions
+     */
+    public int getQueueSize() {
+        return this.submissionQueue.size();
+    }
 
-        return -1;
+    /**
+     * getSubmission
+     * gets a submission that has not yet been removed from the history, whether it is queued, processing, or finished.
+     * @param id the submission id
+     * @return the submission, or null if it is unknown
+     */
+    public Submission getSubmission(String id) {
+        return this.submissionHistories.get(id);
     }
 
     /**
-     * getCurrentSubmission
-     * gets the current submission being processed.
-     * @return the currently processing submission
+     * getRunningSubmissions
+     * gets the submissions currently being processed by the workers.
+     * @return an unmodifiable view of the running submissions
      */
-    public Submission getCurrentSubmission() {
-        return this.currentSubmission;
+    public Collection<Submission> getRunningSubmissions() {
+        return Collections.unmodifiableCollection(this.runningSubmissions.values());
     }
 
     /**
@@ -91,64 +192,150 @@ public class CodeRunner {
      * gets the history of submissions.
      * The history is maintained to ensure that all clients connections polling the submission route
      * are closed even if the submission is completed between polling intervals.
+     * Submissions are added when they are queued and removed by the polling clients.
      * @return the cached submissions
      */
     public Map<String, Submission> getSubmissionHistories() {
         return this.submissionHistories;
     }
 
+    /**
+     * getWorkers
+     * gets the number of workers processing submissions.
+     * @return the number of workers
+     */
+    public int getWorkers() {
+        return this.workers;
+    }
+
+    /**
+     * getTestParallelism
+     * gets the number of tests of one submission run at the same time.
+     * @return the number of tests run at the same time
+     */
+    public int getTestParallelism() {
+        return this.testParallelism;
+    }
+
+    /**
+     * startRunners
+     * starts the warm JVMs tests are run on, unless disabled with the {@code thoj.judge.runners} system property.
+     * Each runner is replaced after the number of runs in the {@code thoj.judge.runner.runs} system property.
+     * @param size the number of tests which can run at the same time
+     * @return the pool of runner JVMs, or null if each test starts a java process
+     */
+    private static RunnerPool startRunners(int size) {
+        if (!Boolean.parseBoolean(System.getProperty("thoj.judge.runners", "true"))) {
+            return null;
+        }
+
+        try {
+            return new RunnerPool(size, Integer.getInteger("thoj.judge.runner.runs", 100), JUDGE_DIRECTORY + "/runners");
+        } catch (IOException e) {
+            // Fall back to a process per test
+            System.out.println("[WARN] Cannot start runner JVMs: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * getCompileCache
+     * gets the cache of previous compilations, which reports its hit rate.
+     * @return the compile cache
+     */
+    public CompileCache getCompileCache() {
+        return this.compileCache;
+    }
+
     /**
      * A runnable thread which handles the submission processing and testing.
+     * Each instance owns a working directory that no other worker writes to.
      * @author Harry Xu
      * @version 1.0 - June 4th 2023
      */
     public class CodeTest implements Runnable {
+        /** The directory this worker writes, compiles, and runs submissions in */
+        private final String workingDirectory;
+
+        /**
+         * Constructs a CodeTest with its own working directory
+         * @param workingDirectory the directory this worker writes, compiles, and runs submissions in
+         */
+        public CodeTest(String workingDirectory) {
+            this.workingDirectory = workingDirectory;
+        }
 
         /**
          * run
-         * processes all submissions submitted to the queue.
+         * processes submissions submitted to the queue.
          */
         @Override
         public void run() {
             while (true) {
-                // Block thread until queue is not empty
-                if (submissionQueue.size() == 0) {
-                    synchronized (syncObject) {
-                        try {
-                            syncObject.wait();
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
-                            continue;
-                        }
-                    }
-                }
-
-                // Pop submission from queue
-                currentSubmission = submissionQueue.removeFirst();
+                Submission currentSubmission;
 
-                // Cache submission with id
-                submissionHistories.put(currentSubmission.getSubmissionId(), currentSubmission);
+                // Pop submission from queue, blocking until queue is not empty
+                try {
+                    currentSubmission = submissionQueue.take();
+                } catch (InterruptedException e) {
+                    // Stop processing
+                    return;
+                }
 
-                // Get submission task
-                Task currentTask = currentSubmission.getTask();
+                runningSubmissions.put(currentSubmission.getSubmissionId(), currentSubmission);
 
-                // Write to source file and compile the source code
                 try {
-                    currentTask.write();
-                    currentTask.compile();
-                } catch (IOException | InterruptedException e) {
-                    e.printStackTrace();
-                    continue;
+                    this.judge(currentSubmission);
+                } finally {
+                    runningSubmissions.remove(currentSubmission.getSubmissionId(), currentSubmission);
                 }
 
-                // Run all tests to completion
-                while (currentTask.hasNextTest()) {
-                    TestResult res = currentTask.nextTest();
+                this.reportCache();
+            }
+        }
+
+        /**
+         * reportCache
+         * prints the compile cache statistics every {@code thoj.judge.cache.reportEvery} submissions,
+         * so the hit rate can be followed while the server runs.
+         */
+        private void reportCache() {
+            long judged = judgedSubmissions.incrementAndGet();
+
+            if ((cacheReportInterval > 0) && (judged % cacheReportInterval == 0)) {
+                System.out.println("[INFO] Judged " + judged + " submissions, " + compileCache);
+            }
+        }
 
-                    if (res.getStatusCode() != TestCode.ACCEPTED) {
-                        break;
-                    }
+        /**
+         * judge
+         * writes, compiles, and tests a submission in this worker's working directory.
+         * @param submission the submission to judge
+         */
+        private void judge(Submission submission) {
+            // Get submission task
+            Task currentTask = submission.getTask();
+
+            try {
+                // Compile the source code into the working directory
+                currentTask.setWorkingDirectory(this.workingDirectory);
+                currentTask.setRunners(runners);
+                currentTask.compile(compileCache);
+
+                // Do not run tests if compilation failed
+                if (currentTask.getCompilationResult().getTaskCode() == TaskCode.COMPILE_ERROR) {
+                    return;
                 }
+
+                // Run tests until one fails or all pass
+                currentTask.runTests(testExecutor, testParallelism);
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                // Report the submission as an internal error, and keep this worker alive for the next one
+                e.printStackTrace();
+                currentTask.fail();
+            } finally {
+                // Tell the polling clients to stop
+                currentTask.complete();
             }
         }
     }
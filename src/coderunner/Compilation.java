@@ -0,0 +1,119 @@
+package coderunner;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of compiling a submission in memory,
+ * holding the compiled class files and everything the compiler reported
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class Compilation {
+    /** If the source compiled */
+    private final boolean successful;
+
+    /** The compiled class files keyed by binary class name */
+    private final Map<String, byte[]> classFiles;
+
+    /** The errors, warnings, and notes reported by the compiler */
+    private final List<CompilationDiagnostic> diagnostics;
+
+    /** If the outcome depends only on the source, and not on e.g. a timeout */
+    private final boolean cacheable;
+
+    /**
+     * Constructs a Compilation reported by the compiler
+     * @param successful if the source compiled
+     * @param classFiles the compiled class files keyed by binary class name
+     * @param diagnostics the errors, warnings, and notes reported by the compiler
+     */
+    Compilation(boolean successful, Map<String, byte[]> classFiles, List<CompilationDiagnostic> diagnostics) {
+        this(successful, classFiles, diagnostics, true);
+    }
+
+    /**
+     * Constructs a Compilation
+     * @param successful if the source compiled
+     * @param classFiles the compiled class files keyed by binary class name
+     * @param diagnostics the errors, warnings, and notes reported by the compiler
+     * @param cacheable if the outcome depends only on the source
+     */
+    private Compilation(boolean successful, Map<String, byte[]> classFiles, List<CompilationDiagnostic> diagnostics, boolean cacheable) {
+        this.successful = successful;
+        this.classFiles = Collections.unmodifiableMap(classFiles);
+        this.diagnostics = Collections.unmodifiableList(diagnostics);
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * failed
+     * creates a failed compilation with a single error that has no source position,
+     * used when the compiler did not finish, so the outcome is not cached
+     * @param sourceName the name of the source file
+     * @param message the error message
+     * @return the failed compilation
+     */
+    static Compilation failed(String sourceName, String message) {
+        return new Compilation(
+                false,
+                Map.of(),
+                List.of(new CompilationDiagnostic("error", sourceName, -1, -1, message, null)),
+                false
+        );
+    }
+
+    /**
+     * isSuccessful
+     * checks if the source compiled
+     * @return if the source compiled
+     */
+    boolean isSuccessful() {
+        return this.successful;
+    }
+
+    /**
+     * isCacheable
+     * checks if compiling the same source again would have the same outcome
+     * @return if the compilation can be cached
+     */
+    boolean isCacheable() {
+        return this.cacheable;
+    }
+
+    /**
+     * getClassFiles
+     * gets the compiled class files
+     * @return the class file bytes keyed by binary class name, empty if the source did not compile
+     */
+    Map<String, byte[]> getClassFiles() {
+        return this.classFiles;
+    }
+
+    /**
+     * getDiagnostics
+     * gets everything the compiler reported
+     * @return the diagnostics in the order they were reported
+     */
+    List<CompilationDiagnostic> getDiagnostics() {
+        return this.diagnostics;
+    }
+
+    /**
+     * getErrorText
+     * formats the error diagnostics the way the javac command line tool prints them
+     * @return the errors separated by new lines
+     */
+    String getErrorText() {
+        StringBuilder text = new StringBuilder();
+
+        for (CompilationDiagnostic diagnostic : this.diagnostics) {
+            if (diagnostic.isError()) {
+                text.append(diagnostic).append("\n");
+            }
+        }
+
+        return text.toString();
+    }
+}
@@ -0,0 +1,132 @@
+package coderunner;
+
+/**
+ * A single error, warning, or note reported by the compiler for a submission
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class CompilationDiagnostic {
+    /** The kind of diagnostic, e.g. error or warning */
+    private final String kind;
+
+    /** The name of the source file the diagnostic refers to */
+    private final String sourceName;
+
+    /** The line the diagnostic refers to, or -1 if it has no position */
+    private final long line;
+
+    /** The column the diagnostic refers to, or -1 if it has no position */
+    private final long column;
+
+    /** The message of the diagnostic */
+    private final String message;
+
+    /** The source code of the line the diagnostic refers to, or null if it has no position */
+    private final String sourceLine;
+
+    /**
+     * Constructs a CompilationDiagnostic
+     * @param kind the kind of diagnostic, e.g. error or warning
+     * @param sourceName the name of the source file the diagnostic refers to
+     * @param line the line the diagnostic refers to, or -1 if it has no position
+     * @param column the column the diagnostic refers to, or -1 if it has no position
+     * @param message the message of the diagnostic
+     * @param sourceLine the source code of the line the diagnostic refers to, or null if it has no position
+     */
+    public CompilationDiagnostic(String kind, String sourceName, long line, long column, String message, String sourceLine) {
+        this.kind = kind;
+        this.sourceName = sourceName;
+        this.line = line;
+        this.column = column;
+        this.message = message;
+        this.sourceLine = sourceLine;
+    }
+
+    /**
+     * getKind
+     * gets the kind of diagnostic
+     * @return the kind, e.g. error or warning
+     */
+    public String getKind() {
+        return this.kind;
+    }
+
+    /**
+     * getSourceName
+     * gets the name of the source file the diagnostic refers to
+     * @return the source file name
+     */
+    public String getSourceName() {
+        return this.sourceName;
+    }
+
+    /**
+     * getLine
+     * gets the line the diagnostic refers to
+     * @return the line number, starting at 1, or -1 if it has no position
+     */
+    public long getLine() {
+        return this.line;
+    }
+
+    /**
+     * getColumn
+     * gets the column the diagnostic refers to
+     * @return the column number, starting at 1, or -1 if it has no position
+     */
+    public long getColumn() {
+        return this.column;
+    }
+
+    /**
+     * getMessage
+     * gets the message of the diagnostic
+     * @return the message
+     */
+    public String getMessage() {
+        return this.message;
+    }
+
+    /**
+     * getSourceLine
+     * gets the source code of the line the diagnostic refers to
+     * @return the source line, or null if it has no position
+     */
+    public String getSourceLine() {
+        return this.sourceLine;
+    }
+
+    /**
+     * isError
+     * checks if the diagnostic stops the submission from compiling
+     * @return if the diagnostic is an error
+     */
+    public boolean isError() {
+        return this.kind.equals("error");
+    }
+
+    /**
+     * toString
+     * formats the diagnostic the way the javac command line tool prints it
+     * @return the formatted diagnostic
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+
+        // Position
+        if (this.line != -1) {
+            text.append(this.sourceName).append(":").append(this.line).append(": ");
+        }
+
+        text.append(this.kind).append(": ").append(this.message);
+
+        // Source line with a caret under the column
+        if ((this.sourceLine != null) && (this.column != -1)) {
+            text.append("\n").append(this.sourceLine);
+            text.append("\n").append(" ".repeat((int) this.column - 1)).append("^");
+        }
+
+        return text.toString();
+    }
+}
@@ -0,0 +1,478 @@
+package coderunner;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A size bounded, content addressed cache of compiled submissions stored on disk.
+ * Each {@link Compilation} is stored in its own file named by a hash of the source code and the compiler version,
+ * so a resubmission of byte-identical code skips the compiler entirely, even across restarts.
+ * Once the files exceed the size bound, the least recently used compilations are deleted.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class CompileCache {
+    /** Identifies the format of the cache files, and changes whenever the format does */
+    private static final int FORMAT = 1;
+
+    /** The extension of the cache files */
+    private static final String EXTENSION = ".compilation";
+
+    /** The directory the cache files are stored in */
+    private final Path directory;
+
+    /** The maximum total size of the cache files, in bytes */
+    private final long maxBytes;
+
+    /** The size of each cache file keyed by hash, in order from least to most recently used */
+    private final LinkedHashMap<String, Long> entries;
+
+    /** The total size of the cache files, in bytes */
+    private long totalBytes;
+
+    /** The number of lookups which found a compilation */
+    private long hits;
+
+    /** The number of lookups which did not find a compilation */
+    private long misses;
+
+    /** The number of compilations deleted to stay within the size bound */
+    private long evictions;
+
+    /**
+     * Constructs a compile cache, indexing any cache files already in the directory
+     * @param directory the directory to store the cache files in
+     * @param maxBytes the maximum total size of the cache files, in bytes
+     * @throws IllegalArgumentException if {@code maxBytes} is not positive
+     */
+    public CompileCache(String directory, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+
+        this.directory = Paths.get(directory);
+        this.maxBytes = maxBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        this.index();
+    }
+
+    /**
+     * key
+     * hashes a source file together with everything else which changes the compiled output
+     * @param className the name of the class the source declares
+     * @param source the source code
+     * @return the hexadecimal SHA-256 hash
+     */
+    static String key(String className, String source) {
+        MessageDigest digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every JDK is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        digest.update((FORMAT + "\u0000" + Runtime.version() + "\u0000" + className + "\u0000").getBytes(StandardCharsets.UTF_8));
+        digest.update(source.getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder hash = new StringBuilder();
+
+        for (byte b : digest.digest()) {
+            hash.append(String.format("%02x", b));
+        }
+
+        return hash.toString();
+    }
+
+    /**
+     * get
+     * reads a cached compilation.
+     * The file is read outside the lock, so workers looking up different compilations do not wait on each other.
+     * @param key the hash of the source, from {@link #key(String, String)}
+     * @return the compilation, or null if it is not cached or its file cannot be read
+     */
+    Compilation get(String key) {
+        synchronized (this) {
+            if (!this.entries.containsKey(key)) {
+                this.misses++;
+                return null;
+            }
+        }
+
+        Path file = this.fileOf(key);
+
+        try {
+            Compilation compilation = read(file, this.maxBytes);
+
+            // Persist the recency of use for the next start
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+
+            synchronized (this) {
+                this.hits++;
+            }
+
+            return compilation;
+        } catch (IOException | RuntimeException e) {
+            // Deleted, truncated, or corrupted - compile again
+            synchronized (this) {
+                this.remove(key);
+                this.misses++;
+            }
+
+            this.delete(List.of(key));
+            return null;
+        }
+    }
+
+    /**
+     * put
+     * stores a compilation, evicting the least recently used compilations if the cache is full.
+     * Compilations which did not finish are not stored.
+     * The file is written outside the lock, which is only held to update the index.
+     * @param key the hash of the source, from {@link #key(String, String)}
+     * @param compilation the compilation to store
+     */
+    void put(String key, Compilation compilation) {
+        if (!compilation.isCacheable()) {
+            return;
+        }
+
+        Path file = this.fileOf(key);
+        long size;
+
+        try {
+            Files.createDirectories(this.directory);
+
+            // Write to a temporary file first so a crash never leaves half a cache file
+            Path temporaryFile = Files.createTempFile(this.directory, key, ".tmp");
+
+            try {
+                write(temporaryFile, compilation);
+                size = Files.size(temporaryFile);
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile);
+            }
+        } catch (IOException e) {
+            // The cache is only an optimization
+            System.out.println("[WARN] Cannot cache compilation " + key + ": " + e.getMessage());
+            return;
+        }
+
+        List<String> evicted;
+
+        synchronized (this) {
+            Long previousSize = this.entries.put(key, size);
+
+            this.totalBytes += size - ((previousSize == null) ? 0 : previousSize);
+            evicted = this.evict();
+        }
+
+        this.delete(evicted);
+    }
+
+    /**
+     * getHitRate
+     * gets the fraction of lookups which found a compilation
+     * @return the hit rate between 0 and 1, or 0 if there have been no lookups
+     */
+    public synchronized double getHitRate() {
+        long lookups = this.hits + this.misses;
+
+        if (lookups == 0) {
+            return 0;
+        }
+
+        return (double) this.hits / lookups;
+    }
+
+    /**
+     * size
+     * gets the number of cached compilations
+     * @return the number of cached compilations
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * toString
+     * describes the size and effectiveness of the cache
+     * @return the number of entries, their total size, and the hit statistics
+     */
+    @Override
+    public synchronized String toString() {
+        return "CompileCache{" +
+                "entries=" + this.entries.size() +
+                ", kilobytes=" + (this.totalBytes / 1024) +
+                ", hits=" + this.hits +
+                ", misses=" + this.misses +
+                ", hitRate=" + String.format("%.2f", this.getHitRate()) +
+                ", evictions=" + this.evictions +
+                "}";
+    }
+
+    /**
+     * index
+     * indexes the cache files left by a previous run, from least to most recently used
+     */
+    private void index() {
+        File[] files = this.directory.toFile().listFiles((dir, name) -> name.endsWith(EXTENSION));
+
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+
+        for (File file : files) {
+            String name = file.getName();
+
+            this.entries.put(name.substring(0, name.length() - EXTENSION.length()), file.length());
+            this.totalBytes += file.length();
+        }
+
+        this.delete(this.evict());
+    }
+
+    /**
+     * evict
+     * removes the least recently used compilations from the index until the cache is within its size bound.
+     * The caller must hold the lock, and delete the files once it has released it.
+     * @return the hashes of the evicted compilations
+     */
+    private List<String> evict() {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> iterator = this.entries.entrySet().iterator();
+
+        while ((this.totalBytes > this.maxBytes) && (iterator.hasNext())) {
+            Map.Entry<String, Long> eldest = iterator.next();
+
+            iterator.remove();
+            this.totalBytes -= eldest.getValue();
+            this.evictions++;
+
+            evicted.add(eldest.getKey());
+        }
+
+        return evicted;
+    }
+
+    /**
+     * remove
+     * removes an unreadable compilation from the index.
+     * The caller must hold the lock, and delete the file once it has released it.
+     * @param key the hash of the source
+     */
+    private void remove(String key) {
+        Long size = this.entries.remove(key);
+
+        if (size != null) {
+            this.totalBytes -= size;
+        }
+    }
+
+    /**
+     * delete
+     * deletes the cache files of compilations which have been removed from the index
+     * @param keys the hashes of the removed compilations
+     */
+    private void delete(List<String> keys) {
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(this.fileOf(key));
+            } catch (IOException e) {
+                System.out.println("[WARN] Cannot delete cached compilation " + key + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * fileOf
+     * gets the path of the cache file of a compilation
+     * @param key the hash of the source
+     * @return the path of the cache file
+     */
+    private Path fileOf(String key) {
+        return this.directory.resolve(key + EXTENSION);
+    }
+
+    /**
+     * write
+     * serializes a compilation to a file
+     * @param file the file to write
+     * @param compilation the compilation to serialize
+     * @throws IOException if an IO error occurs while writing
+     */
+    private static void write(Path file, Compilation compilation) throws IOException {
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            output.writeInt(FORMAT);
+            output.writeBoolean(compilation.isSuccessful());
+
+            // Diagnostics
+            output.writeInt(compilation.getDiagnostics().size());
+
+            for (CompilationDiagnostic diagnostic : compilation.getDiagnostics()) {
+                output.writeUTF(diagnostic.getKind());
+                output.writeUTF(diagnostic.getSourceName());
+                output.writeLong(diagnostic.getLine());
+                output.writeLong(diagnostic.getColumn());
+                writeString(output, diagnostic.getMessage());
+                writeString(output, diagnostic.getSourceLine());
+            }
+
+            // Class files
+            output.writeInt(compilation.getClassFiles().size());
+
+            for (Map.Entry<String, byte[]> classFile : compilation.getClassFiles().entrySet()) {
+                output.writeUTF(classFile.getKey());
+                output.writeInt(classFile.getValue().length);
+                output.write(classFile.getValue());
+            }
+        }
+    }
+
+    /**
+     * read
+     * deserializes a compilation from a file.
+     * Every count and length is checked against the bytes left in the file before anything is allocated,
+     * so a truncated or corrupted file is rejected instead of exhausting memory.
+     * @param file the file to read
+     * @param maxBytes the largest file which can be a cache file
+     * @return the compilation
+     * @throws IOException if an IO error occurs while reading or the file is not a valid cache file
+     */
+    private static Compilation read(Path file, long maxBytes) throws IOException {
+        long size = Files.size(file);
+
+        if (size > maxBytes) {
+            throw new IOException("cache file is larger than the cache");
+        }
+
+        // Read whole, so the bytes left are always known
+        byte[] contents = Files.readAllBytes(file);
+
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(contents))) {
+            if (input.readInt() != FORMAT) {
+                throw new IOException("unknown cache file format");
+            }
+
+            boolean successful = input.readBoolean();
+
+            // Diagnostics
+            int diagnosticCount = readLength(input);
+            List<CompilationDiagnostic> diagnostics = new ArrayList<>(diagnosticCount);
+
+            for (int i = 0; i < diagnosticCount; i++) {
+                diagnostics.add(new CompilationDiagnostic(
+                        input.readUTF(),
+                        input.readUTF(),
+                        input.readLong(),
+                        input.readLong(),
+                        readString(input),
+                        readString(input)
+                ));
+            }
+
+            // Class files
+            int classCount = readLength(input);
+            Map<String, byte[]> classFiles = new HashMap<>();
+
+            for (int i = 0; i < classCount; i++) {
+                String name = input.readUTF();
+                byte[] bytes = new byte[readLength(input)];
+
+                input.readFully(bytes);
+                classFiles.put(name, bytes);
+            }
+
+            if (input.available() != 0) {
+                throw new IOException("cache file has trailing bytes");
+            }
+
+            return new Compilation(successful, classFiles, diagnostics);
+        }
+    }
+
+    /**
+     * readLength
+     * reads a count or length, which can never be more than the number of bytes left to read
+     * @param input the stream to read from
+     * @return the count or length
+     * @throws IOException if an IO error occurs while reading or the value is negative or too large
+     */
+    private static int readLength(DataInputStream input) throws IOException {
+        int length = input.readInt();
+
+        if ((length < 0) || (length > input.available())) {
+            throw new IOException("cache file is truncated or corrupted");
+        }
+
+        return length;
+    }
+
+    /**
+     * writeString
+     * writes a nullable string of any length
+     * @param output the stream to write to
+     * @param value the string, or null
+     * @throws IOException if an IO error occurs while writing
+     */
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    /**
+     * readString
+     * reads a string written by {@link #writeString(DataOutputStream, String)}
+     * @param input the stream to read from
+     * @return the string, or null
+     * @throws IOException if an IO error occurs while reading
+     */
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+
+        if (length == -1) {
+            return null;
+        }
+
+        if ((length < 0) || (length > input.available())) {
+            throw new IOException("cache file is truncated or corrupted");
+        }
+
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,216 @@
+package coderunner;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Compiles submitted source code inside the server's JVM with the system Java compiler.
+ * The source is read from memory and the class files are written to memory, so no {@code javac}
+ * process is started and nothing touches the disk. The number of concurrent compilations is bounded
+ * by the {@code thoj.judge.compilers} system property, and each compilation is given a time limit.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class SourceCompiler {
+    /** The time a submission is given to compile, in milliseconds */
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    /** The system Java compiler, or null when running on a JRE */
+    private static final JavaCompiler COMPILER = ToolProvider.getSystemJavaCompiler();
+
+    /** Bounds the number of compilations running at once */
+    private static final Semaphore PERMITS = new Semaphore(
+            Integer.getInteger("thoj.judge.compilers", Math.max(1, Runtime.getRuntime().availableProcessors() / 2))
+    );
+
+    /** The threads compilations run on, so that the judge can stop waiting for one */
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool((runnable) -> {
+        Thread thread = new Thread(runnable, "judge-compiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * isAvailable
+     * checks if submissions can be compiled in memory
+     * @return if the system Java compiler is available
+     */
+    static boolean isAvailable() {
+        return COMPILER != null;
+    }
+
+    /**
+     * compile
+     * compiles the source of a submission in memory, waiting for a permit if too many compilations are running.
+     * A compilation which runs past the time limit is reported as failed; it keeps its permit until it ends
+     * so that runaway compilations still count towards the bound.
+     * @param className the name of the class the source declares, which names the source file
+     * @param source the source code
+     * @return the compiled class files and diagnostics
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @throws IllegalStateException if no compiler is available
+     */
+    static Compilation compile(String className, String source) throws InterruptedException {
+        if (COMPILER == null) {
+            throw new IllegalStateException("no Java compiler is available");
+        }
+
+        String sourceName = className + ".java";
+
+        // Wait for a permit, which is released by the compilation itself
+        PERMITS.acquire();
+
+        Future<Compilation> future;
+
+        try {
+            future = EXECUTOR.submit(() -> {
+                try {
+                    return compileInMemory(sourceName, source);
+                } finally {
+                    PERMITS.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            PERMITS.release();
+            throw e;
+        }
+
+        try {
+            return future.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return Compilation.failed(sourceName, "compilation timed out after " + TIMEOUT_MILLIS + " ms");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            // The compiler crashed on the submission
+            return Compilation.failed(sourceName, "compiler error: " + e.getCause());
+        }
+    }
+
+    /**
+     * compileInMemory
+     * runs the compiler on a single source file held in memory
+     * @param sourceName the name of the source file
+     * @param source the source code
+     * @return the compiled class files and diagnostics
+     * @throws IOException if the class path of the compiler cannot be set
+     */
+    private static Compilation compileInMemory(String sourceName, String source) throws IOException {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, ByteArrayOutputStream> classFiles = new HashMap<>();
+
+        StandardJavaFileManager standardFileManager = COMPILER.getStandardFileManager(diagnostics, Locale.ROOT, null);
+
+        // Submissions may only use the JDK, never the server's own classes
+        standardFileManager.setLocation(StandardLocation.CLASS_PATH, List.of());
+
+        // Keep the compiled classes in memory instead of writing them to disk
+        JavaFileManager fileManager = new ForwardingJavaFileManager<>(standardFileManager) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String name, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + name.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+                        classFiles.put(name, classFile);
+                        return classFile;
+                    }
+                };
+            }
+        };
+
+        JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("mem:///" + sourceName), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+
+        boolean compiled;
+
+        try {
+            compiled = COMPILER.getTask(null, fileManager, diagnostics, List.of("-proc:none", "-Xlint:none"), null, List.of(sourceFile)).call();
+        } finally {
+            fileManager.close();
+        }
+
+        // Convert to structured diagnostics
+        String[] sourceLines = source.split("\r\n|\r|\n", -1);
+        List<CompilationDiagnostic> results = new ArrayList<>();
+
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            long line = diagnostic.getLineNumber();
+            String sourceLine = null;
+
+            if ((line >= 1) && (line <= sourceLines.length)) {
+                sourceLine = sourceLines[(int) line - 1];
+            }
+
+            results.add(new CompilationDiagnostic(
+                    kindName(diagnostic.getKind()),
+                    sourceName,
+                    (line == Diagnostic.NOPOS) ? -1 : line,
+                    (diagnostic.getColumnNumber() == Diagnostic.NOPOS) ? -1 : diagnostic.getColumnNumber(),
+                    diagnostic.getMessage(Locale.ROOT),
+                    sourceLine
+            ));
+        }
+
+        // Collect the class files of the class and any classes nested in it
+        Map<String, byte[]> classes = new HashMap<>();
+
+        if (compiled) {
+            for (Map.Entry<String, ByteArrayOutputStream> classFile : classFiles.entrySet()) {
+                classes.put(classFile.getKey(), classFile.getValue().toByteArray());
+            }
+        }
+
+        return new Compilation(compiled, classes, results);
+    }
+
+    /**
+     * kindName
+     * names a diagnostic kind the way javac prints it
+     * @param kind the kind of diagnostic
+     * @return the name of the kind
+     */
+    private static String kindName(Diagnostic.Kind kind) {
+        switch (kind) {
+            case ERROR:
+                return "error";
+            case WARNING:
+            case MANDATORY_WARNING:
+                return "warning";
+            default:
+                return "note";
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package coderunner;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A first in, first out queue of submissions which is safe to use from many producer and consumer threads.
+ * Every submission is given a sequence number when it is queued, so the position of a submission
+ * is the difference between its sequence number and the sequence number at the head of the queue.
+ * This allows positions to be looked up in constant time without scanning or locking the queue.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class SubmissionQueue {
+    /** The queued submissions keyed by sequence number */
+    private final Map<Long, Submission> slots;
+
+    /** The sequence number of each queued submission keyed by submission id */
+    private final Map<String, Long> sequences;
+
+    /** The sequence number that will be given to the next queued submission */
+    private final AtomicLong tail;
+
+    /** The sequence number of the next submission to be taken */
+    private final AtomicLong head;
+
+    /** The number of submissions that are queued and can be taken */
+    private final Semaphore available;
+
+    /**
+     * Constructs an empty SubmissionQueue
+     */
+    public SubmissionQueue() {
+        this.slots = new ConcurrentHashMap<>();
+        this.sequences = new ConcurrentHashMap<>();
+        this.tail = new AtomicLong();
+        this.head = new AtomicLong();
+        this.available = new Semaphore(0);
+    }
+
+    /**
+     * offer
+     * adds a submission to the end of the queue.
+     * @param submission the submission to queue
+     */
+    public void offer(Submission submission) {
+        // Claim a sequence number
+        long sequence = this.tail.getAndIncrement();
+
+        // Record the position before the submission can be taken
+        this.sequences.put(submission.getSubmissionId(), sequence);
+        this.slots.put(sequence, submission);
+
+        // Wake a waiting consumer
+        this.available.release();
+    }
+
+    /**
+     * take
+     * removes the submission at the head of the queue, waiting until one is available.
+     * @return the submission that was queued first
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public Submission take() throws InterruptedException {
+        // Blocks until a submission has been queued
+        this.available.acquire();
+
+        while (true) {
+            long sequence = this.head.get();
+            Submission submission = this.slots.get(sequence);
+
+            // The producer holding this sequence number has not stored its submission yet
+            if (submission == null) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            // Claim the head, or retry if another consumer took it first
+            if (this.head.compareAndSet(sequence, sequence + 1)) {
+                this.slots.remove(sequence);
+                this.sequences.remove(submission.getSubmissionId(), sequence);
+
+                return submission;
+            }
+        }
+    }
+
+    /**
+     * indexOf
+     * finds the position of the submission with a certain id in the queue.
+     * @param id the submission id
+     * @return the number of submissions ahead of it, or -1 if it is not queued
+     */
+    public int indexOf(String id) {
+        Long sequence = this.sequences.get(id);
+
+        if (sequence == null) {
+            return -1;
+        }
+
+        long position = sequence - this.head.get();
+
+        // Already taken, but not yet removed from the sequence numbers
+        if (position < 0) {
+            return -1;
+        }
+
+        return (int) position;
+    }
+
+    /**
+     * size
+     * gets the number of queued submissions.
+     * @return the number of submissions waiting to be taken
+     */
+    public int size() {
+        return (int) Math.max(0, this.tail.get() - this.head.get());
+    }
+}
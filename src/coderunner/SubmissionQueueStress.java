@@ -0,0 +1,167 @@
+package coderunner;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A stress test of {@link SubmissionQueue}, run from the command line with
+ * {@code java coderunner.SubmissionQueueStress [producers] [submissionsPerProducer] [consumers]}.
+ * Many producers queue submissions and look up their positions while a few consumers take them,
+ * then every submission must have been taken exactly once and positions must be exact once the queue is quiet.
+ * Exits with status 1 if any check fails.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class SubmissionQueueStress {
+    /** The default number of threads queueing submissions */
+    private static final int PRODUCERS = 300;
+
+    /** The default number of submissions each producer queues */
+    private static final int SUBMISSIONS_PER_PRODUCER = 200;
+
+    /** The default number of threads taking submissions, as many as there are judge workers on a large machine */
+    private static final int CONSUMERS = 8;
+
+    /** The number of submissions queued for the position check */
+    private static final int POSITION_CHECK_SIZE = 1000;
+
+    /**
+     * main
+     * runs the stress test and the position check, printing the results
+     * @param args the number of producers, submissions per producer, and consumers, each optional
+     * @throws InterruptedException if the main thread is interrupted while waiting
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int producers = (args.length > 0) ? Integer.parseInt(args[0]) : PRODUCERS;
+        int submissionsPerProducer = (args.length > 1) ? Integer.parseInt(args[1]) : SUBMISSIONS_PER_PRODUCER;
+        int consumers = (args.length > 2) ? Integer.parseInt(args[2]) : CONSUMERS;
+
+        boolean passed = stress(producers, submissionsPerProducer, consumers);
+        passed &= checkPositions();
+
+        System.out.println(passed ? "[PASS] SubmissionQueue" : "[FAIL] SubmissionQueue");
+
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * stress
+     * queues submissions from many producers while consumers take them
+     * @param producers the number of threads queueing submissions
+     * @param submissionsPerProducer the number of submissions each producer queues
+     * @param consumers the number of threads taking submissions
+     * @return if every submission was taken exactly once and no position was out of range
+     * @throws InterruptedException if the main thread is interrupted while waiting
+     */
+    private static boolean stress(int producers, int submissionsPerProducer, int consumers) throws InterruptedException {
+        SubmissionQueue queue = new SubmissionQueue();
+        int total = producers * submissionsPerProducer;
+
+        Set<String> taken = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger badPositions = new AtomicInteger();
+        CountDownLatch remaining = new CountDownLatch(total);
+
+        // Take submissions until the test ends
+        for (int i = 0; i < consumers; i++) {
+            Thread consumer = new Thread(() -> {
+                try {
+                    while (true) {
+                        Submission submission = queue.take();
+
+                        if (!taken.add(submission.getSubmissionId())) {
+                            duplicates.incrementAndGet();
+                        }
+
+                        // A taken submission is no longer in the queue
+                        if (queue.indexOf(submission.getSubmissionId()) != -1) {
+                            badPositions.incrementAndGet();
+                        }
+
+                        remaining.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    // Stop consuming
+                }
+            }, "stress-consumer-" + i);
+
+            consumer.setDaemon(true);
+            consumer.start();
+        }
+
+        ExecutorService producerPool = Executors.newFixedThreadPool(producers);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < producers; i++) {
+            int producer = i;
+
+            producerPool.submit(() -> {
+                for (int j = 0; j < submissionsPerProducer; j++) {
+                    String id = producer + "-" + j;
+
+                    queue.offer(new Submission(null, id, 0));
+
+                    // Either already taken or somewhere in the queue
+                    int position = queue.indexOf(id);
+
+                    if ((position < -1) || (position >= total)) {
+                        badPositions.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        producerPool.shutdown();
+
+        boolean finished = remaining.await(60, TimeUnit.SECONDS);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("[INFO] " + producers + " producers, " + consumers + " consumers: took " + taken.size() + " of " + total
+                + " submissions in " + elapsedMillis + "ms, " + duplicates.get() + " duplicates, " + badPositions.get() + " bad positions, "
+                + queue.size() + " left");
+
+        return (finished) && (taken.size() == total) && (duplicates.get() == 0) && (badPositions.get() == 0) && (queue.size() == 0);
+    }
+
+    /**
+     * checkPositions
+     * checks that positions are exact once some submissions have been taken from a quiet queue
+     * @return if every position was exact
+     * @throws InterruptedException if the main thread is interrupted while taking a submission
+     */
+    private static boolean checkPositions() throws InterruptedException {
+        SubmissionQueue queue = new SubmissionQueue();
+        int takenCount = 10;
+
+        for (int i = 0; i < POSITION_CHECK_SIZE; i++) {
+            queue.offer(new Submission(null, "position-" + i, 0));
+        }
+
+        for (int i = 0; i < takenCount; i++) {
+            // Submissions come out in the order they were queued
+            if (!queue.take().getSubmissionId().equals("position-" + i)) {
+                System.out.println("[INFO] Submissions were taken out of order");
+                return false;
+            }
+        }
+
+        for (int i = 0; i < POSITION_CHECK_SIZE; i++) {
+            int expected = (i < takenCount) ? -1 : i - takenCount;
+            int position = queue.indexOf("position-" + i);
+
+            if (position != expected) {
+                System.out.println("[INFO] position-" + i + " is at " + position + " instead of " + expected);
+                return false;
+            }
+        }
+
+        return queue.size() == POSITION_CHECK_SIZE - takenCount;
+    }
+}
@@ -1,5 +1,8 @@
 package coderunner;
 
+import coderunner.runner.Cancellation;
+import coderunner.runner.ClassDataArchive;
+import coderunner.runner.RunnerPool;
 import coderunner.test.Test;
 import coderunner.test.TestCode;
 import coderunner.test.TestResult;
@@ -8,13 +11,22 @@ import filter.Filter;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileReader;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Represents a series of tests for a problem submission
@@ -27,20 +39,47 @@ public class Task {
     private final String sourceCode;
 
     /** The path to the source file */
-    private final String sourceFile;
+    private String sourceFile;
+
+    /** The paths to the input files of the tests */
+    private final List<String> inputFiles;
+
+    /** The paths to the files each test's output is redirected to */
+    private final List<String> outputFiles;
+
+    /** The paths to the answer files of the tests */
+    private final List<String> answerFiles;
+
+    /** The directory the source is compiled into and the tests are run from */
+    private String workingDirectory;
 
     /** The list of tests to run on the source code */
-    private final List<Test> tests;
+    private List<Test> tests;
 
-    /** The results of the tests */
-    private final TestResult[] testResults;
+    /** The results of the tests, by test index, written by the threads running the tests */
+    private final AtomicReferenceArray<TestResult> testResults;
 
     /** Compilation Result */
-    private TaskResult compilationResult;
+    private volatile TaskResult compilationResult;
+
+    /** The errors, warnings, and notes reported when compiling in memory */
+    private volatile List<CompilationDiagnostic> diagnostics;
+
+    /** The compiled class files keyed by binary class name, kept in memory after compiling */
+    private Map<String, byte[]> classFiles;
+
+    /** The pool of warm JVMs to run the tests on, or null to start a process for each test */
+    private RunnerPool runners;
 
     /** The current test being run */
     private int testIndex;
 
+    /** If judging is done, and no more results will be added */
+    private volatile boolean completed;
+
+    /** If judging was stopped by an error in the judge rather than by a result */
+    private volatile boolean failed;
+
     /**
      * Constructs a Task
      * @param sourceCode the source code to be tested by this Task
@@ -58,23 +97,94 @@ public class Task {
 
         this.sourceCode = sourceCode;
         this.sourceFile = sourceFile;
-        this.tests = new ArrayList<>();
+        this.inputFiles = inputFiles;
+        this.outputFiles = new ArrayList<>(outputFiles);
+        this.answerFiles = answerFiles;
+
+        // The source file's directory is used until a worker assigns one
+        this.workingDirectory = new File(sourceFile).getParent();
+
+        if (this.workingDirectory == null) {
+            this.workingDirectory = ".";
+        }
+
+        this.tests = this.createTests();
+
+        this.diagnostics = List.of();
+        this.classFiles = Map.of();
+        this.testIndex = 0;
+        this.testResults = new AtomicReferenceArray<>(this.tests.size());
+    }
+
+    /**
+     * setWorkingDirectory
+     * Moves this task into an isolated working directory. The source file, class file,
+     * error file, and output files are all relocated into the directory so that submissions
+     * to the same problem can be judged concurrently without overwriting each other's files.
+     * Input and answer files are left in place as they are only ever read.
+     * @param workingDirectory the directory to write, compile, and run the submission in
+     * @throws IOException if an IO error occurs while creating the directory
+     */
+    public void setWorkingDirectory(String workingDirectory) throws IOException {
+        // Create directory for source, class, and output files
+        Files.createDirectories(Paths.get(workingDirectory, "output"));
+
+        this.workingDirectory = workingDirectory;
+
+        // Relocate source file
+        this.sourceFile = workingDirectory + "/" + new File(this.sourceFile).getName();
+
+        // Relocate output files
+        for (int i = 0; i < this.outputFiles.size(); i++) {
+            String fileName = new File(this.outputFiles.get(i)).getName();
+
+            this.outputFiles.set(i, workingDirectory + "/output/" + fileName);
+        }
+
+        this.tests = this.createTests();
+    }
+
+    /**
+     * createTests
+     * Creates the tests of this task from the current working directory and file paths
+     * @return the list of tests, one for each input file
+     */
+    private List<Test> createTests() {
+        List<Test> tests = new ArrayList<>();
 
         // Derive path for class file
-        String compiledFilePath = this.sourceFile.substring(this.sourceFile.lastIndexOf("/") + 1, this.sourceFile.lastIndexOf("."));
+        String compiledFilePath = this.getClassName();
 
         // Add tests
-        for (int i = 0; i < inputFiles.size(); i++) {
-            this.tests.add(new Test(
+        for (int i = 0; i < this.inputFiles.size(); i++) {
+            tests.add(new Test(
+                    this.workingDirectory,
                     compiledFilePath,
-                    inputFiles.get(i),
-                    outputFiles.get(i),
-                    answerFiles.get(i)
+                    this.inputFiles.get(i),
+                    this.outputFiles.get(i),
+                    this.answerFiles.get(i)
             ));
         }
 
-        this.testIndex = 0;
-        this.testResults = new TestResult[this.tests.size()];
+        return tests;
+    }
+
+    /**
+     * setRunners
+     * Runs the tests of this task on a pool of warm JVMs instead of starting a java process for each test
+     * @param runners the pool of runner JVMs, or null to start a process for each test
+     */
+    public void setRunners(RunnerPool runners) {
+        this.runners = runners;
+    }
+
+    /**
+     * getClassName
+     * Derives the name of the submitted class from the name of the source file
+     * @return the class name
+     */
+    private String getClassName() {
+        return this.sourceFile.substring(this.sourceFile.lastIndexOf("/") + 1, this.sourceFile.lastIndexOf("."));
     }
 
     /**
@@ -95,26 +205,36 @@ public class Task {
 
     /**
      * compile
-     * Reads and compiles the source code to a class file at the root of the project directory
+     * Filters and compiles the source code to class files in the task's working directory.
+     * The source is compiled in memory when the server runs on a JDK, otherwise it is written to disk
+     * and compiled by a {@code javac} process.
      * @return a {@link TaskResult} containing a {@link TestCode} and optional data
-     * @throws IOException if an IO error occurs while reading to the file
+     * @throws IOException if an IO error occurs while writing the class files
      * @throws InterruptedException if the current thread is interrupted while waiting.
      */
     public TaskResult compile() throws IOException, InterruptedException {
-        // Filter code for illegal imports
-        StringBuilder sourceCode = new StringBuilder();
+        return this.compile(null);
+    }
 
-        try (BufferedReader file = new BufferedReader(new FileReader(this.sourceFile))) {
-            int currentChar = file.read();
+    /**
+     * compile
+     * Filters and compiles the source code to class files in the task's working directory,
+     * reusing the compilation of byte-identical source code from a cache.
+     * @param cache the cache of previous compilations, or null to always compile
+     * @return a {@link TaskResult} containing a {@link TestCode} and optional data
+     * @throws IOException if an IO error occurs while writing the class files
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public TaskResult compile(CompileCache cache) throws IOException, InterruptedException {
+        String sourceCode = this.sourceCode;
 
-            while (currentChar != -1) {
-                sourceCode.append((char) currentChar);
-                currentChar = file.read();
-            }
+        // Compile custom source code if the user submits empty code
+        if (sourceCode.trim().length() == 0) {
+            sourceCode = "What are you doing?";
         }
 
         // Filter for malicious imports
-        String errorMessage = Filter.filter(sourceCode.toString());
+        String errorMessage = Filter.filter(sourceCode);
 
         // Return error message
         if (errorMessage != null) {
@@ -122,10 +242,85 @@ public class Task {
             return this.compilationResult;
         }
 
+        // No compiler in this JVM
+        if (!SourceCompiler.isAvailable()) {
+            return this.compileExternally();
+        }
+
+        String className = this.getClassName();
+        String cacheKey = null;
+        Compilation compilation = null;
+
+        // Reuse the compilation of identical source code
+        if (cache != null) {
+            cacheKey = CompileCache.key(className, sourceCode);
+            compilation = cache.get(cacheKey);
+        }
+
+        if (compilation == null) {
+            compilation = SourceCompiler.compile(className, sourceCode);
+
+            if (cache != null) {
+                cache.put(cacheKey, compilation);
+            }
+        }
+
+        this.diagnostics = compilation.getDiagnostics();
+
+        if (!compilation.isSuccessful()) {
+            this.compilationResult = new TaskResult(TaskCode.COMPILE_ERROR, compilation.getErrorText());
+            return this.compilationResult;
+        }
+
+        this.classFiles = compilation.getClassFiles();
+
+        // Write class files to the working directory for the test processes
+        for (Map.Entry<String, byte[]> classFile : this.classFiles.entrySet()) {
+            Path classPath = Paths.get(this.workingDirectory, classFile.getKey().replace('.', '/') + ".class");
+
+            Files.createDirectories(classPath.getParent());
+            Files.write(classPath, classFile.getValue());
+        }
+
+        this.compilationResult = new TaskResult(TaskCode.SUCCESSFUL, "");
+        return this.compilationResult;
+    }
+
+    /**
+     * compileExternally
+     * Writes the source code to disk and compiles it with a {@code javac} process
+     * @return a {@link TaskResult} containing a {@link TestCode} and optional data
+     * @throws IOException if an IO error occurs while reading to the file
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    private TaskResult compileExternally() throws IOException, InterruptedException {
+        this.write();
+
         // Get working directory
-        String workingDirectory = System.getProperty("user.dir");
+        String workingDirectory = System.getProperty("user.dir") + File.separator;
 
-        Process compilation = Runtime.getRuntime().exec("javac " + (workingDirectory + "\\") + this.sourceFile + " -d " + (workingDirectory + "\\"));
+        // Compile into this task's working directory
+        List<String> command = new ArrayList<>();
+
+        String javac = ClassDataArchive.javac();
+
+        if (javac != null) {
+            command.add(javac);
+
+            // Start the compiler's JVM with the class data sharing archive, which only the running JDK can map
+            for (String option : ClassDataArchive.jvmOptions()) {
+                command.add("-J" + option);
+            }
+        } else {
+            // The running Java has no compiler, so use whichever is installed, without the archive
+            command.add("javac");
+        }
+
+        command.add(workingDirectory + this.sourceFile);
+        command.add("-d");
+        command.add(workingDirectory + this.workingDirectory);
+
+        Process compilation = new ProcessBuilder(command).start();
 
         // wait until compilation done or timeout
         compilation.waitFor(5000, TimeUnit.MILLISECONDS);
@@ -151,6 +346,9 @@ public class Task {
 
             String errorText = fullErrorText.toString();
 
+            // Removes file path except for file name
+            errorText = errorText.replace(workingDirectory + this.sourceFile, this.getClassName() + ".java");
+
             // Error occurred
             if (errorText.length() != 0) {
                 this.compilationResult = new TaskResult(TaskCode.COMPILE_ERROR, errorText);
@@ -178,25 +376,121 @@ public class Task {
      * @return the result of the test
      */
     public TestResult nextTest() {
-        // Gets the current test
-        Test currentTest = this.tests.get(this.testIndex);
+        TestResult res = this.runTest(this.testIndex, new Cancellation());
 
-        TestResult res;
+        // Caches the test result
+        this.testResults.set(this.testIndex, res);
+
+        this.testIndex++;
+
+        return res;
+    }
+
+    /**
+     * runTests
+     * Runs the tests on the compiled code, up to {@code parallelism} at a time.
+     * Tests are started in order, and as soon as one fails the tests still running are killed
+     * and the rest are skipped, leaving their results pending.
+     * @param executor the executor which runs all but one of the tests running at a time,
+     *                 with at least {@code parallelism - 1} threads for this task, or null if {@code parallelism} is 1
+     * @param parallelism the maximum number of tests to run at a time
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public void runTests(ExecutorService executor, int parallelism) throws InterruptedException {
+        Cancellation cancellation = new Cancellation();
+        AtomicInteger nextIndex = new AtomicInteger(this.testIndex);
+
+        // Start the other lanes
+        List<Future<?>> lanes = new ArrayList<>();
+
+        for (int i = 1; i < Math.min(parallelism, this.tests.size()); i++) {
+            lanes.add(executor.submit(() -> this.runLane(nextIndex, cancellation)));
+        }
+
+        // The calling thread runs a lane as well
+        this.runLane(nextIndex, cancellation);
 
-        // Executes and runs the test
         try {
-            currentTest.execute();
-            res = currentTest.test();
-        } catch (IOException | InterruptedException e) {
-            res = new TestResult(TestCode.INTERNAL_ERROR, "Error running test file " + this.testIndex);
+            for (Future<?> lane : lanes) {
+                try {
+                    lane.get();
+                } catch (ExecutionException e) {
+                    // Stop the other tests, which cannot give a verdict on their own
+                    e.getCause().printStackTrace();
+                    cancellation.cancel();
+                    this.fail();
+                }
+            }
+        } catch (InterruptedException e) {
+            cancellation.cancel();
+
+            for (Future<?> lane : lanes) {
+                lane.cancel(true);
+            }
+
+            throw e;
         }
 
-        // Caches the test result
-        this.testResults[this.testIndex] = res;
+        this.testIndex = this.tests.size();
+    }
 
-        this.testIndex++;
+    /**
+     * runLane
+     * Runs the next test not yet started until there are none left or the tests are cancelled
+     * @param nextIndex the index of the next test to start, shared by all lanes
+     * @param cancellation the cancellation shared by the tests of this task
+     */
+    private void runLane(AtomicInteger nextIndex, Cancellation cancellation) {
+        while (!cancellation.isCancelled()) {
+            int index = nextIndex.getAndIncrement();
 
-        return res;
+            if (index >= this.tests.size()) {
+                return;
+            }
+
+            TestResult res = this.runTest(index, cancellation);
+
+            // Killed because another test failed
+            if (res == null) {
+                return;
+            }
+
+            this.testResults.set(index, res);
+
+            // Stop the other tests at the first failure
+            if (res.getStatusCode() != TestCode.ACCEPTED) {
+                cancellation.cancel();
+            }
+        }
+    }
+
+    /**
+     * runTest
+     * Executes a test and checks its output
+     * @param index the index of the test
+     * @param cancellation the cancellation shared by the tests of this task
+     * @return the result of the test, or null if the test was cancelled
+     */
+    private TestResult runTest(int index, Cancellation cancellation) {
+        Test currentTest = this.tests.get(index);
+
+        // Executes and runs the test
+        try {
+            // Class files only exist in memory when compiled in process
+            if ((this.runners != null) && (!this.classFiles.isEmpty())) {
+                currentTest.execute(this.runners, this.classFiles, cancellation);
+            } else {
+                currentTest.execute(cancellation);
+            }
+
+            if (currentTest.isCancelled()) {
+                return null;
+            }
+
+            return currentTest.test();
+        } catch (IOException | InterruptedException e) {
+            return new TestResult(TestCode.INTERNAL_ERROR, "Error running test file " + index);
+        }
     }
 
     /**
@@ -211,10 +505,87 @@ public class Task {
     /**
      * getTestResults
      * Gets the cached test results
-     * @return the test results as an array
+     * @return a copy of the test results as an array, in test order, with null for tests without a result
      */
     public TestResult[] getTestResults() {
-        return this.testResults;
+        TestResult[] results = new TestResult[this.testResults.length()];
+
+        for (int i = 0; i < results.length; i++) {
+            results[i] = this.testResults.get(i);
+        }
+
+        return results;
+    }
+
+    /**
+     * complete
+     * Marks judging as done, after which no more results are added
+     */
+    void complete() {
+        this.completed = true;
+    }
+
+    /**
+     * fail
+     * Records an internal error as the result of the first test without a result,
+     * after judging was stopped by an error in the judge, so the task can never be accepted
+     */
+    void fail() {
+        this.failed = true;
+
+        for (int i = 0; i < this.testResults.length(); i++) {
+            if (this.testResults.compareAndSet(i, null, new TestResult(TestCode.INTERNAL_ERROR, "Internal error in the judge"))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * isCompleted
+     * Checks if judging is done, either because compilation failed, a test failed, or every test passed
+     * @return if the task is completed
+     */
+    public boolean isCompleted() {
+        return this.completed;
+    }
+
+    /**
+     * isAccepted
+     * Checks if judging is done and every test passed
+     * @return if the task is accepted
+     */
+    public boolean isAccepted() {
+        if ((!this.completed) || (this.failed) || (this.compilationResult == null) || (this.compilationResult.getTaskCode() != TaskCode.SUCCESSFUL)) {
+            return false;
+        }
+
+        for (int i = 0; i < this.testResults.length(); i++) {
+            TestResult res = this.testResults.get(i);
+
+            if ((res == null) || (res.getStatusCode() != TestCode.ACCEPTED)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * getDiagnostics
+     * Gets the errors, warnings, and notes reported when the source was compiled in memory
+     * @return the diagnostics, empty if the source has not been compiled in memory
+     */
+    public List<CompilationDiagnostic> getDiagnostics() {
+        return this.diagnostics;
+    }
+
+    /**
+     * getClassFiles
+     * Gets the compiled class files of the submission
+     * @return the class file bytes keyed by binary class name, empty if the source has not been compiled in memory
+     */
+    public Map<String, byte[]> getClassFiles() {
+        return this.classFiles;
     }
 
     /**
@@ -0,0 +1,79 @@
+package coderunner.runner;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A token shared by the tests of one submission, which stops them all once one of them fails.
+ * Each running test registers an action which kills its process or runner, and removes it again when it finishes,
+ * so that cancelling never touches a runner that has gone back to the pool.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class Cancellation {
+    /** The actions which stop the tests currently running */
+    private final Set<Runnable> actions;
+
+    /** If the tests have been cancelled */
+    private boolean cancelled;
+
+    /**
+     * Constructs a Cancellation which has not been cancelled
+     */
+    public Cancellation() {
+        this.actions = new LinkedHashSet<>();
+    }
+
+    /**
+     * cancel
+     * cancels the tests, running the actions of every test still running,
+     * which must only signal the test to stop rather than wait for it
+     */
+    public synchronized void cancel() {
+        if (this.cancelled) {
+            return;
+        }
+
+        this.cancelled = true;
+
+        // Run under the lock, so no action runs after its test has unregistered it
+        for (Runnable action : this.actions) {
+            action.run();
+        }
+
+        this.actions.clear();
+    }
+
+    /**
+     * isCancelled
+     * checks if the tests have been cancelled
+     * @return if the tests have been cancelled
+     */
+    public synchronized boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * register
+     * registers the action which stops a test that is starting to run
+     * @param action the action which stops the test
+     * @return false if the tests are already cancelled, in which case the test should not run
+     */
+    public synchronized boolean register(Runnable action) {
+        if (this.cancelled) {
+            return false;
+        }
+
+        this.actions.add(action);
+        return true;
+    }
+
+    /**
+     * unregister
+     * removes the action of a test that has finished running
+     * @param action the action passed to {@link #register(Runnable)}
+     */
+    public synchronized void unregister(Runnable action) {
+        this.actions.remove(action);
+    }
+}
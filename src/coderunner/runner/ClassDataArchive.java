@@ -0,0 +1,221 @@
+package coderunner.runner;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds and holds a class data sharing (AppCDS) archive of the JDK classes that judging a submission loads,
+ * so that runner JVMs, test processes, and {@code javac} processes map those classes from the archive
+ * instead of loading and verifying them on every start.
+ * The archive is built once per JDK version by running a training submission with
+ * {@code -XX:DumpLoadedClassList} and dumping the JDK classes it loaded with {@code -Xshare:dump}.
+ * Only JDK classes are archived, so the archive can be used with any class path.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ClassDataArchive {
+    /** The time each step of building the archive is given, in seconds */
+    private static final long BUILD_TIMEOUT_SECONDS = 120;
+
+    /** The archive in use, or null if child processes start without one */
+    private static volatile Path archive;
+
+    /**
+     * build
+     * builds the archive for the running JDK if it does not exist yet, and uses it for all child processes
+     * @param directory the directory to store the archive and its build log in
+     * @return if an archive is in use
+     */
+    public static synchronized boolean build(String directory) {
+        Path directoryPath = Paths.get(directory).toAbsolutePath();
+
+        // One archive for each JDK, as an archive only works with the JDK which dumped it
+        String name = "judge-" + Runtime.version().toString().replaceAll("[^A-Za-z0-9.]", "_");
+        Path archiveFile = directoryPath.resolve(name + ".jsa");
+
+        if (Files.isRegularFile(archiveFile)) {
+            archive = archiveFile;
+            return true;
+        }
+
+        try {
+            Files.createDirectories(directoryPath);
+
+            File log = directoryPath.resolve("build.log").toFile();
+            Path classList = directoryPath.resolve(name + ".classlist");
+            Path jdkClassList = directoryPath.resolve(name + ".jdk.classlist");
+            Path temporaryArchive = directoryPath.resolve(name + ".jsa.tmp");
+
+            // List the classes loaded while compiling and running the training submission
+            run(log, List.of(
+                    java(),
+                    "-Xshare:off",
+                    "-XX:DumpLoadedClassList=" + classList,
+                    "-cp",
+                    RunnerPool.writeClassPath(directoryPath.resolve("classes")),
+                    RunnerMain.class.getName(),
+                    "--train",
+                    directoryPath.resolve("training").toString()
+            ));
+
+            filterJdkClasses(classList, jdkClassList);
+
+            // Dump the JDK classes without a class path
+            run(log, List.of(
+                    java(),
+                    "-Xshare:dump",
+                    "-XX:SharedClassListFile=" + jdkClassList,
+                    "-XX:SharedArchiveFile=" + temporaryArchive
+            ));
+
+            Files.move(temporaryArchive, archiveFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // Child processes still work without an archive, they only start slower
+            System.out.println("[WARN] Cannot build class data sharing archive: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        archive = archiveFile;
+        return true;
+    }
+
+    /**
+     * getArchive
+     * gets the archive child processes start with
+     * @return the path of the archive, or null if child processes start without one
+     */
+    public static Path getArchive() {
+        return archive;
+    }
+
+    /**
+     * jvmOptions
+     * gets the options which start a child JVM with the archive
+     * @return the options, empty if there is no archive
+     */
+    public static List<String> jvmOptions() {
+        Path current = archive;
+
+        if (current == null) {
+            return List.of();
+        }
+
+        // Fall back to the default archive if this one cannot be mapped
+        return List.of("-XX:SharedArchiveFile=" + current, "-Xshare:auto");
+    }
+
+    /**
+     * java
+     * gets the java launcher of the running JDK, which is the only launcher the archive can be used with
+     * @return the path of the java launcher
+     */
+    public static String java() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    /**
+     * javac
+     * gets the compiler launcher of the running JDK, which is the only compiler the archive can be used with
+     * @return the path of the compiler launcher, or null if the running Java installation has no compiler
+     */
+    public static String javac() {
+        Path bin = Paths.get(System.getProperty("java.home"), "bin");
+
+        // Windows launchers have an extension
+        for (String name : List.of("javac", "javac.exe")) {
+            if (Files.isExecutable(bin.resolve(name))) {
+                return bin.resolve(name).toString();
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * run
+     * runs a step of the build, appending its output to the build log
+     * @param log the build log
+     * @param command the command to run
+     * @throws IOException if the step cannot be started, times out, or fails
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    private static void run(File log, List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log))
+                .redirectErrorStream(true)
+                .start();
+
+        if (!process.waitFor(BUILD_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            throw new IOException("timed out running " + command.get(1));
+        }
+
+        if (process.exitValue() != 0) {
+            throw new IOException("exit code " + process.exitValue() + " running " + command.get(1) + ", see " + log);
+        }
+    }
+
+    /**
+     * filterJdkClasses
+     * copies the entries of a class list which only refer to JDK classes,
+     * as the classes of the server and the submission are not on the class path at dump time
+     * @param classList the class list written by the training run
+     * @param jdkClassList the file to write the JDK entries to
+     * @throws IOException if an IO error occurs while reading or writing
+     */
+    private static void filterJdkClasses(Path classList, Path jdkClassList) throws IOException {
+        List<String> lines = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(classList)) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if ((line.isEmpty()) || (line.startsWith("#"))) {
+                    continue;
+                }
+
+                // Lambda form entries only refer to JDK classes
+                if (line.startsWith("@lambda-form-invoker")) {
+                    lines.add(line);
+                    continue;
+                }
+
+                // Lambda proxy entries name the class containing the lambda first
+                String className = line.startsWith("@lambda-proxy") ? line.split(" ")[1] : line.split(" ")[0];
+
+                if ((!className.startsWith("@")) && (isJdkClass(className))) {
+                    lines.add(line);
+                }
+            }
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(jdkClassList)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * isJdkClass
+     * checks if a class belongs to the JDK, without loading it
+     * @param internalName the internal name of the class, e.g. java/lang/Object
+     * @return if the JDK contains the class
+     */
+    private static boolean isJdkClass(String internalName) {
+        return ClassLoader.getPlatformClassLoader().getResource(internalName + ".class") != null;
+    }
+}
@@ -0,0 +1,30 @@
+package coderunner.runner;
+
+/**
+ * The messages exchanged between the judge and a runner JVM over the runner's standard streams
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class Protocol {
+    /** Sent by a runner once it has started and can accept requests */
+    static final int READY = 0x54484F4A;
+
+    /** Asks a runner to run a submission, followed by a random nonce, the classes, output path, and input.
+     *  The reply starts with the nonce, so that a reply forged by a submission is recognized */
+    static final int RUN = 1;
+
+    /** Asks a runner to exit */
+    static final int EXIT = 2;
+
+    /** The submission's main method returned */
+    static final int FINISHED = 0;
+
+    /** The submission threw an exception out of its main method */
+    static final int THREW = 1;
+
+    /** The submission ran out of memory */
+    static final int OUT_OF_MEMORY = 2;
+
+    /** The submission called System.exit, which ends the runner */
+    static final int EXITED = 3;
+}
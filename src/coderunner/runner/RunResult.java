@@ -0,0 +1,70 @@
+package coderunner.runner;
+
+/**
+ * Represents the result of running a submission in a runner JVM
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RunResult {
+    /** How the run ended */
+    private final RunStatus status;
+
+    /** The exit code passed to System.exit, or 0 if the runner did not exit */
+    private final int exitCode;
+
+    /** The time the submission ran for, in milliseconds */
+    private final long elapsedMillis;
+
+    /** The standard error of the submission */
+    private final String errorText;
+
+    /**
+     * Constructs a RunResult
+     * @param status how the run ended
+     * @param exitCode the exit code passed to System.exit, or 0 if the runner did not exit
+     * @param elapsedMillis the time the submission ran for, in milliseconds
+     * @param errorText the standard error of the submission
+     */
+    public RunResult(RunStatus status, int exitCode, long elapsedMillis, String errorText) {
+        this.status = status;
+        this.exitCode = exitCode;
+        this.elapsedMillis = elapsedMillis;
+        this.errorText = errorText;
+    }
+
+    /**
+     * getStatus
+     * gets how the run ended
+     * @return the run status
+     */
+    public RunStatus getStatus() {
+        return this.status;
+    }
+
+    /**
+     * getExitCode
+     * gets the exit code passed to System.exit
+     * @return the exit code, or 0 if the runner did not exit
+     */
+    public int getExitCode() {
+        return this.exitCode;
+    }
+
+    /**
+     * getElapsedMillis
+     * gets the time the submission ran for, not counting the startup of the runner
+     * @return the elapsed time in milliseconds
+     */
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    /**
+     * getErrorText
+     * gets everything the submission wrote to its standard error
+     * @return the standard error text, empty if there was none
+     */
+    public String getErrorText() {
+        return this.errorText;
+    }
+}
@@ -0,0 +1,23 @@
+package coderunner.runner;
+
+/**
+ * Represents the possible ways a run of a submission in a runner JVM can end
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public enum RunStatus {
+    /** The submission's main method returned */
+    FINISHED,
+    /** The submission threw an exception out of its main method */
+    THREW,
+    /** The submission ran out of memory */
+    OUT_OF_MEMORY,
+    /** The submission called System.exit */
+    EXITED,
+    /** The submission ran past its time limit */
+    TIMED_OUT,
+    /** The runner JVM died without reporting a result */
+    CRASHED,
+    /** The run was stopped because another test of the submission failed */
+    CANCELLED,
+}
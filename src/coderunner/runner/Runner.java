@@ -0,0 +1,258 @@
+package coderunner.runner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A handle to one runner JVM, which runs one submission at a time
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class Runner {
+    /** The time a runner is given to start before it is killed, in milliseconds */
+    private static final long STARTUP_MILLIS = 10000;
+
+    /** The time past the time limit a runner is given to reply before it is killed, in milliseconds */
+    private static final long GRACE_MILLIS = 1000;
+
+    /** Generates the nonce of each run, which a submission cannot predict */
+    private static final SecureRandom NONCES = new SecureRandom();
+
+    /** The runner JVM */
+    private final Process process;
+
+    /** The channel requests are written to */
+    private final DataOutputStream requests;
+
+    /** The channel replies are read from */
+    private final DataInputStream replies;
+
+    /** If the runner has reported that it started */
+    private boolean ready;
+
+    /** If the runner has been killed for running past the time limit */
+    private volatile boolean killed;
+
+    /** If the runner has been killed because another test of the submission failed */
+    private volatile boolean cancelled;
+
+    /** If the runner has exited or been killed, or a submission left threads in it */
+    private volatile boolean retired;
+
+    /** The number of submissions the runner has run */
+    private int runs;
+
+    /**
+     * Constructs a Runner by starting a runner JVM
+     * @param command the command which starts the runner JVM
+     * @param directory the working directory of the runner JVM
+     * @throws IOException if the runner JVM cannot be started
+     */
+    Runner(List<String> command, File directory) throws IOException {
+        ProcessBuilder builder = new ProcessBuilder(command);
+
+        builder.directory(directory);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+
+        this.process = builder.start();
+        this.requests = new DataOutputStream(new BufferedOutputStream(this.process.getOutputStream()));
+        this.replies = new DataInputStream(new BufferedInputStream(this.process.getInputStream()));
+    }
+
+    /**
+     * run
+     * runs a submission and waits for the result, killing the runner if it runs past the time limit
+     * @param mainClass the binary name of the class whose main method is run
+     * @param classFiles the compiled classes of the submission keyed by binary class name
+     * @param input the standard input of the submission
+     * @param outputPath the absolute path of the file the standard output of the submission is written to
+     * @param timeLimitMillis the time the submission is given to run, in milliseconds
+     * @param timer the executor which kills runners that run past the time limit
+     * @return the result of the run
+     * @throws InterruptedException if the current thread is interrupted while waiting for the runner to exit
+     */
+    RunResult run(String mainClass, Map<String, byte[]> classFiles, byte[] input, String outputPath, long timeLimitMillis, ScheduledExecutorService timer) throws InterruptedException {
+        this.runs++;
+
+        ScheduledFuture<?> kill = null;
+
+        try {
+            // Wait for the runner to start, killing it if it takes too long
+            if (!this.ready) {
+                kill = timer.schedule(this::kill, STARTUP_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (this.replies.readInt() != Protocol.READY) {
+                    throw new IOException("runner did not start");
+                }
+
+                kill.cancel(false);
+                this.ready = true;
+            }
+
+            // Kill the runner if it does not reply in time, not counting the time it took to start
+            kill = timer.schedule(this::kill, timeLimitMillis + GRACE_MILLIS, TimeUnit.MILLISECONDS);
+
+            // Write request
+            long nonce = NONCES.nextLong();
+
+            this.requests.writeInt(Protocol.RUN);
+            this.requests.writeLong(nonce);
+            this.requests.writeUTF(mainClass);
+            this.requests.writeInt(classFiles.size());
+
+            for (Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+                this.requests.writeUTF(classFile.getKey());
+                this.requests.writeInt(classFile.getValue().length);
+                this.requests.write(classFile.getValue());
+            }
+
+            this.requests.writeUTF(outputPath);
+            this.requests.writeInt(input.length);
+            this.requests.write(input);
+            this.requests.flush();
+
+            // Read reply
+            // a submission can write to the runner's standard output, so a reply without the nonce is forged
+            if (this.replies.readLong() != nonce) {
+                kill.cancel(false);
+                this.retire();
+
+                return new RunResult(RunStatus.CRASHED, 0, 0, "runner replied out of turn");
+            }
+
+            int status = this.replies.readInt();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(this.replies.readLong());
+            boolean dirty = this.replies.readBoolean();
+            byte[] error = new byte[this.replies.readInt()];
+
+            this.replies.readFully(error);
+
+            kill.cancel(false);
+
+            String errorText = new String(error, StandardCharsets.UTF_8);
+
+            // Threads left behind by the submission may still be running
+            if (dirty) {
+                this.retire();
+            }
+
+            if (elapsedMillis > timeLimitMillis) {
+                return new RunResult(RunStatus.TIMED_OUT, 0, elapsedMillis, errorText);
+            }
+
+            switch (status) {
+                case Protocol.FINISHED:
+                    return new RunResult(RunStatus.FINISHED, 0, elapsedMillis, errorText);
+                case Protocol.OUT_OF_MEMORY:
+                    return new RunResult(RunStatus.OUT_OF_MEMORY, 0, elapsedMillis, errorText);
+                case Protocol.EXITED:
+                    this.retired = true;
+                    return new RunResult(RunStatus.EXITED, this.exitCode(), elapsedMillis, errorText);
+                default:
+                    return new RunResult(RunStatus.THREW, 0, elapsedMillis, errorText);
+            }
+        } catch (IOException e) {
+            if (kill != null) {
+                kill.cancel(false);
+            }
+
+            this.retired = true;
+
+            // The runner was killed or died without replying
+            if (this.cancelled) {
+                return new RunResult(RunStatus.CANCELLED, 0, 0, "");
+            }
+
+            if (this.killed) {
+                return new RunResult(RunStatus.TIMED_OUT, 0, timeLimitMillis, "");
+            }
+
+            return new RunResult(RunStatus.CRASHED, this.exitCode(), 0, "runner exited unexpectedly: " + e.getMessage());
+        }
+    }
+
+    /**
+     * isAlive
+     * checks if the runner can run another submission
+     * @return if the runner JVM is still running
+     */
+    boolean isAlive() {
+        return (!this.retired) && (this.process.isAlive());
+    }
+
+    /**
+     * getRuns
+     * gets the number of submissions the runner has run
+     * @return the number of runs
+     */
+    int getRuns() {
+        return this.runs;
+    }
+
+    /**
+     * close
+     * asks the runner to exit, and kills it if it does not
+     */
+    void close() {
+        try {
+            this.requests.writeInt(Protocol.EXIT);
+            this.requests.flush();
+        } catch (IOException e) {
+            // Already exited
+        }
+
+        this.process.destroy();
+    }
+
+    /**
+     * cancel
+     * kills a runner whose run is no longer needed
+     */
+    void cancel() {
+        this.cancelled = true;
+        this.retire();
+    }
+
+    /**
+     * kill
+     * kills a runner which ran past its time limit
+     */
+    private void kill() {
+        this.killed = true;
+        this.retire();
+    }
+
+    /**
+     * retire
+     * kills the runner so that it is never used again
+     */
+    private void retire() {
+        this.retired = true;
+        this.process.destroyForcibly();
+    }
+
+    /**
+     * exitCode
+     * waits for the runner JVM to exit and gets its exit code
+     * @return the exit code
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    private int exitCode() throws InterruptedException {
+        if (!this.process.waitFor(GRACE_MILLIS, TimeUnit.MILLISECONDS)) {
+            this.process.destroyForcibly();
+        }
+
+        return this.process.waitFor();
+    }
+}
@@ -0,0 +1,400 @@
+package coderunner.runner;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The entry point of a runner JVM started by a {@link RunnerPool}.
+ * The runner reads run requests from its standard input and writes replies to its standard output,
+ * so those streams are taken over by the protocol and each submission is given its own instead.
+ * Every run loads the submitted classes in a new class loader that can only see the JDK,
+ * so nothing a submission does to static state survives into the next run.
+ * Runner JVMs are started with a class path holding only the runner's own classes.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RunnerMain {
+    /** A typical submission, compiled and run once to load the classes submissions and the compiler use */
+    private static final String TRAINING_SOURCE = String.join("\n",
+            "import java.io.*;",
+            "import java.math.*;",
+            "import java.util.*;",
+            "public class Main {",
+            "    public static void main(String[] args) throws IOException {",
+            "        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));",
+            "        int n = Integer.parseInt(reader.readLine().trim());",
+            "        StringTokenizer tokens = new StringTokenizer(reader.readLine());",
+            "        long[] values = new long[n];",
+            "        for (int i = 0; i < n; i++) values[i] = Long.parseLong(tokens.nextToken());",
+            "        Scanner scanner = new Scanner(reader);",
+            "        String word = scanner.next();",
+            "        double real = scanner.nextDouble();",
+            "        Arrays.sort(values);",
+            "        List<Long> list = new ArrayList<>();",
+            "        Map<String, Integer> map = new HashMap<>();",
+            "        TreeMap<Long, Long> tree = new TreeMap<>();",
+            "        Deque<Long> deque = new ArrayDeque<>();",
+            "        PriorityQueue<Long> heap = new PriorityQueue<>(Collections.reverseOrder());",
+            "        Set<Long> set = new HashSet<>();",
+            "        for (long value : values) { list.add(value); tree.merge(value, 1L, Long::sum); deque.add(value); heap.add(value); set.add(value); }",
+            "        map.put(word, word.length());",
+            "        Collections.sort(list, Comparator.reverseOrder());",
+            "        long sum = list.stream().mapToLong(Long::longValue).sum();",
+            "        BigInteger big = BigInteger.valueOf(sum).pow(5).mod(BigInteger.valueOf(1000000007));",
+            "        BigDecimal decimal = BigDecimal.valueOf(real).setScale(3, RoundingMode.HALF_UP);",
+            "        StringBuilder builder = new StringBuilder();",
+            "        builder.append(sum).append(' ').append(Math.max(heap.peek(), deque.peekLast())).append('\\n');",
+            "        System.out.print(builder);",
+            "        System.out.println(big + \" \" + decimal + \" \" + map + \" \" + tree.firstKey() + \" \" + set.size());",
+            "        System.out.printf(\"%.2f %s%n\", Math.sqrt(real), String.format(\"%5d\", n));",
+            "        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(System.out));",
+            "        writer.write(String.valueOf(values.length));",
+            "        writer.newLine();",
+            "        writer.flush();",
+            "        try {",
+            "            Object nothing = null;",
+            "            nothing.hashCode();",
+            "        } catch (NullPointerException e) {",
+            "            e.printStackTrace();",
+            "        }",
+            "    }",
+            "}"
+    );
+
+    /** The input of the training submission */
+    private static final String TRAINING_INPUT = "3\n3 1 2\nhello 2.5\n";
+
+    /** The protocol channel to the judge */
+    private static DataOutputStream replies;
+
+    /**
+     * main
+     * serves run requests until the judge closes the channel or asks the runner to exit
+     * @param args empty to serve requests, or {@code --train} and a scratch directory to run the training submission once
+     * @throws IOException if the channel to the judge breaks
+     */
+    public static void main(String[] args) throws IOException {
+        if ((args.length == 2) && (args[0].equals("--train"))) {
+            train(Paths.get(args[1]));
+            return;
+        }
+
+        DataInputStream requests = new DataInputStream(new BufferedInputStream(new FileInputStream(FileDescriptor.in)));
+        replies = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+
+        // Keep stray output of the runner itself off the protocol channel
+        System.setOut(System.err);
+
+        // The submission currently running, only reachable from here and the shutdown hook
+        // so that a submission cannot read the nonce it must reply with
+        AtomicReference<Run> current = new AtomicReference<>();
+
+        // Submissions which call System.exit still report their result
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> reportExit(current)));
+
+        // Tell the judge the runner has started
+        replies.writeInt(Protocol.READY);
+        replies.flush();
+
+        while (true) {
+            int command;
+
+            try {
+                command = requests.readInt();
+            } catch (IOException e) {
+                // The judge closed the channel
+                return;
+            }
+
+            if (command != Protocol.RUN) {
+                return;
+            }
+
+            run(requests, current);
+        }
+    }
+
+    /**
+     * run
+     * reads a run request, runs the submission, and replies with the result
+     * @param requests the channel to read the request from
+     * @param current holds the submission while it runs
+     * @throws IOException if the channel to the judge breaks
+     */
+    private static void run(DataInputStream requests, AtomicReference<Run> current) throws IOException {
+        // Read request
+        long nonce = requests.readLong();
+        String mainClass = requests.readUTF();
+        int classCount = requests.readInt();
+        Map<String, byte[]> classFiles = new HashMap<>();
+
+        for (int i = 0; i < classCount; i++) {
+            String name = requests.readUTF();
+            byte[] bytes = new byte[requests.readInt()];
+
+            requests.readFully(bytes);
+            classFiles.put(name, bytes);
+        }
+
+        String outputPath = requests.readUTF();
+        byte[] input = new byte[requests.readInt()];
+
+        requests.readFully(input);
+
+        runSubmission(mainClass, classFiles, input, outputPath, nonce, current);
+    }
+
+    /**
+     * runSubmission
+     * runs a submission with redirected standard streams, and replies with the result
+     * @param mainClass the binary name of the class whose main method is run
+     * @param classFiles the compiled classes of the submission keyed by binary class name
+     * @param input the standard input of the submission
+     * @param outputPath the path of the file the standard output of the submission is written to
+     * @param nonce the nonce of the request, which the reply starts with
+     * @param current holds the submission while it runs
+     * @throws IOException if the output file cannot be opened or the channel to the judge breaks
+     */
+    private static void runSubmission(String mainClass, Map<String, byte[]> classFiles, byte[] input, String outputPath, long nonce, AtomicReference<Run> current) throws IOException {
+        int threadsBefore = Thread.activeCount();
+        int status = Protocol.FINISHED;
+
+        // Redirect standard streams to the submission's
+        ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+        InputStream systemIn = System.in;
+        PrintStream systemOut = System.out;
+        PrintStream systemErr = System.err;
+
+        ByteArrayOutputStream error = new ByteArrayOutputStream();
+        PrintStream output = new PrintStream(new BufferedOutputStream(new FileOutputStream(outputPath), 1 << 16), false);
+        PrintStream errorStream = new PrintStream(error, true, StandardCharsets.UTF_8);
+
+        System.setIn(new ByteArrayInputStream(input));
+        System.setOut(output);
+        System.setErr(errorStream);
+
+        Run run = new Run(nonce, output, error, System.nanoTime());
+        current.set(run);
+
+        try {
+            // Load the submission in a class loader of its own, which cannot see the runner
+            ClassLoader loader = new SubmissionClassLoader(classFiles);
+            Method main = loader.loadClass(mainClass).getMethod("main", String[].class);
+
+            if (!Modifier.isStatic(main.getModifiers())) {
+                throw new NoSuchMethodException(mainClass + ".main is not static");
+            }
+
+            main.setAccessible(true);
+
+            // Code which loads classes through the context class loader only finds the submission's
+            Thread.currentThread().setContextClassLoader(loader);
+            main.invoke(null, (Object) new String[0]);
+        } catch (InvocationTargetException e) {
+            // Print the way the JVM reports an uncaught exception
+            errorStream.print("Exception in thread \"main\" ");
+            e.getCause().printStackTrace(errorStream);
+
+            status = (e.getCause() instanceof OutOfMemoryError) ? Protocol.OUT_OF_MEMORY : Protocol.THREW;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            errorStream.println("Error: could not run " + mainClass + ": " + e);
+            status = Protocol.THREW;
+        }
+
+        long elapsed = System.nanoTime() - run.start;
+
+        Thread.currentThread().setContextClassLoader(contextLoader);
+
+        // A thread left behind may have called System.exit, which has replied already
+        boolean replied = !current.compareAndSet(run, null);
+
+        output.close();
+
+        System.setIn(systemIn);
+        System.setOut(systemOut);
+        System.setErr(systemErr);
+
+        // Threads left running by the submission cannot be stopped safely
+        boolean dirty = Thread.activeCount() > threadsBefore;
+
+        if (!replied) {
+            reply(nonce, status, elapsed, dirty, error.toByteArray());
+        }
+    }
+
+    /**
+     * train
+     * compiles and runs the training submission once, so that a JVM started with
+     * {@code -XX:DumpLoadedClassList} lists the classes judging a submission loads
+     * @param directory the directory to write the training source, classes, and output to
+     * @throws IOException if an IO error occurs while writing to the directory
+     */
+    private static void train(Path directory) throws IOException {
+        replies = new DataOutputStream(OutputStream.nullOutputStream());
+
+        Files.createDirectories(directory);
+
+        Path sourceFile = directory.resolve("Main.java");
+        Files.writeString(sourceFile, TRAINING_SOURCE);
+
+        // Load the classes of the compiler, when running on a JDK
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        if (compiler == null) {
+            return;
+        }
+
+        int result = compiler.run(
+                null,
+                OutputStream.nullOutputStream(),
+                OutputStream.nullOutputStream(),
+                "-proc:none",
+                "-d", directory.toString(),
+                sourceFile.toString()
+        );
+
+        if (result != 0) {
+            return;
+        }
+
+        // Load the classes the submission uses
+        Map<String, byte[]> classFiles = Map.of("Main", Files.readAllBytes(directory.resolve("Main.class")));
+
+        runSubmission(
+                "Main",
+                classFiles,
+                TRAINING_INPUT.getBytes(StandardCharsets.UTF_8),
+                directory.resolve("output.txt").toString(),
+                0,
+                new AtomicReference<>()
+        );
+    }
+
+    /**
+     * reportExit
+     * replies to the judge if a submission calls System.exit while it is running
+     * @param current holds the submission while it runs
+     */
+    private static void reportExit(AtomicReference<Run> current) {
+        Run run = current.getAndSet(null);
+
+        // Not running a submission
+        if (run == null) {
+            return;
+        }
+
+        run.output.flush();
+
+        try {
+            reply(run.nonce, Protocol.EXITED, System.nanoTime() - run.start, false, run.error.toByteArray());
+        } catch (IOException e) {
+            // The judge reads the exit code instead
+        }
+    }
+
+    /**
+     * reply
+     * writes the result of a run to the judge
+     * @param nonce the nonce of the request
+     * @param status how the run ended
+     * @param elapsed the time the submission ran for, in nanoseconds
+     * @param dirty if the runner should be replaced before the next run
+     * @param error the standard error of the submission
+     * @throws IOException if the channel to the judge breaks
+     */
+    private static synchronized void reply(long nonce, int status, long elapsed, boolean dirty, byte[] error) throws IOException {
+        replies.writeLong(nonce);
+        replies.writeInt(status);
+        replies.writeLong(elapsed);
+        replies.writeBoolean(dirty);
+        replies.writeInt(error.length);
+        replies.write(error);
+        replies.flush();
+    }
+
+    /**
+     * The state of the submission currently running
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Run {
+        /** The nonce of the request */
+        private final long nonce;
+
+        /** The standard output of the submission */
+        private final PrintStream output;
+
+        /** The standard error of the submission */
+        private final ByteArrayOutputStream error;
+
+        /** When the submission started, in nanoseconds */
+        private final long start;
+
+        /**
+         * Constructs a Run
+         * @param nonce the nonce of the request
+         * @param output the standard output of the submission
+         * @param error the standard error of the submission
+         * @param start when the submission started, in nanoseconds
+         */
+        Run(long nonce, PrintStream output, ByteArrayOutputStream error, long start) {
+            this.nonce = nonce;
+            this.output = output;
+            this.error = error;
+            this.start = start;
+        }
+    }
+
+    /**
+     * A class loader for the classes of one submission, which delegates everything else to the JDK
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class SubmissionClassLoader extends ClassLoader {
+        /** The compiled classes of the submission keyed by binary class name */
+        private final Map<String, byte[]> classFiles;
+
+        /**
+         * Constructs a SubmissionClassLoader
+         * @param classFiles the compiled classes of the submission keyed by binary class name
+         */
+        SubmissionClassLoader(Map<String, byte[]> classFiles) {
+            super("submission", ClassLoader.getPlatformClassLoader());
+            this.classFiles = classFiles;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = this.classFiles.get(name);
+
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+
+            return this.defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package coderunner.runner;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of pre-started runner JVMs which run compiled submissions, so that running a test
+ * does not pay for starting a JVM. Each runner loads the submission's class bytes, sent over a pipe,
+ * in a throwaway class loader and runs its main method with redirected standard streams.
+ * A runner is replaced after a set number of runs, or as soon as a submission kills it,
+ * calls System.exit, runs past its time limit, or leaves threads behind.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RunnerPool implements Closeable {
+    /** The maximum heap of each runner JVM */
+    private static final String MAX_HEAP = "-Xmx256m";
+
+    /** How long to wait for an idle runner before checking that the pool still has runners, in milliseconds */
+    private static final long IDLE_POLL_MILLIS = 250;
+
+    /** The command which starts a runner JVM */
+    private final List<String> command;
+
+    /** The working directory of the runner JVMs */
+    private final File directory;
+
+    /** The number of runs after which a runner is replaced */
+    private final int maxRuns;
+
+    /** The runners waiting for a submission to run */
+    private final BlockingQueue<Runner> idle;
+
+    /** The number of runners in the pool, idle or running */
+    private final AtomicInteger runners;
+
+    /** Kills runners which run past their time limit */
+    private final ScheduledExecutorService timer;
+
+    /**
+     * Constructs a RunnerPool and starts its runners
+     * @param size the number of runners
+     * @param maxRuns the number of runs after which a runner is replaced
+     * @param directory the working directory of the runner JVMs
+     * @throws IOException if the runners cannot be started
+     * @throws IllegalArgumentException if {@code size} or {@code maxRuns} is not positive
+     */
+    public RunnerPool(int size, int maxRuns, String directory) throws IOException {
+        if ((size <= 0) || (maxRuns <= 0)) {
+            throw new IllegalArgumentException("size and maxRuns must be positive");
+        }
+
+        this.directory = Files.createDirectories(Paths.get(directory)).toFile();
+
+        // Run the runner main class from a class path holding only the runner,
+        // so that submissions cannot load the server's classes
+        List<String> command = new ArrayList<>();
+
+        command.add(ClassDataArchive.java());
+        command.add(MAX_HEAP);
+        command.add("-XX:+UseSerialGC");
+        command.addAll(ClassDataArchive.jvmOptions());
+        command.add("-cp");
+        command.add(writeClassPath(this.directory.toPath().resolve("classes")));
+        command.add(RunnerMain.class.getName());
+
+        this.command = List.copyOf(command);
+        this.maxRuns = maxRuns;
+        this.idle = new LinkedBlockingQueue<>();
+        this.runners = new AtomicInteger();
+        this.timer = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+            Thread thread = new Thread(runnable, "runner-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Start runners
+        for (int i = 0; i < size; i++) {
+            this.idle.add(new Runner(this.command, this.directory));
+            this.runners.incrementAndGet();
+        }
+    }
+
+    /**
+     * run
+     * runs a submission on an idle runner, waiting for one if all are busy
+     * @param mainClass the binary name of the class whose main method is run
+     * @param classFiles the compiled classes of the submission keyed by binary class name
+     * @param inputPath the path of the file containing the standard input of the submission
+     * @param outputPath the path of the file the standard output of the submission is written to
+     * @param timeLimitMillis the time the submission is given to run, in milliseconds
+     * @return the result of the run
+     * @throws IOException if the input cannot be read or the pool has no runners left
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public RunResult run(String mainClass, Map<String, byte[]> classFiles, String inputPath, String outputPath, long timeLimitMillis) throws IOException, InterruptedException {
+        return this.run(mainClass, classFiles, inputPath, outputPath, timeLimitMillis, new Cancellation());
+    }
+
+    /**
+     * run
+     * runs a submission on an idle runner, waiting for one if all are busy,
+     * and kills the runner if the run is cancelled before it finishes
+     * @param mainClass the binary name of the class whose main method is run
+     * @param classFiles the compiled classes of the submission keyed by binary class name
+     * @param inputPath the path of the file containing the standard input of the submission
+     * @param outputPath the path of the file the standard output of the submission is written to
+     * @param timeLimitMillis the time the submission is given to run, in milliseconds
+     * @param cancellation the cancellation shared by the tests of the submission
+     * @return the result of the run, with status {@link RunStatus#CANCELLED} if it was cancelled
+     * @throws IOException if the input cannot be read or the pool has no runners left
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public RunResult run(String mainClass, Map<String, byte[]> classFiles, String inputPath, String outputPath, long timeLimitMillis, Cancellation cancellation) throws IOException, InterruptedException {
+        byte[] input = Files.readAllBytes(Paths.get(inputPath));
+        String absoluteOutputPath = Paths.get(outputPath).toAbsolutePath().toString();
+
+        Runner runner = null;
+
+        // Wait in short steps, as the runners still in use may all fail to be replaced while waiting
+        while (runner == null) {
+            if (this.runners.get() == 0) {
+                throw new IOException("no runners are available");
+            }
+
+            if (cancellation.isCancelled()) {
+                return new RunResult(RunStatus.CANCELLED, 0, 0, "");
+            }
+
+            runner = this.idle.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        Runnable cancel = runner::cancel;
+
+        // Cancelled while waiting for a runner
+        if (!cancellation.register(cancel)) {
+            this.idle.add(runner);
+            return new RunResult(RunStatus.CANCELLED, 0, 0, "");
+        }
+
+        boolean reusable = false;
+
+        try {
+            RunResult result = runner.run(mainClass, classFiles, input, absoluteOutputPath, timeLimitMillis, this.timer);
+
+            reusable = (runner.isAlive()) && (runner.getRuns() < this.maxRuns) && (result.getStatus() != RunStatus.TIMED_OUT);
+
+            return result;
+        } finally {
+            // Never cancel the runner once it is back in the pool
+            cancellation.unregister(cancel);
+
+            if ((reusable) && (runner.isAlive())) {
+                this.idle.add(runner);
+            } else {
+                this.replace(runner);
+            }
+        }
+    }
+
+    /**
+     * close
+     * stops all idle runners
+     */
+    @Override
+    public void close() {
+        this.timer.shutdownNow();
+
+        Runner runner;
+
+        while ((runner = this.idle.poll()) != null) {
+            runner.close();
+            this.runners.decrementAndGet();
+        }
+    }
+
+    /**
+     * writeClassPath
+     * copies the classes a runner JVM needs from the server's class path into a directory of their own
+     * @param directory the directory to copy the classes into
+     * @return the absolute path of the directory, to use as the class path of a runner JVM
+     * @throws IOException if a class cannot be read or written
+     */
+    static String writeClassPath(Path directory) throws IOException {
+        List<Class<?>> classes = new ArrayList<>();
+
+        classes.add(RunnerMain.class);
+        classes.addAll(List.of(RunnerMain.class.getDeclaredClasses()));
+        classes.add(Protocol.class);
+
+        for (Class<?> runnerClass : classes) {
+            String fileName = runnerClass.getName().replace('.', '/') + ".class";
+            Path classFile = directory.resolve(fileName);
+
+            try (InputStream bytes = runnerClass.getResourceAsStream("/" + fileName)) {
+                if (bytes == null) {
+                    throw new IOException("cannot find " + fileName);
+                }
+
+                Files.createDirectories(classFile.getParent());
+                Files.copy(bytes, classFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        return directory.toAbsolutePath().toString();
+    }
+
+    /**
+     * replace
+     * stops a runner and starts a new one in its place, which warms up while the judge continues
+     * @param runner the runner to replace
+     */
+    private void replace(Runner runner) {
+        runner.close();
+
+        try {
+            this.idle.add(new Runner(this.command, this.directory));
+        } catch (IOException e) {
+            // The pool shrinks rather than failing the submission
+            this.runners.decrementAndGet();
+            System.out.println("[WARN] Cannot start a runner: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package coderunner.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A benchmark of starting test and compiler processes with and without the {@link ClassDataArchive}, run from the command line with
+ * {@code java coderunner.runner.StartupBenchmark [runs] [directory]}.
+ * A submission is run on a test the way {@link coderunner.test.Test} runs it, and compiled the way a submission is compiled
+ * outside the judge's JVM, alternating between the two so that both see the same machine.
+ * Every run must print the expected output, and the benchmark exits with status 1 if one does not.
+ * The archive is built in the directory if it does not exist yet, which takes a while the first time.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class StartupBenchmark {
+    /** The default number of runs of each process in each mode */
+    private static final int RUNS = 20;
+
+    /** The default directory of the archive, shared with the judge */
+    private static final String DIRECTORY = "judge/cds";
+
+    /** The time each process is given, in seconds */
+    private static final long TIMEOUT_SECONDS = 60;
+
+    /** A typical submission, which is not the one the archive is trained with */
+    private static final String SOURCE = String.join("\n",
+            "import java.io.*;",
+            "import java.util.*;",
+            "public class Main {",
+            "    public static void main(String[] args) throws IOException {",
+            "        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));",
+            "        int n = Integer.parseInt(reader.readLine().trim());",
+            "        StringTokenizer tokens = new StringTokenizer(reader.readLine());",
+            "        List<Integer> values = new ArrayList<>();",
+            "        for (int i = 0; i < n; i++) values.add(Integer.parseInt(tokens.nextToken()));",
+            "        Collections.sort(values);",
+            "        long sum = 0;",
+            "        for (int value : values) sum += value;",
+            "        System.out.println(sum + \" \" + values.get(n - 1));",
+            "    }",
+            "}",
+            ""
+    );
+
+    /** The input of the test */
+    private static final String INPUT = "5\n4 8 15 16 23\n";
+
+    /** The output the submission must print for the test */
+    private static final String EXPECTED_OUTPUT = "66 23";
+
+    /**
+     * main
+     * builds the archive, then times test and compiler processes with and without it and prints the results
+     * @param args the number of runs and the directory of the archive, each optional
+     * @throws IOException if the submission cannot be written or a process cannot be started
+     * @throws InterruptedException if the main thread is interrupted while waiting
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = (args.length > 0) ? Integer.parseInt(args[0]) : RUNS;
+        String directory = (args.length > 1) ? args[1] : DIRECTORY;
+
+        if (!ClassDataArchive.build(directory)) {
+            System.out.println("[FAIL] StartupBenchmark: the archive cannot be built");
+            System.exit(1);
+        }
+
+        System.out.println("[INFO] Using " + ClassDataArchive.getArchive() + " on Java " + Runtime.version());
+
+        Path scratch = Files.createTempDirectory("startup-benchmark");
+        Path sourceFile = scratch.resolve("Main.java");
+        Path inputFile = scratch.resolve("input.txt");
+
+        Files.writeString(sourceFile, SOURCE);
+        Files.writeString(inputFile, INPUT);
+
+        boolean passed = true;
+        String javac = ClassDataArchive.javac();
+
+        try {
+            if (javac == null) {
+                System.out.println("[WARN] This Java installation has no compiler, so only tests are timed");
+
+                // The benchmark itself may still be able to compile the submission
+                passed = compileInProcess(sourceFile, scratch);
+            } else {
+                long[] plain = new long[runs];
+                long[] archived = new long[runs];
+
+                for (int i = 0; i < runs; i++) {
+                    plain[i] = time(compileCommand(javac, List.of(), sourceFile, scratch), null, scratch, "");
+                    archived[i] = time(compileCommand(javac, ClassDataArchive.jvmOptions(), sourceFile, scratch), null, scratch, "");
+
+                    passed &= (plain[i] >= 0) && (archived[i] >= 0);
+                }
+
+                report("javac", plain, archived);
+            }
+
+            long[] plain = new long[runs];
+            long[] archived = new long[runs];
+
+            for (int i = 0; i < runs; i++) {
+                plain[i] = time(testCommand(List.of(), scratch), inputFile, scratch, EXPECTED_OUTPUT);
+                archived[i] = time(testCommand(ClassDataArchive.jvmOptions(), scratch), inputFile, scratch, EXPECTED_OUTPUT);
+
+                passed &= (plain[i] >= 0) && (archived[i] >= 0);
+            }
+
+            report("test", plain, archived);
+        } finally {
+            for (File file : scratch.toFile().listFiles()) {
+                file.delete();
+            }
+
+            Files.deleteIfExists(scratch);
+        }
+
+        System.out.println(passed ? "[PASS] StartupBenchmark" : "[FAIL] StartupBenchmark");
+
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * testCommand
+     * builds the command which runs the submission on a test, the way a test process is started
+     * @param jvmOptions the options which select the archive, or none
+     * @param classPath the directory of the compiled submission
+     * @return the command
+     */
+    private static List<String> testCommand(List<String> jvmOptions, Path classPath) {
+        List<String> command = new ArrayList<>();
+
+        command.add(ClassDataArchive.java());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classPath.toString());
+        command.add("Main");
+
+        return command;
+    }
+
+    /**
+     * compileCommand
+     * builds the command which compiles the submission, the way it is compiled outside the judge's JVM
+     * @param javac the compiler launcher
+     * @param jvmOptions the options which select the archive, or none
+     * @param sourceFile the source of the submission
+     * @param classPath the directory to write the class to
+     * @return the command
+     */
+    private static List<String> compileCommand(String javac, List<String> jvmOptions, Path sourceFile, Path classPath) {
+        List<String> command = new ArrayList<>();
+
+        command.add(javac);
+
+        for (String option : jvmOptions) {
+            command.add("-J" + option);
+        }
+
+        command.add(sourceFile.toString());
+        command.add("-d");
+        command.add(classPath.toString());
+
+        return command;
+    }
+
+    /**
+     * compileInProcess
+     * compiles the submission with the compiler of the running JVM, for installations without a compiler launcher
+     * @param sourceFile the source of the submission
+     * @param classPath the directory to write the class to
+     * @return if the submission was compiled
+     */
+    private static boolean compileInProcess(Path sourceFile, Path classPath) {
+        javax.tools.JavaCompiler compiler = javax.tools.ToolProvider.getSystemJavaCompiler();
+
+        if (compiler == null) {
+            System.out.println("[INFO] The submission cannot be compiled without a Java compiler");
+            return false;
+        }
+
+        return compiler.run(null, null, null, "-d", classPath.toString(), sourceFile.toString()) == 0;
+    }
+
+    /**
+     * time
+     * runs a process to completion and checks its output
+     * @param command the command to run
+     * @param input the file to read standard input from, or null for none
+     * @param directory the directory to write the output to
+     * @param expectedOutput the output the process must print, ignoring surrounding whitespace
+     * @return the wall time of the process in nanoseconds, or -1 if it failed, timed out, or printed something else
+     * @throws IOException if the process cannot be started
+     * @throws InterruptedException if the main thread is interrupted while waiting
+     */
+    private static long time(List<String> command, Path input, Path directory, String expectedOutput) throws IOException, InterruptedException {
+        File output = directory.resolve("output.txt").toFile();
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(output);
+
+        if (input != null) {
+            builder.redirectInput(input.toFile());
+        }
+
+        long start = System.nanoTime();
+        Process process = builder.start();
+
+        if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+            System.out.println("[INFO] Timed out running " + command);
+            return -1;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        String printed = Files.readString(output.toPath()).trim();
+
+        if ((process.exitValue() != 0) || (!printed.equals(expectedOutput))) {
+            System.out.println("[INFO] Unexpected result running " + command + ": exit code " + process.exitValue() + ", output " + printed);
+            return -1;
+        }
+
+        return elapsed;
+    }
+
+    /**
+     * report
+     * prints the median and mean wall time of a process with and without the archive
+     * @param name the name of the process
+     * @param plain the wall times without the archive, in nanoseconds
+     * @param archived the wall times with the archive, in nanoseconds
+     */
+    private static void report(String name, long[] plain, long[] archived) {
+        double plainMedian = median(plain);
+        double archivedMedian = median(archived);
+
+        System.out.printf("[INFO] %-5s without archive: median %7.1fms, mean %7.1fms%n", name, plainMedian, mean(plain));
+        System.out.printf("[INFO] %-5s with archive:    median %7.1fms, mean %7.1fms, %.0f%% faster%n",
+                name, archivedMedian, mean(archived), (1 - archivedMedian / plainMedian) * 100);
+    }
+
+    /**
+     * median
+     * finds the median of wall times
+     * @param times the wall times in nanoseconds
+     * @return the median in milliseconds
+     */
+    private static double median(long[] times) {
+        long[] sorted = times.clone();
+        Arrays.sort(sorted);
+
+        return sorted[sorted.length / 2] / 1e6;
+    }
+
+    /**
+     * mean
+     * finds the mean of wall times
+     * @param times the wall times in nanoseconds
+     * @return the mean in milliseconds
+     */
+    private static double mean(long[] times) {
+        return Arrays.stream(times).average().orElse(0) / 1e6;
+    }
+}
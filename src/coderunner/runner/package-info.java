@@ -0,0 +1,6 @@
+/**
+ * A package for running compiled submissions in a pool of pre-started runner JVMs
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+package coderunner.runner;
\ No newline at end of file
@@ -0,0 +1,163 @@
+package coderunner.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The SHA-256 digests of an answer file, with line endings normalized, taken over fixed size blocks.
+ * Digests are computed once for each answer file and kept, so that checking an output
+ * is a single pass over the output which never reads the answer, and stops at the first block that differs.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class AnswerDigest {
+    /** The number of normalized bytes each digest covers */
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    /** The digests computed so far, keyed by the absolute path of the answer file */
+    private static final Map<Path, AnswerDigest> DIGESTS = new ConcurrentHashMap<>();
+
+    /** The size of the answer file when it was digested, to notice when it changes */
+    private final long fileSize;
+
+    /** The modification time of the answer file when it was digested, in milliseconds */
+    private final long lastModified;
+
+    /** The length of the answer after normalizing its line endings */
+    private final long length;
+
+    /** The digest of each block of the normalized answer */
+    private final List<byte[]> blockDigests;
+
+    /**
+     * Constructs an AnswerDigest
+     * @param fileSize the size of the answer file
+     * @param lastModified the modification time of the answer file, in milliseconds
+     * @param length the length of the normalized answer
+     * @param blockDigests the digest of each block of the normalized answer
+     */
+    private AnswerDigest(long fileSize, long lastModified, long length, List<byte[]> blockDigests) {
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+        this.length = length;
+        this.blockDigests = blockDigests;
+    }
+
+    /**
+     * of
+     * gets the digests of an answer file, computing them if the file has not been digested or has changed since
+     * @param answerPath the path of the answer file
+     * @return the digests of the answer file
+     * @throws IOException if an IO error occurs while reading the answer file
+     */
+    static AnswerDigest of(String answerPath) throws IOException {
+        Path path = Paths.get(answerPath).toAbsolutePath();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+
+        AnswerDigest digest = DIGESTS.get(path);
+
+        // Digest on first use, or again if the answer was edited
+        if ((digest == null) || (digest.fileSize != attributes.size()) || (digest.lastModified != attributes.lastModifiedTime().toMillis())) {
+            digest = compute(path, attributes);
+            DIGESTS.put(path, digest);
+        }
+
+        return digest;
+    }
+
+    /**
+     * compute
+     * digests each block of an answer file in a single pass
+     * @param path the path of the answer file
+     * @param attributes the attributes of the answer file
+     * @return the digests of the answer file
+     * @throws IOException if an IO error occurs while reading the answer file
+     */
+    private static AnswerDigest compute(Path path, BasicFileAttributes attributes) throws IOException {
+        MessageDigest sha = newDigest();
+        List<byte[]> blockDigests = new ArrayList<>();
+        byte[] block = new byte[BLOCK_SIZE];
+        long length = 0;
+
+        try (NormalizedInput answer = new NormalizedInput(path)) {
+            int read;
+
+            do {
+                read = answer.fill(block);
+
+                if (read > 0) {
+                    sha.update(block, 0, read);
+                    blockDigests.add(sha.digest());
+                    length += read;
+                }
+            } while (read == BLOCK_SIZE);
+        }
+
+        return new AnswerDigest(attributes.size(), attributes.lastModifiedTime().toMillis(), length, blockDigests);
+    }
+
+    /**
+     * matches
+     * checks if an output is the same as the answer once line endings are normalized,
+     * stopping at the first block that differs
+     * @param outputPath the path of the output file
+     * @return if the output matches the answer
+     * @throws IOException if an IO error occurs while reading the output file
+     */
+    boolean matches(String outputPath) throws IOException {
+        Path path = Paths.get(outputPath);
+
+        // Normalizing only removes bytes, so a shorter output cannot match
+        if (Files.size(path) < this.length) {
+            return false;
+        }
+
+        MessageDigest sha = newDigest();
+        byte[] block = new byte[BLOCK_SIZE];
+
+        try (NormalizedInput output = new NormalizedInput(path)) {
+            for (int i = 0; i < this.blockDigests.size(); i++) {
+                // Only the last block of the answer can be short
+                long expected = Math.min(BLOCK_SIZE, this.length - (long) i * BLOCK_SIZE);
+
+                int read = output.fill(block);
+
+                if (read != expected) {
+                    return false;
+                }
+
+                sha.update(block, 0, read);
+
+                if (!MessageDigest.isEqual(sha.digest(), this.blockDigests.get(i))) {
+                    return false;
+                }
+            }
+
+            // The answer is over, so the output must be as well
+            return output.fill(block) == 0;
+        }
+    }
+
+    /**
+     * newDigest
+     * creates the message digest used for the blocks
+     * @return a SHA-256 message digest
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package coderunner.test;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams the bytes of a file through a buffered channel, converting {@code \r\n} and lone {@code \r}
+ * line endings to {@code \n} as they are read, so that files can be compared without reading them whole
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class NormalizedInput implements Closeable {
+    /** The number of bytes read from the file at a time */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** The file being read */
+    private final FileChannel channel;
+
+    /** The bytes read from the file and not yet normalized */
+    private final byte[] buffer;
+
+    /** The buffer wrapped for reading from the channel */
+    private final ByteBuffer wrappedBuffer;
+
+    /** The position of the next byte in the buffer */
+    private int position;
+
+    /** The number of bytes in the buffer */
+    private int limit;
+
+    /** If the last byte read was a carriage return, so that a following line feed is dropped */
+    private boolean afterCarriageReturn;
+
+    /** If the end of the file has been reached */
+    private boolean ended;
+
+    /**
+     * Constructs a NormalizedInput by opening a file
+     * @param path the path of the file to read
+     * @throws IOException if the file cannot be opened
+     */
+    NormalizedInput(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.buffer = new byte[BUFFER_SIZE];
+        this.wrappedBuffer = ByteBuffer.wrap(this.buffer);
+    }
+
+    /**
+     * fill
+     * reads normalized bytes until the target is full or the file ends
+     * @param target the array to read into
+     * @return the number of bytes read, which is less than the length of the target only at the end of the file
+     * @throws IOException if an IO error occurs while reading
+     */
+    int fill(byte[] target) throws IOException {
+        int written = 0;
+
+        while (written < target.length) {
+            // Read the next chunk of the file
+            if (this.position == this.limit) {
+                if ((this.ended) || (!this.refill())) {
+                    break;
+                }
+            }
+
+            byte current = this.buffer[this.position++];
+
+            if (current == '\r') {
+                // A carriage return always ends a line
+                target[written++] = '\n';
+                this.afterCarriageReturn = true;
+            } else {
+                // Drop the line feed of a \r\n, as the \r already ended the line
+                if ((current != '\n') || (!this.afterCarriageReturn)) {
+                    target[written++] = current;
+                }
+
+                this.afterCarriageReturn = false;
+            }
+        }
+
+        return written;
+    }
+
+    /**
+     * refill
+     * reads the next chunk of the file into the buffer
+     * @return false if the end of the file has been reached
+     * @throws IOException if an IO error occurs while reading
+     */
+    private boolean refill() throws IOException {
+        int read;
+
+        do {
+            this.wrappedBuffer.clear();
+            read = this.channel.read(this.wrappedBuffer);
+        } while (read == 0);
+
+        if (read == -1) {
+            this.ended = true;
+            return false;
+        }
+
+        this.position = 0;
+        this.limit = read;
+
+        return true;
+    }
+
+    /**
+     * close
+     * closes the file
+     * @throws IOException if an IO error occurs while closing
+     */
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
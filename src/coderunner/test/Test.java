@@ -1,9 +1,18 @@
 package coderunner.test;
 
+import coderunner.runner.Cancellation;
+import coderunner.runner.ClassDataArchive;
+import coderunner.runner.RunResult;
+import coderunner.runner.RunStatus;
+import coderunner.runner.RunnerPool;
+
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -12,6 +21,12 @@ import java.util.concurrent.TimeUnit;
  * @version 1.0 - June 4th 2023
  */
 public class Test {
+    /** The time a submission is given to run on each test, in milliseconds */
+    private static final long TIME_LIMIT_MILLIS = 3000;
+
+    /** The directory containing the class file and the error file */
+    private final String workingDirectory;
+
     /** The path of the class file to execute */
     private final String compiledFilePath;
 
@@ -27,14 +42,19 @@ public class Test {
     /** The result of the test */
     private TestResult result;
 
+    /** If the test was stopped because another test of the submission failed */
+    private boolean cancelled;
+
     /**
      * Constructs a Test instance to test a compiled file
+     * @param workingDirectory the directory the compiled file is run from
      * @param compiledFilePath the path to the compiled .class file
      * @param inputFilePath the path to the file containing the input
      * @param outputFilePath the path to the file where the process's output is redirected
      * @param answerFilePath the path to the file containing the correct output for the problem
      */
-    public Test(String compiledFilePath, String inputFilePath, String outputFilePath, String answerFilePath) {
+    public Test(String workingDirectory, String compiledFilePath, String inputFilePath, String outputFilePath, String answerFilePath) {
+        this.workingDirectory = workingDirectory;
         this.compiledFilePath = compiledFilePath;
         this.inputFilePath = inputFilePath;
         this.outputFilePath = outputFilePath;
@@ -48,19 +68,39 @@ public class Test {
      * @throws InterruptedException if the current thread is interrupted while waiting.
      */
     public void execute() throws IOException, InterruptedException {
+        this.execute(new Cancellation());
+    }
 
-        // Create process
-        String[] commands = { "java ", this.compiledFilePath };
-
-        ProcessBuilder process = new ProcessBuilder(commands);
+    /**
+     * execute
+     * creates and executes a java process running the compiled file,
+     * which is killed if the tests of the submission are cancelled while it runs
+     * @param cancellation the cancellation shared by the tests of the submission
+     * @throws IOException if an IO error occurs during the creation of execution of the process
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public void execute(Cancellation cancellation) throws IOException, InterruptedException {
 
         // Redirect input and output streams
-        String dir = System.getProperty("user.dir") + "\\";
+        String dir = System.getProperty("user.dir") + File.separator;
+
+        // Create process with the working directory as its class path
+        List<String> commands = new ArrayList<>();
+
+        // The same JVM as the judge, as the archive can only be used with the JDK which created it
+        commands.add(ClassDataArchive.java());
+        commands.addAll(ClassDataArchive.jvmOptions());
+        commands.add("-cp");
+        commands.add(dir + this.workingDirectory);
+        commands.add(this.compiledFilePath);
+
+        ProcessBuilder process = new ProcessBuilder(commands);
 
         // Construct file paths
+        // each test has its own error file, as the tests of a submission can run at the same time
         String inputFilePath = dir + this.inputFilePath;
         String outputFilePath = dir + this.outputFilePath;
-        String errorFilePath = dir + "error.txt";
+        String errorFilePath = dir + this.workingDirectory + File.separator + "error-" + new File(this.outputFilePath).getName();
 
         // Redirect output
         process.redirectInput(new File(inputFilePath));
@@ -69,11 +109,29 @@ public class Test {
 
         // Start process execution
         Process executionProcess = process.start();
+        Runnable cancel = executionProcess::destroyForcibly;
 
-        // Timeout after 3000 milliseconds
-        if (!executionProcess.waitFor(3000, TimeUnit.MILLISECONDS)) {
-            executionProcess.destroy();
-            this.result = new TestResult(TestCode.TIME_LIMIT_EXCEEDED, null);
+        // Cancelled while starting
+        if (!cancellation.register(cancel)) {
+            executionProcess.destroyForcibly();
+            this.cancelled = true;
+            return;
+        }
+
+        // Timeout after the time limit
+        try {
+            if (!executionProcess.waitFor(TIME_LIMIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                executionProcess.destroy();
+                this.result = new TestResult(TestCode.TIME_LIMIT_EXCEEDED, null);
+                return;
+            }
+        } finally {
+            cancellation.unregister(cancel);
+        }
+
+        // Killed because another test failed
+        if (cancellation.isCancelled()) {
+            this.cancelled = true;
             return;
         }
 
@@ -97,9 +155,66 @@ public class Test {
         }
     }
 
+    /**
+     * execute
+     * runs the compiled classes on a warm runner JVM from a pool instead of starting a java process,
+     * so the time limit only counts the time spent in the submission
+     * @param runners the pool of runner JVMs
+     * @param classFiles the compiled classes of the submission keyed by binary class name
+     * @throws IOException if an IO error occurs while reading the input or the pool has no runners
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public void execute(RunnerPool runners, Map<String, byte[]> classFiles) throws IOException, InterruptedException {
+        this.execute(runners, classFiles, new Cancellation());
+    }
+
+    /**
+     * execute
+     * runs the compiled classes on a warm runner JVM from a pool instead of starting a java process,
+     * killing the runner if the tests of the submission are cancelled while it runs
+     * @param runners the pool of runner JVMs
+     * @param classFiles the compiled classes of the submission keyed by binary class name
+     * @param cancellation the cancellation shared by the tests of the submission
+     * @throws IOException if an IO error occurs while reading the input or the pool has no runners
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    public void execute(RunnerPool runners, Map<String, byte[]> classFiles, Cancellation cancellation) throws IOException, InterruptedException {
+        RunResult run = runners.run(
+                this.compiledFilePath,
+                classFiles,
+                this.inputFilePath,
+                this.outputFilePath,
+                TIME_LIMIT_MILLIS,
+                cancellation
+        );
+
+        String stackTrace = run.getErrorText();
+
+        if ((run.getStatus() == RunStatus.CANCELLED) || (cancellation.isCancelled())) {
+            this.cancelled = true;
+        } else if (run.getStatus() == RunStatus.TIMED_OUT) {
+            this.result = new TestResult(TestCode.TIME_LIMIT_EXCEEDED, null);
+        } else if (run.getStatus() == RunStatus.OUT_OF_MEMORY) {
+            this.result = new TestResult(TestCode.MEMORY_LIMIT_EXCEEDED, stackTrace);
+        } else if ((run.getStatus() == RunStatus.THREW) || (run.getStatus() == RunStatus.CRASHED) || (stackTrace.length() != 0)) {
+            this.result = new TestResult(TestCode.RUNTIME_ERROR, stackTrace);
+        } else if ((run.getStatus() == RunStatus.EXITED) && (run.getExitCode() != 0)) {
+            this.result = new TestResult(TestCode.INVALID_RETURN, "Exit code " + run.getExitCode());
+        }
+    }
+
+    /**
+     * isCancelled
+     * Checks if the test was stopped because another test of the submission failed, in which case it has no result
+     * @return if the test was cancelled
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
     /**
      * test
-     * Checks and compares the contents of the output and answer files.
+     * Checks and compares the contents of the output and answer files, ignoring the difference between line endings.
      * @return a {@link TestResult} containing a {@link TestCode} and optional data
      * @throws IOException if an IO error occurs while reading from the two files
      */
@@ -110,40 +225,13 @@ public class Test {
         }
 
         // Get working directory
-        String workingDirectory = System.getProperty("user.dir") + "\\";
-
-        // Read all content from output file
-        StringBuilder outputFileContents = new StringBuilder();
-
-        try (BufferedReader outputFile = new BufferedReader(new FileReader(workingDirectory + this.outputFilePath))) {
-            int currentChar = outputFile.read();
-
-            while (currentChar != -1) {
-                outputFileContents.append((char) currentChar);
-
-                currentChar = outputFile.read();
-            }
-        }
-
-        // Read all content from answer file
-        StringBuilder answerFileContents = new StringBuilder();
-
-        try (BufferedReader answerFile = new BufferedReader(new FileReader(workingDirectory + this.answerFilePath))) {
-            int currentChar = answerFile.read();
-
-            while (currentChar != -1) {
-                answerFileContents.append((char) currentChar);
-
-                currentChar = answerFile.read();
-            }
-        }
+        String projectDirectory = System.getProperty("user.dir") + File.separator;
 
-        // Normalize file endings
-        String outputContent = outputFileContents.toString().replaceAll("\\r\\n?", "\n");
-        String answerContent = answerFileContents.toString().replaceAll("\\r\\n?", "\n");
+        // Digests of the answer, computed the first time it is used
+        AnswerDigest answer = AnswerDigest.of(projectDirectory + this.answerFilePath);
 
-        // Performs a one-to-one check
-        if (outputContent.equals(answerContent)) {
+        // Performs a one-to-one check, streaming the output with normalized line endings
+        if (answer.matches(projectDirectory + this.outputFilePath)) {
             return new TestResult(TestCode.ACCEPTED, null);
         } else {
             return new TestResult(TestCode.WRONG_ANSWER, null);
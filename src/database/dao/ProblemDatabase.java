@@ -15,6 +15,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Wraps raw SQL connections to the problem table in a more accessible API
@@ -28,6 +29,9 @@ public class ProblemDatabase {
     /** Class name of the JDBC driver */
     private static final String JDBC_CLASS_NAME = "org.sqlite.JDBC";
 
+    /** Listeners notified after problems are added or replaced */
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
     /**
      * Constructs the object and initializes its data.
      * Creates a problems table if it does not exist.
@@ -60,6 +64,26 @@ public class ProblemDatabase {
         }
     }
 
+    /**
+     * addChangeListener
+     * Registers a listener which is run after problems are added or replaced,
+     * so that anything derived from the problems (e.g. cached fragments) can be invalidated.
+     * @param listener the listener to run
+     */
+    public void addChangeListener(Runnable listener) {
+        this.changeListeners.add(listener);
+    }
+
+    /**
+     * notifyChanged
+     * Runs every change listener.
+     */
+    private void notifyChanged() {
+        for (Runnable listener : this.changeListeners) {
+            listener.run();
+        }
+    }
+
     /**
      * addProblem
      * Attempts to add a problem to the problems table.
@@ -95,6 +119,8 @@ public class ProblemDatabase {
 
             statement.executeUpdate();
         }
+
+        this.notifyChanged();
     }
 
     /**
@@ -372,5 +398,7 @@ public class ProblemDatabase {
                 }
             }
         }
+
+        this.notifyChanged();
     }
 }
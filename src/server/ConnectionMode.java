@@ -0,0 +1,15 @@
+package server;
+
+/**
+ * Represents the possible ways in which the {@link WebServer} can accept and serve client connections
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public enum ConnectionMode {
+    /** Each accepted socket is handled by its own thread using blocking IO */
+    BLOCKING,
+    /** Each accepted socket is handled by its own virtual thread using blocking IO, falling back to pooled platform threads before Java 21 */
+    VIRTUAL_THREADS,
+    /** Sockets are multiplexed by a small pool of selector threads using non-blocking IO */
+    NIO,
+}
@@ -0,0 +1,716 @@
+package server;
+
+import server.request.MalformedRequestException;
+import server.request.RawRequest;
+import server.request.RequestDecoder;
+import server.request.Request;
+import server.request.RequestParser;
+import server.request.RequestTooLargeException;
+import server.response.FileResponse;
+import server.response.Response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * A non-blocking connection engine for the {@link WebServer}.
+ * Accepted connections are spread over a small fixed pool of selector threads, which only read requests and write responses.
+ * Once a full request has been read, it is parsed and dispatched on a separate pool of handler threads,
+ * so slow handlers (i.e. database queries) never block the selector threads.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class NioConnectionEngine {
+    /** The initial size of each connection's read buffer */
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    /** The number of milliseconds between checks for idle connections */
+    private static final long IDLE_SWEEP_INTERVAL = 1000;
+
+    /** The number of bytes a streamed body may get ahead of the client before its producer has to wait */
+    private static final int MAX_STREAM_BACKLOG = 64 * 1024;
+
+    /** The web server which creates the responses */
+    private final WebServer server;
+
+    /** The settings of the engine */
+    private final ServerConfig config;
+
+    /** The threads which dispatch request handlers */
+    private final ExecutorService handlerPool;
+
+    /** The selector threads which read from and write to the client connections */
+    private final IoWorker[] workers;
+
+    /**
+     * Constructs an engine which serves responses created by a {@link WebServer}
+     * @param server the web server which creates the responses
+     * @param config the settings of the engine
+     */
+    NioConnectionEngine(WebServer server, ServerConfig config) {
+        this.server = server;
+        this.config = config;
+        this.handlerPool = Executors.newFixedThreadPool(config.getHandlerThreads(), namedThreads("http-handler"));
+        this.workers = new IoWorker[config.getIoThreads()];
+    }
+
+    /**
+     * serve
+     * Serves the server at the specified port.
+     * The calling thread accepts connections and hands them off to the selector threads in a round-robin fashion.
+     * @param port the port to serve on
+     * @param onOpen a consumer that receives the port as its argument
+     */
+    void serve(int port, Consumer<Integer> onOpen) {
+        // Open the server socket
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.bind(new InetSocketAddress(port));
+
+            // Start selector threads
+            for (int i = 0; i < this.workers.length; i++) {
+                this.workers[i] = new IoWorker();
+
+                Thread t = new Thread(this.workers[i], "http-io-" + i);
+                t.setDaemon(true);
+                t.start();
+            }
+
+            // Output message when server is up
+            if (onOpen != null) {
+                onOpen.accept(port);
+            }
+
+            // Accept loop
+            int next = 0;
+
+            try {
+                while (true) {
+                    SocketChannel client = serverChannel.accept();
+
+                    this.workers[next].register(client);
+                    next = (next + 1) % this.workers.length;
+                }
+            } catch (IOException e) {
+                System.out.println("Error when waiting for connection");
+            }
+        } catch (IOException e) {
+            System.out.println("Error opening server socket");
+        } finally {
+            this.handlerPool.shutdown();
+        }
+    }
+
+    /**
+     * namedThreads
+     * creates a thread factory which names its threads with a prefix and an index
+     * @param prefix the prefix of the thread names
+     * @return the thread factory
+     */
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+
+        return runnable -> {
+            Thread t = new Thread(runnable, prefix + "-" + count.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * A selector thread which owns a set of client connections.
+     * All registration and interest changes are queued and run on the selector thread itself
+     * so the selector never has to be accessed concurrently.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private class IoWorker implements Runnable {
+        /** The selector multiplexing this worker's connections */
+        private final Selector selector;
+
+        /** The tasks to run on the selector thread before the next select */
+        private final Queue<Runnable> pendingTasks;
+
+        /**
+         * Constructs a worker with its own selector
+         * @throws IOException if the selector cannot be opened
+         */
+        IoWorker() throws IOException {
+            this.selector = Selector.open();
+            this.pendingTasks = new ConcurrentLinkedQueue<>();
+        }
+
+        /**
+         * register
+         * hands off a newly accepted connection to this worker
+         * @param client the accepted connection
+         */
+        void register(SocketChannel client) {
+            this.submit(() -> {
+                try {
+                    client.configureBlocking(false);
+                    client.register(this.selector, SelectionKey.OP_READ, new Connection(client));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    closeQuietly(client);
+                }
+            });
+        }
+
+        /**
+         * submit
+         * queues a task to be run on the selector thread and wakes the selector up
+         * @param task the task to run
+         */
+        void submit(Runnable task) {
+            this.pendingTasks.add(task);
+            this.selector.wakeup();
+        }
+
+        /**
+         * run
+         * selects ready connections and reads from or writes to them
+         */
+        @Override
+        public void run() {
+            long lastSweep = System.currentTimeMillis();
+
+            while (true) {
+                try {
+                    this.selector.select(IDLE_SWEEP_INTERVAL);
+                } catch (IOException e) {
+                    e.printStackTrace();
+                    return;
+                }
+
+                // Run queued tasks
+                Runnable task;
+
+                while ((task = this.pendingTasks.poll()) != null) {
+                    task.run();
+                }
+
+                // Handle ready connections
+                Iterator<SelectionKey> keys = this.selector.selectedKeys().iterator();
+
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    Connection connection = (Connection) key.attachment();
+
+                    try {
+                        if (!key.isValid()) {
+                            connection.close();
+                        } else if (key.isReadable()) {
+                            connection.read(key);
+                        } else if (key.isWritable()) {
+                            connection.write(key);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        connection.close();
+                    }
+                }
+
+                // Close idle persistent connections
+                long now = System.currentTimeMillis();
+
+                if (now - lastSweep >= IDLE_SWEEP_INTERVAL) {
+                    this.closeIdleConnections(now);
+                    lastSweep = now;
+                }
+            }
+        }
+
+        /**
+         * closeIdleConnections
+         * closes all connections which have been waiting for a request for longer than the keep alive timeout
+         * @param now the current time in milliseconds
+         */
+        private void closeIdleConnections(long now) {
+            for (SelectionKey key : this.selector.keys()) {
+                Connection connection = (Connection) key.attachment();
+
+                if ((connection != null) && (connection.isIdle(now))) {
+                    connection.close();
+                }
+            }
+        }
+
+        /**
+         * A client connection owned by an {@link IoWorker}, along with its read and write buffers.
+         * Only one request per connection is handled at a time. Pipelined requests stay in the read buffer
+         * until the previous response has been written, so responses are always sent in request order.
+         * @author Harry Xu
+         * @version 1.0 - October 18th 2026
+         */
+        private class Connection {
+            /** The channel of the client */
+            private final SocketChannel channel;
+
+            /** The bytes read from the client which have not been handled yet */
+            private ByteBuffer input;
+
+            /** Finds the boundaries of each request, remembering the progress made on a partial request */
+            private final RequestDecoder.Session decoder;
+
+            /** The bytes of the response being written to the client, which is only its head if the body is streamed */
+            private ByteBuffer output;
+
+            /** The response whose file is transferred after the output buffer, or null if the whole response is in the buffer */
+            private FileResponse streamed;
+
+            /** The number of bytes of the streamed body which have been written */
+            private long streamedPosition;
+
+            /** The chunks of a response of unknown length which is being produced on a handler thread, or null if there is none */
+            private StreamPipe pipe;
+
+            /** If a request is currently being handled or its response written */
+            private boolean busy;
+
+            /** If the connection should be kept open after the current response is written */
+            private boolean keepAlive;
+
+            /** The number of requests handled on this connection */
+            private int handledRequests;
+
+            /** The time of the last activity on this connection in milliseconds */
+            private long lastActive;
+
+            /**
+             * Constructs a connection with a client channel
+             * @param channel the channel to communicate with
+             */
+            Connection(SocketChannel channel) {
+                this.channel = channel;
+                this.input = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+                this.decoder = server.getRequestDecoder().newSession();
+                this.lastActive = System.currentTimeMillis();
+            }
+
+            /**
+             * isIdle
+             * determines if the connection has been waiting for a request for longer than the keep alive timeout
+             * @param now the current time in milliseconds
+             * @return if the connection is idle
+             */
+            boolean isIdle(long now) {
+                return (!this.busy) && (now - this.lastActive > config.getKeepAliveTimeout());
+            }
+
+            /**
+             * read
+             * reads the available bytes from the client and dispatches the request once it is complete
+             * @param key the selection key of this connection
+             * @throws IOException if an error occurs while reading
+             */
+            void read(SelectionKey key) throws IOException {
+                // Grow the buffer if it is full
+                if (!this.input.hasRemaining()) {
+                    ByteBuffer larger = ByteBuffer.allocate(this.input.capacity() * 2);
+                    this.input.flip();
+                    larger.put(this.input);
+                    this.input = larger;
+                }
+
+                if (this.channel.read(this.input) == -1) {
+                    this.close();
+                    return;
+                }
+
+                this.lastActive = System.currentTimeMillis();
+
+                this.dispatchNext(key);
+            }
+
+            /**
+             * dispatchNext
+             * dispatches the next complete request in the read buffer, if there is one
+             * @param key the selection key of this connection
+             */
+            private void dispatchNext(SelectionKey key) {
+                // Check for a complete request
+                ByteBuffer view = this.input.duplicate();
+                view.flip();
+
+                RawRequest rawRequest;
+
+                try {
+                    rawRequest = this.decoder.decode(view);
+                } catch (RequestTooLargeException | MalformedRequestException e) {
+                    // Reject without reading the rest of the request
+                    this.busy = true;
+                    this.send(key, server.rejectionResponse(e), false);
+                    return;
+                } catch (RuntimeException e) {
+                    // A bug in decoding must not take down the selector thread
+                    e.printStackTrace();
+                    this.close();
+                    return;
+                }
+
+                if (rawRequest == null) {
+                    return;
+                }
+
+                // Remove the request from the buffer, keeping any pipelined requests after it
+                this.input.flip();
+                this.input.position(rawRequest.getLength());
+                this.input.compact();
+
+                // Stop reading while the request is handled
+                this.busy = true;
+                key.interestOps(0);
+
+                handlerPool.execute(() -> this.handle(key, rawRequest));
+            }
+
+            /**
+             * handle
+             * parses the request and creates the response on a handler thread,
+             * then hands the response back to the selector thread to be written
+             * @param key the selection key of this connection
+             * @param rawRequest the request read from the connection
+             */
+            private void handle(SelectionKey key, RawRequest rawRequest) {
+                Request req;
+
+                try {
+                    req = RequestParser.parse(rawRequest);
+                } catch (MalformedRequestException e) {
+                    submit(() -> this.send(key, server.rejectionResponse(e), false));
+                    return;
+                }
+
+                Response res = server.respond(req);
+
+                if (res == null) {
+                    submit(this::close);
+                    return;
+                }
+
+                this.handledRequests++;
+
+                boolean keepAlive = server.isKeepAlive(req, this.handledRequests);
+                server.applyConnectionHeaders(res, keepAlive);
+
+                if ((res.isInMemory()) || (res instanceof FileResponse)) {
+                    submit(() -> this.send(key, res, keepAlive));
+                    return;
+                }
+
+                // The body is produced on this thread while the selector thread writes the chunks already produced
+                StreamPipe pipe = new StreamPipe(() -> submit(() -> this.resumeWriting(key)));
+
+                submit(() -> {
+                    this.pipe = pipe;
+                    this.send(key, res, keepAlive);
+                });
+
+                try {
+                    pipe.write(res.toHeadBytes());
+                    res.writeBody(pipe);
+                    pipe.close();
+                } catch (IOException | RuntimeException e) {
+                    // The head has already been sent, so the response can only be cut off
+                    pipe.abort();
+                    submit(this::close);
+                } finally {
+                    res.close();
+                }
+            }
+
+            /**
+             * send
+             * starts writing a response to the client on the selector thread
+             * @param key the selection key of this connection
+             * @param res the response to write
+             * @param keepAlive if the connection should be kept open after the response is written
+             */
+            private void send(SelectionKey key, Response res, boolean keepAlive) {
+                if (this.pipe != null) {
+                    // The head and body are both written from the pipe
+                    this.output = null;
+                } else if (res.isInMemory()) {
+                    this.output = ByteBuffer.wrap(res.toBytes());
+                } else {
+                    // Only the head is buffered, the file is transferred straight to the channel afterward
+                    this.output = ByteBuffer.wrap(res.toHeadBytes());
+                    this.streamed = (FileResponse) res;
+                    this.streamedPosition = 0;
+                }
+
+                this.keepAlive = keepAlive;
+
+                try {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                } catch (RuntimeException e) {
+                    this.close();
+                }
+            }
+
+            /**
+             * write
+             * writes as much of the response as the client can accept.
+             * Once it is written, the connection is either closed or reused for the next request.
+             * @param key the selection key of this connection
+             * @throws IOException if an error occurs while writing
+             */
+            void write(SelectionKey key) throws IOException {
+                if (this.pipe != null) {
+                    int status = this.pipe.drain(this.channel);
+
+                    if (status == StreamPipe.EMPTY) {
+                        // Wait for the producer to resume writing
+                        key.interestOps(0);
+                        return;
+                    }
+
+                    if (status == StreamPipe.BLOCKED) {
+                        return;
+                    }
+
+                    this.pipe = null;
+                } else if (this.output.hasRemaining()) {
+                    this.channel.write(this.output);
+
+                    if (this.output.hasRemaining()) {
+                        return;
+                    }
+                }
+
+                if (this.streamed != null) {
+                    this.streamedPosition += this.streamed.writeBody(this.channel, this.streamedPosition);
+
+                    if (this.streamedPosition < this.streamed.getContentLength()) {
+                        return;
+                    }
+
+                    this.streamed.close();
+                    this.streamed = null;
+                }
+
+                this.output = null;
+
+                if (!this.keepAlive) {
+                    this.close();
+                    return;
+                }
+
+                // Wait for the next request
+                this.busy = false;
+                this.lastActive = System.currentTimeMillis();
+                key.interestOps(SelectionKey.OP_READ);
+
+                // Handle a pipelined request which has already been read
+                this.dispatchNext(key);
+            }
+
+            /**
+             * resumeWriting
+             * starts writing again once the producer of a streamed body has written more chunks
+             * @param key the selection key of this connection
+             */
+            private void resumeWriting(SelectionKey key) {
+                try {
+                    key.interestOps(SelectionKey.OP_WRITE);
+                } catch (RuntimeException e) {
+                    this.close();
+                }
+            }
+
+            /**
+             * close
+             * closes the connection, ignoring any errors
+             */
+            void close() {
+                closeQuietly(this.channel);
+
+                if (this.pipe != null) {
+                    this.pipe.abort();
+                    this.pipe = null;
+                }
+
+                if (this.streamed != null) {
+                    this.streamed.close();
+                    this.streamed = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * An output stream which carries the chunks of a response from the handler thread producing them
+     * to the selector thread writing them to the client.
+     * The producer waits while too many bytes are queued, so a slow client never makes a whole page pile up in memory.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class StreamPipe extends OutputStream {
+        /** Returned by {@link #drain(SocketChannel)} when every chunk has been written and the producer is done */
+        static final int DONE = 0;
+
+        /** Returned by {@link #drain(SocketChannel)} when the client cannot accept more bytes yet */
+        static final int BLOCKED = 1;
+
+        /** Returned by {@link #drain(SocketChannel)} when every queued chunk has been written but the producer is not done */
+        static final int EMPTY = 2;
+
+        /** Wakes the selector thread up once more chunks are queued */
+        private final Runnable onWritable;
+
+        /** The chunks which have not been fully written to the client */
+        private final Deque<ByteBuffer> chunks;
+
+        /** The number of bytes queued in the chunks */
+        private int queuedBytes;
+
+        /** If the producer has written everything */
+        private boolean closed;
+
+        /** If the connection has been closed, so nothing more will be written */
+        private boolean aborted;
+
+        /** If the selector thread has stopped writing until more chunks are queued */
+        private boolean waiting;
+
+        /**
+         * Constructs an empty pipe
+         * @param onWritable wakes the selector thread up once more chunks are queued
+         */
+        StreamPipe(Runnable onWritable) {
+            this.onWritable = onWritable;
+            this.chunks = new ArrayDeque<>();
+        }
+
+        /**
+         * write
+         * queues a single byte, which should be avoided since each write is its own chunk
+         * @param b the byte to write
+         * @throws IOException if the connection has been closed
+         */
+        @Override
+        public void write(int b) throws IOException {
+            this.write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        /**
+         * write
+         * queues a copy of the bytes to be written to the client, waiting while too many bytes are already queued
+         * @param b the bytes to write
+         * @param off the start offset in the bytes
+         * @param len the number of bytes to write
+         * @throws IOException if the connection has been closed or the producer is interrupted
+         */
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            while ((this.queuedBytes >= MAX_STREAM_BACKLOG) && (!this.aborted)) {
+                try {
+                    this.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the client");
+                }
+            }
+
+            if (this.aborted) {
+                throw new IOException("Connection closed by the client");
+            }
+
+            this.chunks.add(ByteBuffer.wrap(Arrays.copyOfRange(b, off, off + len)));
+            this.queuedBytes += len;
+
+            this.wakeSelector();
+        }
+
+        /**
+         * close
+         * marks the body as fully produced
+         */
+        @Override
+        public synchronized void close() {
+            this.closed = true;
+            this.wakeSelector();
+        }
+
+        /**
+         * abort
+         * stops the producer, since the connection has been closed
+         */
+        synchronized void abort() {
+            this.aborted = true;
+            this.notifyAll();
+        }
+
+        /**
+         * drain
+         * writes as many queued chunks as the client accepts, on the selector thread
+         * @param channel the channel of the client
+         * @return {@link #DONE}, {@link #BLOCKED}, or {@link #EMPTY}
+         * @throws IOException if an error occurs while writing
+         */
+        synchronized int drain(SocketChannel channel) throws IOException {
+            while (!this.chunks.isEmpty()) {
+                ByteBuffer chunk = this.chunks.peek();
+                int written = channel.write(chunk);
+
+                this.queuedBytes -= written;
+                this.notifyAll();
+
+                if (chunk.hasRemaining()) {
+                    return BLOCKED;
+                }
+
+                this.chunks.poll();
+            }
+
+            if (this.closed) {
+                return DONE;
+            }
+
+            this.waiting = true;
+            return EMPTY;
+        }
+
+        /**
+         * wakeSelector
+         * wakes the selector thread up if it stopped writing because the pipe was empty
+         */
+        private void wakeSelector() {
+            if (this.waiting) {
+                this.waiting = false;
+                this.onWritable.run();
+            }
+        }
+    }
+
+    /**
+     * closeQuietly
+     * closes a channel, ignoring any errors
+     * @param channel the channel to close
+     */
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Connection already unusable
+        }
+    }
+}
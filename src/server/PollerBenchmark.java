@@ -0,0 +1,654 @@
+package server;
+
+import assets.AssetEngine;
+import server.handler.Handler;
+import server.handler.methods.Get;
+import server.request.Request;
+import server.response.Response;
+import server.response.ResponseCode;
+import template.TemplateEngine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A load test of the {@link ConnectionMode#BLOCKING} and {@link ConnectionMode#VIRTUAL_THREADS} modes of the {@link WebServer},
+ * run from the repository root with
+ * {@code java server.PollerBenchmark [seconds] [intervalMillis] [blockMillis] [pollers...]}.
+ * Each poller keeps a connection open and requests {@code /problems/:id/submissions} every interval, as the submission page does,
+ * against a stand-in for the polling route which blocks for {@code blockMillis} like a JDBC call would.
+ * The server runs in its own JVM for each mode and number of pollers, so their threads and file descriptors are not shared with the pollers,
+ * which are all driven by a single selector thread.
+ * Reports the throughput, latencies, failures, and server threads and heap of each run.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class PollerBenchmark {
+    /** The default number of seconds each run polls for, after a warm up interval */
+    private static final int SECONDS = 10;
+
+    /** The default time between the polls of each poller, matching the submission page */
+    private static final int INTERVAL_MILLIS = 250;
+
+    /** The default time the stand-in route blocks for, in place of a database call */
+    private static final int BLOCK_MILLIS = 5;
+
+    /** The default numbers of concurrent pollers */
+    private static final int[] POLLERS = {1000, 5000, 10000};
+
+    /** The modes which are compared */
+    private static final ConnectionMode[] MODES = {ConnectionMode.BLOCKING, ConnectionMode.VIRTUAL_THREADS};
+
+    /** The size of the buffer each poller reads responses into */
+    private static final int RESPONSE_BUFFER_SIZE = 4096;
+
+    /**
+     * main
+     * runs every mode with every number of pollers and prints a line for each run,
+     * or serves the stand-in route when started by another benchmark process
+     * @param args the run length in seconds, the poll interval and blocking time in milliseconds, and the numbers of pollers, each optional
+     * @throws IOException if a server cannot be started or queried
+     * @throws InterruptedException if the main thread is interrupted while waiting
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if ((args.length > 0) && (args[0].equals("serve"))) {
+            serve(ConnectionMode.valueOf(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            return;
+        }
+
+        int seconds = (args.length > 0) ? Integer.parseInt(args[0]) : SECONDS;
+        int intervalMillis = (args.length > 1) ? Integer.parseInt(args[1]) : INTERVAL_MILLIS;
+        int blockMillis = (args.length > 2) ? Integer.parseInt(args[2]) : BLOCK_MILLIS;
+        int[] pollerCounts = (args.length > 3)
+                ? Arrays.stream(args, 3, args.length).mapToInt(Integer::parseInt).toArray()
+                : POLLERS;
+
+        System.out.println("[INFO] Polling every " + intervalMillis + "ms for " + seconds + "s, with the route blocking for " + blockMillis + "ms, on Java " + Runtime.version());
+
+        for (int pollers : pollerCounts) {
+            for (ConnectionMode mode : MODES) {
+                System.out.println(run(mode, pollers, seconds, intervalMillis, blockMillis));
+            }
+        }
+    }
+
+    /**
+     * run
+     * starts a server in its own JVM and polls it from many connections at once
+     * @param mode the connection mode of the server
+     * @param pollers the number of concurrent pollers
+     * @param seconds the number of seconds to measure for
+     * @param intervalMillis the time between the polls of each poller
+     * @param blockMillis the time the route blocks for
+     * @return a line describing the results
+     * @throws IOException if the server cannot be started or queried
+     * @throws InterruptedException if the main thread is interrupted while waiting
+     */
+    private static String run(ConnectionMode mode, int pollers, int seconds, int intervalMillis, int blockMillis) throws IOException, InterruptedException {
+        int port = freePort();
+
+        Process server = new ProcessBuilder(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                PollerBenchmark.class.getName(), "serve", mode.name(), Integer.toString(port), Integer.toString(blockMillis)
+        ).redirectErrorStream(true).start();
+
+        try {
+            // Wait until the server accepts clients, echoing anything it prints such as a fallback notice
+            BufferedReader serverOutput = new BufferedReader(new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+
+            while ((line = serverOutput.readLine()) != null) {
+                if (line.equals("ready")) {
+                    break;
+                }
+
+                System.out.println("[SERVER] " + line);
+            }
+
+            if (line == null) {
+                return mode + " with " + pollers + " pollers: the server did not start";
+            }
+
+            Results results = new LoadGenerator(port, pollers, intervalMillis).run(seconds);
+
+            return String.format("%-15s %6d pollers: %8.0f req/s, p50 %6.1fms, p99 %7.1fms, %6d failed, %s",
+                    mode, pollers, results.completed / (double) seconds,
+                    results.percentile(0.50), results.percentile(0.99), results.failed, fetch(port, "/stats"));
+        } finally {
+            server.destroyForcibly();
+            server.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * serve
+     * serves the stand-in polling route and a route reporting the server's threads and heap, printing ready once it accepts clients
+     * @param mode the connection mode of the server
+     * @param port the port to serve on
+     * @param blockMillis the time the polling route blocks for
+     * @throws IOException if the templates of the error pages cannot be loaded
+     */
+    private static void serve(ConnectionMode mode, int port, int blockMillis) throws IOException {
+        LinkedHashMap<String, Handler> routes = new LinkedHashMap<>();
+
+        routes.put("/problems/:problemId/submissions", new PollRoute(blockMillis));
+        routes.put("/stats", new StatsRoute());
+
+        // Requests are not logged, as printing would be the bottleneck
+        WebServer server = new WebServer(
+                new TemplateEngine("frontend/templates"),
+                new AssetEngine(),
+                routes,
+                new HashMap<>(),
+                null,
+                (req) -> {},
+                new ServerConfig().connectionMode(mode)
+        );
+
+        server.serve(port, (openPort) -> System.out.println("ready"));
+    }
+
+    /**
+     * freePort
+     * finds a port no other socket is bound to
+     * @return the port
+     * @throws IOException if no port can be bound
+     */
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * fetch
+     * requests a path on its own connection and reads the whole body
+     * @param port the port of the server
+     * @param path the path to request
+     * @return the response body
+     * @throws IOException if an error occurs while requesting
+     */
+    private static String fetch(int port, String path) throws IOException {
+        try (Socket socket = new Socket("localhost", port)) {
+            OutputStream output = socket.getOutputStream();
+            output.write(("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            output.flush();
+
+            InputStream input = socket.getInputStream();
+            String response = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+
+            return response.substring(response.indexOf("\r\n\r\n") + 4);
+        }
+    }
+
+    /**
+     * Stands in for the submission polling route, which needs a database to construct,
+     * by answering with the queue position of the submission in the request's cookie
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class PollRoute extends Handler implements Get {
+        /** The time each poll blocks for, in place of a database call */
+        private final int blockMillis;
+
+        /** The number of polls of each submission, which stands in for its queue position */
+        private final Map<String, Integer> polls;
+
+        /**
+         * Constructs a PollRoute
+         * @param blockMillis the time each poll blocks for
+         */
+        PollRoute(int blockMillis) {
+            this.blockMillis = blockMillis;
+            this.polls = new ConcurrentHashMap<>();
+        }
+
+        /**
+         * get
+         * answers a poll with the position of the submission
+         * @param req the request
+         * @return the position of the submission as JSON
+         */
+        @Override
+        public Response get(Request req) {
+            if (this.blockMillis > 0) {
+                try {
+                    Thread.sleep(this.blockMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            String submissionId = req.getCookies().get("password");
+            int position = this.polls.merge(String.valueOf(submissionId), 1, Integer::sum);
+
+            Map<String, String> headers = Handler.htmlHeaders();
+            headers.put("Content-Type", "text/json");
+
+            return new Response(new Response.StatusLine(ResponseCode.OK), headers, "{ \"queued\": true, \"position\": " + position + " }");
+        }
+    }
+
+    /**
+     * Reports the live and peak threads and the used heap of the server
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class StatsRoute extends Handler implements Get {
+        /**
+         * get
+         * describes the threads and heap of the server
+         * @param req the request
+         * @return the description
+         */
+        @Override
+        public Response get(Request req) {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            Runtime runtime = Runtime.getRuntime();
+            long heapMegabytes = (runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024);
+
+            String stats = "server threads " + threads.getThreadCount() + " (peak " + threads.getPeakThreadCount() + "), heap " + heapMegabytes + "MB";
+
+            return new Response(new Response.StatusLine(ResponseCode.OK), Handler.htmlHeaders(), stats);
+        }
+    }
+
+    /**
+     * The completed polls and failures of a run
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Results {
+        /** The latency of each completed poll, in nanoseconds */
+        private final long[] latencies;
+
+        /** The number of completed polls */
+        private final int completed;
+
+        /** The number of polls which failed or connections which were lost */
+        private final int failed;
+
+        /**
+         * Constructs the results of a run
+         * @param latencies the latency of each completed poll, in nanoseconds
+         * @param failed the number of failures
+         */
+        Results(long[] latencies, int failed) {
+            this.latencies = latencies;
+            this.completed = latencies.length;
+            this.failed = failed;
+
+            Arrays.sort(this.latencies);
+        }
+
+        /**
+         * percentile
+         * gets a percentile of the latencies
+         * @param fraction the percentile as a fraction between 0 and 1
+         * @return the latency in milliseconds, or -1 if no poll completed
+         */
+        double percentile(double fraction) {
+            if (this.completed == 0) {
+                return -1;
+            }
+
+            int index = (int) Math.min(this.completed - 1, Math.floor(fraction * this.completed));
+            return this.latencies[index] / 1e6;
+        }
+    }
+
+    /**
+     * Drives many keep-alive polling connections from one selector thread.
+     * Each poller sends a request, waits for the whole response, then waits out the rest of its interval,
+     * reconnecting whenever the server closes its connection.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class LoadGenerator {
+        /** The address of the server */
+        private final InetSocketAddress address;
+
+        /** The pollers */
+        private final Poller[] pollers;
+
+        /** The time between the polls of each poller, in nanoseconds */
+        private final long intervalNanos;
+
+        /** Waits for connections to be ready */
+        private final Selector selector;
+
+        /** The latencies of the polls completed while measuring, in nanoseconds */
+        private long[] latencies;
+
+        /** The number of latencies recorded */
+        private int completed;
+
+        /** The number of failures while measuring */
+        private int failed;
+
+        /** If polls are being recorded, which they are not while warming up */
+        private boolean measuring;
+
+        /**
+         * Constructs a LoadGenerator
+         * @param port the port of the server
+         * @param pollers the number of pollers
+         * @param intervalMillis the time between the polls of each poller
+         * @throws IOException if the selector cannot be opened
+         */
+        LoadGenerator(int port, int pollers, int intervalMillis) throws IOException {
+            this.address = new InetSocketAddress("localhost", port);
+            this.pollers = new Poller[pollers];
+            this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+            this.selector = Selector.open();
+            this.latencies = new long[1024];
+
+            // Spread the first polls over an interval, as pollers join at different times
+            Random random = new Random(pollers);
+            long now = System.nanoTime();
+
+            for (int i = 0; i < pollers; i++) {
+                this.pollers[i] = new Poller(i, now + (long) (random.nextDouble() * this.intervalNanos));
+            }
+        }
+
+        /**
+         * run
+         * polls for a warm up interval, then records the polls for a number of seconds, then closes every connection
+         * @param seconds the number of seconds to measure for
+         * @return the results
+         * @throws IOException if the selector fails
+         */
+        Results run(int seconds) throws IOException {
+            long warmUpEnd = System.nanoTime() + Math.max(this.intervalNanos, TimeUnit.SECONDS.toNanos(1));
+            long end = warmUpEnd + TimeUnit.SECONDS.toNanos(seconds);
+
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+
+                    if (now >= end) {
+                        break;
+                    }
+
+                    this.measuring = now >= warmUpEnd;
+
+                    // Start the polls which are due, and find when the next one is
+                    long nextDue = end;
+
+                    for (Poller poller : this.pollers) {
+                        if ((poller.waiting) || (poller.connecting)) {
+                            continue;
+                        }
+
+                        if (poller.dueAt <= now) {
+                            this.start(poller, now);
+                        } else {
+                            nextDue = Math.min(nextDue, poller.dueAt);
+                        }
+                    }
+
+                    this.selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(nextDue - System.nanoTime())));
+
+                    for (SelectionKey key : this.selector.selectedKeys()) {
+                        this.handle((Poller) key.attachment());
+                    }
+
+                    this.selector.selectedKeys().clear();
+                }
+            } finally {
+                for (Poller poller : this.pollers) {
+                    poller.close();
+                }
+
+                this.selector.close();
+            }
+
+            return new Results(Arrays.copyOf(this.latencies, this.completed), this.failed);
+        }
+
+        /**
+         * start
+         * sends the next poll of a poller, connecting first if it has no connection
+         * @param poller the poller
+         * @param now the current time in nanoseconds
+         */
+        private void start(Poller poller, long now) {
+            poller.sentAt = now;
+
+            try {
+                if (poller.channel == null) {
+                    poller.channel = SocketChannel.open();
+                    poller.channel.configureBlocking(false);
+                    poller.connecting = !poller.channel.connect(this.address);
+                    poller.key = poller.channel.register(this.selector, poller.connecting ? SelectionKey.OP_CONNECT : 0, poller);
+
+                    if (poller.connecting) {
+                        return;
+                    }
+                }
+
+                this.send(poller);
+            } catch (IOException e) {
+                this.fail(poller, now);
+            }
+        }
+
+        /**
+         * send
+         * writes the request of a poller, which is small enough to always fit in the socket's send buffer
+         * @param poller the poller
+         * @throws IOException if an error occurs while writing
+         */
+        private void send(Poller poller) throws IOException {
+            ByteBuffer request = ByteBuffer.wrap(poller.request);
+
+            while (request.hasRemaining()) {
+                poller.channel.write(request);
+            }
+
+            poller.waiting = true;
+            poller.response.clear();
+            poller.key.interestOps(SelectionKey.OP_READ);
+        }
+
+        /**
+         * handle
+         * finishes connecting a poller or reads its response, recording the poll once the response is complete
+         * @param poller the poller whose connection is ready
+         */
+        private void handle(Poller poller) {
+            long now = System.nanoTime();
+
+            try {
+                if (poller.connecting) {
+                    poller.channel.finishConnect();
+                    poller.connecting = false;
+                    this.send(poller);
+                    return;
+                }
+
+                if (poller.channel.read(poller.response) == -1) {
+                    // Closed by the server, such as after its limit of requests on one connection
+                    this.fail(poller, now);
+                    return;
+                }
+
+                int length = responseLength(poller.response);
+
+                if ((length < 0) || (poller.response.position() < length)) {
+                    return;
+                }
+
+                this.record(now - poller.sentAt);
+                poller.waiting = false;
+                poller.dueAt = poller.sentAt + this.intervalNanos;
+
+                // The server asked to close the connection, so the next poll reconnects
+                if (closes(poller.response)) {
+                    poller.close();
+                }
+            } catch (IOException e) {
+                this.fail(poller, now);
+            }
+        }
+
+        /**
+         * record
+         * records the latency of a completed poll if measuring
+         * @param latencyNanos the latency in nanoseconds
+         */
+        private void record(long latencyNanos) {
+            if (!this.measuring) {
+                return;
+            }
+
+            if (this.completed == this.latencies.length) {
+                this.latencies = Arrays.copyOf(this.latencies, this.latencies.length * 2);
+            }
+
+            this.latencies[this.completed++] = latencyNanos;
+        }
+
+        /**
+         * fail
+         * counts a failed poll if measuring, and reconnects the poller on its next poll
+         * @param poller the poller
+         * @param now the current time in nanoseconds
+         */
+        private void fail(Poller poller, long now) {
+            if (this.measuring) {
+                this.failed++;
+            }
+
+            poller.close();
+            poller.dueAt = now + this.intervalNanos;
+        }
+
+        /**
+         * responseLength
+         * finds the total length of the response read so far
+         * @param response the bytes read, in write mode
+         * @return the length of the head and body, or -1 if the head has not been read yet
+         */
+        private static int responseLength(ByteBuffer response) {
+            String read = new String(response.array(), 0, response.position(), StandardCharsets.ISO_8859_1);
+            int headEnd = read.indexOf("\r\n\r\n");
+
+            if (headEnd < 0) {
+                return -1;
+            }
+
+            int contentLength = 0;
+
+            for (String line : read.substring(0, headEnd).split("\r\n")) {
+                if (line.regionMatches(true, 0, "Content-Length:", 0, 15)) {
+                    contentLength = Integer.parseInt(line.substring(15).trim());
+                }
+            }
+
+            return headEnd + 4 + contentLength;
+        }
+
+        /**
+         * closes
+         * checks if a response asks for its connection to be closed
+         * @param response the bytes of the response, in write mode
+         * @return if the response has a `Connection: close` header
+         */
+        private static boolean closes(ByteBuffer response) {
+            String read = new String(response.array(), 0, response.position(), StandardCharsets.ISO_8859_1);
+
+            return read.toLowerCase().contains("\r\nconnection: close\r\n");
+        }
+    }
+
+    /**
+     * A client polling the submission route on its own connection
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Poller {
+        /** The request this poller sends, with a submission cookie of its own */
+        private final byte[] request;
+
+        /** The response being read */
+        private final ByteBuffer response;
+
+        /** The connection to the server, or null if it is not connected */
+        private SocketChannel channel;
+
+        /** The registration of the connection with the selector */
+        private SelectionKey key;
+
+        /** If the connection is being established */
+        private boolean connecting;
+
+        /** If a request has been sent and its response has not been read yet */
+        private boolean waiting;
+
+        /** The time the next poll is due, in nanoseconds */
+        private long dueAt;
+
+        /** The time the current poll was started, in nanoseconds */
+        private long sentAt;
+
+        /**
+         * Constructs a Poller
+         * @param id the number of the poller, which identifies its submission
+         * @param dueAt the time the first poll is due, in nanoseconds
+         */
+        Poller(int id, long dueAt) {
+            this.request = ("GET /problems/1/submissions HTTP/1.1\r\n" +
+                    "Host: localhost\r\n" +
+                    "Cookie: username=poller" + id + "; password=submission" + id + "\r\n" +
+                    "\r\n").getBytes(StandardCharsets.UTF_8);
+            this.response = ByteBuffer.allocate(RESPONSE_BUFFER_SIZE);
+            this.dueAt = dueAt;
+        }
+
+        /**
+         * close
+         * closes the connection, if there is one
+         */
+        void close() {
+            this.connecting = false;
+            this.waiting = false;
+
+            if (this.channel == null) {
+                return;
+            }
+
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                // Nothing else can be done with the connection
+            }
+
+            this.channel = null;
+            this.key = null;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package server;
+
+/**
+ * Holds the tunable settings of the {@link WebServer}.
+ * Provides a fluent API with method chaining so only the settings which differ from the defaults need to be specified.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ServerConfig {
+    /** The prefix of all system properties read by {@link #fromSystemProperties()} */
+    private static final String PROPERTY_PREFIX = "thoj.server.";
+
+    /** The way client connections are accepted and served */
+    private ConnectionMode connectionMode;
+
+    /** The number of selector threads used in {@link ConnectionMode#NIO} mode */
+    private int ioThreads;
+
+    /** The number of threads which dispatch request handlers in {@link ConnectionMode#NIO} mode */
+    private int handlerThreads;
+
+    /** The number of milliseconds a persistent connection may stay idle before it is closed */
+    private int keepAliveTimeout;
+
+    /** The maximum number of requests served on a single persistent connection */
+    private int maxRequestsPerConnection;
+
+    /** The maximum size of a request's status line and headers in bytes */
+    private int maxHeaderSize;
+
+    /** The maximum size of a request body in bytes */
+    private int maxBodySize;
+
+    /** The minimum size of a dynamic HTML body in bytes for it to be compressed, or -1 to never compress them */
+    private int compressionThreshold;
+
+    /**
+     * Constructs a config with the default settings
+     */
+    public ServerConfig() {
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        this.connectionMode = ConnectionMode.BLOCKING;
+        this.ioThreads = Math.max(1, processors / 2);
+        this.handlerThreads = Math.max(4, processors * 2);
+        this.keepAliveTimeout = 5000;
+        this.maxRequestsPerConnection = 100;
+        this.maxHeaderSize = 16 * 1024;
+        this.maxBodySize = 1024 * 1024;
+        this.compressionThreshold = 8 * 1024;
+    }
+
+    /**
+     * fromSystemProperties
+     * Creates a config from the `thoj.server.*` system properties, using the defaults for any missing property
+     * (e.g. -Dthoj.server.connectionMode=nio -Dthoj.server.ioThreads=2 or -Dthoj.server.connectionMode=virtual-threads)
+     * @return the created config
+     * @throws IllegalArgumentException if a property cannot be parsed
+     */
+    public static ServerConfig fromSystemProperties() {
+        ServerConfig config = new ServerConfig();
+
+        String mode = System.getProperty(PROPERTY_PREFIX + "connectionMode");
+
+        if (mode != null) {
+            config.connectionMode(ConnectionMode.valueOf(mode.trim().toUpperCase().replace('-', '_')));
+        }
+
+        config.ioThreads(Integer.getInteger(PROPERTY_PREFIX + "ioThreads", config.getIoThreads()));
+        config.handlerThreads(Integer.getInteger(PROPERTY_PREFIX + "handlerThreads", config.getHandlerThreads()));
+        config.keepAliveTimeout(Integer.getInteger(PROPERTY_PREFIX + "keepAliveTimeout", config.getKeepAliveTimeout()));
+        config.maxRequestsPerConnection(Integer.getInteger(PROPERTY_PREFIX + "maxRequestsPerConnection", config.getMaxRequestsPerConnection()));
+        config.maxHeaderSize(Integer.getInteger(PROPERTY_PREFIX + "maxHeaderSize", config.getMaxHeaderSize()));
+        config.maxBodySize(Integer.getInteger(PROPERTY_PREFIX + "maxBodySize", config.getMaxBodySize()));
+        config.compressionThreshold(Integer.getInteger(PROPERTY_PREFIX + "compressionThreshold", config.getCompressionThreshold()));
+
+        return config;
+    }
+
+    /**
+     * connectionMode
+     * sets the way client connections are accepted and served
+     * @param connectionMode the connection mode
+     * @return this object to allow for method chaining
+     * @throws NullPointerException if {@code connectionMode} is null
+     */
+    public ServerConfig connectionMode(ConnectionMode connectionMode) {
+        if (connectionMode == null) {
+            throw new NullPointerException("connectionMode cannot be null");
+        }
+
+        this.connectionMode = connectionMode;
+        return this;
+    }
+
+    /**
+     * ioThreads
+     * sets the number of selector threads used in {@link ConnectionMode#NIO} mode
+     * @param ioThreads the number of threads
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if {@code ioThreads} is not positive
+     */
+    public ServerConfig ioThreads(int ioThreads) {
+        if (ioThreads <= 0) {
+            throw new IllegalArgumentException("ioThreads must be positive");
+        }
+
+        this.ioThreads = ioThreads;
+        return this;
+    }
+
+    /**
+     * handlerThreads
+     * sets the number of threads which dispatch request handlers in {@link ConnectionMode#NIO} mode
+     * @param handlerThreads the number of threads
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if {@code handlerThreads} is not positive
+     */
+    public ServerConfig handlerThreads(int handlerThreads) {
+        if (handlerThreads <= 0) {
+            throw new IllegalArgumentException("handlerThreads must be positive");
+        }
+
+        this.handlerThreads = handlerThreads;
+        return this;
+    }
+
+    /**
+     * keepAliveTimeout
+     * sets the number of milliseconds a persistent connection may stay idle before it is closed
+     * @param keepAliveTimeout the idle timeout in milliseconds
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if {@code keepAliveTimeout} is not positive
+     */
+    public ServerConfig keepAliveTimeout(int keepAliveTimeout) {
+        if (keepAliveTimeout <= 0) {
+            throw new IllegalArgumentException("keepAliveTimeout must be positive");
+        }
+
+        this.keepAliveTimeout = keepAliveTimeout;
+        return this;
+    }
+
+    /**
+     * maxRequestsPerConnection
+     * sets the maximum number of requests served on a single persistent connection.
+     * A value of 1 disables persistent connections.
+     * @param maxRequestsPerConnection the maximum number of requests
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if {@code maxRequestsPerConnection} is not positive
+     */
+    public ServerConfig maxRequestsPerConnection(int maxRequestsPerConnection) {
+        if (maxRequestsPerConnection <= 0) {
+            throw new IllegalArgumentException("maxRequestsPerConnection must be positive");
+        }
+
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+        return this;
+    }
+
+    /**
+     * maxHeaderSize
+     * sets the maximum size of a request's status line and headers.
+     * Larger requests are rejected with 431 Request Header Fields Too Large.
+     * @param maxHeaderSize the maximum size in bytes
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if {@code maxHeaderSize} is not positive
+     */
+    public ServerConfig maxHeaderSize(int maxHeaderSize) {
+        if (maxHeaderSize <= 0) {
+            throw new IllegalArgumentException("maxHeaderSize must be positive");
+        }
+
+        this.maxHeaderSize = maxHeaderSize;
+        return this;
+    }
+
+    /**
+     * maxBodySize
+     * sets the maximum size of a request body.
+     * Larger requests are rejected with 413 Payload Too Large before the body is read.
+     * @param maxBodySize the maximum size in bytes
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if {@code maxBodySize} is negative
+     */
+    public ServerConfig maxBodySize(int maxBodySize) {
+        if (maxBodySize < 0) {
+            throw new IllegalArgumentException("maxBodySize cannot be negative");
+        }
+
+        this.maxBodySize = maxBodySize;
+        return this;
+    }
+
+    /**
+     * compressionThreshold
+     * sets the minimum size of a dynamic HTML body for it to be compressed on the fly, if the client accepts a compressed response.
+     * Smaller bodies are sent as is, since compressing them costs more time than it saves.
+     * @param compressionThreshold the minimum size in bytes, or -1 to never compress dynamic bodies
+     * @return this object to allow for method chaining
+     * @throws IllegalArgumentException if {@code compressionThreshold} is less than -1
+     */
+    public ServerConfig compressionThreshold(int compressionThreshold) {
+        if (compressionThreshold < -1) {
+            throw new IllegalArgumentException("compressionThreshold must be -1 or more");
+        }
+
+        this.compressionThreshold = compressionThreshold;
+        return this;
+    }
+
+    /**
+     * getConnectionMode
+     * gets the way client connections are accepted and served
+     * @return the connection mode
+     */
+    public ConnectionMode getConnectionMode() {
+        return this.connectionMode;
+    }
+
+    /**
+     * getIoThreads
+     * gets the number of selector threads used in {@link ConnectionMode#NIO} mode
+     * @return the number of threads
+     */
+    public int getIoThreads() {
+        return this.ioThreads;
+    }
+
+    /**
+     * getHandlerThreads
+     * gets the number of threads which dispatch request handlers in {@link ConnectionMode#NIO} mode
+     * @return the number of threads
+     */
+    public int getHandlerThreads() {
+        return this.handlerThreads;
+    }
+
+    /**
+     * getKeepAliveTimeout
+     * gets the number of milliseconds a persistent connection may stay idle before it is closed
+     * @return the idle timeout in milliseconds
+     */
+    public int getKeepAliveTimeout() {
+        return this.keepAliveTimeout;
+    }
+
+    /**
+     * getMaxRequestsPerConnection
+     * gets the maximum number of requests served on a single persistent connection
+     * @return the maximum number of requests
+     */
+    public int getMaxRequestsPerConnection() {
+        return this.maxRequestsPerConnection;
+    }
+
+    /**
+     * getMaxHeaderSize
+     * gets the maximum size of a request's status line and headers
+     * @return the maximum size in bytes
+     */
+    public int getMaxHeaderSize() {
+        return this.maxHeaderSize;
+    }
+
+    /**
+     * getMaxBodySize
+     * gets the maximum size of a request body
+     * @return the maximum size in bytes
+     */
+    public int getMaxBodySize() {
+        return this.maxBodySize;
+    }
+
+    /**
+     * getCompressionThreshold
+     * gets the minimum size of a dynamic HTML body for it to be compressed on the fly
+     * @return the minimum size in bytes, or -1 if dynamic bodies are never compressed
+     */
+    public int getCompressionThreshold() {
+        return this.compressionThreshold;
+    }
+
+    /**
+     * toString
+     * converts the config to a string
+     * @return the config in string representation
+     */
+    @Override
+    public String toString() {
+        return "ServerConfig{" +
+                "connectionMode=" + connectionMode +
+                ", ioThreads=" + ioThreads +
+                ", handlerThreads=" + handlerThreads +
+                ", keepAliveTimeout=" + keepAliveTimeout +
+                ", maxRequestsPerConnection=" + maxRequestsPerConnection +
+                ", maxHeaderSize=" + maxHeaderSize +
+                ", maxBodySize=" + maxBodySize +
+                ", compressionThreshold=" + compressionThreshold +
+                '}';
+    }
+}
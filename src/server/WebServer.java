@@ -6,24 +6,40 @@ import server.handler.HandlerException;
 import server.handler.Handlers;
 import server.handler.NotFoundException;
 import server.handler.routes.FileHandler;
+import server.request.MalformedRequestException;
+import server.request.RawRequest;
 import server.request.Request;
+import server.request.RequestDecoder;
+import server.request.RequestParser;
+import server.request.RequestReader;
+import server.request.RequestTooLargeException;
+import server.response.ContentEncoding;
+import server.response.FileResponse;
 import server.response.Response;
 import server.response.ResponseCode;
+import server.response.StreamingResponse;
 import template.TemplateEngine;
 import template.TemplateNotFoundException;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.net.ServerSocket;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.util.ArrayList;
+import java.net.SocketTimeoutException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 /**
@@ -42,8 +58,17 @@ public class WebServer {
     /** Logs requests to the console */
     private final Consumer<Request> requestLogger;
 
+    /** Serializes calls to the request logger without pinning virtual threads to their carrier thread */
+    private final Lock requestLoggerLock;
+
+    /** The tunable settings of the server */
+    private final ServerConfig config;
+
+    /** Finds the boundaries of requests read from client connections */
+    private final RequestDecoder requestDecoder;
+
     /**
-     * Constructs a web server with a templating engine and the directory of styles
+     * Constructs a web server with a templating engine and the directory of styles, using the default {@link ServerConfig}
      * @param templateEngine the templating engine used to compile .th files to html
      * @param assets the engine containing static assets such as styles, scripts, and images
      * @param routes a {@link LinkedHashMap} of URL patterns to handlers
@@ -52,18 +77,43 @@ public class WebServer {
      * @param requestLogger the logging function that will be called with the request
      */
     public WebServer(TemplateEngine templateEngine, AssetEngine assets, LinkedHashMap<String, Handler> routes, Map<String, String> assetMap, Handler notFoundRoute, Consumer<Request> requestLogger) {
+        this(templateEngine, assets, routes, assetMap, notFoundRoute, requestLogger, new ServerConfig());
+    }
+
+    /**
+     * Constructs a web server with a templating engine and the directory of styles
+     * @param templateEngine the templating engine used to compile .th files to html
+     * @param assets the engine containing static assets such as styles, scripts, and images
+     * @param routes a {@link LinkedHashMap} of URL patterns to handlers
+     * @param assetMap maps the assets in a directory to a URL on which to host them
+     * @param notFoundRoute the handler to handler the request if no other matching handler can be found
+     * @param requestLogger the logging function that will be called with the request
+     * @param config the tunable settings of the server
+     */
+    public WebServer(TemplateEngine templateEngine, AssetEngine assets, LinkedHashMap<String, Handler> routes, Map<String, String> assetMap, Handler notFoundRoute, Consumer<Request> requestLogger, ServerConfig config) {
         this.requestHandlers = new Handlers();
 
         this.templateEngine = templateEngine;
 
-        // Maps each file in each directory of assets to a corresponding route
+        // Maps each directory of assets to a wildcard route
+        FileHandler fileHandler = new FileHandler(assets);
+
         for (Map.Entry<String, String> assetPair : assetMap.entrySet()) {
+            String url = assetPair.getValue();
+            assets.mount(assetPair.getKey(), url);
+
+            if (!url.equals("/")) {
+                this.requestHandlers.register(url + "*", fileHandler);
+                continue;
+            }
+
+            // A directory hosted on the root would shadow every other route, so its files are mapped individually
             File folder = new File(assetPair.getKey());
             File[] files = folder.listFiles();
 
             if (files != null) {
                 for (File file : files) {
-                    this.requestHandlers.register(assetPair.getValue() + file.getName(), new FileHandler(assets, assetPair.getKey()));
+                    this.requestHandlers.register(url + file.getName(), fileHandler);
                 }
             }
         }
@@ -80,18 +130,48 @@ public class WebServer {
             this.requestHandlers.registerNotFoundHandler(notFoundRoute);
         }
 
+        // Routes are fixed from here on, so they are compiled once up front
+        this.requestHandlers.compile();
+
         this.requestLogger = requestLogger;
+        this.requestLoggerLock = new ReentrantLock();
+        this.config = config;
+        this.requestDecoder = new RequestDecoder(config.getMaxHeaderSize(), config.getMaxBodySize());
     }
 
     /**
      * serve
-     * Serves the server at the specified port
+     * Serves the server at the specified port, using the {@link ConnectionMode} of the server's config
      * @param port the port to serve on
      * @param onOpen a consumer that receives the port as its argument
      */
     public void serve(int port, Consumer<Integer> onOpen) {
+        if (this.config.getConnectionMode() == ConnectionMode.NIO) {
+            new NioConnectionEngine(this, this.config).serve(port, onOpen);
+        } else {
+            this.serveBlocking(port, onOpen);
+        }
+    }
+
+    /**
+     * serveBlocking
+     * Serves the server at the specified port, handling each client on a separate thread with blocking IO.
+     * In {@link ConnectionMode#VIRTUAL_THREADS} mode, the threads are virtual threads from a per-server executor.
+     * The server socket is opened as a channel, so each client socket has a channel which files can be transferred to.
+     * @param port the port to serve on
+     * @param onOpen a consumer that receives the port as its argument
+     */
+    private void serveBlocking(int port, Consumer<Integer> onOpen) {
+        ExecutorService executor = null;
+
+        if (this.config.getConnectionMode() == ConnectionMode.VIRTUAL_THREADS) {
+            executor = newVirtualThreadExecutor();
+        }
+
         // Open the server socket
-        try (ServerSocket socket = new ServerSocket(port)) {
+        try (ServerSocketChannel socket = ServerSocketChannel.open()) {
+            socket.bind(new InetSocketAddress(port));
+
             // Server loop
             // Accept client connections and delegate each connection to a separate thread
             try {
@@ -101,16 +181,43 @@ public class WebServer {
                 }
 
                 while (true) {
-                    Socket client = socket.accept();
-
-                    Thread t = new Thread(new ConnectionHandler(client));
-                    t.start();
+                    Socket client = socket.accept().socket();
+
+                    if (executor != null) {
+                        executor.execute(new ConnectionHandler(client));
+                    } else {
+                        Thread t = new Thread(new ConnectionHandler(client));
+                        t.start();
+                    }
                 }
             } catch (IOException e) {
                 System.out.println("Error when waiting for connection");
             }
         } catch (IOException e) {
             System.out.println("Error opening server socket");
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+
+    /**
+     * newVirtualThreadExecutor
+     * creates an executor which starts a new virtual thread for each task.
+     * The executor is looked up reflectively so the server still compiles and runs on releases before Java 21,
+     * where a cached pool of platform threads is used instead.
+     * @return the executor
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("Virtual threads are not supported by this Java version, using pooled platform threads instead");
+
+            return Executors.newCachedThreadPool();
         }
     }
 
@@ -124,7 +231,180 @@ public class WebServer {
     }
 
     /**
-     * A runnable responsible for handling each request made to the server
+     * respond
+     * Logs the request, dispatches the correct handler, and creates the response to send to the client.
+     * If the handler fails unexpectedly, the server error page is returned instead.
+     * @param req the parsed request
+     * @return the response to send to the client, or null if no response can be created
+     */
+    Response respond(Request req) {
+        this.requestLoggerLock.lock();
+
+        try {
+            this.requestLogger.accept(req);
+        } finally {
+            this.requestLoggerLock.unlock();
+        }
+
+        // Dispatch the correct handler
+        try {
+            Response res = this.compress(req, this.requestHandlers.dispatch(req));
+
+            // HTTP/1.0 clients do not understand chunked transfer encoding
+            if ((res.getContentLength() < 0) && ("HTTP/1.0".equals(req.getStatusLine().getProtocol()))) {
+                res = res.buffered();
+            }
+
+            return res;
+        } catch (HandlerException | NotFoundException e) {
+            // No 404 handler
+            e.printStackTrace();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            // Handler cannot load template
+
+            System.out.println("Error loading template");
+
+            // Load server error page
+            try {
+                return new Response(
+                        new Response.StatusLine(ResponseCode.INTERNAL_SERVER_ERROR),
+                        new HashMap<>(),
+                        this.templateEngine.getTemplate("frontend/templates/error.th")
+                );
+            } catch (TemplateNotFoundException ex) {
+                ex.printStackTrace();
+                System.out.println("Cannot render 500 page");
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * compress
+     * compresses a large dynamic HTML response on the fly if the client accepts a compressed response.
+     * Streamed responses are compressed as they are produced, as their length is not known in advance.
+     * Responses which are small, already compressed, or files on disk are returned unchanged.
+     * @param req the request being responded to
+     * @param res the response created by the handler
+     * @return the compressed response, or the original response if it is not compressed
+     */
+    private Response compress(Request req, Response res) {
+        int threshold = this.config.getCompressionThreshold();
+        boolean streamed = res instanceof StreamingResponse;
+
+        if ((threshold < 0) || ((!streamed) && ((!res.isInMemory()) || (res.getBody().length < threshold)))) {
+            return res;
+        }
+
+        Map<String, String> headers = res.getHeaders();
+        String contentType = headers.get("Content-Type");
+
+        if ((contentType == null) || (!contentType.startsWith("text/html")) || (headers.containsKey("Content-Encoding"))) {
+            return res;
+        }
+
+        ContentEncoding encoding = ContentEncoding.negotiate(req.getHeader("Accept-Encoding"), EnumSet.allOf(ContentEncoding.class));
+
+        if (encoding == null) {
+            return res;
+        }
+
+        headers.put("Content-Encoding", encoding.getToken());
+        headers.put("Vary", "Accept-Encoding");
+
+        // The compressed body is no longer byte for byte identical, so a strong entity tag would be wrong
+        String etag = headers.get("ETag");
+
+        if ((etag != null) && (!etag.startsWith("W/"))) {
+            headers.put("ETag", "W/" + etag);
+        }
+
+        if (streamed) {
+            return ((StreamingResponse) res).encoded(encoding);
+        }
+
+        return new Response(res.getStatusLine(), headers, encoding.encode(res.getBody()));
+    }
+
+    /**
+     * isKeepAlive
+     * determines if the connection can be reused after responding to a request.
+     * HTTP/1.1 connections are persistent unless the client sends `Connection: close`,
+     * while HTTP/1.0 connections are only persistent if the client sends `Connection: keep-alive`.
+     * @param req the request being responded to
+     * @param handledRequests the number of requests handled on the connection, including this one
+     * @return if the connection should be kept open
+     */
+    boolean isKeepAlive(Request req, int handledRequests) {
+        if (handledRequests >= this.config.getMaxRequestsPerConnection()) {
+            return false;
+        }
+
+        String connection = req.getHeader("Connection");
+
+        if ("HTTP/1.0".equals(req.getStatusLine().getProtocol())) {
+            return (connection != null) && (connection.equalsIgnoreCase("keep-alive"));
+        }
+
+        return (connection == null) || (!connection.equalsIgnoreCase("close"));
+    }
+
+    /**
+     * applyConnectionHeaders
+     * informs the client whether the connection will be kept open after the response
+     * @param res the response to add the headers to
+     * @param keepAlive if the connection will be kept open
+     */
+    void applyConnectionHeaders(Response res, boolean keepAlive) {
+        if (keepAlive) {
+            res.getHeaders().put("Connection", "keep-alive");
+            res.getHeaders().put("Keep-Alive", "timeout=" + (this.config.getKeepAliveTimeout() / 1000) + ", max=" + this.config.getMaxRequestsPerConnection());
+        } else {
+            res.getHeaders().put("Connection", "close");
+        }
+    }
+
+    /**
+     * getRequestDecoder
+     * gets the decoder which finds the boundaries of requests read from client connections
+     * @return the request decoder
+     */
+    RequestDecoder getRequestDecoder() {
+        return this.requestDecoder;
+    }
+
+    /**
+     * rejectionResponse
+     * creates the response sent to a client whose request could not be read, after which the connection is closed
+     * @param e the exception thrown while reading the request
+     * @return the response to send to the client
+     */
+    Response rejectionResponse(RuntimeException e) {
+        ResponseCode code = ResponseCode.BAD_REQUEST;
+
+        if (e instanceof RequestTooLargeException) {
+            code = ((RequestTooLargeException) e).isHeadersTooLarge()
+                    ? ResponseCode.REQUEST_HEADER_FIELDS_TOO_LARGE
+                    : ResponseCode.PAYLOAD_TOO_LARGE;
+        }
+
+        Response res = new Response(
+                new Response.StatusLine(code),
+                new HashMap<>(),
+                code.getMessage()
+        );
+
+        this.applyConnectionHeaders(res, false);
+
+        return res;
+    }
+
+    /**
+     * A runnable responsible for handling the requests made to the server on a single connection.
+     * The connection is kept open between requests, so pipelined requests are read and answered in order
+     * until the client closes it, it stays idle for too long, or the request limit is reached.
      * @author Harry Xu
      * @version 1.0 - May 20th 2023
      */
@@ -135,8 +415,14 @@ public class WebServer {
         /** The output stream of the socket */
         private final OutputStream output;
 
-        /** The input stream of the socket wrapped by a {@link BufferedReader} */
-        private final BufferedReader input;
+        /** The input stream of the socket */
+        private final InputStream input;
+
+        /** Reads each request from the input stream */
+        private final RequestReader requestReader;
+
+        /** The number of requests handled on this connection */
+        private int handledRequests;
 
         /**
          * Constructs a connection handler with a client socket to read to and write from
@@ -146,10 +432,14 @@ public class WebServer {
         public ConnectionHandler(Socket clientSocket) throws IOException {
             this.client = clientSocket;
 
+            // Close idle connections
+            this.client.setSoTimeout(config.getKeepAliveTimeout());
+
             // Socket streams
             this.output = client.getOutputStream();
-            InputStreamReader inStream = new InputStreamReader(client.getInputStream());
-            this.input = new BufferedReader(inStream);
+            this.input = client.getInputStream();
+            this.requestReader = new RequestReader(this.input, requestDecoder);
+            this.handledRequests = 0;
         }
 
         /**
@@ -171,85 +461,136 @@ public class WebServer {
 
         /**
          * handleRequest
-         * Handles parsing of the request, dispatch of the request handler, and response creating and sending
+         * Handles parsing of the next request, dispatch of the request handler, and response creating and sending
+         * @return if the connection can be reused for another request
          */
-        public void handleRequest() {
-            // End execution if input stream is not read
+        public boolean handleRequest() {
+            RawRequest rawRequest;
+
+            // Read the next HTTP request
+            // Blocks until the next request arrives or the connection times out
             try {
-                if (!this.input.ready()) {
-                    return;
-                }
+                rawRequest = this.requestReader.next();
+            } catch (SocketTimeoutException e) {
+                // Idle connection
+                return false;
             } catch (IOException e) {
                 e.printStackTrace();
-                return;
+                return false;
+            } catch (RequestTooLargeException | MalformedRequestException e) {
+                // Reject without reading the rest of the request
+                this.reject(e);
+                return false;
+            } catch (RuntimeException e) {
+                // A bug in decoding must not leak the connection
+                e.printStackTrace();
+                return false;
             }
 
-            List<String> rawRequest = new ArrayList<>();
+            // Connection closed by the client
+            if (rawRequest == null) {
+                return false;
+            }
+
+            // Parse request into Request object
+            Request req;
 
-            // Read HTTP request into a list of strings
             try {
-                String inputLine = this.input.readLine();
+                req = RequestParser.parse(rawRequest);
+            } catch (MalformedRequestException e) {
+                this.reject(e);
+                return false;
+            }
 
-                while ((inputLine != null) && (inputLine.length() != 0)) {
-                    rawRequest.add(inputLine);
+            this.handledRequests++;
 
-                    inputLine = this.input.readLine();
-                }
+            // Dispatch the handler and create the response
+            Response res = respond(req);
+
+            if (res == null) {
+                return false;
+            }
+
+            boolean keepAlive = isKeepAlive(req, this.handledRequests);
+            applyConnectionHeaders(res, keepAlive);
+
+            try {
+                this.send(res);
             } catch (IOException e) {
                 e.printStackTrace();
+                System.out.println("Error writing response to client");
+                return false;
+            } catch (RuntimeException e) {
+                // A streamed body failed after its head was sent, so the response can only be cut off
+                e.printStackTrace();
+                System.out.println("Error producing response body");
+                return false;
+            }
+
+            return keepAlive;
+        }
+
+        /**
+         * send
+         * writes a response to the client.
+         * Responses held in memory are written in one piece, files are transferred straight to the socket's channel,
+         * and bodies of unknown length are streamed with chunked transfer encoding.
+         * @param res the response to write
+         * @throws IOException if an error occurs while writing
+         */
+        private void send(Response res) throws IOException {
+            if (res.isInMemory()) {
+                this.output.write(res.toBytes());
+                this.output.flush();
                 return;
             }
 
-            // Read request body
-            StringBuilder payload = new StringBuilder();
+            this.output.write(res.toHeadBytes());
 
-            try {
-                while (this.input.ready()) {
-                    payload.append((char) this.input.read());
+            // Other bodies, such as those of unknown length chunked as they are produced, are written straight onto the socket
+            if (!(res instanceof FileResponse)) {
+                try {
+                    res.writeBody(this.output);
+                } finally {
+                    res.close();
                 }
-            } catch (IOException e) {
-                e.printStackTrace();
+
+                this.output.flush();
                 return;
             }
 
-            // Append request body to the request list
-            rawRequest.add(payload.toString());
+            FileResponse file = (FileResponse) res;
 
-            // Parse request into Request object
-            Request req = Request.parse(rawRequest);
+            this.output.flush();
 
-            synchronized (requestLogger) {
-                requestLogger.accept(req);
+            // Sockets accepted from a channel always have one, but fall back to the stream just in case
+            WritableByteChannel channel = this.client.getChannel();
+
+            if (channel == null) {
+                channel = Channels.newChannel(this.output);
             }
 
-            // Dispatch the correct handler
             try {
-                Response res = requestHandlers.dispatch(req);
-                this.output.write(res.toBytes());
-            } catch (HandlerException | NotFoundException e) {
-                // No 404 handler
-                e.printStackTrace();
-            } catch (RuntimeException e) {
-                e.printStackTrace();
-                // Handler cannot load template
+                long position = 0;
 
-                System.out.println("Error loading template");
-
-                // Load server error page
-                try {
-                    Response serverError = new Response(
-                            new Response.StatusLine(ResponseCode.INTERNAL_SERVER_ERROR),
-                            new HashMap<>(),
-                            templateEngine.getTemplate("frontend/templates/error.th")
-                    );
-
-                    this.output.write(serverError.toBytes());
-                } catch (IOException | TemplateNotFoundException ex) {
-                    ex.printStackTrace();
-                    System.out.println("Cannot render 500 page");
+                while (position < file.getContentLength()) {
+                    position += file.writeBody(channel, position);
                 }
-            } catch (IOException e) {
-                e.printStackTrace();
+            } finally {
+                file.close();
+            }
+        }
+
+        /**
+         * reject
+         * sends the response for a request which could not be read
+         * @param e the exception thrown while reading the request
+         */
+        private void reject(RuntimeException e) {
+            try {
+                this.output.write(rejectionResponse(e).toBytes());
+                this.output.flush();
+            } catch (IOException ex) {
                 System.out.println("Error writing response to client");
             }
         }
@@ -260,8 +601,15 @@ public class WebServer {
          */
         @Override
         public void run() {
-            this.handleRequest();
-            this.close();
+            boolean keepAlive = true;
+
+            try {
+                while (keepAlive) {
+                    keepAlive = this.handleRequest();
+                }
+            } finally {
+                this.close();
+            }
         }
     }
 }
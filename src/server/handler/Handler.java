@@ -1,13 +1,21 @@
 package server.handler;
 
 import server.request.Request;
+import server.response.EntityTags;
 import server.response.Response;
+import server.response.ResponseCode;
 import server.handler.methods.Delete;
 import server.handler.methods.Get;
 import server.handler.methods.Post;
 import server.handler.methods.Put;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -17,6 +25,12 @@ import java.util.Map;
  * @version 1.0 - May 20th 2023
  */
 public abstract class Handler {
+    /** The headers kept on a 304 response, which describe how the cached response may be reused */
+    private static final String[] VALIDATOR_HEADERS = { "ETag", "Last-Modified", "Cache-Control", "Expires", "Vary" };
+
+    /** The preferred format of HTTP dates, which unlike RFC 1123 always has 2 digit days */
+    private static final DateTimeFormatter HTTP_DATE_FORMAT = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US);
+
     /**
      * handle
      * dispatches the correct handler implemented on a subclass based on the request
@@ -74,4 +88,127 @@ public abstract class Handler {
 
         return headers;
     }
+
+    /**
+     * isNotModified
+     * determines if the client's cached copy of a resource is still valid, based on its conditional request headers.
+     * `If-None-Match` takes precedence over `If-Modified-Since`, which is only checked if the former is absent.
+     * @param req the request which may contain conditional headers
+     * @param etag the current entity tag of the resource, or null if it has none
+     * @param lastModified the time the resource was last modified in milliseconds since the epoch, or -1 if it is unknown
+     * @return if a 304 response can be sent instead of the resource
+     */
+    public static boolean isNotModified(Request req, String etag, long lastModified) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+
+        if (ifNoneMatch != null) {
+            if (etag == null) {
+                return false;
+            }
+
+            String opaqueTag = stripWeakPrefix(etag);
+
+            // Compare each listed tag with the weak comparison function
+            for (String candidate : ifNoneMatch.split(",")) {
+                candidate = candidate.trim();
+
+                if ((candidate.equals("*")) || (stripWeakPrefix(candidate).equals(opaqueTag))) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        String ifModifiedSince = req.getHeader("If-Modified-Since");
+
+        if ((ifModifiedSince == null) || (lastModified < 0)) {
+            return false;
+        }
+
+        try {
+            long since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+
+            // HTTP dates only have second precision
+            return lastModified / 1000 <= since;
+        } catch (DateTimeParseException e) {
+            // Invalid dates are ignored
+            return false;
+        }
+    }
+
+    /**
+     * notModified
+     * creates a body-less 304 response, keeping only the caching and validator headers of the full response
+     * @param headers the headers the full response would have been sent with
+     * @return the 304 response
+     */
+    public static Response notModified(Map<String, String> headers) {
+        Map<String, String> validatorHeaders = new HashMap<>();
+
+        for (String name : VALIDATOR_HEADERS) {
+            if (headers.containsKey(name)) {
+                validatorHeaders.put(name, headers.get(name));
+            }
+        }
+
+        return new Response(
+                new Response.StatusLine(ResponseCode.NOT_MODIFIED),
+                validatorHeaders,
+                new byte[0]
+        );
+    }
+
+    /**
+     * httpDate
+     * formats a time as an HTTP date, such as the value of `Last-Modified`
+     * @param millis the time in milliseconds since the epoch
+     * @return the formatted date
+     */
+    public static String httpDate(long millis) {
+        return HTTP_DATE_FORMAT.format(Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC));
+    }
+
+    /**
+     * withWeakETag
+     * lets a rendered page be revalidated by the client instead of downloaded again.
+     * A weak entity tag is computed from the rendered body, and if the client already has the same page, a 304 response is returned instead.
+     * Only successful responses held in memory are affected.
+     * @param req the request being handled
+     * @param res the full response to the request
+     * @return the response with an entity tag, or a 304 response
+     */
+    protected Response withWeakETag(Request req, Response res) {
+        if ((!res.isInMemory()) || (res.getStatusLine().getCode() != ResponseCode.OK)) {
+            return res;
+        }
+
+        Map<String, String> headers = res.getHeaders();
+        String etag = "W/" + EntityTags.of(res.getBody());
+
+        headers.put("ETag", etag);
+
+        // Pages depend on the logged-in user, so only the client may cache them, and only after revalidating
+        headers.putIfAbsent("Cache-Control", "private, no-cache");
+
+        if (isNotModified(req, etag, -1)) {
+            return notModified(headers);
+        }
+
+        return res;
+    }
+
+    /**
+     * stripWeakPrefix
+     * removes the weak indicator from an entity tag, leaving the quoted opaque tag
+     * @param etag the entity tag
+     * @return the opaque tag
+     */
+    private static String stripWeakPrefix(String etag) {
+        if (etag.startsWith("W/")) {
+            return etag.substring(2);
+        }
+
+        return etag;
+    }
 }
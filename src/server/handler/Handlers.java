@@ -4,7 +4,6 @@ import server.request.Request;
 import server.response.Response;
 
 import java.util.LinkedHashMap;
-import java.util.Map;
 
 /**
  * Maps {@link URL URL patterns} to different {@link Handler Handlers} and
@@ -19,12 +18,16 @@ public class Handlers {
     /** handler for the not found page */
     private Handler notFoundHandler;
 
+    /** the registry compiled into a trie, or null if it must be recompiled */
+    private volatile Router router;
+
     /**
      * Constructs a Handlers class with an empty registry
      */
     public Handlers() {
         this.registry = new LinkedHashMap<>();
         this.notFoundHandler = null;
+        this.router = null;
     }
 
     /**
@@ -35,6 +38,9 @@ public class Handlers {
      */
     public void register(URL route, Handler handler) {
         this.registry.put(route, handler);
+
+        // Registering invalidates the compiled router
+        this.router = null;
     }
 
     /**
@@ -56,6 +62,18 @@ public class Handlers {
         this.register(new URL(route), handler);
     }
 
+    /**
+     * compile
+     * compiles the registry into a {@link Router}, so the first dispatch does not have to.
+     * Registering a handler afterward causes the router to be recompiled on the next dispatch.
+     * @return the compiled router
+     */
+    public Router compile() {
+        Router compiled = new Router(this.registry);
+        this.router = compiled;
+        return compiled;
+    }
+
     /**
      * dispatch
      * Dispatches the first registered handler that matches the request and returns the response
@@ -64,25 +82,28 @@ public class Handlers {
      * @throws HandlerException if no handler is found that can handle the request
      */
     public Response dispatch(Request req) throws HandlerException {
-        for (Map.Entry<URL, Handler> entry : this.registry.entrySet()) {
-            URL url = entry.getKey();
-            String route = req.getStatusLine().getLocation();
-
-            if (url.matches(route)) {
-                // Populate the request parameters
-                req.getStatusLine().populateRequestParams(url, route);
-
-                // Dispatch the handle method
-                try {
-                    return entry.getValue().handle(req);
-                } catch (NotFoundException e) {
-                    // Dispatch not found handler if it exists
-                    if (this.notFoundHandler != null) {
-                        return this.notFoundHandler.handle(req);
-                    }
-
-                    throw e;
+        Router compiled = this.router;
+
+        if (compiled == null) {
+            compiled = this.compile();
+        }
+
+        Router.Match match = compiled.match(req.getStatusLine().getLocation());
+
+        if (match != null) {
+            // Populate the request parameters
+            req.getStatusLine().populateRequestParams(match.getRouteParams());
+
+            // Dispatch the handle method
+            try {
+                return match.getHandler().handle(req);
+            } catch (NotFoundException e) {
+                // Dispatch not found handler if it exists
+                if (this.notFoundHandler != null) {
+                    return this.notFoundHandler.handle(req);
                 }
+
+                throw e;
             }
         }
 
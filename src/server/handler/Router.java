@@ -0,0 +1,275 @@
+package server.handler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A segment trie of {@link URL URL patterns}, compiled once from the registered routes,
+ * which finds the handler for a path in a single pass over its segments.
+ * Static segments are looked up in a hash map at each level, while route parameters and wildcards share a single child.
+ * The route parameters of the matched route are extracted during the same pass.
+ * When several patterns match a path, the one registered first wins, just like a linear scan of the routes would.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class Router {
+    /** The root of the trie, which matches paths without any segments */
+    private final Node root;
+
+    /** The maximum number of segments in any pattern */
+    private final int maxDepth;
+
+    /**
+     * Compiles a router from the registered routes
+     * @param routes the URL patterns and their handlers in order of precedence
+     */
+    public Router(Map<URL, Handler> routes) {
+        this.root = new Node();
+
+        int index = 0;
+        int maxDepth = 0;
+
+        for (Map.Entry<URL, Handler> route : routes.entrySet()) {
+            String[] segments = route.getKey().getPathSegments();
+
+            // Walk down the trie, creating nodes as needed
+            Node current = this.root;
+            current.minIndex = Math.min(current.minIndex, index);
+
+            for (String segment : segments) {
+                if ((segment.startsWith(":")) || (segment.equals("*"))) {
+                    if (current.any == null) {
+                        current.any = new Node();
+                    }
+
+                    current = current.any;
+                } else {
+                    current = current.statics.computeIfAbsent(segment, s -> new Node());
+                }
+
+                current.minIndex = Math.min(current.minIndex, index);
+            }
+
+            // Keep the first registered route if 2 patterns are equivalent
+            if (current.route == null) {
+                current.route = new Route(index, route.getKey(), route.getValue());
+            }
+
+            maxDepth = Math.max(maxDepth, segments.length);
+            index++;
+        }
+
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * match
+     * finds the route with the highest precedence matching a path
+     * @param path the path of the request, without query parameters
+     * @return the matched handler and its route parameters, or null if no route matches
+     */
+    public Match match(String path) {
+        // Trailing slashes are ignored, so `/problems/` and `/problems` are the same path
+        int end = path.length();
+
+        while ((end > 0) && (path.charAt(end - 1) == '/')) {
+            end--;
+        }
+
+        // Segment boundaries of the path
+        int[] starts = new int[this.maxDepth + 1];
+        int[] ends = new int[this.maxDepth + 1];
+
+        int depth = 0;
+
+        if ((end > 0) || (path.isEmpty())) {
+            int start = 0;
+
+            while (true) {
+                int slash = path.indexOf('/', start);
+
+                if ((slash == -1) || (slash > end)) {
+                    slash = end;
+                }
+
+                // More segments than any pattern
+                if (depth == starts.length) {
+                    return null;
+                }
+
+                starts[depth] = start;
+                ends[depth] = slash;
+                depth++;
+
+                if (slash == end) {
+                    break;
+                }
+
+                start = slash + 1;
+            }
+        }
+
+        Route best = this.search(this.root, path, starts, ends, 0, depth, null);
+
+        if (best == null) {
+            return null;
+        }
+
+        // Extract route parameters
+        Map<String, String> params = new HashMap<>();
+        String[] patternSegments = best.url.getPathSegments();
+
+        for (int i = 0; i < patternSegments.length; i++) {
+            if (patternSegments[i].startsWith(":")) {
+                params.put(patternSegments[i].substring(1), path.substring(starts[i], ends[i]));
+            }
+        }
+
+        return new Match(best.url, best.handler, params);
+    }
+
+    /**
+     * search
+     * searches the trie for the route with the highest precedence matching the remaining segments.
+     * Subtrees which only contain routes registered after the best match so far are skipped.
+     * @param node the current node
+     * @param path the full path
+     * @param starts the start index of each segment in the path
+     * @param ends the end index of each segment in the path
+     * @param depth the index of the current segment
+     * @param segments the number of segments in the path
+     * @param best the best match so far, or null if there is none
+     * @return the best match, or null if there is none
+     */
+    private Route search(Node node, String path, int[] starts, int[] ends, int depth, int segments, Route best) {
+        if ((node == null) || ((best != null) && (node.minIndex >= best.index))) {
+            return best;
+        }
+
+        if (depth == segments) {
+            if ((node.route != null) && ((best == null) || (node.route.index < best.index))) {
+                return node.route;
+            }
+
+            return best;
+        }
+
+        // Static segment
+        if (!node.statics.isEmpty()) {
+            Node child = node.statics.get(path.substring(starts[depth], ends[depth]));
+
+            best = this.search(child, path, starts, ends, depth + 1, segments, best);
+        }
+
+        // Route parameter or wildcard
+        return this.search(node.any, path, starts, ends, depth + 1, segments, best);
+    }
+
+    /**
+     * A node of the trie, representing one segment of one or more patterns
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Node {
+        /** Children for static segments */
+        private final Map<String, Node> statics;
+
+        /** The child for route parameters and wildcards */
+        private Node any;
+
+        /** The route whose pattern ends at this node */
+        private Route route;
+
+        /** The lowest registration index of all routes in this subtree */
+        private int minIndex;
+
+        /** Constructs an empty node */
+        Node() {
+            this.statics = new HashMap<>();
+            this.minIndex = Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * A registered route along with its precedence
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Route {
+        /** The registration index of the route, where lower indices take precedence */
+        private final int index;
+
+        /** The URL pattern of the route */
+        private final URL url;
+
+        /** The handler of the route */
+        private final Handler handler;
+
+        /**
+         * Constructs a route
+         * @param index the registration index of the route
+         * @param url the URL pattern of the route
+         * @param handler the handler of the route
+         */
+        Route(int index, URL url, Handler handler) {
+            this.index = index;
+            this.url = url;
+            this.handler = handler;
+        }
+    }
+
+    /**
+     * The result of matching a path against the router
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    public static class Match {
+        /** The URL pattern which matched */
+        private final URL url;
+
+        /** The handler of the matched route */
+        private final Handler handler;
+
+        /** The route parameters extracted from the path */
+        private final Map<String, String> routeParams;
+
+        /**
+         * Constructs a match
+         * @param url the URL pattern which matched
+         * @param handler the handler of the matched route
+         * @param routeParams the route parameters extracted from the path
+         */
+        Match(URL url, Handler handler, Map<String, String> routeParams) {
+            this.url = url;
+            this.handler = handler;
+            this.routeParams = routeParams;
+        }
+
+        /**
+         * getUrl
+         * gets the URL pattern which matched
+         * @return the URL pattern
+         */
+        public URL getUrl() {
+            return this.url;
+        }
+
+        /**
+         * getHandler
+         * gets the handler of the matched route
+         * @return the handler
+         */
+        public Handler getHandler() {
+            return this.handler;
+        }
+
+        /**
+         * getRouteParams
+         * gets the route parameters extracted from the path
+         * @return a map of parameter names to values
+         */
+        public Map<String, String> getRouteParams() {
+            return this.routeParams;
+        }
+    }
+}
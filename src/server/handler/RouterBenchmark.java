@@ -0,0 +1,282 @@
+package server.handler;
+
+import server.handler.methods.Get;
+import server.request.Request;
+import server.response.Response;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A benchmark of the {@link Router} against scanning every registered {@link URL} in order, as {@link Handlers} did before it, run from the command line with
+ * {@code java server.handler.RouterBenchmark [routes] [iterations] [rounds]}.
+ * The routes mix static pages, routes with parameters, and wildcard asset directories, and the paths hit routes registered early and late as well as none at all.
+ * Both must pick the same route with the same parameters for every path, and the benchmark exits with status 1 if they do not.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RouterBenchmark {
+    /** The default number of registered routes */
+    private static final int ROUTES = 300;
+
+    /** The default number of times every path is matched in a round */
+    private static final int ITERATIONS = 2_000;
+
+    /** The default number of measured rounds, after as many warm up rounds */
+    private static final int ROUNDS = 5;
+
+    /** Collects values from the matches, so that the work is not optimized away */
+    private static int sink;
+
+    /**
+     * main
+     * checks that both ways of matching agree, then times each of them and prints the results
+     * @param args the number of routes, iterations per round, and rounds, each optional
+     */
+    public static void main(String[] args) {
+        int routeCount = (args.length > 0) ? Integer.parseInt(args[0]) : ROUTES;
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : ITERATIONS;
+        int rounds = (args.length > 2) ? Integer.parseInt(args[2]) : ROUNDS;
+
+        LinkedHashMap<URL, Handler> routes = routes(routeCount);
+        List<String> paths = paths(routeCount);
+        Router router = new Router(routes);
+
+        boolean passed = true;
+
+        for (String path : paths) {
+            passed &= agree(router, routes, path);
+        }
+
+        // Warm up both ways of matching before anything is measured
+        for (int round = 0; round < rounds; round++) {
+            timeScan(routes, paths, iterations);
+            timeRouter(router, paths, iterations);
+        }
+
+        long scan = Long.MAX_VALUE;
+        long trie = Long.MAX_VALUE;
+
+        for (int round = 0; round < rounds; round++) {
+            scan = Math.min(scan, timeScan(routes, paths, iterations));
+            trie = Math.min(trie, timeRouter(router, paths, iterations));
+        }
+
+        double matches = (double) iterations * paths.size();
+        double scanPerOp = scan / matches;
+        double triePerOp = trie / matches;
+
+        System.out.printf("[INFO] %d routes, %d paths: scan %.1f ns/op, router %.1f ns/op, %.2fx%n",
+                routes.size(), paths.size(), scanPerOp, triePerOp, scanPerOp / triePerOp);
+        System.out.println("[INFO] sink " + sink);
+        System.out.println(passed ? "[PASS] Router" : "[FAIL] Router");
+
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * routes
+     * creates the routes of a large site, in groups of a static page, a page with a parameter,
+     * a nested route with two parameters, and an asset directory
+     * @param count the number of routes
+     * @return the routes in the order they are registered
+     */
+    private static LinkedHashMap<URL, Handler> routes(int count) {
+        LinkedHashMap<URL, Handler> routes = new LinkedHashMap<>();
+
+        // Common routes which are registered first in the application
+        routes.put(new URL("/"), new NamedHandler("/"));
+        routes.put(new URL("/problems"), new NamedHandler("/problems"));
+        routes.put(new URL("/problems/:problemId"), new NamedHandler("/problems/:problemId"));
+        routes.put(new URL("/problems/:problemId/submissions"), new NamedHandler("/problems/:problemId/submissions"));
+
+        for (int i = 0; routes.size() < count; i++) {
+            String[] patterns = {
+                    "/section" + i,
+                    "/section" + i + "/:itemId",
+                    "/section" + i + "/:itemId/revisions/:revisionId",
+                    "/static" + i + "/*"
+            };
+
+            for (String pattern : patterns) {
+                if (routes.size() < count) {
+                    routes.put(new URL(pattern), new NamedHandler(pattern));
+                }
+            }
+        }
+
+        return routes;
+    }
+
+    /**
+     * paths
+     * creates request paths which match routes throughout the registry, and some which match none
+     * @param count the number of routes
+     * @return the paths
+     */
+    private static List<String> paths(int count) {
+        List<String> paths = new ArrayList<>();
+
+        paths.add("/");
+        paths.add("/problems");
+        paths.add("/problems/12");
+        paths.add("/problems/12/submissions");
+
+        // Routes registered early, in the middle, and last
+        int groups = count / 4;
+
+        for (int group : new int[] {0, groups / 2, groups - 2}) {
+            paths.add("/section" + group);
+            paths.add("/section" + group + "/42/");
+            paths.add("/section" + group + "/42/revisions/7");
+            paths.add("/static" + group + "/app.js");
+        }
+
+        // Not found, which the scan only knows after checking every route
+        paths.add("/missing");
+        paths.add("/section0/42/missing");
+        paths.add("/problems/12/submissions/7/extra");
+
+        return paths;
+    }
+
+    /**
+     * agree
+     * checks that the router picks the same route as scanning with the same parameters
+     * @param router the compiled routes
+     * @param routes the routes in the order they were registered
+     * @param path the request path
+     * @return if both matched the same route and parameters
+     */
+    private static boolean agree(Router router, LinkedHashMap<URL, Handler> routes, String path) {
+        Map.Entry<URL, Handler> expected = scan(routes, path);
+        Router.Match actual = router.match(path);
+
+        boolean matches;
+
+        if ((expected == null) || (actual == null)) {
+            matches = (expected == null) && (actual == null);
+        } else {
+            matches = (expected.getValue() == actual.getHandler()) && (params(expected.getKey(), path).equals(actual.getRouteParams()));
+        }
+
+        if (!matches) {
+            System.out.println("[INFO] The router and the scan disagree on " + path);
+        }
+
+        return matches;
+    }
+
+    /**
+     * scan
+     * finds the first registered route matching a path by checking each in order, as {@link Handlers} did before the {@link Router}
+     * @param routes the routes in the order they were registered
+     * @param path the request path
+     * @return the matching route, or null if there is none
+     */
+    private static Map.Entry<URL, Handler> scan(LinkedHashMap<URL, Handler> routes, String path) {
+        for (Map.Entry<URL, Handler> entry : routes.entrySet()) {
+            if (entry.getKey().matches(path)) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * params
+     * extracts the route parameters of a path matched by scanning
+     * @param url the matched route
+     * @param path the request path
+     * @return the route parameters
+     */
+    private static Map<String, String> params(URL url, String path) {
+        Request.StatusLine statusLine = new Request.StatusLine(null, path, "HTTP/1.1");
+        statusLine.populateRequestParams(url, path);
+
+        return statusLine.getRouteParams();
+    }
+
+    /**
+     * timeScan
+     * matches every path many times by scanning
+     * @param routes the routes in the order they were registered
+     * @param paths the request paths
+     * @param iterations the number of times to match each path
+     * @return the elapsed time in nanoseconds
+     */
+    private static long timeScan(LinkedHashMap<URL, Handler> routes, List<String> paths, int iterations) {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            for (String path : paths) {
+                Map.Entry<URL, Handler> match = scan(routes, path);
+
+                if (match != null) {
+                    sink += params(match.getKey(), path).size();
+                }
+            }
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * timeRouter
+     * matches every path many times with the router
+     * @param router the compiled routes
+     * @param paths the request paths
+     * @param iterations the number of times to match each path
+     * @return the elapsed time in nanoseconds
+     */
+    private static long timeRouter(Router router, List<String> paths, int iterations) {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            for (String path : paths) {
+                Router.Match match = router.match(path);
+
+                if (match != null) {
+                    sink += match.getRouteParams().size();
+                }
+            }
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * A handler which is only told apart by its pattern, as the benchmark never dispatches to it
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class NamedHandler extends Handler implements Get {
+        /** The pattern the handler is registered to */
+        private final String pattern;
+
+        /**
+         * Constructs a NamedHandler
+         * @param pattern the pattern the handler is registered to
+         */
+        NamedHandler(String pattern) {
+            this.pattern = pattern;
+        }
+
+        /**
+         * get
+         * never called by the benchmark
+         * @param req the request
+         * @return nothing, as it always throws
+         * @throws NotFoundException always
+         */
+        @Override
+        public Response get(Request req) {
+            throw new NotFoundException("Not served by the benchmark: " + this.pattern);
+        }
+    }
+}
@@ -52,11 +52,12 @@ public class AboutRoute extends Handler implements Get {
         // Headers
         Map<String, String> headers = Handler.htmlHeaders();
 
-        return new Response(
+        // Lets the client revalidate its cached copy of the page
+        return this.withWeakETag(req, new Response(
                 new Response.StatusLine(ResponseCode.OK),
                 headers,
                 body
-        );
+        ));
     }
 
     /**
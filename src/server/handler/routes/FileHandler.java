@@ -1,12 +1,19 @@
 package server.handler.routes;
 
+import assets.Asset;
 import assets.AssetEngine;
+import assets.AssetNotFoundException;
 import server.handler.Handler;
+import server.handler.NotFoundException;
 import server.handler.methods.Get;
 import server.request.Request;
+import server.response.ContentEncoding;
+import server.response.FileResponse;
 import server.response.Response;
 import server.response.ResponseCode;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -17,63 +24,97 @@ import java.util.Map;
  */
 public class FileHandler extends Handler implements Get {
 
-    /** The template engine which holds all the asset files */
+    /** The asset engine which holds all the asset files, indexed by the URL they are hosted on */
     private final AssetEngine assets;
 
-    /** The url on which to host the file */
-    private final String directory;
-
     /**
      * Constructs a File Handler which is used to handle static file assets
-     * @param assets the asset engine which holds the static asset
-     * @param directory the url on which to host the file
+     * @param assets the asset engine which holds the static assets, with their directories mounted on URLs
      */
-    public FileHandler(AssetEngine assets, String directory) {
+    public FileHandler(AssetEngine assets) {
         this.assets = assets;
-        this.directory = directory;
     }
 
     /**
      * get
      * Handles the GET request on the request's url.
      * Serves the requested static asset file.
+     * Assets which are too large to be kept in memory are streamed from disk.
+     * Conditional requests for an unchanged asset are answered with a body-less 304 response.
+     * Text assets are sent precompressed if the client accepts one of their compressed variants.
      * @param req the HTTP request to handle
      * @return the server HTTP response
+     * @throws NotFoundException if no asset is hosted on the requested URL
      */
     @Override
     public Response get(Request req) {
-        // Full request URL
-        String url = req.getStatusLine().getLocation();
-
-        // Get file name
-        String filename = url.substring(url.lastIndexOf("/") + 1);
-
-        // Get file extension
-        String extension = url.substring(url.lastIndexOf(".") + 1);
+        // Assets are indexed by URL, so the path is looked up as is
+        Asset asset;
 
-        // Appends file name to hosting directory
-        byte[] fileContent = this.assets.getAsset(this.directory + filename);
+        try {
+            asset = this.assets.findAssetByUrl(req.getStatusLine().getLocation());
+        } catch (AssetNotFoundException e) {
+            throw new NotFoundException(e.getMessage());
+        }
 
         // Headers
         Map<String, String> headers = new HashMap<>();
 
-        String contentType = "text/" + extension;
-
-        switch (extension) {
-            case "jpg":
-            case "jpeg":
-                contentType = "image/jpeg";
-                break;
-            case "ico":
-                contentType = "image/x-icon";
-                break;
+        headers.put("Content-Type", asset.getContentType());
+        // Fingerprinted URLs change whenever the asset does, so they can be cached forever
+        if (this.assets.isImmutableUrl(req.getStatusLine().getLocation())) {
+            headers.put("Cache-Control", "public, max-age=31536000, immutable");
+        } else {
+            headers.put("Cache-Control", "public, max-age=86400");
         }
-
-        headers.put("Content-Type", contentType);
-        headers.put("Content-Length", Integer.toString(fileContent.length));
-        headers.put("Cache-Control", "public, max-age=86400");
         headers.put("Vary", "Accept-Encoding");
         headers.put("Accept-Ranges", "none");
+        headers.put("Last-Modified", Handler.httpDate(asset.getLastModified()));
+
+        // Pick the compressed variant the client prefers, if any
+        ContentEncoding encoding = ContentEncoding.negotiate(req.getHeader("Accept-Encoding"), asset.getEncodings());
+
+        // Each variant is a different representation, so it needs its own strong entity tag
+        String etag = asset.getETag();
+
+        if (encoding != null) {
+            etag = etag.substring(0, etag.length() - 1) + "-" + encoding.getToken() + "\"";
+        }
+
+        headers.put("ETag", etag);
+
+        // The client's cached copy is still valid
+        if (Handler.isNotModified(req, etag, asset.getLastModified())) {
+            return Handler.notModified(headers);
+        }
+
+        if (encoding != null) {
+            headers.put("Content-Encoding", encoding.getToken());
+
+            return new Response(
+                    new Response.StatusLine(ResponseCode.OK),
+                    headers,
+                    asset.getVariant(encoding)
+            );
+        }
+
+        // Large assets are sent straight from their file
+        if (!asset.isInMemory()) {
+            return new FileResponse(
+                    new Response.StatusLine(ResponseCode.OK),
+                    headers,
+                    asset.getFile(),
+                    asset.getSize()
+            );
+        }
+
+        byte[] fileContent;
+
+        try {
+            fileContent = asset.getContent();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
 
         return new Response(
                 new Response.StatusLine(ResponseCode.OK),
@@ -8,6 +8,7 @@ import server.handler.methods.Get;
 import server.request.Request;
 import server.response.Response;
 import server.response.ResponseCode;
+import server.response.StreamingResponse;
 import template.TemplateEngine;
 
 import java.sql.SQLException;
@@ -42,7 +43,7 @@ public class ProblemsRoute extends Handler implements Get {
     /**
      * get
      * Handles the GET request on the request's url.
-     * Serves the `problems.th` template file.
+     * Serves the `problems.th` template file, which is streamed while it is rendered.
      * @param req the HTTP request to handle
      * @return the server HTTP response
      */
@@ -85,20 +86,25 @@ public class ProblemsRoute extends Handler implements Get {
             }
         }
 
-        // Compile template with data
-        String body = this.templateEngine.compile("frontend/templates/problems.th", new Data(
-                templateProblems,
-                currentUser
-        ));
+        // Template data
+        Data data = new Data(templateProblems, currentUser);
 
         // Headers
         Map<String, String> headers = Handler.htmlHeaders();
 
-        return new Response(
+        // The list can be long, so it is streamed to the client while it is rendered
+        StreamingResponse res = new StreamingResponse(
                 new Response.StatusLine(ResponseCode.OK),
                 headers,
-                body
+                output -> this.templateEngine.renderTo("frontend/templates/problems.th", data, output)
         );
+
+        // Revalidating a cached copy needs the entity tag of the whole page, as does a client which cannot receive chunks
+        if ((req.getHeader("If-None-Match") != null) || ("HTTP/1.0".equals(req.getStatusLine().getProtocol()))) {
+            return this.withWeakETag(req, res.buffered());
+        }
+
+        return res;
     }
 
     /**
@@ -120,6 +126,9 @@ public class ProblemsRoute extends Handler implements Get {
         /** The points the user has */
         public int points;
 
+        /** Identifies the problems the user has solved, so the cached problem list is only shared between users who solved the same problems */
+        public String solvedKey;
+
         /**
          * Constructs this data container class.
          * @param problems the problems from the data
@@ -134,6 +143,21 @@ public class ProblemsRoute extends Handler implements Get {
 
             this.problems = problems;
 
+            // Build the cache key from the ids of the solved problems
+            if (this.isError) {
+                this.solvedKey = "error";
+            } else {
+                StringBuilder solvedKey = new StringBuilder();
+
+                for (TemplateProblem problem : problems) {
+                    if (!problem.solvedStatus.isEmpty()) {
+                        solvedKey.append(problem.id).append(',');
+                    }
+                }
+
+                this.solvedKey = solvedKey.toString();
+            }
+
             // User auth status related fields
             this.loggedIn = currentUser != null;
 
@@ -2,6 +2,7 @@ package server.handler.routes;
 
 import coderunner.CodeRunner;
 import coderunner.Submission;
+import coderunner.Task;
 import coderunner.TaskCode;
 import coderunner.TaskResult;
 import coderunner.test.TestCode;
@@ -44,15 +45,12 @@ public class SubmissionPollRoute extends Handler implements Get {
 
     /**
      * Handles the get request to this route
-     * Returns JSON containing information about the current {@link CodeRunner} submission
+     * Returns JSON containing information about the client's {@link CodeRunner} submission
      * @param req the HTTP request to handle
      * @return the HTTP response to the request
      */
     @Override
     public Response get(Request req) {
-        // Current processing submission
-        Submission submission = this.codeRunner.getCurrentSubmission();
-
         // Stored submissions
         Map<String, Submission> submissions = this.codeRunner.getSubmissionHistories();
 
@@ -66,12 +64,18 @@ public class SubmissionPollRoute extends Handler implements Get {
         // Username
         String username = req.getCookies().get("username");
 
-        // Currently processing a submission
-        if (submission != null) {
-            // Get compilation result of current
-            TaskResult compilationResult = submission.getTask().getCompilationResult();
+        // Submission queued, running, or finished
+        Submission submission = (submissionId == null) ? null : this.codeRunner.getSubmission(submissionId);
 
-            int queuedPosition = this.codeRunner.indexInQueue(submissionId);
+        // Position of the submission if it is still waiting for a worker
+        int queuedPosition = (submission == null) ? -1 : this.codeRunner.indexInQueue(submissionId);
+
+        if (queuedPosition != -1) {
+            // Your submission is queued
+            body = "{ \"queued\": true, \"position\": " + queuedPosition + " }";
+        } else if (submission != null) {
+            // Get compilation result of the submission
+            TaskResult compilationResult = submission.getTask().getCompilationResult();
 
             if ((compilationResult != null) && (compilationResult.getTaskCode() == TaskCode.COMPILE_ERROR)) {
 
@@ -85,168 +89,102 @@ public class SubmissionPollRoute extends Handler implements Get {
                         .replace("\f", "\\f")
                         .replace("\"", "\\\"");
 
-                // Removes file path except for file name
-                escapedData = escapedData.substring(escapedData.lastIndexOf("\\\\") + 2);
-
                 // Compilation error
                 body = "{\"error\": \"" + escapedData + "\", \"completed\": true }";
-            } else if (submission.getSubmissionId().equals(submissionId)) {
-                TestResult[] testResults = submission.getTask().getTestResults();
 
-                // Get current submission
-                body = testsToJSON(testResults);
+                // Remove submission (i.e. end polling)
+                submissions.remove(submissionId);
+            } else {
+                Task task = submission.getTask();
 
-                if (areTestsCompleted(testResults)) {
-                    // Add points to user if all tests passed
-                    TestResult lastResult = testResults[testResults.length - 1];
-
-                    if ((lastResult != null) && (lastResult.getStatusCode() == TestCode.ACCEPTED)) {
-                        try {
-                            // Get user
-                            User currentUser = this.database.users().getUserByUsername(username);
-
-                            if (currentUser != null) {
-
-                                List<Integer> solvedProblems = this.database.solvedProblems().getAllSolvedProblems(currentUser.getUserID());
-
-                                boolean alreadySolved = solvedProblems.contains(submission.getProblemId());
-
-                                if (!alreadySolved) {
-                                    // Get user id
-                                    int userId = currentUser.getUserID();
-
-                                    // Get user information
-                                    int oldPoints = currentUser.getPoints();
-                                    int problemDifficulty = this.database.problems()
-                                            .getProblemById(submission.getProblemId())
-                                            .getDifficulty();
-                                    int problemsSolved = this.database.solvedProblems().getAllSolvedProblems(userId).size();
-
-                                    // Increment if problem solved is one to avoid denominator of 0
-                                    if (problemsSolved <= 2) {
-                                        problemsSolved = 2;
-                                    }
-
-                                    // Calculate new points
-                                    double denominator = Math.log(problemsSolved) / Math.log(2);
-                                    int newPoints = oldPoints + (int) Math.floor((problemDifficulty * 100) / (denominator));
-
-                                    // Add points
-                                    this.database.users().updatePoints(userId, newPoints);
-                                }
-                            }
-                        } catch (SQLException e) {
-                            e.printStackTrace();
-                        }
-
-                        try {
-                            // Mark this problem as solved by the user
-                            this.addUserTransaction(username);
-                        } catch (SQLException e) {
-                            throw new RuntimeException(e);
-                        }
-                    }
+                // Read completion first, so the results are final whenever it is true
+                boolean completed = task.isCompleted();
 
-                    // Remove submission
-                    submissions.remove(submissionId);
+                body = testsToJSON(task.getTestResults(), completed);
 
+                // Remove submission (i.e. end polling)
+                // only the poll which removes it awards points, as clients can poll concurrently
+                if ((completed) && (submissions.remove(submissionId, submission)) && (task.isAccepted())) {
+                    // Add points to user if all tests passed
+                    this.awardPoints(username, submission);
                 }
-
-            } else if (queuedPosition != -1) {
-                // Your submission is queued
-                body = "{ \"queued\": true, \"position\": " + queuedPosition + " }";
-            } else {
-                // Current submission is not yours
-                body = "{}";
             }
         }
 
-        if ((submission == null) || (!submission.getSubmissionId().equals(submissionId))) {
-            if (submissions.containsKey(submissionId)){
-                // Checks cache for previous submissions and removes it requests
-                // guarantees that all submissions are completed
-                // Submission done testing - get finished data and remove from history
-                Submission requestedSubmission = submissions.get(submissionId);
-
-                TestResult[] testResults = requestedSubmission.getTask().getTestResults();
-
-                body = testsToJSON(testResults);
-
-                // Add points to user if all tests passed
-                TestResult lastResult = testResults[testResults.length - 1];
-
-                if ((lastResult != null) && (lastResult.getStatusCode() == TestCode.ACCEPTED)) {
-                    try {
-                        // Get user
-                        User currentUser = this.database.users().getUserByUsername(username);
+        // Headers
+        Map<String, String> headers = Handler.htmlHeaders();
 
-                        if (currentUser != null) {
+        // Change content type to JSON
+        headers.put("Content-Type", "text/json");
 
-                            List<Integer> solvedProblems = this.database.solvedProblems().getAllSolvedProblems(currentUser.getUserID());
+        return new Response(
+                new Response.StatusLine(ResponseCode.OK),
+                headers,
+                body
+        );
+    }
 
-                            boolean alreadySolved = solvedProblems.contains(requestedSubmission.getProblemId());
+    /**
+     * awardPoints
+     * Adds points to the user for solving the submission's problem if they have not solved it before,
+     * and marks the problem as solved by the user
+     * @param username the username of the user who completed the problem
+     * @param submission the accepted submission
+     */
+    private void awardPoints(String username, Submission submission) {
+        try {
+            // Get user
+            User currentUser = this.database.users().getUserByUsername(username);
 
-                            if (!alreadySolved) {
+            if (currentUser != null) {
 
-                                // Get user id
-                                int userId = currentUser.getUserID();
+                List<Integer> solvedProblems = this.database.solvedProblems().getAllSolvedProblems(currentUser.getUserID());
 
-                                // Get user information
-                                int oldPoints = currentUser.getPoints();
-                                int problemDifficulty = this.database.problems()
-                                        .getProblemById(requestedSubmission.getProblemId())
-                                        .getDifficulty();
-                                int problemsSolved = this.database.solvedProblems().getAllSolvedProblems(userId).size();
+                boolean alreadySolved = solvedProblems.contains(submission.getProblemId());
 
-                                // Increment if problem solved is one to avoid denominator of 0
-                                if (problemsSolved <= 2) {
-                                    problemsSolved = 2;
-                                }
+                if (!alreadySolved) {
+                    // Get user id
+                    int userId = currentUser.getUserID();
 
-                                // Calculate new points
-                                double denominator = Math.log(problemsSolved) / Math.log(2);
-                                int newPoints = oldPoints + (int) Math.floor((problemDifficulty * 100) / (denominator));
+                    // Get user information
+                    int oldPoints = currentUser.getPoints();
+                    int problemDifficulty = this.database.problems()
+                            .getProblemById(submission.getProblemId())
+                            .getDifficulty();
+                    int problemsSolved = solvedProblems.size();
 
-                                // Add points
-                                this.database.users().updatePoints(userId, newPoints);
-                            }
-                        }
-                    } catch (SQLException e) {
-                        e.printStackTrace();
+                    // Increment if problem solved is one to avoid denominator of 0
+                    if (problemsSolved <= 2) {
+                        problemsSolved = 2;
                     }
 
-                    try {
-                        // Mark this problem as solved by the user
-                        this.addUserTransaction(username);
-                    } catch (SQLException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
+                    // Calculate new points
+                    double denominator = Math.log(problemsSolved) / Math.log(2);
+                    int newPoints = oldPoints + (int) Math.floor((problemDifficulty * 100) / (denominator));
 
-                // Remove submission (i.e. end polling)
-                submissions.remove(submissionId);
+                    // Add points
+                    this.database.users().updatePoints(userId, newPoints);
+                }
             }
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
 
-        // Headers
-        Map<String, String> headers = Handler.htmlHeaders();
-
-        // Change content type to JSON
-        headers.put("Content-Type", "text/json");
-
-        return new Response(
-                new Response.StatusLine(ResponseCode.OK),
-                headers,
-                body
-        );
+        try {
+            // Mark this problem as solved by the user
+            this.addUserTransaction(username, submission.getProblemId());
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
     }
 
     /**
      * addUserTransaction
      * Marks the submission's problem as completed by the user with the specified username
      * @param username the username of the user who completed the problem
+     * @param problemId the id of the completed problem
      */
-    private void addUserTransaction(String username) throws SQLException {
+    private void addUserTransaction(String username, int problemId) throws SQLException {
         // Get current user
         User currentUser;
 
@@ -262,16 +200,17 @@ public class SubmissionPollRoute extends Handler implements Get {
         }
 
         // Mark as complete
-        this.database.solvedProblems().markAsSolved(currentUser.getUserID(), this.codeRunner.getCurrentSubmission().getProblemId());
+        this.database.solvedProblems().markAsSolved(currentUser.getUserID(), problemId);
     }
 
     /**
      * testsToJSON
      * converts an array of test results into a JSON string which can be parsed by the client
      * @param testResults the test results to convert into JSON
+     * @param completed if the tests are done running and the client can stop polling
      * @return the JSON string
      */
-    private static String testsToJSON(TestResult[] testResults) {
+    private static String testsToJSON(TestResult[] testResults, boolean completed) {
         StringBuilder body = new StringBuilder("{ ");
 
         // Tests results array
@@ -299,8 +238,6 @@ public class SubmissionPollRoute extends Handler implements Get {
         }
 
         // Include completed flag to inform client to stop polling
-        boolean completed = areTestsCompleted(testResults);
-
         body.append("], ");
         body.append("\"completed\": ");
         body.append(completed);
@@ -308,30 +245,4 @@ public class SubmissionPollRoute extends Handler implements Get {
 
         return body.toString();
     }
-
-    /**
-     * areTestsCompleted
-     * Determines if the tests are done running and the client connection can be terminated
-     * @param testResults the test results to check
-     * @return if the tests are completed
-     */
-    private static boolean areTestsCompleted(TestResult[] testResults) {
-        boolean completed = false;
-
-        for (int i = 0; i < testResults.length; i++) {
-            TestResult testResult = testResults[i];
-
-            // If any of the tests are not pending or correct
-            if ((testResult != null) && (testResult.getStatusCode() != TestCode.ACCEPTED)) {
-                completed = true;
-            }
-
-            // If the test is done running
-            if ((i == testResults.length - 1) && (testResults[i] != null)) {
-                completed = true;
-            }
-        }
-
-        return completed;
-    }
 }
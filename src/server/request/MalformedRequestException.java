@@ -0,0 +1,21 @@
+package server.request;
+
+/**
+ * This exception should be thrown when the bytes read from a connection do not form a valid HTTP request
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class MalformedRequestException extends RuntimeException {
+    /** Constructs a default {@link MalformedRequestException} */
+    public MalformedRequestException() {
+        super();
+    }
+
+    /**
+     * Constructs a {@link MalformedRequestException} with an error message
+     * @param message the error message
+     */
+    public MalformedRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,57 @@
+package server.request;
+
+/**
+ * Represents a complete HTTP request which has been read from a connection but not parsed yet.
+ * It holds the raw bytes of the status line and headers, and the decoded bytes of the body.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RawRequest {
+    /** The status line and headers, without the empty line which ends them */
+    private final byte[] head;
+
+    /** The request body, with any transfer encoding removed */
+    private final byte[] body;
+
+    /** The number of bytes the request took up on the connection */
+    private final int length;
+
+    /**
+     * Constructs a raw request
+     * @param head the status line and headers, without the empty line which ends them
+     * @param body the request body, with any transfer encoding removed
+     * @param length the number of bytes the request took up on the connection
+     */
+    public RawRequest(byte[] head, byte[] body, int length) {
+        this.head = head;
+        this.body = body;
+        this.length = length;
+    }
+
+    /**
+     * getHead
+     * gets the status line and headers
+     * @return the raw bytes of the status line and headers
+     */
+    public byte[] getHead() {
+        return this.head;
+    }
+
+    /**
+     * getBody
+     * gets the request body
+     * @return the raw bytes of the body
+     */
+    public byte[] getBody() {
+        return this.body;
+    }
+
+    /**
+     * getLength
+     * gets the number of bytes the request took up on the connection
+     * @return the length of the request in bytes
+     */
+    public int getLength() {
+        return this.length;
+    }
+}
@@ -2,8 +2,8 @@ package server.request;
 
 import server.handler.URL;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,14 +17,20 @@ public class Request {
     /** the status line, which contains the request protocol, method, and url */
     private final StatusLine statusLine;
 
-    /** a map of the request headers */
-    private final Map<String, String> headers;
+    /** the headers as offsets into the raw request, or null if the request was constructed from maps */
+    private final RequestHeaders headerTable;
 
-    /** a map of all key value pairs in the request body */
-    private final Map<String, String> body;
+    /** a map of the request headers, created on first access if the request was parsed from bytes */
+    private Map<String, String> headers;
 
-    /** a map of all cookies from the headers */
-    private final Map<String, String> cookies;
+    /** the raw request body, or null if the request was constructed from maps */
+    private final byte[] rawBody;
+
+    /** a map of all key value pairs in the request body, decoded on first access */
+    private Map<String, String> body;
+
+    /** a map of all cookies from the headers, decoded on first access */
+    private Map<String, String> cookies;
 
     /**
      * Constructs an HTTP request with a status line, headers, and body
@@ -33,26 +39,23 @@ public class Request {
      * @param body a map of the request body
      */
     public Request(StatusLine statusLine, Map<String, String> headers, Map<String, String> body) {
+        this.statusLine = statusLine;
+        this.headerTable = null;
         this.headers = headers;
+        this.rawBody = null;
         this.body = body;
-        this.statusLine = statusLine;
-
-        // Populate cookies
-        this.cookies = new HashMap<>();
-
-        String rawCookies = this.headers.get("Cookie");
-
-        if (rawCookies != null) {
-            for (String cookiePair : rawCookies.split(";")) {
-                String[] cookieKeyValue = cookiePair.trim().split("=");
+    }
 
-                if (cookieKeyValue.length == 1) {
-                    this.cookies.put(cookieKeyValue[0], "");
-                } else {
-                    this.cookies.put(cookieKeyValue[0], cookieKeyValue[1]);
-                }
-            }
-        }
+    /**
+     * Constructs an HTTP request parsed by the {@link RequestParser}, which decodes its parts lazily
+     * @param statusLine the HTTP requests status line
+     * @param headers the request headers as offsets into the raw request
+     * @param body the raw request body
+     */
+    Request(StatusLine statusLine, RequestHeaders headers, byte[] body) {
+        this.statusLine = statusLine;
+        this.headerTable = headers;
+        this.rawBody = body;
     }
 
     /**
@@ -70,15 +73,54 @@ public class Request {
      * @return the request headers
      */
     public Map<String, String> getHeaders() {
+        if (this.headers == null) {
+            this.headers = this.headerTable.toMap();
+        }
+
         return this.headers;
     }
 
+    /**
+     * getHeader
+     * gets the value of a header, ignoring the case of its name as header names are case-insensitive
+     * @param name the name of the header
+     * @return the value of the header, or null if the request does not contain it
+     */
+    public String getHeader(String name) {
+        // Avoid converting every header
+        if (this.headerTable != null) {
+            return this.headerTable.get(name);
+        }
+
+        String value = this.headers.get(name);
+
+        if (value != null) {
+            return value;
+        }
+
+        for (Map.Entry<String, String> header : this.headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+
+        return null;
+    }
+
     /**
      * getBody
      * gets the body of the request
      * @return the request body
      */
     public Map<String, String> getBody() {
+        if (this.body == null) {
+            this.body = new HashMap<>();
+
+            if (this.rawBody.length > 0) {
+                parsePairs(new String(this.rawBody, StandardCharsets.UTF_8), '&', this.body, false);
+            }
+        }
+
         return this.body;
     }
 
@@ -88,9 +130,50 @@ public class Request {
      * @return the request cookies parsed from the headers
      */
     public Map<String, String> getCookies() {
+        if (this.cookies == null) {
+            this.cookies = new HashMap<>();
+
+            String rawCookies = this.getHeader("Cookie");
+
+            if (rawCookies != null) {
+                parsePairs(rawCookies, ';', this.cookies, false);
+            }
+        }
+
         return this.cookies;
     }
 
+    /**
+     * parsePairs
+     * parses a string of key value pairs (e.g. a=1&b=2) into a map without regular expressions.
+     * Keys and values are trimmed, and everything after the first `=` of a pair is its value.
+     * @param pairs the string of pairs
+     * @param separator the character separating each pair
+     * @param into the map to add the pairs to
+     * @param skipIncomplete if pairs without an `=` should be skipped instead of mapped to an empty string
+     */
+    static void parsePairs(String pairs, char separator, Map<String, String> into, boolean skipIncomplete) {
+        int start = 0;
+
+        while (start <= pairs.length()) {
+            int end = pairs.indexOf(separator, start);
+
+            if (end == -1) {
+                end = pairs.length();
+            }
+
+            int equals = pairs.indexOf('=', start);
+
+            if ((equals != -1) && (equals < end)) {
+                into.put(pairs.substring(start, equals).trim(), pairs.substring(equals + 1, end).trim());
+            } else if ((!skipIncomplete) && (end > start)) {
+                into.put(pairs.substring(start, end).trim(), "");
+            }
+
+            start = end + 1;
+        }
+    }
+
     /**
      * toString
      * converts the request to a string
@@ -100,66 +183,11 @@ public class Request {
     public String toString() {
         return "Request{" +
                 "statusLine=" + statusLine +
-                ", headers=" + headers +
-                ", body=" + body +
+                ", headers=" + getHeaders() +
+                ", body=" + getBody() +
                 '}';
     }
 
-    /**
-     * parse
-     * parses and Constructs an HTTP request from an HTTP request string.
-     * @param lines a list of all lines in the request
-     * @return the parsed request as a {@link Request}
-     */
-    public static Request parse(List<String> lines) {
-        // The first line contains the status line
-        // e.g. GET / HTTP/1.1
-        String statusLineStr = lines.get(0);
-        String[] statusLineTokens = statusLineStr.split(" ");
-
-        String method = statusLineTokens[0];
-        // Remove Query Params
-        String URL = statusLineTokens[1];
-        String status = statusLineTokens[2];
-
-        StatusLine statusLine = new StatusLine(RequestMethod.valueOf(method), URL, status);
-
-        // Headers
-        List<String> rawHeaders = lines.subList(1, lines.size() - 1);
-        Map<String, String> headers = new HashMap<>();
-
-        for (String line : rawHeaders) {
-            String key = line.substring(0, line.indexOf(":"));
-            String value = line.substring(line.indexOf(" ") + 1);
-
-            headers.put(key, value);
-        }
-
-        // Request body
-        Map<String, String> body = new HashMap<>();
-
-        String rawBody = lines.get(lines.size() - 1);
-
-        if (rawBody.length() > 0) {
-            String[] bodyPairs = rawBody.split("&");
-
-            for (String pair : bodyPairs) {
-                String[] splitPair = pair.split("=");
-
-                // Account for empty request body
-                if (splitPair.length == 1) {
-                    body.put(splitPair[0], "");
-                    continue;
-                }
-
-                body.put(splitPair[0], splitPair[1]);
-            }
-        }
-
-        // Request body
-        return new Request(statusLine, headers, body);
-    }
-
     /**
      * Represents the status line of an HTTP requests, which is the first line in the request.
      * It contains the request method, url, and protocol
@@ -179,8 +207,8 @@ public class Request {
         /** the request protocol, usually HTTP/1.1 */
         private final String protocol;
 
-        /** the query parameters of the request, parsed into a map */
-        private final Map<String, String> queryParams;
+        /** the query parameters of the request, parsed into a map on first access */
+        private Map<String, String> queryParams;
 
         /** the route parameters of the request, which must be parsed and populated according to a {@link URL}*/
         private Map<String, String> routeParams;
@@ -196,23 +224,13 @@ public class Request {
             this.url = url;
             this.protocol = protocol;
 
-            // Parse location and query params
-            String[] splitUrl = this.url.split("\\?");
-
-            this.location = splitUrl[0];
-            this.queryParams = new HashMap<>();
+            // Parse location
+            int queryStart = this.url.indexOf('?');
 
-            // populate query params if they exist
-            if (splitUrl.length == 2) {
-                for (String pair : splitUrl[1].split("&")) {
-                    String[] keyValue = pair.split("=");
-
-                    if (keyValue.length != 2) {
-                        continue;
-                    }
-
-                    this.queryParams.put(keyValue[0], keyValue[1]);
-                }
+            if (queryStart == -1) {
+                this.location = this.url;
+            } else {
+                this.location = this.url.substring(0, queryStart);
             }
         }
 
@@ -245,6 +263,15 @@ public class Request {
             }
         }
 
+        /**
+         * populateRequestParams
+         * sets the request params of the request, which have already been extracted while matching its route
+         * @param routeParams a map of route parameter names to their values
+         */
+        public void populateRequestParams(Map<String, String> routeParams) {
+            this.routeParams = routeParams;
+        }
+
         /**
          * getMethod
          * gets the request method
@@ -287,6 +314,17 @@ public class Request {
          * @return the query parameters
          */
         public Map<String, String> getQueryParams() {
+            // populate query params if they exist
+            if (this.queryParams == null) {
+                this.queryParams = new HashMap<>();
+
+                int queryStart = this.url.indexOf('?');
+
+                if (queryStart != -1) {
+                    parsePairs(this.url.substring(queryStart + 1), '&', this.queryParams, true);
+                }
+            }
+
             return this.queryParams;
         }
 
@@ -316,7 +354,7 @@ public class Request {
                     ", url='" + url + '\'' +
                     ", protocol='" + protocol + '\'' +
                     ", location='" + location + '\'' +
-                    ", queryParams=" + queryParams +
+                    ", queryParams=" + getQueryParams() +
                     ", routeParams=" + routeParams +
                     '}';
         }
@@ -0,0 +1,436 @@
+package server.request;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Finds the boundaries of HTTP requests in a buffer of bytes read from a connection.
+ * The body is framed by the Content-Length header or by chunked transfer encoding,
+ * so pipelined requests after it are left untouched.
+ * Requests which exceed the size limits are rejected as soon as their size is known.
+ * Each connection decodes through its own {@link Session}, which remembers how far a partial request has been decoded,
+ * so that a request arriving over many reads is only decoded once.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RequestDecoder {
+    /** The maximum size of a chunk size line, including chunk extensions */
+    private static final int MAX_CHUNK_LINE_SIZE = 4096;
+
+    /** The maximum size of the status line and headers in bytes */
+    private final int maxHeaderSize;
+
+    /** The maximum size of the decoded body in bytes */
+    private final int maxBodySize;
+
+    /**
+     * Constructs a decoder with size limits
+     * @param maxHeaderSize the maximum size of the status line and headers in bytes
+     * @param maxBodySize the maximum size of the decoded body in bytes
+     */
+    public RequestDecoder(int maxHeaderSize, int maxBodySize) {
+        this.maxHeaderSize = maxHeaderSize;
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * newSession
+     * creates a session to decode the requests of one connection
+     * @return the session
+     */
+    public Session newSession() {
+        return new Session();
+    }
+
+    /**
+     * decode
+     * decodes the first complete request in a buffer, without remembering any progress.
+     * Connections which read a request in parts should decode through a {@link Session} instead.
+     * @param buffer the read bytes in read mode, starting at the beginning of a request
+     * @return the decoded request, or null if more bytes must be read to complete it
+     * @throws RequestTooLargeException if the headers or body exceed the size limits
+     * @throws MalformedRequestException if the framing of the request is invalid
+     */
+    public RawRequest decode(ByteBuffer buffer) {
+        return new Session().decode(buffer);
+    }
+
+    /**
+     * Decodes the requests of one connection, keeping the progress made on a partial request between reads.
+     * Progress is kept relative to the position of the buffer, so the caller may grow or compact the buffer
+     * as long as the partial request stays at its position.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    public class Session {
+        /** The number of bytes of the request already searched for the end of the headers */
+        private int headerScanned;
+
+        /** The status line and headers of the request, or null if they have not been read yet */
+        private byte[] head;
+
+        /** If the body uses chunked transfer encoding */
+        private boolean chunked;
+
+        /** The length of the body, if it is not chunked */
+        private long contentLength;
+
+        /** The offset of the body from the start of the request */
+        private int bodyStart;
+
+        /** The offset of the next chunk size line or trailer line from the start of the request */
+        private int next;
+
+        /** If the last chunk has been read, so only trailer lines are left */
+        private boolean inTrailers;
+
+        /** The size of the trailer lines read so far */
+        private int trailerSize;
+
+        /** The chunks decoded so far */
+        private ByteArrayOutputStream body;
+
+        /**
+         * Constructs a Session with no progress
+         */
+        private Session() {
+        }
+
+        /**
+         * decode
+         * decodes the first complete request in a buffer, continuing from the progress made by earlier calls.
+         * The position of the buffer is not changed; the caller should skip {@link RawRequest#getLength()} bytes once it is done.
+         * @param buffer the read bytes in read mode, starting at the beginning of a request
+         * @return the decoded request, or null if more bytes must be read to complete it
+         * @throws RequestTooLargeException if the headers or body exceed the size limits
+         * @throws MalformedRequestException if the framing of the request is invalid
+         */
+        public RawRequest decode(ByteBuffer buffer) {
+            try {
+                if ((this.head == null) && (!this.decodeHead(buffer))) {
+                    return null;
+                }
+
+                RawRequest request = this.chunked ? this.decodeChunked(buffer) : this.decodeBody(buffer);
+
+                // The next request starts from scratch
+                if (request != null) {
+                    this.reset();
+                }
+
+                return request;
+            } catch (RuntimeException e) {
+                this.reset();
+                throw e;
+            }
+        }
+
+        /**
+         * decodeHead
+         * reads the status line and headers and finds how the body is framed
+         * @param buffer the read bytes in read mode
+         * @return if the headers are complete
+         * @throws RequestTooLargeException if the headers or body exceed the size limits
+         * @throws MalformedRequestException if the framing headers are invalid or conflict
+         */
+        private boolean decodeHead(ByteBuffer buffer) {
+            int start = buffer.position();
+            int limit = buffer.limit();
+
+            // Skip empty lines between pipelined requests
+            while ((start + 1 < limit) && (buffer.get(start) == '\r') && (buffer.get(start + 1) == '\n')) {
+                start += 2;
+            }
+
+            // Continue searching where the last read left off
+            int from = start + Math.max(0, this.headerScanned - 3);
+            int headerEnd = findHeaderEnd(buffer, from, Math.min(limit, start + maxHeaderSize + 4));
+
+            if (headerEnd == -1) {
+                if (limit - start > maxHeaderSize) {
+                    throw new RequestTooLargeException("Request headers exceed " + maxHeaderSize + " bytes", true);
+                }
+
+                this.headerScanned = limit - start;
+                return false;
+            }
+
+            // Copy the status line and headers, without the empty line which ends them
+            byte[] head = new byte[headerEnd - 4 - start];
+            buffer.duplicate().position(start).get(head);
+
+            // Find framing headers
+            long contentLength = -1;
+            String lastCoding = null;
+
+            int lineStart = 0;
+
+            for (int i = 0; i <= head.length; i++) {
+                if ((i != head.length) && (head[i] != '\n')) {
+                    continue;
+                }
+
+                String line = new String(head, lineStart, i - lineStart, StandardCharsets.ISO_8859_1);
+                int colon = line.indexOf(':');
+
+                if (colon != -1) {
+                    String name = line.substring(0, colon).trim();
+                    String value = line.substring(colon + 1).trim();
+
+                    if (name.equalsIgnoreCase("Content-Length")) {
+                        // Repeated lengths must agree, or the request could be framed differently by another server in front of this one
+                        for (String length : value.split(",", -1)) {
+                            long parsed = parseContentLength(length.trim());
+
+                            if ((contentLength != -1) && (contentLength != parsed)) {
+                                throw new MalformedRequestException("Conflicting Content-Length headers");
+                            }
+
+                            contentLength = parsed;
+                        }
+                    } else if (name.equalsIgnoreCase("Transfer-Encoding")) {
+                        // Codings are applied in order, so only the last one frames the body
+                        lastCoding = value.substring(value.lastIndexOf(',') + 1).trim();
+                    }
+                }
+
+                lineStart = i + 1;
+            }
+
+            boolean chunked = lastCoding != null;
+
+            // A body whose last coding is not chunked can only be ended by closing the connection, which requests cannot do
+            if ((chunked) && (!lastCoding.equalsIgnoreCase("chunked"))) {
+                throw new MalformedRequestException("Unsupported Transfer-Encoding " + lastCoding);
+            }
+
+            if (contentLength == -1) {
+                contentLength = 0;
+            }
+
+            // Reject before the body is read
+            if ((!chunked) && (contentLength > maxBodySize)) {
+                throw new RequestTooLargeException("Request body exceeds " + maxBodySize + " bytes", false);
+            }
+
+            this.head = head;
+            this.chunked = chunked;
+            this.contentLength = contentLength;
+            this.bodyStart = headerEnd - buffer.position();
+            this.next = this.bodyStart;
+            this.body = chunked ? new ByteArrayOutputStream() : null;
+
+            return true;
+        }
+
+        /**
+         * decodeBody
+         * reads a body framed by the Content-Length header
+         * @param buffer the read bytes in read mode
+         * @return the decoded request, or null if more bytes must be read to complete it
+         */
+        private RawRequest decodeBody(ByteBuffer buffer) {
+            int bodyStart = buffer.position() + this.bodyStart;
+
+            if (buffer.limit() - bodyStart < this.contentLength) {
+                return null;
+            }
+
+            byte[] body = new byte[(int) this.contentLength];
+            buffer.duplicate().position(bodyStart).get(body);
+
+            return new RawRequest(this.head, body, this.bodyStart + body.length);
+        }
+
+        /**
+         * decodeChunked
+         * decodes the chunks of a body sent with chunked transfer encoding which have arrived since the last call,
+         * discarding any trailer headers
+         * @param buffer the read bytes in read mode
+         * @return the decoded request, or null if more bytes must be read to complete it
+         * @throws RequestTooLargeException if the decoded body, its framing, or a line exceeds the size limits
+         * @throws MalformedRequestException if a chunk size cannot be parsed or chunk data is not followed by a line break
+         */
+        private RawRequest decodeChunked(ByteBuffer buffer) {
+            int requestStart = buffer.position();
+            int limit = buffer.limit();
+
+            while (true) {
+                int i = requestStart + this.next;
+                int lineEnd = findLineEnd(buffer, i, limit);
+
+                if (lineEnd == -1) {
+                    // Without a line break a line could grow until the buffer fills memory
+                    int maxLineSize = this.inTrailers ? maxHeaderSize - this.trailerSize : MAX_CHUNK_LINE_SIZE;
+
+                    if (limit - i > maxLineSize) {
+                        throw new RequestTooLargeException("Unterminated line in chunked body", this.inTrailers);
+                    }
+
+                    return null;
+                }
+
+                // Trailer lines until an empty line ends the request
+                if (this.inTrailers) {
+                    this.trailerSize += lineEnd + 2 - i;
+
+                    if (this.trailerSize > maxHeaderSize) {
+                        throw new RequestTooLargeException("Request trailers exceed " + maxHeaderSize + " bytes", true);
+                    }
+
+                    this.next = lineEnd + 2 - requestStart;
+
+                    if (lineEnd == i) {
+                        return new RawRequest(this.head, this.body.toByteArray(), this.next);
+                    }
+
+                    continue;
+                }
+
+                if (lineEnd - i > MAX_CHUNK_LINE_SIZE) {
+                    throw new RequestTooLargeException("Chunk size line exceeds " + MAX_CHUNK_LINE_SIZE + " bytes", false);
+                }
+
+                // Chunk size in hex, ignoring chunk extensions
+                String sizeLine = asciiString(buffer, i, lineEnd);
+                int extension = sizeLine.indexOf(';');
+
+                if (extension != -1) {
+                    sizeLine = sizeLine.substring(0, extension);
+                }
+
+                long size;
+
+                try {
+                    size = Long.parseLong(sizeLine.trim(), 16);
+                } catch (NumberFormatException e) {
+                    throw new MalformedRequestException("Invalid chunk size " + sizeLine);
+                }
+
+                // Compare against the space left, as adding to a huge size overflows
+                if ((size < 0) || (size > maxBodySize - this.body.size())) {
+                    throw new RequestTooLargeException("Request body exceeds " + maxBodySize + " bytes", false);
+                }
+
+                int dataStart = lineEnd + 2;
+
+                // Last chunk, followed by optional trailers and an empty line
+                if (size == 0) {
+                    this.inTrailers = true;
+                    this.next = dataStart - requestStart;
+                    continue;
+                }
+
+                // Chunk data followed by a line break
+                if (limit - dataStart < size + 2) {
+                    return null;
+                }
+
+                int dataEnd = dataStart + (int) size;
+
+                if ((buffer.get(dataEnd) != '\r') || (buffer.get(dataEnd + 1) != '\n')) {
+                    throw new MalformedRequestException("Chunk data is not followed by a line break");
+                }
+
+                byte[] chunk = new byte[(int) size];
+                buffer.duplicate().position(dataStart).get(chunk);
+                this.body.write(chunk, 0, chunk.length);
+
+                this.next = dataEnd + 2 - requestStart;
+
+                // Many tiny chunks with long extensions would otherwise buffer far more than the body limit
+                if ((long) this.next - this.bodyStart > 2L * maxBodySize + MAX_CHUNK_LINE_SIZE) {
+                    throw new RequestTooLargeException("Chunked framing of the request body is too large", false);
+                }
+            }
+        }
+
+        /**
+         * reset
+         * forgets the progress made on the current request
+         */
+        private void reset() {
+            this.headerScanned = 0;
+            this.head = null;
+            this.chunked = false;
+            this.contentLength = 0;
+            this.bodyStart = 0;
+            this.next = 0;
+            this.inTrailers = false;
+            this.trailerSize = 0;
+            this.body = null;
+        }
+    }
+
+    /**
+     * parseContentLength
+     * parses the value of a Content-Length header, which must be a non-negative decimal number
+     * @param value the value of the header
+     * @return the length of the body
+     * @throws MalformedRequestException if the value is not a non-negative decimal number
+     */
+    private static long parseContentLength(String value) {
+        // Long.parseLong would also accept a sign
+        if ((value.isEmpty()) || (!value.chars().allMatch(c -> (c >= '0') && (c <= '9')))) {
+            throw new MalformedRequestException("Invalid Content-Length " + value);
+        }
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new MalformedRequestException("Invalid Content-Length " + value);
+        }
+    }
+
+    /**
+     * findHeaderEnd
+     * finds the end of the status line and headers (i.e. the index after the empty line "\r\n\r\n")
+     * @param buffer the buffer to search
+     * @param from the index to start searching from
+     * @param to the index to stop searching at
+     * @return the index of the first byte after the headers, or -1 if the headers are not complete
+     */
+    private static int findHeaderEnd(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i + 3 < to; i++) {
+            if ((buffer.get(i) == '\r') && (buffer.get(i + 1) == '\n') && (buffer.get(i + 2) == '\r') && (buffer.get(i + 3) == '\n')) {
+                return i + 4;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * findLineEnd
+     * finds the next line break
+     * @param buffer the buffer to search
+     * @param from the index to start searching from
+     * @param to the index to stop searching at
+     * @return the index of the "\r" of the next line break, or -1 if there is no complete line
+     */
+    private static int findLineEnd(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i + 1 < to; i++) {
+            if ((buffer.get(i) == '\r') && (buffer.get(i + 1) == '\n')) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * asciiString
+     * converts a range of a buffer into a string
+     * @param buffer the buffer to read from
+     * @param from the first index of the range
+     * @param to the index after the last index of the range
+     * @return the range as a string
+     */
+    private static String asciiString(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.duplicate().position(from).get(bytes);
+
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,219 @@
+package server.request;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds the headers of a request as offsets into the raw bytes they were read from.
+ * Names and values are only converted into strings when they are accessed,
+ * and well-known header names are shared constants rather than new strings.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RequestHeaders {
+    /** Header names which are sent with most requests, in their canonical case */
+    private static final String[] WELL_KNOWN_NAMES = {
+            "Host",
+            "Connection",
+            "Content-Length",
+            "Content-Type",
+            "Transfer-Encoding",
+            "Cookie",
+            "Accept",
+            "Accept-Encoding",
+            "Accept-Language",
+            "User-Agent",
+            "Referer",
+            "Origin",
+            "Cache-Control",
+            "Pragma",
+            "If-None-Match",
+            "If-Modified-Since",
+            "Upgrade-Insecure-Requests",
+            "Sec-Fetch-Dest",
+            "Sec-Fetch-Mode",
+            "Sec-Fetch-Site",
+            "Sec-Fetch-User",
+            "Sec-Ch-Ua",
+            "Sec-Ch-Ua-Mobile",
+            "Sec-Ch-Ua-Platform",
+            "DNT",
+    };
+
+    /** The bytes the headers were read from */
+    private final byte[] source;
+
+    /** The start and end offsets of each name and value, 4 entries per header */
+    private int[] offsets;
+
+    /** The number of headers */
+    private int count;
+
+    /** The headers converted into a map, created on first access */
+    private Map<String, String> map;
+
+    /**
+     * Constructs an empty header table over a source array
+     * @param source the bytes the headers are read from
+     */
+    RequestHeaders(byte[] source) {
+        this.source = source;
+        this.offsets = new int[4 * 16];
+        this.count = 0;
+    }
+
+    /**
+     * add
+     * records the position of a header in the source bytes
+     * @param nameStart the index of the first byte of the name
+     * @param nameEnd the index after the last byte of the name
+     * @param valueStart the index of the first byte of the value
+     * @param valueEnd the index after the last byte of the value
+     */
+    void add(int nameStart, int nameEnd, int valueStart, int valueEnd) {
+        // Grow the table if it is full
+        if (4 * (this.count + 1) > this.offsets.length) {
+            int[] larger = new int[this.offsets.length * 2];
+            System.arraycopy(this.offsets, 0, larger, 0, this.offsets.length);
+            this.offsets = larger;
+        }
+
+        int i = 4 * this.count;
+
+        this.offsets[i] = nameStart;
+        this.offsets[i + 1] = nameEnd;
+        this.offsets[i + 2] = valueStart;
+        this.offsets[i + 3] = valueEnd;
+
+        this.count++;
+    }
+
+    /**
+     * size
+     * gets the number of headers
+     * @return the number of headers
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * get
+     * gets the value of the first header with a name, ignoring case, without converting the other headers
+     * @param name the name of the header
+     * @return the value of the header, or null if there is no header with the name
+     */
+    public String get(String name) {
+        for (int i = 0; i < this.count; i++) {
+            if (this.nameEquals(i, name)) {
+                return this.value(i);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * name
+     * gets the name of a header, using the shared constant if it is a well-known header
+     * @param index the index of the header
+     * @return the name of the header
+     */
+    public String name(int index) {
+        for (String wellKnown : WELL_KNOWN_NAMES) {
+            if (this.nameEquals(index, wellKnown)) {
+                return wellKnown;
+            }
+        }
+
+        int start = this.offsets[4 * index];
+        int end = this.offsets[4 * index + 1];
+
+        return new String(this.source, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * value
+     * gets the value of a header
+     * @param index the index of the header
+     * @return the value of the header
+     */
+    public String value(int index) {
+        int start = this.offsets[4 * index + 2];
+        int end = this.offsets[4 * index + 3];
+
+        return new String(this.source, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * toMap
+     * converts the headers into a map of names to values, which is created once and cached
+     * @return an unmodifiable map of the headers in the order they were sent
+     */
+    public Map<String, String> toMap() {
+        if (this.map == null) {
+            Map<String, String> headers = new LinkedHashMap<>();
+
+            for (int i = 0; i < this.count; i++) {
+                headers.putIfAbsent(this.name(i), this.value(i));
+            }
+
+            this.map = Collections.unmodifiableMap(headers);
+        }
+
+        return this.map;
+    }
+
+    /**
+     * nameEquals
+     * compares the name of a header to a string, ignoring ASCII case
+     * @param index the index of the header
+     * @param name the name to compare to
+     * @return if the names are equal
+     */
+    private boolean nameEquals(int index, String name) {
+        int start = this.offsets[4 * index];
+        int end = this.offsets[4 * index + 1];
+
+        if (end - start != name.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < name.length(); i++) {
+            int a = this.source[start + i] & 0xff;
+            int b = name.charAt(i);
+
+            if ((a != b) && (toLowerCase(a) != toLowerCase(b))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * toLowerCase
+     * converts an ASCII letter to lower case
+     * @param c the character
+     * @return the character in lower case, or the character itself if it is not an upper case letter
+     */
+    private static int toLowerCase(int c) {
+        if ((c >= 'A') && (c <= 'Z')) {
+            return c + ('a' - 'A');
+        }
+
+        return c;
+    }
+
+    /**
+     * toString
+     * converts the headers to a string
+     * @return the headers in string representation
+     */
+    @Override
+    public String toString() {
+        return this.toMap().toString();
+    }
+}
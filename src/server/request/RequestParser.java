@@ -0,0 +1,237 @@
+package server.request;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses the status line and headers of an HTTP request directly from its raw bytes.
+ * Headers are recorded as offsets into the bytes, and the cookies, query parameters, and form body
+ * are only decoded when they are first accessed through the {@link Request}.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RequestParser {
+    /** The protocol sent by almost all clients, shared instead of decoded for each request */
+    private static final String HTTP_1_1 = "HTTP/1.1";
+
+    /** The protocol sent by older clients, shared instead of decoded for each request */
+    private static final String HTTP_1_0 = "HTTP/1.0";
+
+    /** The request methods, cached because {@link RequestMethod#values()} copies the array */
+    private static final RequestMethod[] METHODS = RequestMethod.values();
+
+    /**
+     * parse
+     * parses a request from a decoded {@link RawRequest}
+     * @param rawRequest the request read from a connection
+     * @return the parsed request
+     * @throws MalformedRequestException if the status line or headers are invalid
+     */
+    public static Request parse(RawRequest rawRequest) {
+        return parse(ByteBuffer.wrap(rawRequest.getHead()), rawRequest.getBody());
+    }
+
+    /**
+     * parse
+     * parses a request from the bytes of its status line and headers
+     * @param head the status line and headers in read mode, without the empty line which ends them
+     * @param body the request body
+     * @return the parsed request
+     * @throws MalformedRequestException if the status line or headers are invalid
+     */
+    public static Request parse(ByteBuffer head, byte[] body) {
+        byte[] source;
+        int start;
+        int end;
+
+        if (head.hasArray()) {
+            source = head.array();
+            start = head.arrayOffset() + head.position();
+            end = head.arrayOffset() + head.limit();
+        } else {
+            source = new byte[head.remaining()];
+            head.duplicate().get(source);
+            start = 0;
+            end = source.length;
+        }
+
+        // Status line
+        // e.g. GET / HTTP/1.1
+        int lineEnd = lineEnd(source, start, end);
+
+        int methodEnd = indexOf(source, ' ', start, lineEnd);
+        int urlEnd = indexOf(source, ' ', methodEnd + 1, lineEnd);
+
+        if ((methodEnd == -1) || (urlEnd == -1)) {
+            throw new MalformedRequestException("Invalid status line");
+        }
+
+        RequestMethod method = method(source, start, methodEnd);
+        String url = new String(source, methodEnd + 1, urlEnd - methodEnd - 1, StandardCharsets.ISO_8859_1);
+        String protocol = protocol(source, urlEnd + 1, lineEnd);
+
+        Request.StatusLine statusLine = new Request.StatusLine(method, url, protocol);
+
+        // Headers
+        RequestHeaders headers = new RequestHeaders(source);
+
+        int i = skipLineBreak(source, lineEnd, end);
+
+        while (i < end) {
+            lineEnd = lineEnd(source, i, end);
+
+            int colon = indexOf(source, ':', i, lineEnd);
+
+            if (colon == -1) {
+                throw new MalformedRequestException("Invalid header line");
+            }
+
+            // Trim optional whitespace around the value
+            int valueStart = colon + 1;
+            int valueEnd = lineEnd;
+
+            while ((valueStart < valueEnd) && (isWhitespace(source[valueStart]))) {
+                valueStart++;
+            }
+
+            while ((valueEnd > valueStart) && (isWhitespace(source[valueEnd - 1]))) {
+                valueEnd--;
+            }
+
+            headers.add(i, colon, valueStart, valueEnd);
+
+            i = skipLineBreak(source, lineEnd, end);
+        }
+
+        return new Request(statusLine, headers, body);
+    }
+
+    /**
+     * method
+     * finds the request method matching a range of bytes without creating a string
+     * @param source the bytes to read from
+     * @param start the index of the first byte of the method
+     * @param end the index after the last byte of the method
+     * @return the request method
+     * @throws MalformedRequestException if the method is unknown
+     */
+    private static RequestMethod method(byte[] source, int start, int end) {
+        for (RequestMethod method : METHODS) {
+            if (rangeEquals(source, start, end, method.name())) {
+                return method;
+            }
+        }
+
+        throw new MalformedRequestException("Unknown request method " + new String(source, start, end - start, StandardCharsets.ISO_8859_1));
+    }
+
+    /**
+     * protocol
+     * gets the protocol in a range of bytes, using a shared constant for the common protocols
+     * @param source the bytes to read from
+     * @param start the index of the first byte of the protocol
+     * @param end the index after the last byte of the protocol
+     * @return the protocol
+     */
+    private static String protocol(byte[] source, int start, int end) {
+        if (rangeEquals(source, start, end, HTTP_1_1)) {
+            return HTTP_1_1;
+        }
+
+        if (rangeEquals(source, start, end, HTTP_1_0)) {
+            return HTTP_1_0;
+        }
+
+        return new String(source, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * rangeEquals
+     * compares a range of bytes to an ASCII string
+     * @param source the bytes to read from
+     * @param start the index of the first byte of the range
+     * @param end the index after the last byte of the range
+     * @param value the string to compare to
+     * @return if the range contains exactly the string
+     */
+    private static boolean rangeEquals(byte[] source, int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            if (source[start + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * indexOf
+     * finds the first occurrence of a byte in a range
+     * @param source the bytes to search
+     * @param target the byte to find
+     * @param start the index to start searching from
+     * @param end the index to stop searching at
+     * @return the index of the byte, or -1 if it is not found
+     */
+    private static int indexOf(byte[] source, char target, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (source[i] == target) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * lineEnd
+     * finds the end of the line starting at an index, excluding the line break
+     * @param source the bytes to search
+     * @param start the index of the start of the line
+     * @param end the index to stop searching at
+     * @return the index of the line break, or {@code end} if the line is the last one
+     */
+    private static int lineEnd(byte[] source, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if ((source[i] == '\r') || (source[i] == '\n')) {
+                return i;
+            }
+        }
+
+        return end;
+    }
+
+    /**
+     * skipLineBreak
+     * skips over the line break at an index
+     * @param source the bytes to read from
+     * @param index the index of the line break
+     * @param end the index after the last byte
+     * @return the index of the start of the next line
+     */
+    private static int skipLineBreak(byte[] source, int index, int end) {
+        if ((index < end) && (source[index] == '\r')) {
+            index++;
+        }
+
+        if ((index < end) && (source[index] == '\n')) {
+            index++;
+        }
+
+        return index;
+    }
+
+    /**
+     * isWhitespace
+     * determines if a byte is a space or a tab
+     * @param b the byte to check
+     * @return if the byte is whitespace
+     */
+    private static boolean isWhitespace(byte b) {
+        return (b == ' ') || (b == '\t');
+    }
+}
@@ -0,0 +1,307 @@
+package server.request;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A benchmark of the {@link RequestParser} against the string based parsing it replaced, run from the command line with
+ * {@code java server.request.RequestParserBenchmark [iterations] [rounds]}.
+ * Each typical browser request is parsed and then read the way a route reads it, through its location, cookies, a header, and its body,
+ * which is where the string based parser did its work up front and the byte based parser decodes lazily.
+ * Both parsers must read the same values from every request, and the benchmark exits with status 1 if they do not.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RequestParserBenchmark {
+    /** The default number of times each request is parsed in a round */
+    private static final int ITERATIONS = 200_000;
+
+    /** The default number of measured rounds, after as many warm up rounds */
+    private static final int ROUNDS = 5;
+
+    /** The names of the typical requests */
+    private static final String[] NAMES = {"page", "asset", "poll", "submit"};
+
+    /** Typical requests sent by a browser, without the empty line which ends their heads, each followed by its body */
+    private static final String[][] REQUESTS = {
+            {
+                    "GET /problems?page=2&sort=difficulty HTTP/1.1\r\n" +
+                    "Host: localhost:8080\r\n" +
+                    "Connection: keep-alive\r\n" +
+                    "Upgrade-Insecure-Requests: 1\r\n" +
+                    "User-Agent: Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36\r\n" +
+                    "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8\r\n" +
+                    "Sec-Fetch-Site: same-origin\r\n" +
+                    "Sec-Fetch-Mode: navigate\r\n" +
+                    "Sec-Fetch-Dest: document\r\n" +
+                    "Referer: http://localhost:8080/\r\n" +
+                    "Accept-Encoding: gzip, deflate, br\r\n" +
+                    "Accept-Language: en-US,en;q=0.9\r\n" +
+                    "Cookie: username=harry; password=8f14e45fceea167a5a36dedd4bea2543; theme=dark",
+                    ""
+            },
+            {
+                    "GET /static/js/tests.js?v=3f2a9c HTTP/1.1\r\n" +
+                    "Host: localhost:8080\r\n" +
+                    "Connection: keep-alive\r\n" +
+                    "User-Agent: Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36\r\n" +
+                    "Accept: */*\r\n" +
+                    "Sec-Fetch-Site: same-origin\r\n" +
+                    "Sec-Fetch-Mode: no-cors\r\n" +
+                    "Sec-Fetch-Dest: script\r\n" +
+                    "Referer: http://localhost:8080/problems/12\r\n" +
+                    "Accept-Encoding: gzip, deflate, br\r\n" +
+                    "Accept-Language: en-US,en;q=0.9\r\n" +
+                    "If-None-Match: W/\"5d41402abc4b2a76b9719d911017c592\"\r\n" +
+                    "Cookie: username=harry; password=8f14e45fceea167a5a36dedd4bea2543; theme=dark",
+                    ""
+            },
+            {
+                    "GET /problems/12/submissions HTTP/1.1\r\n" +
+                    "Host: localhost:8080\r\n" +
+                    "Connection: keep-alive\r\n" +
+                    "User-Agent: Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36\r\n" +
+                    "Accept: */*\r\n" +
+                    "Sec-Fetch-Site: same-origin\r\n" +
+                    "Sec-Fetch-Mode: cors\r\n" +
+                    "Sec-Fetch-Dest: empty\r\n" +
+                    "Referer: http://localhost:8080/problems/12\r\n" +
+                    "Accept-Encoding: gzip, deflate, br\r\n" +
+                    "Accept-Language: en-US,en;q=0.9\r\n" +
+                    "Cookie: username=harry; password=8f14e45fceea167a5a36dedd4bea2543; theme=dark",
+                    ""
+            },
+            {
+                    "POST /problems/12/submit HTTP/1.1\r\n" +
+                    "Host: localhost:8080\r\n" +
+                    "Connection: keep-alive\r\n" +
+                    "Content-Length: 96\r\n" +
+                    "Cache-Control: max-age=0\r\n" +
+                    "Origin: http://localhost:8080\r\n" +
+                    "Content-Type: application/x-www-form-urlencoded\r\n" +
+                    "User-Agent: Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/126.0.0.0 Safari/537.36\r\n" +
+                    "Accept: text/html,application/xhtml+xml,application/xml;q=0.9,image/avif,image/webp,*/*;q=0.8\r\n" +
+                    "Referer: http://localhost:8080/problems/12\r\n" +
+                    "Accept-Encoding: gzip, deflate, br\r\n" +
+                    "Accept-Language: en-US,en;q=0.9\r\n" +
+                    "Cookie: username=harry; password=8f14e45fceea167a5a36dedd4bea2543; theme=dark",
+                    "language=java&code=public+class+Main+%7B+public+static+void+main%28String%5B%5D+a%29+%7B%7D+%7D"
+            }
+    };
+
+    /** Collects values read from the parsed requests, so that the work is not optimized away */
+    private static int sink;
+
+    /**
+     * main
+     * checks that both parsers agree, then times each of them on each request and prints the results
+     * @param args the number of iterations per round and the number of rounds, each optional
+     */
+    public static void main(String[] args) {
+        int iterations = (args.length > 0) ? Integer.parseInt(args[0]) : ITERATIONS;
+        int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : ROUNDS;
+
+        byte[][] heads = new byte[REQUESTS.length][];
+        byte[][] bodies = new byte[REQUESTS.length][];
+
+        for (int i = 0; i < REQUESTS.length; i++) {
+            heads[i] = REQUESTS[i][0].getBytes(StandardCharsets.ISO_8859_1);
+            bodies[i] = REQUESTS[i][1].getBytes(StandardCharsets.UTF_8);
+        }
+
+        boolean passed = true;
+
+        for (int i = 0; i < REQUESTS.length; i++) {
+            passed &= agree(NAMES[i], heads[i], bodies[i]);
+        }
+
+        // Warm up both parsers before anything is measured
+        for (int round = 0; round < rounds; round++) {
+            for (int i = 0; i < REQUESTS.length; i++) {
+                timeStrings(heads[i], bodies[i], iterations);
+                timeBytes(heads[i], bodies[i], iterations);
+            }
+        }
+
+        for (int i = 0; i < REQUESTS.length; i++) {
+            long strings = Long.MAX_VALUE;
+            long bytes = Long.MAX_VALUE;
+
+            for (int round = 0; round < rounds; round++) {
+                strings = Math.min(strings, timeStrings(heads[i], bodies[i], iterations));
+                bytes = Math.min(bytes, timeBytes(heads[i], bodies[i], iterations));
+            }
+
+            double stringsPerOp = strings / (double) iterations;
+            double bytesPerOp = bytes / (double) iterations;
+
+            System.out.printf("[INFO] %-7s strings %7.1f ns/op, bytes %7.1f ns/op, %.2fx%n", NAMES[i], stringsPerOp, bytesPerOp, stringsPerOp / bytesPerOp);
+        }
+
+        System.out.println("[INFO] sink " + sink);
+        System.out.println(passed ? "[PASS] RequestParser" : "[FAIL] RequestParser");
+
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * agree
+     * checks that both parsers read the same values from a request
+     * @param name the name of the request
+     * @param head the status line and headers
+     * @param body the body
+     * @return if every value matches
+     */
+    private static boolean agree(String name, byte[] head, byte[] body) {
+        StringRequest expected = StringRequest.parse(head, body);
+        Request actual = RequestParser.parse(new RawRequest(head, body, head.length + 4 + body.length));
+        Request.StatusLine statusLine = actual.getStatusLine();
+
+        boolean matches = (expected.method == statusLine.getMethod())
+                && (expected.location.equals(statusLine.getLocation()))
+                && (expected.protocol.equals(statusLine.getProtocol()))
+                && (expected.queryParams.equals(statusLine.getQueryParams()))
+                && (expected.headers.equals(actual.getHeaders()))
+                && (expected.cookies.equals(actual.getCookies()))
+                && (expected.body.equals(actual.getBody()));
+
+        if (!matches) {
+            System.out.println("[INFO] The parsers disagree on the " + name + " request");
+        }
+
+        return matches;
+    }
+
+    /**
+     * timeStrings
+     * parses and reads a request with the string based parser many times
+     * @param head the status line and headers
+     * @param body the body
+     * @param iterations the number of times to parse the request
+     * @return the elapsed time in nanoseconds
+     */
+    private static long timeStrings(byte[] head, byte[] body, int iterations) {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            StringRequest req = StringRequest.parse(head, body);
+
+            sink += req.location.length() + req.cookies.size() + req.body.size() + req.headers.get("Accept-Encoding").length();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * timeBytes
+     * parses and reads a request with the {@link RequestParser} many times
+     * @param head the status line and headers
+     * @param body the body
+     * @param iterations the number of times to parse the request
+     * @return the elapsed time in nanoseconds
+     */
+    private static long timeBytes(byte[] head, byte[] body, int iterations) {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            Request req = RequestParser.parse(new RawRequest(head, body, head.length + 4 + body.length));
+
+            sink += req.getStatusLine().getLocation().length() + req.getCookies().size() + req.getBody().size() + req.getHeader("Accept-Encoding").length();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * The request parsing which the {@link RequestParser} replaced, which split the request into lines
+     * and then split each part into maps as soon as it was parsed
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class StringRequest {
+        /** the request method */
+        private RequestMethod method;
+
+        /** the url, without any query parameters */
+        private String location;
+
+        /** the request protocol */
+        private String protocol;
+
+        /** the query parameters */
+        private final Map<String, String> queryParams = new HashMap<>();
+
+        /** the request headers */
+        private final Map<String, String> headers = new HashMap<>();
+
+        /** the cookies from the headers */
+        private final Map<String, String> cookies = new HashMap<>();
+
+        /** the key value pairs in the body */
+        private final Map<String, String> body = new HashMap<>();
+
+        /**
+         * parse
+         * parses a request the way it was parsed before the {@link RequestParser}
+         * @param head the status line and headers
+         * @param rawBody the body
+         * @return the parsed request
+         */
+        static StringRequest parse(byte[] head, byte[] rawBody) {
+            StringRequest req = new StringRequest();
+            String[] lines = new String(head, StandardCharsets.ISO_8859_1).split("\r\n");
+
+            // Status line
+            String[] statusLineTokens = lines[0].split(" ");
+            String[] splitUrl = statusLineTokens[1].split("\\?");
+
+            req.method = RequestMethod.valueOf(statusLineTokens[0]);
+            req.location = splitUrl[0];
+            req.protocol = statusLineTokens[2];
+
+            if (splitUrl.length == 2) {
+                for (String pair : splitUrl[1].split("&")) {
+                    String[] keyValue = pair.split("=");
+
+                    if (keyValue.length == 2) {
+                        req.queryParams.put(keyValue[0], keyValue[1]);
+                    }
+                }
+            }
+
+            // Headers
+            for (int i = 1; i < lines.length; i++) {
+                String line = lines[i];
+
+                req.headers.put(line.substring(0, line.indexOf(":")), line.substring(line.indexOf(" ") + 1));
+            }
+
+            // Request body
+            String body = new String(rawBody, StandardCharsets.UTF_8);
+
+            if (body.length() > 0) {
+                for (String pair : body.split("&")) {
+                    String[] splitPair = pair.split("=");
+
+                    req.body.put(splitPair[0], (splitPair.length == 1) ? "" : splitPair[1]);
+                }
+            }
+
+            // Cookies
+            String rawCookies = req.headers.get("Cookie");
+
+            if (rawCookies != null) {
+                for (String cookiePair : rawCookies.split(";")) {
+                    String[] cookieKeyValue = cookiePair.trim().split("=");
+
+                    req.cookies.put(cookieKeyValue[0], (cookieKeyValue.length == 1) ? "" : cookieKeyValue[1]);
+                }
+            }
+
+            return req;
+        }
+    }
+}
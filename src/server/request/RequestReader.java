@@ -0,0 +1,79 @@
+package server.request;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads HTTP requests from a blocking input stream with bulk reads into a reusable buffer.
+ * Any bytes read past the end of a request are kept for the next request, which allows pipelining.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RequestReader {
+    /** The initial size of the buffer */
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    /** The stream to read from */
+    private final InputStream input;
+
+    /** Finds the boundaries of each request, remembering the progress made on a partial request */
+    private final RequestDecoder.Session decoder;
+
+    /** The bytes read from the stream which have not been returned yet, in write mode */
+    private ByteBuffer buffer;
+
+    /**
+     * Constructs a reader which reads from a stream
+     * @param input the stream to read from
+     * @param decoder the decoder which finds the boundaries of each request
+     */
+    public RequestReader(InputStream input, RequestDecoder decoder) {
+        this.input = input;
+        this.decoder = decoder.newSession();
+        this.buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    }
+
+    /**
+     * next
+     * blocks until the next request has been fully read
+     * @return the next request, or null if the stream ends before a request is complete
+     * @throws IOException if an error occurs while reading, including a read timeout
+     * @throws RequestTooLargeException if the headers or body exceed the size limits
+     * @throws MalformedRequestException if the framing headers cannot be parsed
+     */
+    public RawRequest next() throws IOException {
+        while (true) {
+            // Check for a complete request in the bytes already read
+            ByteBuffer view = this.buffer.duplicate();
+            view.flip();
+
+            RawRequest request = this.decoder.decode(view);
+
+            if (request != null) {
+                // Discard the request, keeping any pipelined bytes after it
+                this.buffer.flip();
+                this.buffer.position(request.getLength());
+                this.buffer.compact();
+
+                return request;
+            }
+
+            // Grow the buffer if it is full
+            if (!this.buffer.hasRemaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(this.buffer.capacity() * 2);
+                this.buffer.flip();
+                larger.put(this.buffer);
+                this.buffer = larger;
+            }
+
+            int count = this.input.read(this.buffer.array(), this.buffer.arrayOffset() + this.buffer.position(), this.buffer.remaining());
+
+            if (count == -1) {
+                return null;
+            }
+
+            this.buffer.position(this.buffer.position() + count);
+        }
+    }
+}
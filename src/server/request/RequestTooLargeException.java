@@ -0,0 +1,31 @@
+package server.request;
+
+/**
+ * This exception should be thrown when the headers or body of a request exceed the configured size limits.
+ * It is thrown as soon as the size is known, so the oversized request is never buffered in full.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class RequestTooLargeException extends RuntimeException {
+    /** If the headers, rather than the body, are too large */
+    private final boolean headersTooLarge;
+
+    /**
+     * Constructs a {@link RequestTooLargeException} with an error message
+     * @param message the error message
+     * @param headersTooLarge if the headers, rather than the body, are too large
+     */
+    public RequestTooLargeException(String message, boolean headersTooLarge) {
+        super(message);
+        this.headersTooLarge = headersTooLarge;
+    }
+
+    /**
+     * isHeadersTooLarge
+     * determines if the headers, rather than the body, are too large
+     * @return if the headers are too large
+     */
+    public boolean isHeadersTooLarge() {
+        return this.headersTooLarge;
+    }
+}
@@ -0,0 +1,159 @@
+package server.response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An output stream which encodes everything written to it with HTTP chunked transfer encoding.
+ * Bytes are buffered and sent as a chunk whenever the buffer is full or the stream is flushed,
+ * so the client starts receiving a body before it has been fully produced.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ChunkedOutputStream extends OutputStream {
+    /** The default size of each chunk in bytes */
+    private static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    /** The terminating zero length chunk, which has no trailers */
+    private static final byte[] LAST_CHUNK = "0\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    /** The stream the chunks are written to */
+    private final OutputStream output;
+
+    /** The bytes of the current chunk */
+    private final byte[] buffer;
+
+    /** The number of bytes in the current chunk */
+    private int count;
+
+    /** If the terminating chunk has been written */
+    private boolean finished;
+
+    /**
+     * Constructs a chunked output stream with the default chunk size
+     * @param output the stream to write the chunks to
+     */
+    public ChunkedOutputStream(OutputStream output) {
+        this(output, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a chunked output stream
+     * @param output the stream to write the chunks to
+     * @param chunkSize the maximum size of each chunk in bytes
+     * @throws IllegalArgumentException if {@code chunkSize} is not positive
+     */
+    public ChunkedOutputStream(OutputStream output, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+
+        this.output = output;
+        this.buffer = new byte[chunkSize];
+        this.count = 0;
+        this.finished = false;
+    }
+
+    /**
+     * write
+     * writes a single byte to the current chunk
+     * @param b the byte to write
+     * @throws IOException if an error occurs while writing a full chunk
+     */
+    @Override
+    public void write(int b) throws IOException {
+        if (this.count == this.buffer.length) {
+            this.writeChunk();
+        }
+
+        this.buffer[this.count++] = (byte) b;
+    }
+
+    /**
+     * write
+     * writes bytes to the current chunk, sending chunks as the buffer fills up
+     * @param b the bytes to write
+     * @param off the start offset in the bytes
+     * @param len the number of bytes to write
+     * @throws IOException if an error occurs while writing a full chunk
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (this.count == this.buffer.length) {
+                this.writeChunk();
+            }
+
+            int copied = Math.min(len, this.buffer.length - this.count);
+
+            System.arraycopy(b, off, this.buffer, this.count, copied);
+
+            this.count += copied;
+            off += copied;
+            len -= copied;
+        }
+    }
+
+    /**
+     * flush
+     * sends the current chunk, even if it is not full, and flushes the underlying stream
+     * @throws IOException if an error occurs while writing
+     */
+    @Override
+    public void flush() throws IOException {
+        this.writeChunk();
+        this.output.flush();
+    }
+
+    /**
+     * finish
+     * sends the current chunk followed by the terminating chunk.
+     * The underlying stream is flushed but not closed, so the connection can be reused.
+     * @throws IOException if an error occurs while writing
+     */
+    public void finish() throws IOException {
+        if (this.finished) {
+            return;
+        }
+
+        this.writeChunk();
+        this.output.write(LAST_CHUNK);
+        this.output.flush();
+
+        this.finished = true;
+    }
+
+    /**
+     * close
+     * finishes the chunked body without closing the underlying stream
+     * @throws IOException if an error occurs while writing
+     */
+    @Override
+    public void close() throws IOException {
+        this.finish();
+    }
+
+    /**
+     * writeChunk
+     * writes the buffered bytes as a single chunk, with its size line and trailing line break, in one write
+     * @throws IOException if an error occurs while writing
+     */
+    private void writeChunk() throws IOException {
+        if (this.count == 0) {
+            return;
+        }
+
+        byte[] sizeLine = (Integer.toHexString(this.count) + "\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] chunk = new byte[sizeLine.length + this.count + 2];
+
+        System.arraycopy(sizeLine, 0, chunk, 0, sizeLine.length);
+        System.arraycopy(this.buffer, 0, chunk, sizeLine.length, this.count);
+
+        chunk[chunk.length - 2] = '\r';
+        chunk[chunk.length - 1] = '\n';
+
+        this.output.write(chunk);
+        this.count = 0;
+    }
+}
@@ -0,0 +1,141 @@
+package server.response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The content codings the server can compress response bodies with,
+ * along with the negotiation of a coding from a request's `Accept-Encoding` header.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public enum ContentEncoding {
+    /** gzip, which is preferred since every browser supports it */
+    GZIP("gzip"),
+    /** deflate in the zlib format, as HTTP defines it */
+    DEFLATE("deflate");
+
+    /** The name of the coding in HTTP headers */
+    private final String token;
+
+    /**
+     * Constructs an enum value with the name of the coding
+     * @param token the name of the coding in HTTP headers
+     */
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * getToken
+     * gets the name of the coding, as used in the `Content-Encoding` header
+     * @return the name of the coding
+     */
+    public String getToken() {
+        return this.token;
+    }
+
+    /**
+     * encode
+     * compresses bytes with this coding
+     * @param content the bytes to compress
+     * @return the compressed bytes
+     */
+    public byte[] encode(byte[] content) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 4 + 64);
+
+        try (OutputStream output = this.wrap(compressed)) {
+            output.write(content);
+        } catch (IOException e) {
+            // Writing to memory cannot fail
+            throw new UncheckedIOException(e);
+        }
+
+        return compressed.toByteArray();
+    }
+
+    /**
+     * wrap
+     * creates a stream which compresses everything written to it with this coding.
+     * Flushing the stream sends everything compressed so far, so a streamed body still reaches the client in pieces.
+     * Closing the stream writes the end of the compressed data and closes the underlying stream.
+     * @param output the stream to write the compressed bytes to
+     * @return the compressing stream
+     * @throws IOException if an error occurs while writing the header of the coding
+     */
+    public OutputStream wrap(OutputStream output) throws IOException {
+        return (this == GZIP) ? new GZIPOutputStream(output, true) : new DeflaterOutputStream(output, true);
+    }
+
+    /**
+     * negotiate
+     * chooses the coding to send a response with, based on the quality values in an `Accept-Encoding` header.
+     * Among codings with the same quality, the one declared first in this enum is preferred.
+     * @param acceptEncoding the value of the `Accept-Encoding` header, or null if it is absent
+     * @param available the codings the response is available in
+     * @return the chosen coding, or null if the response should be sent uncompressed
+     */
+    public static ContentEncoding negotiate(String acceptEncoding, Set<ContentEncoding> available) {
+        if ((acceptEncoding == null) || (available.isEmpty())) {
+            return null;
+        }
+
+        ContentEncoding best = null;
+        double bestQuality = 0;
+        double wildcardQuality = -1;
+        double[] qualities = new double[values().length];
+
+        for (String coding : acceptEncoding.split(",")) {
+            // Split the coding from its parameters
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            double quality = 1;
+
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+
+            if (name.equals("*")) {
+                wildcardQuality = quality;
+                continue;
+            }
+
+            for (ContentEncoding encoding : values()) {
+                if (encoding.token.equalsIgnoreCase(name)) {
+                    // Explicit codings are marked with a positive offset so they are not overridden by the wildcard
+                    qualities[encoding.ordinal()] = quality + 1;
+                }
+            }
+        }
+
+        for (ContentEncoding encoding : values()) {
+            if (!available.contains(encoding)) {
+                continue;
+            }
+
+            double quality = qualities[encoding.ordinal()] > 0
+                    ? qualities[encoding.ordinal()] - 1
+                    : wildcardQuality;
+
+            if (quality > bestQuality) {
+                best = encoding;
+                bestQuality = quality;
+            }
+        }
+
+        return best;
+    }
+}
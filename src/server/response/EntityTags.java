@@ -0,0 +1,56 @@
+package server.response;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes the opaque entity tags sent in `ETag` headers from SHA-256 hashes of content,
+ * so that assets and rendered pages are tagged the same way
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class EntityTags {
+    /** The number of bytes of the hash kept in an entity tag, which is plenty to tell versions of a resource apart */
+    private static final int TAG_BYTES = 16;
+
+    /**
+     * newDigest
+     * creates the message digest entity tags are computed with, for content which is hashed in parts
+     * @return a SHA-256 message digest
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            System.out.println("Hashing algorithm SHA-256 cannot be found");
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * of
+     * computes the entity tag of some content
+     * @param content the content to tag
+     * @return the quoted hexadecimal entity tag
+     */
+    public static String of(byte[] content) {
+        return fromHash(newDigest().digest(content));
+    }
+
+    /**
+     * fromHash
+     * converts a hash from {@link #newDigest()} to an entity tag
+     * @param hash the hash of the content
+     * @return the quoted hexadecimal entity tag
+     */
+    public static String fromHash(byte[] hash) {
+        StringBuilder etag = new StringBuilder("\"");
+
+        // Converts the start of the hash to a hexadecimal string
+        for (int i = 0; i < TAG_BYTES; i++) {
+            etag.append(Integer.toString((hash[i] & 0xff) + 0x100, 16).substring(1));
+        }
+
+        return etag.append('"').toString();
+    }
+}
@@ -0,0 +1,150 @@
+package server.response;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * An HTTP response whose body is a file on disk.
+ * The body is never copied onto the heap. It is sent with {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+ * which lets the operating system copy the file straight to the socket when the target is a socket channel.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class FileResponse extends Response {
+    /** the file which is the response body */
+    private final Path file;
+
+    /** the size of the file in bytes */
+    private final long size;
+
+    /** the open file, or null if it has not been opened yet or has been closed */
+    private FileChannel fileChannel;
+
+    /**
+     * Constructs a response with a status line, headers, and a file as the body
+     * @param statusLine the HTTP response status line
+     * @param headers a map of the HTTP response headers
+     * @param file the file to send as the body
+     * @param size the size of the file in bytes
+     */
+    public FileResponse(StatusLine statusLine, Map<String, String> headers, Path file, long size) {
+        super(statusLine, headers, new byte[0]);
+
+        this.file = file;
+        this.size = size;
+
+        this.getHeaders().put("Content-Length", Long.toString(size));
+    }
+
+    /**
+     * toBytes
+     * converts the HTTP response to bytes, reading the whole file onto the heap.
+     * This should only be used by writers which cannot stream the body.
+     * @return the HTTP response as bytes
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    @Override
+    public byte[] toBytes() {
+        byte[] head = this.toHeadBytes();
+        byte[] body;
+
+        try {
+            body = Files.readAllBytes(this.file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        byte[] responseInBytes = new byte[head.length + body.length];
+
+        System.arraycopy(head, 0, responseInBytes, 0, head.length);
+        System.arraycopy(body, 0, responseInBytes, head.length, body.length);
+
+        return responseInBytes;
+    }
+
+    /**
+     * isInMemory
+     * determines if the whole response is held in memory
+     * @return false, since the body is on disk
+     */
+    @Override
+    public boolean isInMemory() {
+        return false;
+    }
+
+    /**
+     * getContentLength
+     * gets the length of the response body
+     * @return the size of the file in bytes
+     */
+    @Override
+    public long getContentLength() {
+        return this.size;
+    }
+
+    /**
+     * writeBody
+     * transfers as much of the file as the channel accepts, starting at a position in the file.
+     * The file is opened on the first call and closed once the whole file has been transferred.
+     * @param channel the channel to write to
+     * @param position the number of bytes of the file which have already been written
+     * @return the number of bytes written
+     * @throws IOException if an error occurs while reading the file or writing to the channel
+     */
+    public long writeBody(WritableByteChannel channel, long position) throws IOException {
+        if (this.fileChannel == null) {
+            this.fileChannel = FileChannel.open(this.file, StandardOpenOption.READ);
+        }
+
+        long written = this.fileChannel.transferTo(position, this.size - position, channel);
+
+        // The file has shrunk since the response was created, so the rest of the body can never be written
+        if ((written == 0) && (position >= this.fileChannel.size())) {
+            this.close();
+            throw new IOException("File " + this.file + " was truncated while being sent");
+        }
+
+        if (position + written >= this.size) {
+            this.close();
+        }
+
+        return written;
+    }
+
+    /**
+     * writeBody
+     * copies the whole file to a stream
+     * @param output the stream to write to
+     * @throws IOException if an error occurs while reading the file or writing to the stream
+     */
+    @Override
+    public void writeBody(OutputStream output) throws IOException {
+        Files.copy(this.file, output);
+    }
+
+    /**
+     * close
+     * closes the file if it is open
+     */
+    @Override
+    public void close() {
+        if (this.fileChannel == null) {
+            return;
+        }
+
+        try {
+            this.fileChannel.close();
+        } catch (IOException e) {
+            // Nothing else can be done with the file
+        }
+
+        this.fileChannel = null;
+    }
+}
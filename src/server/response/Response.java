@@ -1,5 +1,8 @@
 package server.response;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
@@ -41,18 +44,56 @@ public class Response {
         this.headers = headers;
         this.body = body;
 
-        if (body.length > 0) {
+        // Always sent so the client can find the end of the response on a persistent connection,
+        // except on 304 responses, where it would describe the unmodified resource instead
+        if (statusLine.code != ResponseCode.NOT_MODIFIED) {
             this.headers.put("Content-Length", Integer.toString(body.length));
         }
     }
 
     /**
-     * toString
+     * getStatusLine
+     * gets the status line of the response
+     * @return the status line
+     */
+    public StatusLine getStatusLine() {
+        return this.statusLine;
+    }
+
+    /**
+     * getHeaders
+     * gets the headers of the response, which can be modified before the response is sent
+     * @return the response headers
+     */
+    public Map<String, String> getHeaders() {
+        return this.headers;
+    }
+
+    /**
+     * toBytes
      * converts the HTTP response to a properly formatted HTTP response string,
      * allowing it to be sent to the client.
      * @return the HTTP response as a string
      */
     public byte[] toBytes() {
+        byte[] statusAndHeaders = this.toHeadBytes();
+        byte[] body = this.body;
+
+        byte[] responseInBytes = new byte[statusAndHeaders.length + body.length];
+
+        System.arraycopy(statusAndHeaders, 0, responseInBytes, 0, statusAndHeaders.length);
+
+        System.arraycopy(body, 0, responseInBytes, statusAndHeaders.length, body.length);
+
+        return responseInBytes;
+    }
+
+    /**
+     * toHeadBytes
+     * converts the status line and headers of the response to bytes, without the body
+     * @return the status line and headers, followed by the blank line which separates them from the body
+     */
+    public byte[] toHeadBytes() {
         StringBuilder res = new StringBuilder();
 
         // Status line
@@ -68,16 +109,66 @@ public class Response {
 
         res.append("\r\n");
 
-        byte[] statusAndHeaders = res.toString().getBytes(StandardCharsets.UTF_8);
-        byte[] body = this.body;
+        return res.toString().getBytes(StandardCharsets.UTF_8);
+    }
 
-        byte[] responseInBytes = new byte[statusAndHeaders.length + body.length];
+    /**
+     * getBody
+     * gets the body of the response if it is held in memory
+     * @return the body, which is empty if it is not held in memory
+     */
+    public byte[] getBody() {
+        return this.body;
+    }
 
-        System.arraycopy(statusAndHeaders, 0, responseInBytes, 0, statusAndHeaders.length);
+    /**
+     * isInMemory
+     * determines if the whole response is held in memory, in which case it is cheapest to send with {@link #toBytes()}.
+     * Otherwise, the head should be sent with {@link #toHeadBytes()}, followed by the file of a {@link FileResponse}
+     * transferred with {@link FileResponse#writeBody(WritableByteChannel, long)}, or any other body written with {@link #writeBody(OutputStream)}.
+     * @return if the body is held in memory
+     */
+    public boolean isInMemory() {
+        return true;
+    }
 
-        System.arraycopy(body, 0, responseInBytes, statusAndHeaders.length, body.length);
+    /**
+     * getContentLength
+     * gets the length of the response body
+     * @return the length in bytes, or -1 if it is not known until the body is written with {@link #writeBody(OutputStream)}
+     */
+    public long getContentLength() {
+        return this.body.length;
+    }
 
-        return responseInBytes;
+    /**
+     * writeBody
+     * writes the whole body to a stream, blocking until it is written.
+     * Bodies of unknown length are written with chunked transfer encoding.
+     * @param output the stream to write to
+     * @throws IOException if an error occurs while writing
+     */
+    public void writeBody(OutputStream output) throws IOException {
+        output.write(this.body);
+    }
+
+    /**
+     * buffered
+     * gets an equivalent response with the whole body held in memory,
+     * for clients which cannot receive a body of unknown length
+     * @return the buffered response, which is this response if its body is already held in memory
+     */
+    public Response buffered() {
+        return this;
+    }
+
+    /**
+     * close
+     * releases any resources held to write the body, such as open files.
+     * This must be called once the response has been sent or abandoned.
+     */
+    public void close() {
+        // Nothing to release for bodies held in memory
     }
 
     /**
@@ -114,6 +205,15 @@ public class Response {
             this.code = code;
         }
 
+        /**
+         * getCode
+         * gets the response code and message
+         * @return the response code
+         */
+        public ResponseCode getCode() {
+            return this.code;
+        }
+
         /**
          * toString
          * stringifies the status line into a formatted HTTP response status line
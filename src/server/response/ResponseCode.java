@@ -14,6 +14,8 @@ public enum ResponseCode {
     FOUND(302, "Found"),
     /** 302 See Other */
     SEE_OTHER(303, "See Other"),
+    /** 304 Not Modified */
+    NOT_MODIFIED(304, "Not Modified"),
     /** 400 Bad Request */
     BAD_REQUEST(400, "Bad Request"),
     /** 401 Unauthorized */
@@ -22,6 +24,10 @@ public enum ResponseCode {
     FORBIDDEN(403, "Forbidden"),
     /** 404 Not Found */
     NOT_FOUND(404, "Not Found"),
+    /** 413 Payload Too Large */
+    PAYLOAD_TOO_LARGE(413, "Payload Too Large"),
+    /** 431 Request Header Fields Too Large */
+    REQUEST_HEADER_FIELDS_TOO_LARGE(431, "Request Header Fields Too Large"),
     /** 500 Internal Server Error */
     INTERNAL_SERVER_ERROR(500, "Interval Server Error");
 
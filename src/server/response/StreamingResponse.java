@@ -0,0 +1,144 @@
+package server.response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An HTTP response whose body is produced while it is being sent, such as a large rendered template.
+ * The length of the body is not known up front, so it is sent with chunked transfer encoding,
+ * and the first chunks reach the client before the rest of the body has been produced.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class StreamingResponse extends Response {
+    /** produces the body */
+    private final Body body;
+
+    /**
+     * Constructs a response with a status line, headers, and a body which is produced while it is sent
+     * @param statusLine the HTTP response status line
+     * @param headers a map of the HTTP response headers
+     * @param body writes the body to an output stream
+     */
+    public StreamingResponse(StatusLine statusLine, Map<String, String> headers, Body body) {
+        super(statusLine, headers, new byte[0]);
+
+        this.body = body;
+
+        this.getHeaders().remove("Content-Length");
+        this.getHeaders().put("Transfer-Encoding", "chunked");
+    }
+
+    /**
+     * toBytes
+     * produces the whole body and converts the HTTP response to bytes, with the body chunked
+     * @return the HTTP response as bytes
+     * @throws UncheckedIOException if the body cannot be produced
+     */
+    @Override
+    public byte[] toBytes() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try {
+            output.write(this.toHeadBytes());
+            this.writeBody(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return output.toByteArray();
+    }
+
+    /**
+     * isInMemory
+     * determines if the whole response is held in memory
+     * @return false, since the body is produced while it is sent
+     */
+    @Override
+    public boolean isInMemory() {
+        return false;
+    }
+
+    /**
+     * getContentLength
+     * gets the length of the response body
+     * @return -1, since the length is not known until the body has been produced
+     */
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * writeBody
+     * produces the body and writes it to a stream with chunked transfer encoding, ending with the terminating chunk
+     * @param output the stream to write to
+     * @throws IOException if an error occurs while writing
+     */
+    @Override
+    public void writeBody(OutputStream output) throws IOException {
+        ChunkedOutputStream chunked = new ChunkedOutputStream(output);
+
+        this.body.writeTo(chunked);
+
+        chunked.finish();
+    }
+
+    /**
+     * buffered
+     * produces the whole body up front, for clients which do not support chunked transfer encoding
+     * @return an equivalent response with the body held in memory
+     * @throws UncheckedIOException if the body cannot be produced
+     */
+    @Override
+    public Response buffered() {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try {
+            this.body.writeTo(output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Map<String, String> headers = new HashMap<>(this.getHeaders());
+        headers.remove("Transfer-Encoding");
+
+        return new Response(this.getStatusLine(), headers, output.toByteArray());
+    }
+
+    /**
+     * encoded
+     * gets an equivalent response whose body is compressed while it is produced.
+     * The headers are shared with this response, so the caller is left to set `Content-Encoding`.
+     * @param encoding the coding to compress the body with
+     * @return the compressed response
+     */
+    public StreamingResponse encoded(ContentEncoding encoding) {
+        return new StreamingResponse(this.getStatusLine(), this.getHeaders(), (output) -> {
+            // Closing ends the compressed data, and only finishes a chunked stream, leaving the connection open
+            try (OutputStream compressed = encoding.wrap(output)) {
+                this.body.writeTo(compressed);
+            }
+        });
+    }
+
+    /**
+     * Produces the body of a {@link StreamingResponse}
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    @FunctionalInterface
+    public interface Body {
+        /**
+         * writeTo
+         * writes the body to a stream, which sends it to the client as it is written
+         * @param output the stream to write to
+         * @throws IOException if an error occurs while writing
+         */
+        void writeTo(OutputStream output) throws IOException;
+    }
+}
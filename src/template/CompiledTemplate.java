@@ -0,0 +1,49 @@
+package template;
+
+import template.ast.TemplateParser;
+
+import java.io.IOException;
+
+/**
+ * A .th template which has been compiled to a class for one type of root `data` object.
+ * Fields are read directly instead of through the namespace and reflection, so it renders the same output as the interpreter much faster.
+ * Implementations are generated by the {@link TemplateEngine} when a template is specialized.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public interface CompiledTemplate {
+    /**
+     * getDataType
+     * gets the type of root `data` object the template was compiled for
+     * @return the type of the root `data` object
+     */
+    Class<?> getDataType();
+
+    /**
+     * render
+     * renders the template into the output
+     * @param data the root `data` object, which must be an instance of the data type
+     * @param engine the template engine, which renders included templates and holds the fragment cache
+     * @param output the output of the template
+     * @throws IOException if an error occurs while appending to the output
+     * @throws TemplateSyntaxException if a field along an expression is null
+     */
+    void render(Object data, TemplateEngine engine, Appendable output) throws IOException;
+
+    /**
+     * text
+     * converts an interpolated value to text, unescaping any escaped braces in it like the interpreter
+     * @param value the value of the expression
+     * @return the text to output
+     * @throws NullPointerException if the value is null
+     */
+    static String text(Object value) {
+        String text = value.toString();
+
+        if (text.indexOf('\\') != -1) {
+            return TemplateParser.unescape(text);
+        }
+
+        return text;
+    }
+}
@@ -12,4 +12,8 @@ public enum DirectiveType {
     IF,
     /** An include directive to include partials in the template */
     INCLUDE,
+    /** A cache directive to reuse the rendered output of a block across renders */
+    CACHE,
+    /** An asset directive to link to the current version of a static asset */
+    ASSET,
 }
@@ -0,0 +1,206 @@
+package template;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A size bounded cache of rendered template fragments, filled by `{#cache}` directives.
+ * Each fragment is stored under the name of its directive and the values of its key expressions,
+ * and expires after the time to live of its directive. Once the cache is full, the least recently used fragment is evicted.
+ * Fragments can also be invalidated explicitly when the data they were rendered from changes,
+ * and fragments whose render started before an invalidation are not cached, as they may be stale.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class FragmentCache {
+    /** Separates the name and key values of a fragment, and cannot appear in a directive name */
+    private static final char SEPARATOR = '\u0000';
+
+    /** The maximum number of fragments in the cache */
+    private final int maxEntries;
+
+    /** The cached fragments, in order from least to most recently used */
+    private final LinkedHashMap<String, Fragment> fragments;
+
+    /** The number of lookups which found a fragment */
+    private long hits;
+
+    /** The number of lookups which did not find a fragment */
+    private long misses;
+
+    /** Counts the invalidations, so fragments rendered before an invalidation are not cached after it */
+    private long generation;
+
+    /**
+     * Constructs an empty fragment cache
+     * @param maxEntries the maximum number of fragments in the cache
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive
+     */
+    public FragmentCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+
+        this.maxEntries = maxEntries;
+        this.fragments = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Fragment> eldest) {
+                return this.size() > FragmentCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * key
+     * builds the key of a fragment from the name of its directive and the values of its key expressions
+     * @param name the name of the directive
+     * @param values the values of the key expressions
+     * @return the key of the fragment
+     */
+    public static String key(String name, Object... values) {
+        StringBuilder key = new StringBuilder(name);
+
+        for (Object value : values) {
+            key.append(SEPARATOR).append(value);
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * get
+     * gets a cached fragment if it exists and has not expired
+     * @param key the key of the fragment
+     * @return the rendered fragment, or null if it is not cached
+     */
+    public synchronized String get(String key) {
+        Fragment fragment = this.fragments.get(key);
+
+        if ((fragment != null) && (fragment.expiresAt <= System.currentTimeMillis())) {
+            this.fragments.remove(key);
+            fragment = null;
+        }
+
+        if (fragment == null) {
+            this.misses++;
+            return null;
+        }
+
+        this.hits++;
+        return fragment.content;
+    }
+
+    /**
+     * put
+     * caches a rendered fragment, unless the cache has been invalidated since its render started
+     * @param key the key of the fragment
+     * @param content the rendered fragment
+     * @param timeToLive the number of milliseconds the fragment stays valid
+     * @param generation the generation of the cache when the render started, from {@link #getGeneration()}
+     */
+    public synchronized void put(String key, String content, long timeToLive, long generation) {
+        // Rendered before an invalidation, so it may be stale
+        if (generation != this.generation) {
+            return;
+        }
+
+        this.fragments.put(key, new Fragment(content, System.currentTimeMillis() + timeToLive));
+    }
+
+    /**
+     * getGeneration
+     * gets the number of invalidations so far, which is read before rendering a fragment and passed to {@link #put}
+     * @return the generation of the cache
+     */
+    public synchronized long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * invalidate
+     * evicts every fragment rendered by the directives with a name, whatever their key values
+     * @param name the name of the directives
+     */
+    public synchronized void invalidate(String name) {
+        this.generation++;
+
+        String prefix = name + SEPARATOR;
+        Iterator<String> keys = this.fragments.keySet().iterator();
+
+        while (keys.hasNext()) {
+            String key = keys.next();
+
+            if ((key.equals(name)) || (key.startsWith(prefix))) {
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * invalidate
+     * evicts the fragment rendered by the directives with a name for specific key values
+     * @param name the name of the directives
+     * @param values the values of the key expressions
+     */
+    public synchronized void invalidate(String name, Object... values) {
+        this.generation++;
+        this.fragments.remove(key(name, values));
+    }
+
+    /**
+     * invalidateAll
+     * evicts every fragment
+     */
+    public synchronized void invalidateAll() {
+        this.generation++;
+        this.fragments.clear();
+    }
+
+    /**
+     * size
+     * gets the number of cached fragments, including expired fragments which have not been evicted yet
+     * @return the number of fragments
+     */
+    public synchronized int size() {
+        return this.fragments.size();
+    }
+
+    /**
+     * toString
+     * converts the cache to a string
+     * @return the size and hit rate of the cache
+     */
+    @Override
+    public synchronized String toString() {
+        return "FragmentCache{" +
+                "size=" + this.fragments.size() +
+                ", maxEntries=" + this.maxEntries +
+                ", hits=" + this.hits +
+                ", misses=" + this.misses +
+                '}';
+    }
+
+    /**
+     * A rendered fragment and the time it expires
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Fragment {
+        /** the rendered fragment */
+        private final String content;
+
+        /** the time the fragment expires in milliseconds since the epoch */
+        private final long expiresAt;
+
+        /**
+         * Constructs a fragment
+         * @param content the rendered fragment
+         * @param expiresAt the time the fragment expires in milliseconds since the epoch
+         */
+        Fragment(String content, long expiresAt) {
+            this.content = content;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
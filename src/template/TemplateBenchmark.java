@@ -0,0 +1,678 @@
+package template;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A benchmark of every way the {@link TemplateEngine} can render a template, run from the repository root with
+ * {@code java template.TemplateBenchmark [problems] [iterations] [rounds]}.
+ * The modes are the string splicing engine the node tree replaced, the interpreted node tree, templates compiled to classes with
+ * {@link TemplateEngine#specialize(String, Class)}, and the fragment cache serving the problem list.
+ * Every template in {@code frontend/templates} must render the same in every mode, and the benchmark exits with status 1 if any does not.
+ * It then times {@code problems.th} with many problems. The fragment cache is cleared before each render in every mode except the cached one,
+ * so the problem list is rendered every time instead of being served from the cache.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class TemplateBenchmark {
+    /** The directory of the templates */
+    private static final String TEMPLATES = "frontend/templates";
+
+    /** The template which is timed */
+    private static final String PROBLEMS_TEMPLATE = TEMPLATES + "/problems.th";
+
+    /** The default number of problems listed */
+    private static final int PROBLEMS = 1000;
+
+    /** The default number of renders in a round */
+    private static final int ITERATIONS = 50;
+
+    /** The default number of measured rounds, after as many warm up rounds */
+    private static final int ROUNDS = 5;
+
+    /** Collects the lengths of the rendered templates, so that the work is not optimized away */
+    private static long sink;
+
+    /**
+     * main
+     * checks that every mode renders every template the same, then times each of them on the problem list and prints the results
+     * @param args the number of problems, renders per round, and rounds, each optional
+     * @throws IOException if the templates cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        int problemCount = (args.length > 0) ? Integer.parseInt(args[0]) : PROBLEMS;
+        int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : ITERATIONS;
+        int rounds = (args.length > 2) ? Integer.parseInt(args[2]) : ROUNDS;
+
+        File[] files = new File(TEMPLATES).listFiles();
+
+        if (files == null) {
+            System.out.println("[INFO] " + TEMPLATES + " cannot be read, run the benchmark from the repository root");
+            System.exit(1);
+        }
+
+        TemplateEngine interpreted = new TemplateEngine(TEMPLATES);
+        TemplateEngine compiled = new TemplateEngine(TEMPLATES);
+        StringEngine strings = new StringEngine(interpreted);
+
+        // Compile every template for the type of data it is rendered with
+        boolean allCompiled = true;
+
+        for (File file : files) {
+            String path = TEMPLATES + "/" + file.getName();
+
+            allCompiled &= compiled.specialize(path, path.equals(PROBLEMS_TEMPLATE) ? ProblemsData.class : PageData.class);
+        }
+
+        if (!allCompiled) {
+            System.out.println("[WARN] Some templates could not be compiled and are interpreted in the compiled mode");
+        }
+
+        Map<String, Renderer> modes = new LinkedHashMap<>();
+        modes.put("strings", strings::compile);
+        modes.put("tree", (path, data) -> uncached(interpreted, path, data));
+        modes.put("compiled", (path, data) -> uncached(compiled, path, data));
+        modes.put("cached", interpreted::compile);
+
+        boolean passed = true;
+
+        // Every template with the data of a visitor and of a logged in user
+        for (File file : files) {
+            String path = TEMPLATES + "/" + file.getName();
+
+            if (path.equals(PROBLEMS_TEMPLATE)) {
+                continue;
+            }
+
+            passed &= agree(modes, path, new PageData(false));
+            passed &= agree(modes, path, new PageData(true));
+        }
+
+        passed &= agree(modes, PROBLEMS_TEMPLATE, new ProblemsData(problemCount, false, false));
+        passed &= agree(modes, PROBLEMS_TEMPLATE, new ProblemsData(problemCount, true, false));
+        passed &= agree(modes, PROBLEMS_TEMPLATE, new ProblemsData(0, false, true));
+
+        ProblemsData data = new ProblemsData(problemCount, true, false);
+
+        // Warm up every mode before anything is measured
+        for (int round = 0; round < rounds; round++) {
+            for (Renderer renderer : modes.values()) {
+                time(renderer, data, iterations);
+            }
+        }
+
+        Map<String, Long> times = new LinkedHashMap<>();
+
+        for (int round = 0; round < rounds; round++) {
+            for (Map.Entry<String, Renderer> mode : modes.entrySet()) {
+                times.merge(mode.getKey(), time(mode.getValue(), data, iterations), Math::min);
+            }
+        }
+
+        double baseline = times.get("strings") / 1e6 / iterations;
+
+        System.out.println("[INFO] problems.th with " + problemCount + " problems:");
+
+        for (Map.Entry<String, Long> time : times.entrySet()) {
+            double perRender = time.getValue() / 1e6 / iterations;
+
+            System.out.printf("[INFO]   %-8s %8.3f ms/render, %7.2fx%n", time.getKey(), perRender, baseline / perRender);
+        }
+
+        System.out.println("[INFO] sink " + sink);
+        System.out.println(passed ? "[PASS] TemplateEngine" : "[FAIL] TemplateEngine");
+
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * uncached
+     * renders a template after clearing the fragment cache, so that no fragment is served from the cache
+     * @param engine the template engine
+     * @param path the path of the template
+     * @param data the root `data` object
+     * @return the rendered template
+     */
+    private static String uncached(TemplateEngine engine, String path, Object data) {
+        engine.getFragmentCache().invalidateAll();
+
+        return engine.compile(path, data);
+    }
+
+    /**
+     * agree
+     * checks that every mode renders a template the same as the string splicing engine
+     * @param modes the modes, starting with the string splicing engine
+     * @param path the path of the template
+     * @param data the root `data` object
+     * @return if every render is identical
+     */
+    private static boolean agree(Map<String, Renderer> modes, String path, Object data) {
+        String expected = null;
+        boolean agrees = true;
+
+        // The cached mode renders twice, so the second render is served from the cache
+        for (int render = 0; render < 2; render++) {
+            for (Map.Entry<String, Renderer> mode : modes.entrySet()) {
+                String actual = mode.getValue().render(path, data);
+
+                if (expected == null) {
+                    expected = actual;
+                } else if (!expected.equals(actual)) {
+                    System.out.println("[INFO] " + path + " renders differently in the " + mode.getKey() + " mode at character " + mismatch(expected, actual));
+                    agrees = false;
+                }
+            }
+        }
+
+        return agrees;
+    }
+
+    /**
+     * mismatch
+     * finds where two strings start to differ
+     * @param expected the first string
+     * @param actual the second string
+     * @return the index of the first character which differs
+     */
+    private static int mismatch(String expected, String actual) {
+        int length = Math.min(expected.length(), actual.length());
+
+        for (int i = 0; i < length; i++) {
+            if (expected.charAt(i) != actual.charAt(i)) {
+                return i;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * time
+     * renders the problem list many times in one mode
+     * @param renderer the mode
+     * @param data the root `data` object
+     * @param iterations the number of renders
+     * @return the elapsed time in nanoseconds
+     */
+    private static long time(Renderer renderer, ProblemsData data, int iterations) {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            sink += renderer.render(PROBLEMS_TEMPLATE, data).length();
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Renders a template in one of the modes being compared
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private interface Renderer {
+        /**
+         * render
+         * renders a template
+         * @param path the path of the template
+         * @param data the root `data` object
+         * @return the rendered template
+         */
+        String render(String path, Object data);
+    }
+
+    /**
+     * The root `data` object of the problem list
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    public static class ProblemsData {
+        /** The listed problems */
+        public List<ProblemRow> problems;
+
+        /** If the problems could not be loaded */
+        public boolean isError;
+
+        /** If the navigation bar is shown to a logged in user */
+        public boolean loggedIn;
+
+        /** The points of the user */
+        public int points;
+
+        /** Identifies the problems the user has solved */
+        public String solvedKey;
+
+        /**
+         * Constructs the data of a problem list
+         * @param count the number of problems
+         * @param loggedIn if a user is logged in, who has solved every third problem
+         * @param isError if the problems could not be loaded
+         */
+        public ProblemsData(int count, boolean loggedIn, boolean isError) {
+            this.problems = new ArrayList<>();
+            this.isError = isError;
+            this.loggedIn = loggedIn;
+            this.points = loggedIn ? 420 : -1;
+
+            StringBuilder solvedKey = new StringBuilder();
+
+            for (int i = 1; i <= count; i++) {
+                boolean solved = (loggedIn) && (i % 3 == 0);
+
+                this.problems.add(new ProblemRow(i, solved));
+
+                if (solved) {
+                    solvedKey.append(i).append(',');
+                }
+            }
+
+            this.solvedKey = solvedKey.toString();
+        }
+    }
+
+    /**
+     * A problem in the problem list
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    public static class ProblemRow {
+        /** The id of the problem */
+        public int id;
+
+        /** The title of the problem */
+        public String title;
+
+        /** The category of the problem */
+        public String type;
+
+        /** The difficulty of the problem */
+        public int difficulty;
+
+        /** The name of the author of the problem */
+        public String authorName;
+
+        /** The text shown if the user has solved the problem */
+        public String solvedStatus;
+
+        /**
+         * Constructs a problem
+         * @param id the id of the problem
+         * @param solved if the user has solved the problem
+         */
+        public ProblemRow(int id, boolean solved) {
+            this.id = id;
+            this.title = "Problem " + id + ": Counting Paths & Trees";
+            this.type = ((id % 2) == 0) ? "Graph Theory" : "Dynamic Programming";
+            this.difficulty = (id * 7) % 100 + 1;
+            this.authorName = "author" + (id % 13);
+            this.solvedStatus = solved ? "Solved" : "";
+        }
+    }
+
+    /**
+     * The root `data` object of every other page, with the fields of all of them
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    public static class PageData {
+        /** If the navigation bar is shown to a logged in user */
+        public boolean loggedIn;
+
+        /** The points of the user */
+        public int points;
+
+        /** The error shown by the log in and sign up forms */
+        public String errorMessage;
+
+        /** The name of the problem being submitted to */
+        public String problemName;
+
+        /** The id of the problem */
+        public int id;
+
+        /** The name of the problem */
+        public String name;
+
+        /** The statement of the problem */
+        public String content;
+
+        /** The category of the problem */
+        public String type;
+
+        /** The difficulty of the problem */
+        public int difficulty;
+
+        /** The name of the author of the problem */
+        public String authorName;
+
+        /** The text shown if the user has solved the problem */
+        public String solvedByUserText;
+
+        /**
+         * Constructs the data of a page
+         * @param loggedIn if a user is logged in
+         */
+        public PageData(boolean loggedIn) {
+            this.loggedIn = loggedIn;
+            this.points = loggedIn ? 420 : -1;
+            this.errorMessage = loggedIn ? "" : "Invalid username or password";
+            this.problemName = "Counting Paths";
+            this.id = 12;
+            this.name = "Counting Paths";
+            this.content = "<p>Count the paths from the top left to the bottom right of an N by M grid.</p>";
+            this.type = "Dynamic Programming";
+            this.difficulty = 35;
+            this.authorName = "harry";
+            this.solvedByUserText = loggedIn ? "Solved" : "";
+        }
+    }
+
+    /**
+     * The template engine as it was before templates were parsed into a tree,
+     * which spliced each directive's output into the template string and scanned the result again.
+     * The {@code cache} and {@code asset} directives added since are rendered the way the {@link TemplateEngine} renders them
+     * with an empty fragment cache and no asset resolver.
+     * Like every other directive, a loop or include moves the index past its output. The original left the index where the closing tag had been,
+     * which skipped the directives after a loop whose output was shorter than its body, such as an empty problem list.
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class StringEngine {
+        /** The engine the raw templates are read from */
+        private final TemplateEngine templates;
+
+        /**
+         * Constructs a StringEngine
+         * @param templates the engine the raw templates are read from
+         */
+        StringEngine(TemplateEngine templates) {
+            this.templates = templates;
+        }
+
+        /**
+         * compile
+         * retrieves and templates a file into an HTML string
+         * @param inputFile the registered path of a template
+         * @param data the root `data` object
+         * @return the compiled template string
+         */
+        String compile(String inputFile, Object data) {
+            Map<String, Object> namespace = new HashMap<>();
+            namespace.put("data", data);
+
+            String template = this.template(this.templates.getTemplate(inputFile), namespace);
+
+            return template.replace("\\{", "{").replace("\\}", "}");
+        }
+
+        /**
+         * template
+         * interpolates values and resolves directives in a template string
+         * @param input the input template string
+         * @param namespace the variables in scope and their values
+         * @return the evaluated HTML string
+         * @throws TemplateSyntaxException if a syntax error occurs while templating the input string
+         */
+        private String template(String input, Map<String, Object> namespace) {
+            // Keeps track of curly braces
+            int interpolationStartIndex = -1;
+            int interpolationEndIndex = -1;
+
+            Deque<OpenDirective> directivesStack = new ArrayDeque<>();
+            Set<String> directiveVariables = new HashSet<>();
+
+            int i = 0;
+
+            while (i < input.length()) {
+                char c = input.charAt(i);
+                char prev = (i - 1) >= 0 ? input.charAt(i - 1) : ' ';
+
+                // Captures { ... } without escapes
+                if ((c == '{') && (prev != '\\')) {
+                    interpolationStartIndex = i;
+                }
+
+                if ((c == '}') && (prev != '\\') && (interpolationStartIndex != -1)) {
+                    interpolationEndIndex = i;
+                }
+
+                if ((interpolationStartIndex != -1) && (interpolationEndIndex != -1)) {
+                    String token = input.substring(interpolationStartIndex + 1, interpolationEndIndex).trim();
+
+                    if (token.startsWith("#")) {
+                        String[] directiveTokens = token.replaceFirst("#", "").split(" ");
+
+                        if ((directiveTokens.length == 4) && (directiveTokens[0].equals("for")) && (directiveTokens[2].equals("in"))) {
+                            directiveVariables.add(directiveTokens[1]);
+                            directivesStack.push(new OpenDirective(DirectiveType.FOREACH, interpolationStartIndex, interpolationEndIndex + 1, directiveTokens));
+                        } else if ((directiveTokens.length == 2) && (directiveTokens[0].equals("if"))) {
+                            directivesStack.push(new OpenDirective(DirectiveType.IF, interpolationStartIndex, interpolationEndIndex + 1, directiveTokens));
+                        } else if ((directiveTokens.length >= 2) && (directiveTokens[0].equals("cache"))) {
+                            directivesStack.push(new OpenDirective(DirectiveType.CACHE, interpolationStartIndex, interpolationEndIndex + 1, directiveTokens));
+                        } else if ((directiveTokens.length == 2) && (directiveTokens[0].equals("asset"))) {
+                            // Without an asset resolver, the URL is its own logical URL
+                            String newInput = input.substring(0, interpolationStartIndex) + directiveTokens[1] + input.substring(interpolationEndIndex + 1);
+                            i += (newInput.length() - input.length());
+                            input = newInput;
+                        } else if ((directiveTokens.length == 2) && (directiveTokens[0].equals("include"))) {
+                            String newInput = input.substring(0, interpolationStartIndex) + this.compile(directiveTokens[1], namespace.get("data")) + input.substring(interpolationEndIndex + 1);
+                            i += (newInput.length() - input.length());
+                            input = newInput;
+                        } else {
+                            throw new TemplateSyntaxException("no directive type exists for this syntax");
+                        }
+                    } else if (token.startsWith("/")) {
+                        String directiveType = token.replaceFirst("/", "");
+                        OpenDirective openingDir = directivesStack.peek();
+
+                        if (directiveType.equals("for")) {
+                            if ((openingDir == null) || (openingDir.type != DirectiveType.FOREACH)) {
+                                throw new TemplateSyntaxException("mismatched directives");
+                            }
+
+                            directivesStack.pop();
+
+                            String snippet = input.substring(openingDir.end, interpolationStartIndex);
+                            Object value = this.parseExpression(openingDir.tokens[3], namespace, directiveVariables);
+
+                            Iterable<?> items;
+
+                            if (value.getClass().isArray()) {
+                                items = List.of((Object[]) value);
+                            } else if (value instanceof Iterable) {
+                                items = (Iterable<?>) value;
+                            } else {
+                                throw new TemplateSyntaxException("target of for directive must be either an array or iterable");
+                            }
+
+                            // Template the body again for each element
+                            StringBuilder newSnippet = new StringBuilder();
+
+                            for (Object v : items) {
+                                namespace.put(openingDir.tokens[1], v);
+                                newSnippet.append(this.template(snippet, namespace));
+                                namespace.remove(openingDir.tokens[1]);
+                            }
+
+                            directiveVariables.remove(openingDir.tokens[1]);
+
+                            String newInput = input.substring(0, openingDir.start) + newSnippet + input.substring(interpolationEndIndex + 1);
+                            i += (newInput.length() - input.length());
+                            input = newInput;
+                        } else if (directiveType.equals("if")) {
+                            if ((openingDir == null) || (openingDir.type != DirectiveType.IF)) {
+                                throw new TemplateSyntaxException("mismatched directives");
+                            }
+
+                            directivesStack.pop();
+
+                            String snippet = input.substring(openingDir.end, interpolationStartIndex);
+                            Object value = this.parseExpression(openingDir.tokens[1], namespace, directiveVariables);
+
+                            // Conditions on loop variables are decided when the loop body is templated
+                            if (!directiveVariables.contains(openingDir.tokens[1].split("\\.")[0])) {
+                                if (!(value instanceof Boolean)) {
+                                    throw new TemplateSyntaxException("If condition must be a boolean value");
+                                }
+
+                                if (!((Boolean) value)) {
+                                    snippet = "";
+                                }
+                            }
+
+                            String newInput = input.substring(0, openingDir.start) + snippet + input.substring(interpolationEndIndex + 1);
+                            i += (newInput.length() - input.length());
+                            input = newInput;
+                        } else if (directiveType.equals("cache")) {
+                            if ((openingDir == null) || (openingDir.type != DirectiveType.CACHE)) {
+                                throw new TemplateSyntaxException("mismatched directives");
+                            }
+
+                            directivesStack.pop();
+
+                            // With an empty cache, the fragment is its body
+                            String snippet = input.substring(openingDir.end, interpolationStartIndex);
+                            String newInput = input.substring(0, openingDir.start) + snippet + input.substring(interpolationEndIndex + 1);
+                            i += (newInput.length() - input.length());
+                            input = newInput;
+                        } else {
+                            throw new TemplateSyntaxException("Illegal directive closing tag");
+                        }
+                    } else {
+                        // Do not evaluate values inside an if directive if the directive will not be rendered
+                        OpenDirective topDirective = directivesStack.peek();
+
+                        if ((topDirective != null) && (topDirective.type == DirectiveType.IF)) {
+                            Object value = this.parseExpression(topDirective.tokens[1], namespace, directiveVariables);
+
+                            if ((value instanceof Boolean) && (!((Boolean) value))) {
+                                interpolationStartIndex = -1;
+                                interpolationEndIndex = -1;
+                                continue;
+                            }
+                        }
+
+                        String replacedExpr = this.parseExpression(token, namespace, directiveVariables).toString();
+
+                        String newInput = input.substring(0, interpolationStartIndex) + replacedExpr + input.substring(interpolationEndIndex + 1);
+                        i += (newInput.length() - input.length());
+                        input = newInput;
+                    }
+
+                    interpolationStartIndex = -1;
+                    interpolationEndIndex = -1;
+                }
+
+                i++;
+            }
+
+            return input;
+        }
+
+        /**
+         * parseExpression
+         * evaluates an expression in interpolation braces, or leaves it for later if its root is a loop variable which is not in scope yet
+         * @param exp the expression to evaluate
+         * @param namespace the variables in scope and their values
+         * @param allowedRoots the loop variables which are not in scope yet
+         * @return the value of the expression
+         * @throws TemplateSyntaxException if the root of the expression does not exist
+         */
+        private Object parseExpression(String exp, Map<String, Object> namespace, Set<String> allowedRoots) {
+            String[] commands = exp.split("\\.");
+            String root = commands[0];
+
+            // Support for basic negation
+            if (root.startsWith("!")) {
+                root = root.substring(1);
+            }
+
+            if (namespace.containsKey(root)) {
+                return this.evaluateValue(commands, namespace.get(root));
+            } else if (allowedRoots.contains(commands[0])) {
+                return "{" + exp + "}";
+            }
+
+            throw new TemplateSyntaxException("variable " + commands[0] + " does not exist");
+        }
+
+        /**
+         * evaluateValue
+         * reads a field of a value through reflection
+         * @param path the expression split on dots, starting with the root
+         * @param data the value of the root
+         * @return the value of the field, negated if the root was negated
+         * @throws TemplateSyntaxException if the field does not exist or cannot be accessed
+         */
+        private Object evaluateValue(String[] path, Object data) {
+            if (path.length == 1) {
+                return data;
+            }
+
+            boolean negateValue = path[0].startsWith("!");
+
+            try {
+                Field current = data.getClass().getDeclaredField(path[1]);
+
+                for (int i = 2; i < path.length; i++) {
+                    current = current.getClass().getDeclaredField(path[i]);
+                }
+
+                Object value = current.get(data);
+
+                if ((negateValue) && (value instanceof Boolean)) {
+                    return !((Boolean) value);
+                }
+
+                return value;
+            } catch (NoSuchFieldException | IllegalAccessException e) {
+                throw new TemplateSyntaxException(e);
+            }
+        }
+    }
+
+    /**
+     * A directive whose closing tag has not been reached yet
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class OpenDirective {
+        /** The type of the directive */
+        private final DirectiveType type;
+
+        /** The index of the opening brace of the directive */
+        private final int start;
+
+        /** The index after the closing brace of the directive */
+        private final int end;
+
+        /** The words of the directive */
+        private final String[] tokens;
+
+        /**
+         * Constructs an OpenDirective
+         * @param type the type of the directive
+         * @param start the index of the opening brace of the directive
+         * @param end the index after the closing brace of the directive
+         * @param tokens the words of the directive
+         */
+        OpenDirective(DirectiveType type, int start, int end, String[] tokens) {
+            this.type = type;
+            this.start = start;
+            this.end = end;
+            this.tokens = tokens;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package template;
+
+/**
+ * This exception should be thrown if a .th template cannot be compiled to a class,
+ * in which case it is still rendered by the interpreter
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class TemplateCompilationException extends RuntimeException {
+    /** Constructs a default {@link TemplateCompilationException} */
+    public TemplateCompilationException() {
+        super();
+    }
+
+    /**
+     * Constructs a {@link TemplateCompilationException} with an error message
+     * @param message the error message
+     */
+    public TemplateCompilationException(String message) {
+        super(message);
+    }
+}
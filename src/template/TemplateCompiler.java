@@ -0,0 +1,660 @@
+package template;
+
+import template.ast.AssetNode;
+import template.ast.CacheNode;
+import template.ast.ExpressionNode;
+import template.ast.ForNode;
+import template.ast.IfNode;
+import template.ast.IncludeNode;
+import template.ast.Node;
+import template.ast.Template;
+import template.ast.TextNode;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles a parsed .th template into a {@link CompiledTemplate} class for one type of root `data` object.
+ * The template is translated to Java source, with typed field reads resolved from the declared types of the fields,
+ * and included templates inlined as methods. The source is compiled in memory by the system Java compiler.
+ * Anything which cannot be resolved statically (e.g. a field of a subclass of its declared type) stops the compilation,
+ * so the template is left to the interpreter.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class TemplateCompiler {
+    /** The package of the generated classes */
+    private static final String PACKAGE = "template.generated";
+
+    /** The longest string literal emitted at once, which keeps literals well below the class file limit */
+    private static final int MAX_LITERAL_LENGTH = 8192;
+
+    /** Numbers the generated classes so their names are unique */
+    private static final AtomicInteger CLASS_COUNTER = new AtomicInteger();
+
+    /** The parsed templates by their registered path, which are needed to inline included templates */
+    private final Map<String, Template> templates;
+
+    /** The methods of the class being generated */
+    private final StringBuilder methods;
+
+    /** The names of the methods which render each template, by template path */
+    private final Map<String, String> renderMethods;
+
+    /** Numbers the methods and local variables of the class being generated */
+    private int nextName;
+
+    /**
+     * Constructs a template compiler
+     * @param templates the parsed templates by their registered path
+     */
+    TemplateCompiler(Map<String, Template> templates) {
+        this.templates = templates;
+        this.methods = new StringBuilder();
+        this.renderMethods = new HashMap<>();
+    }
+
+    /**
+     * compile
+     * compiles a template to a class for a type of root `data` object
+     * @param path the registered path of the template
+     * @param template the parsed template
+     * @param dataType the type of the root `data` object
+     * @return an instance of the compiled template
+     * @throws TemplateCompilationException if the template cannot be compiled
+     */
+    CompiledTemplate compile(String path, Template template, Class<?> dataType) {
+        requireAccessible(dataType);
+
+        String dataTypeName = typeName(dataType);
+        String className = "Template" + CLASS_COUNTER.incrementAndGet();
+
+        // Generate a method for the template and each template it includes
+        String renderMethod = this.renderMethod(path, template, dataType);
+
+        String source = "package " + PACKAGE + ";\n\n" +
+                "public final class " + className + " implements template.CompiledTemplate {\n" +
+                "    @Override\n" +
+                "    public Class<?> getDataType() {\n" +
+                "        return " + dataTypeName + ".class;\n" +
+                "    }\n\n" +
+                "    @Override\n" +
+                "    public void render(Object data, template.TemplateEngine engine, Appendable output) throws java.io.IOException {\n" +
+                "        try {\n" +
+                "            " + renderMethod + "((" + dataTypeName + ") data, engine, output);\n" +
+                "        } catch (NullPointerException e) {\n" +
+                "            throw new template.TemplateSyntaxException(e);\n" +
+                "        }\n" +
+                "    }\n" +
+                this.methods +
+                "}\n";
+
+        Class<?> compiledClass = compileSource(PACKAGE + "." + className, source, dataType.getClassLoader());
+
+        try {
+            return (CompiledTemplate) compiledClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new TemplateCompilationException("cannot instantiate " + compiledClass.getName() + ": " + e);
+        }
+    }
+
+    /**
+     * renderMethod
+     * generates the method which renders a template, unless it has been generated already
+     * @param path the registered path of the template
+     * @param template the parsed template
+     * @param dataType the declared type of the root `data` object
+     * @return the name of the method
+     * @throws TemplateCompilationException if the template cannot be compiled
+     */
+    private String renderMethod(String path, Template template, Type dataType) {
+        String key = path + " " + dataType.getTypeName();
+
+        // Templates which include themselves call their own method, and recurse like the interpreter
+        if (this.renderMethods.containsKey(key)) {
+            return this.renderMethods.get(key);
+        }
+
+        String name = "render" + this.nextName++;
+        this.renderMethods.put(key, name);
+
+        // Included templates start with only the root data object in scope
+        Map<String, Variable> scope = new HashMap<>();
+        scope.put("data", new Variable("data", dataType));
+
+        StringBuilder body = new StringBuilder();
+        this.generateNodes(template.getNodes(), scope, "output", body, 2);
+
+        this.methods.append("\n")
+                .append("    private static void ").append(name).append("(")
+                .append(typeName(dataType)).append(" data, template.TemplateEngine engine, Appendable output) throws java.io.IOException {\n")
+                .append(body)
+                .append("    }\n");
+
+        return name;
+    }
+
+    /**
+     * generateNodes
+     * generates the statements which render a list of nodes
+     * @param nodes the nodes to render
+     * @param scope the variables in scope by their name in the template
+     * @param output the name of the Appendable to render into
+     * @param code the code to append the statements to
+     * @param indent the indentation level of the statements
+     * @throws TemplateCompilationException if a node cannot be compiled
+     */
+    private void generateNodes(List<Node> nodes, Map<String, Variable> scope, String output, StringBuilder code, int indent) {
+        for (Node node : nodes) {
+            if (node instanceof TextNode) {
+                String text = ((TextNode) node).getText();
+
+                // Split long text so each literal fits in the constant pool
+                for (int i = 0; i < text.length(); i += MAX_LITERAL_LENGTH) {
+                    String part = text.substring(i, Math.min(text.length(), i + MAX_LITERAL_LENGTH));
+                    line(code, indent, output + ".append(" + literal(part) + ");");
+                }
+            } else if (node instanceof ExpressionNode) {
+                Variable value = this.expression((ExpressionNode) node, scope);
+
+                // Numbers and booleans never contain escaped braces
+                if ((value.type instanceof Class) && (((Class<?>) value.type).isPrimitive()) && (value.type != char.class)) {
+                    line(code, indent, output + ".append(String.valueOf(" + value.code + "));");
+                } else {
+                    line(code, indent, output + ".append(template.CompiledTemplate.text(" + value.code + "));");
+                }
+            } else if (node instanceof IfNode) {
+                IfNode ifNode = (IfNode) node;
+                Variable condition = this.expression(ifNode.getCondition(), scope);
+
+                if ((condition.type != boolean.class) && (condition.type != Boolean.class)) {
+                    throw new TemplateCompilationException("condition " + ifNode.getCondition() + " is not declared as a boolean");
+                }
+
+                line(code, indent, "if (" + condition.code + ") {");
+                this.generateNodes(ifNode.getChildren(), scope, output, code, indent + 1);
+                line(code, indent, "}");
+            } else if (node instanceof ForNode) {
+                this.generateFor((ForNode) node, scope, output, code, indent);
+            } else if (node instanceof IncludeNode) {
+                this.generateInclude((IncludeNode) node, scope, output, code, indent);
+            } else if (node instanceof CacheNode) {
+                this.generateCache((CacheNode) node, scope, output, code, indent);
+            } else if (node instanceof AssetNode) {
+                // Resolved on every render, since the fingerprint changes whenever the asset is reloaded
+                line(code, indent, output + ".append(engine.resolveAsset(" + literal(((AssetNode) node).getUrl()) + "));");
+            } else {
+                throw new TemplateCompilationException("cannot compile " + node.getClass().getSimpleName());
+            }
+        }
+    }
+
+    /**
+     * generateFor
+     * generates a loop over an array or iterable with a declared element type
+     * @param node the for node
+     * @param scope the variables in scope by their name in the template
+     * @param output the name of the Appendable to render into
+     * @param code the code to append the statements to
+     * @param indent the indentation level of the statements
+     * @throws TemplateCompilationException if the element type is not declared
+     */
+    private void generateFor(ForNode node, Map<String, Variable> scope, String output, StringBuilder code, int indent) {
+        Variable iterable = this.expression(node.getIterable(), scope);
+        Type elementType = elementType(iterable.type);
+
+        if (elementType == null) {
+            throw new TemplateCompilationException("cannot find the element type of " + node.getIterable());
+        }
+
+        String element = "v" + this.nextName++;
+
+        // The loop variable shadows any variable with the same name inside the body only
+        Map<String, Variable> bodyScope = new HashMap<>(scope);
+        bodyScope.put(node.getVariable(), new Variable(element, elementType));
+
+        line(code, indent, "for (" + typeName(elementType) + " " + element + " : " + iterable.code + ") {");
+        this.generateNodes(node.getBody(), bodyScope, output, code, indent + 1);
+        line(code, indent, "}");
+    }
+
+    /**
+     * generateInclude
+     * generates a call to the method rendering an included template with the current root data object
+     * @param node the include node
+     * @param scope the variables in scope by their name in the template
+     * @param output the name of the Appendable to render into
+     * @param code the code to append the statements to
+     * @param indent the indentation level of the statements
+     * @throws TemplateCompilationException if the included template cannot be compiled
+     */
+    private void generateInclude(IncludeNode node, Map<String, Variable> scope, String output, StringBuilder code, int indent) {
+        Variable data = scope.get("data");
+
+        if (data == null) {
+            throw new TemplateCompilationException("variable data does not exist");
+        }
+
+        Template included = this.templates.get(node.getPath());
+
+        // Missing templates are left to the engine, which throws the same exception as the interpreter
+        if (included == null) {
+            line(code, indent, "engine.render(" + literal(node.getPath()) + ", " + data.code + ", " + output + ");");
+            return;
+        }
+
+        String method = this.renderMethod(node.getPath(), included, data.type);
+        line(code, indent, method + "(" + data.code + ", engine, " + output + ");");
+    }
+
+    /**
+     * generateCache
+     * generates a lookup in the fragment cache, which renders and caches the children on a miss
+     * @param node the cache node
+     * @param scope the variables in scope by their name in the template
+     * @param output the name of the Appendable to render into
+     * @param code the code to append the statements to
+     * @param indent the indentation level of the statements
+     * @throws TemplateCompilationException if a key or child cannot be compiled
+     */
+    private void generateCache(CacheNode node, Map<String, Variable> scope, String output, StringBuilder code, int indent) {
+        StringBuilder key = new StringBuilder("template.FragmentCache.key(").append(literal(node.getName()));
+
+        for (ExpressionNode expression : node.getKeys()) {
+            key.append(", ").append(this.expression(expression, scope).code);
+        }
+
+        key.append(")");
+
+        String keyName = "k" + this.nextName++;
+        String fragment = "f" + this.nextName++;
+        String rendered = "b" + this.nextName++;
+
+        line(code, indent, "{");
+        line(code, indent + 1, "String " + keyName + " = " + key + ";");
+        line(code, indent + 1, "String " + fragment + " = engine.getFragmentCache().get(" + keyName + ");");
+        line(code, indent + 1, "if (" + fragment + " == null) {");
+        line(code, indent + 2, "StringBuilder " + rendered + " = new StringBuilder();");
+        this.generateNodes(node.getChildren(), scope, rendered, code, indent + 2);
+        line(code, indent + 2, fragment + " = " + rendered + ".toString();");
+        line(code, indent + 2, "engine.cacheFragment(" + keyName + ", " + fragment + ", " + node.getTimeToLive() + "L);");
+        line(code, indent + 1, "}");
+        line(code, indent + 1, output + ".append(" + fragment + ");");
+        line(code, indent, "}");
+    }
+
+    /**
+     * expression
+     * resolves an expression to Java code reading its fields directly, along with its declared type
+     * @param node the expression node
+     * @param scope the variables in scope by their name in the template
+     * @return the code and declared type of the expression
+     * @throws TemplateCompilationException if a variable or field cannot be resolved or accessed
+     */
+    private Variable expression(ExpressionNode node, Map<String, Variable> scope) {
+        Variable variable = scope.get(node.getRoot());
+
+        if (variable == null) {
+            throw new TemplateCompilationException("variable " + node.getRoot() + " does not exist");
+        }
+
+        String[] path = node.getPath();
+        String code = variable.code;
+        Type type = variable.type;
+
+        for (int i = 1; i < path.length; i++) {
+            Class<?> rawType = rawType(type);
+
+            if ((rawType == null) || (rawType.isPrimitive()) || (rawType.isArray())) {
+                throw new TemplateCompilationException("cannot read " + path[i] + " in " + node.getExpression());
+            }
+
+            Field field = findField(rawType, path[i]);
+
+            if ((field == null) || (!Modifier.isPublic(field.getModifiers()))) {
+                throw new TemplateCompilationException("no public field " + path[i] + " in " + node.getExpression());
+            }
+
+            requireAccessible(field.getDeclaringClass());
+
+            if (Modifier.isStatic(field.getModifiers())) {
+                code = typeName(field.getDeclaringClass()) + "." + field.getName();
+            } else {
+                code = code + "." + field.getName();
+            }
+
+            type = field.getGenericType();
+        }
+
+        // Like the interpreter, only booleans read from a field are negated
+        if ((node.isNegated()) && (path.length > 1) && ((type == boolean.class) || (type == Boolean.class))) {
+            return new Variable("(!" + code + ")", boolean.class);
+        }
+
+        return new Variable(code, type);
+    }
+
+    /**
+     * findField
+     * finds a field on a class or its superclasses, like the interpreter
+     * @param type the class to search
+     * @param name the name of the field
+     * @return the field, or null if it does not exist
+     */
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                return current.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // Check the superclass
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * elementType
+     * finds the declared element type of an array or iterable
+     * @param type the declared type of the array or iterable
+     * @return the element type, or null if it is not declared
+     */
+    private static Type elementType(Type type) {
+        // Arrays of primitives are not iterated by the interpreter either
+        if ((type instanceof Class) && (((Class<?>) type).isArray())) {
+            Class<?> component = ((Class<?>) type).getComponentType();
+            return component.isPrimitive() ? null : component;
+        }
+
+        if (type instanceof GenericArrayType) {
+            return ((GenericArrayType) type).getGenericComponentType();
+        }
+
+        // Iterable<T> and its subtypes with a single type argument, such as List<T>
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterized = (ParameterizedType) type;
+            Type[] arguments = parameterized.getActualTypeArguments();
+
+            if ((Iterable.class.isAssignableFrom((Class<?>) parameterized.getRawType())) && (arguments.length == 1)) {
+                Type argument = arguments[0];
+
+                if (argument instanceof WildcardType) {
+                    argument = ((WildcardType) argument).getUpperBounds()[0];
+                }
+
+                return rawType(argument) == null ? null : argument;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * rawType
+     * gets the class of a declared type
+     * @param type the declared type
+     * @return the class, or null if the type is a type variable
+     */
+    private static Class<?> rawType(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+
+        if (type instanceof GenericArrayType) {
+            Class<?> component = rawType(((GenericArrayType) type).getGenericComponentType());
+            return component == null ? null : component.arrayType();
+        }
+
+        return null;
+    }
+
+    /**
+     * typeName
+     * gets the name of a declared type as it is written in source code
+     * @param type the declared type
+     * @return the name of the type
+     * @throws TemplateCompilationException if the type cannot be named from the generated class
+     */
+    private static String typeName(Type type) {
+        if (type instanceof Class) {
+            Class<?> rawType = (Class<?>) type;
+
+            if (rawType.isArray()) {
+                return typeName(rawType.getComponentType()) + "[]";
+            }
+
+            requireAccessible(rawType);
+
+            return rawType.getCanonicalName();
+        }
+
+        if (type instanceof ParameterizedType) {
+            StringBuilder name = new StringBuilder(typeName(((ParameterizedType) type).getRawType())).append("<");
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+
+            for (int i = 0; i < arguments.length; i++) {
+                if (i > 0) {
+                    name.append(", ");
+                }
+
+                name.append(typeName(arguments[i]));
+            }
+
+            return name.append(">").toString();
+        }
+
+        if (type instanceof GenericArrayType) {
+            return typeName(((GenericArrayType) type).getGenericComponentType()) + "[]";
+        }
+
+        if (type instanceof WildcardType) {
+            WildcardType wildcard = (WildcardType) type;
+
+            if (wildcard.getLowerBounds().length > 0) {
+                return "? super " + typeName(wildcard.getLowerBounds()[0]);
+            }
+
+            if (wildcard.getUpperBounds()[0] == Object.class) {
+                return "?";
+            }
+
+            return "? extends " + typeName(wildcard.getUpperBounds()[0]);
+        }
+
+        throw new TemplateCompilationException("cannot name type " + type.getTypeName());
+    }
+
+    /**
+     * requireAccessible
+     * checks that a class can be named from the generated class
+     * @param type the class
+     * @throws TemplateCompilationException if the class or a class enclosing it is not public
+     */
+    private static void requireAccessible(Class<?> type) {
+        if (type.isPrimitive()) {
+            return;
+        }
+
+        for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+            if ((!Modifier.isPublic(current.getModifiers())) || (current.getCanonicalName() == null)) {
+                throw new TemplateCompilationException(type.getName() + " is not public");
+            }
+        }
+    }
+
+    /**
+     * literal
+     * converts text to a Java string literal
+     * @param text the text
+     * @return the string literal
+     */
+    private static String literal(String text) {
+        StringBuilder literal = new StringBuilder(text.length() + 2).append('"');
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+
+            if (c == '"') {
+                literal.append("\\\"");
+            } else if (c == '\\') {
+                literal.append("\\\\");
+            } else if (c == '\n') {
+                literal.append("\\n");
+            } else if (c == '\r') {
+                literal.append("\\r");
+            } else if (c == '\t') {
+                literal.append("\\t");
+            } else if ((c < 0x20) || (c > 0x7e)) {
+                literal.append(String.format("\\u%04x", (int) c));
+            } else {
+                literal.append(c);
+            }
+        }
+
+        return literal.append('"').toString();
+    }
+
+    /**
+     * line
+     * appends an indented line of code
+     * @param code the code to append to
+     * @param indent the indentation level
+     * @param line the line of code
+     */
+    private static void line(StringBuilder code, int indent, String line) {
+        code.append("    ".repeat(indent)).append(line).append('\n');
+    }
+
+    /**
+     * compileSource
+     * compiles the source of a single class in memory and loads it
+     * @param className the binary name of the class
+     * @param source the source code of the class
+     * @param parent the class loader which can load the types the class uses
+     * @return the loaded class
+     * @throws TemplateCompilationException if no compiler is available or the source does not compile
+     */
+    private static Class<?> compileSource(String className, String source, ClassLoader parent) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        // Only available when running on a JDK
+        if (compiler == null) {
+            throw new TemplateCompilationException("no Java compiler is available");
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Map<String, ByteArrayOutputStream> classFiles = new HashMap<>();
+
+        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(diagnostics, null, null);
+
+        // Keep the compiled classes in memory instead of writing them to disk
+        JavaFileManager fileManager = new ForwardingJavaFileManager<>(standardFileManager) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String name, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("mem:///" + name.replace('.', '/') + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+                        classFiles.put(name, classFile);
+                        return classFile;
+                    }
+                };
+            }
+        };
+
+        JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+
+        boolean compiled = compiler.getTask(null, fileManager, diagnostics, List.of("-proc:none"), null, List.of(sourceFile)).call();
+
+        try {
+            fileManager.close();
+        } catch (IOException e) {
+            // Nothing was written to disk
+        }
+
+        if (!compiled) {
+            StringBuilder message = new StringBuilder("cannot compile " + className);
+
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                message.append("\n").append(diagnostic.getMessage(null));
+            }
+
+            throw new TemplateCompilationException(message.toString());
+        }
+
+        // Define the generated classes in their own loader, which delegates everything else to the data type's loader
+        ClassLoader loader = new ClassLoader(parent) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                ByteArrayOutputStream classFile = classFiles.get(name);
+
+                if (classFile == null) {
+                    throw new ClassNotFoundException(name);
+                }
+
+                byte[] bytes = classFile.toByteArray();
+                return this.defineClass(name, bytes, 0, bytes.length);
+            }
+        };
+
+        try {
+            return loader.loadClass(className);
+        } catch (ClassNotFoundException e) {
+            throw new TemplateCompilationException("cannot load " + className);
+        }
+    }
+
+    /**
+     * A variable or expression in the generated code along with its declared type
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Variable {
+        /** the code which evaluates to the value */
+        private final String code;
+
+        /** the declared type of the value */
+        private final Type type;
+
+        /**
+         * Constructs a variable
+         * @param code the code which evaluates to the value
+         * @param type the declared type of the value
+         */
+        Variable(String code, Type type) {
+            this.code = code;
+            this.type = type;
+        }
+    }
+}
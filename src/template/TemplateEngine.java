@@ -1,28 +1,62 @@
 package template;
 
+import template.ast.Template;
+import template.ast.TemplateParser;
+import watcher.DirectoryWatcher;
+
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 
 /**
  * An engine to compile the custom templating language (.th files) into HTML for the browser
  * This engine allows for data interpolation in single braces (e.g. {data.age})
- * it also allows for IF and FOR directives to expression control flow in the template.
+ * it also allows for IF and FOR directives to expression control flow in the template,
+ * CACHE directives to reuse the rendered output of a block until it is invalidated or expires,
+ * and ASSET directives to link to the fingerprinted URL of a static asset.
  * The template has access to a root `data` object, inputted by the developer, that holds dynamic data.
+ * Templates are parsed once when they are registered, and each compile only walks the parsed {@link Template}.
+ * Hot templates can also be specialized for the type of their `data` object, which compiles them to a {@link CompiledTemplate} class.
+ * Registered templates can be reloaded while the server is running. Each reload publishes a new immutable {@link Registry},
+ * so renders never take a lock, and every render sees a single version of all templates from start to finish.
  * @author Harry Xu
  * @version 1.0 - May 20th 2023
  */
 public class TemplateEngine {
-    /** Rhe registry for templates*/
-    private final Map<String, String> templates;
+    /** The maximum number of fragments cached by `{#cache}` directives */
+    private static final int FRAGMENT_CACHE_SIZE = 1000;
+
+    /** The current version of the registered templates, which is replaced as a whole whenever a template changes */
+    private volatile Registry registry;
+
+    /** The render in progress on each thread, so included templates come from the same version */
+    private final ThreadLocal<Rendering> rendering;
+
+    /** The rendered fragments of `{#cache}` directives */
+    private final FragmentCache fragmentCache;
+
+    /** The types of root `data` object each specialized template is compiled for, which are recompiled whenever a template changes */
+    private final Map<String, Class<?>> specializations;
+
+    /** The directories whose templates are registered, and new templates in them are registered when they are created */
+    private final Set<Path> directories;
+
+    /** Resolves the logical URLs of `{#asset}` directives to the URLs the assets are served on */
+    private volatile UnaryOperator<String> assetResolver;
 
     /**
      * Constructs a template engine with predefined templates registered
@@ -35,27 +69,45 @@ public class TemplateEngine {
             throw new NullPointerException("paths cannot be null");
         }
 
-        this.templates = new HashMap<>();
+        this.rendering = new ThreadLocal<>();
+        this.fragmentCache = new FragmentCache(FRAGMENT_CACHE_SIZE);
+        this.specializations = new HashMap<>();
+        this.directories = new LinkedHashSet<>();
+        this.assetResolver = UnaryOperator.identity();
+
+        Map<String, String> templates = new HashMap<>();
 
         for (String path : paths) {
             File dir = new File(path);
 
             if (dir.isDirectory()) {
+                this.directories.add(dir.toPath());
+
                 File[] files = dir.listFiles();
 
                 if (files != null) {
                     for (File file : files) {
                         String filename = file.getPath();
 
-                        this.templates.put(filename.replace("\\", "/"), this.read(filename));
+                        templates.put(filename.replace("\\", "/"), this.read(filename));
                     }
                 }
             }
 
             if (dir.isFile()) {
-                this.templates.put(path, this.read(path));
+                templates.put(path, this.read(path));
             }
         }
+
+        // Parse every template once up front
+        Map<String, Template> parsedTemplates = new HashMap<>();
+        Map<String, TemplateSyntaxException> syntaxErrors = new HashMap<>();
+
+        for (Map.Entry<String, String> template : templates.entrySet()) {
+            parse(template.getKey(), template.getValue(), parsedTemplates, syntaxErrors);
+        }
+
+        this.registry = new Registry(templates, parsedTemplates, syntaxErrors, new HashMap<>());
     }
 
     /**
@@ -67,368 +119,411 @@ public class TemplateEngine {
      * @throws TemplateNotFoundException if no template is registered under the path
      * */
     public String getTemplate(String path) {
-        if (!this.templates.containsKey(path)) {
+        Registry registry = this.registry;
+
+        if (!registry.templates.containsKey(path)) {
             throw new TemplateNotFoundException("Template " + path + " cannot be found");
         }
 
 
-        return this.templates.get(path);
+        return registry.templates.get(path);
     }
 
     /**
-     * compile
-     * retrieves and templates a file into an HTML string
-     * @param inputFile the registered path of a template
-     * @param data the root `data` object
-     * @param <T> the type of the root `data` object
-     * @return the compiled template string
-     * @throws TemplateSyntaxException if a syntax error occurs while compiling the template
-     * @throws TemplateNotFoundException if the requested template is not registered
+     * getFragmentCache
+     * gets the cache of the rendered fragments of `{#cache}` directives, which can be used to invalidate them
+     * @return the fragment cache
      */
-    public <T> String compile(String inputFile, T data) throws TemplateSyntaxException, TemplateNotFoundException {
-        if (!this.templates.containsKey(inputFile)) {
-            throw new TemplateNotFoundException("Template " + inputFile + " cannot be found");
+    public FragmentCache getFragmentCache() {
+        return this.fragmentCache;
+    }
+
+    /**
+     * setAssetResolver
+     * sets how the logical URLs of `{#asset}` directives are resolved, which leaves them as they are by default
+     * @param assetResolver maps a logical URL to the URL the asset is served on
+     */
+    public void setAssetResolver(UnaryOperator<String> assetResolver) {
+        this.assetResolver = assetResolver;
+    }
+
+    /**
+     * resolveAsset
+     * resolves the logical URL of an asset to the URL it is served on
+     * @param url the logical URL of the asset
+     * @return the URL the asset is served on
+     */
+    public String resolveAsset(String url) {
+        return this.assetResolver.apply(url);
+    }
+
+    /**
+     * specialize
+     * compiles a template to a class with typed field reads for one type of root `data` object.
+     * Compiles with data of that type are rendered by the class, and any other data is still interpreted.
+     * If the template cannot be compiled (e.g. it reads a field which is not declared on the type, or no Java compiler is available),
+     * it is left to the interpreter. The template is compiled again whenever a template is reloaded.
+     * @param path the registered path of the template
+     * @param dataType the type of the root `data` object
+     * @return true if the template was compiled, or false if it is still interpreted
+     * @throws TemplateNotFoundException if the template is not registered
+     */
+    public synchronized boolean specialize(String path, Class<?> dataType) {
+        Registry current = this.registry;
+        Template template = current.parsedTemplates.get(path);
+
+        if (template == null) {
+            throw new TemplateNotFoundException("Template " + path + " cannot be found");
         }
 
-        String template =  template(this.templates.get(inputFile), data);
+        this.specializations.put(path, dataType);
 
-        template = template.replace("\\{", "{").replace("\\}", "}");
+        Map<String, CompiledTemplate> compiledTemplates = new HashMap<>(current.compiledTemplates);
+        boolean compiled = compile(path, dataType, current.parsedTemplates, compiledTemplates);
 
-        return template;
+        this.registry = new Registry(current.templates, current.parsedTemplates, current.syntaxErrors, compiledTemplates);
+
+        return compiled;
     }
 
     /**
-     * read
-     * opens and reads a file and joins its content together into one string
-     * @param inputFile the path of the file to read from
-     * @return the contents of the input file as a string
-     * @throws IOException if an error occurs while opening or reading the file
+     * reload
+     * reads a template again after its file has changed, registering it if it is new or removing it if it was deleted.
+     * Specialized templates are compiled again, since they may include the changed template,
+     * and every cached fragment is evicted, since it may have been rendered from the old template.
+     * The new version of the templates is only published once it is complete.
+     * @param path the path of the template, relative to the working directory like the paths it was registered with
+     * @throws IOException if an error occurs while reading the file
      */
-    private String read(String inputFile) throws IOException {
-        StringBuilder content = new StringBuilder();
+    public synchronized void reload(String path) throws IOException {
+        Registry current = this.registry;
+        File file = new File(path);
 
-        try (BufferedReader input = new BufferedReader(new FileReader(inputFile))) {
-            int currentChar = input.read();
+        // Only registered templates and templates in registered directories are reloaded
+        Path directory = file.toPath().getParent();
 
-            while (currentChar != -1) {
-                content.append((char) currentChar);
+        if ((!current.templates.containsKey(path)) && ((directory == null) || (!this.directories.contains(directory)))) {
+            return;
+        }
 
-                currentChar = input.read();
+        Map<String, String> templates = new HashMap<>(current.templates);
+        Map<String, Template> parsedTemplates = new HashMap<>(current.parsedTemplates);
+        Map<String, TemplateSyntaxException> syntaxErrors = new HashMap<>(current.syntaxErrors);
+
+        if (file.isFile()) {
+            String source = this.read(path);
+
+            // Editors often touch a file without changing it
+            if (source.equals(current.templates.get(path))) {
+                return;
+            }
+
+            templates.put(path, source);
+            parse(path, source, parsedTemplates, syntaxErrors);
+        } else {
+            if (!current.templates.containsKey(path)) {
+                return;
             }
+
+            templates.remove(path);
+            parsedTemplates.remove(path);
+            syntaxErrors.remove(path);
         }
 
-        return content.toString();
-    }
+        // Compiled templates inline the templates they include, so they are all compiled again
+        Map<String, CompiledTemplate> compiledTemplates = new HashMap<>();
 
-    /**
-     * template
-     * reads and template (interpolate values and resolve directives) a .th template file into an HTML string.
-     * The template wll be given access to a top level data object
-     * @param input the input template string
-     * @param data the data object
-     * @param <T> the type of the root `data` property in the template
-     * @return the parsed and evaluated HTML string
-     * @throws TemplateSyntaxException if a syntax error occurs while parsing and templating the input string
-     */
-    private <T> String template(String input, T data) throws TemplateSyntaxException {
-        // put data object into namespace
-        Map<String, Object> namespace = new HashMap<>();
-        namespace.put("data", data);
+        for (Map.Entry<String, Class<?>> specialization : this.specializations.entrySet()) {
+            compile(specialization.getKey(), specialization.getValue(), parsedTemplates, compiledTemplates);
+        }
 
-        return template(input, namespace);
+        this.registry = new Registry(templates, parsedTemplates, syntaxErrors, compiledTemplates);
+        this.fragmentCache.invalidateAll();
     }
 
     /**
-     * template
-     * reads and template (interpolate values and resolve directives) a .th template file into an HTML string.
-     * The template wll be given access to the namespace of the scope
-     * @param input the input template string
-     * @param namespace a map of variables and their values to allow for more templating flexibility
-     * @return the parsed and evaluated HTML string
-     * @throws TemplateSyntaxException if a syntax error occurs while parsing and templating the input string
+     * watch
+     * starts reloading templates on a background thread whenever their files change
+     * @return the watcher, which can be closed to stop reloading
+     * @throws IOException if the directories of the templates cannot be watched
      */
-    private <T> String template(String input, Map<String, Object> namespace) {
-        // Keeps track of curly braces
-        int interpolationStartIndex = -1;
-        int interpolationEndIndex = -1;
+    public DirectoryWatcher watch() throws IOException {
+        Set<Path> watched = new LinkedHashSet<>(this.directories);
 
-        Deque<Directive> directivesStack = new ArrayDeque<>();
-        Set<String> directiveVariables = new HashSet<>();
+        // Templates registered individually are watched through their directory
+        for (String path : this.registry.templates.keySet()) {
+            Path directory = Paths.get(path).getParent();
 
-        int i = 0;
-
-        while (i < input.length()) {
-            char c = input.charAt(i);
-            char prev = (i - 1) >= 0 ? input.charAt(i - 1) : ' ';
-
-            // Opening of interpolation
-            // Captures { ... } without escapes
-            if ((c == '{') && (prev != '\\')) {
-                interpolationStartIndex = i;
+            if (directory != null) {
+                watched.add(directory);
             }
+        }
 
-            if ((c == '}') && (prev != '\\') && (interpolationStartIndex != -1)) {
-                interpolationEndIndex = i;
+        DirectoryWatcher watcher = new DirectoryWatcher(watched, file -> {
+            try {
+                this.reload(file.toString().replace("\\", "/"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+        });
 
-            // Interpolation captures
-            // Evaluate the token
-            if ((interpolationStartIndex != -1) && (interpolationEndIndex != -1)) {
-                // Get token
-                String token = input.substring(interpolationStartIndex, interpolationEndIndex + 1);
+        watcher.start("template-watcher");
 
-                // Remove braces
-                token = token.substring(1, token.length() - 1);
-
-                // Trim
-                token = token.trim();
+        return watcher;
+    }
 
-                // Start directive
-                if (token.startsWith("#")) {
-                    // Directive Type
-                    String[] directiveTokens = token.replaceFirst("#", "").split(" ");
+    /**
+     * compile
+     * retrieves and templates a file into an HTML string
+     * @param inputFile the registered path of a template
+     * @param data the root `data` object
+     * @param <T> the type of the root `data` object
+     * @return the compiled template string
+     * @throws TemplateSyntaxException if a syntax error occurs while compiling the template
+     * @throws TemplateNotFoundException if the requested template is not registered
+     */
+    public <T> String compile(String inputFile, T data) throws TemplateSyntaxException, TemplateNotFoundException {
+        StringBuilder output = new StringBuilder();
 
-                    // Directive matching
-                    if ((directiveTokens.length == 4) && (directiveTokens[0].equals("for")) && (directiveTokens[2].equals("in"))) {
-                        // For directive
-                        directiveVariables.add(directiveTokens[1]);
+        try {
+            this.render(inputFile, data, output);
+        } catch (IOException e) {
+            // Appending to a StringBuilder cannot fail
+            throw new UncheckedIOException(e);
+        }
 
-                        directivesStack.push(new Directive(DirectiveType.FOREACH, interpolationStartIndex, interpolationEndIndex + 1, directiveTokens));
+        return output.toString();
+    }
 
-                    } else if ((directiveTokens.length == 2) && (directiveTokens[0].equals("if"))) {
-                        // If directive
-                        directivesStack.push(new Directive(DirectiveType.IF, interpolationStartIndex, interpolationEndIndex + 1, directiveTokens));
+    /**
+     * renderTo
+     * templates a file straight into a stream as UTF-8, without building the whole page in memory first
+     * @param inputFile the registered path of a template
+     * @param data the root `data` object
+     * @param output the stream to write the rendered template to, which is flushed but not closed
+     * @param <T> the type of the root `data` object
+     * @throws IOException if an error occurs while writing to the stream
+     * @throws TemplateSyntaxException if a syntax error occurs while compiling the template
+     * @throws TemplateNotFoundException if the requested template is not registered
+     */
+    public <T> void renderTo(String inputFile, T data, OutputStream output) throws IOException, TemplateSyntaxException, TemplateNotFoundException {
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
 
-                    } else if ((directiveTokens.length == 2) && (directiveTokens[0].equals("include"))) {
-                        // Include directive
+        this.render(inputFile, data, writer);
 
-                        // Insert partial
-                        String newInput = input = input.substring(0, interpolationStartIndex) + this.compile(directiveTokens[1], namespace.get("data")) + input.substring(interpolationEndIndex + 1);
-                        i += (newInput.length() - input.length());
-                        input = newInput;
+        writer.flush();
+    }
 
-                    } else {
-                        // Illegal directive
-                        throw new TemplateSyntaxException("no directive type exists for this syntax");
-                    }
-                } else if (token.startsWith("/")) {
-                    // End directive
-
-                    String directiveType = token.replaceFirst("/", "");
-
-                    // Directive matching
-                    if (directiveType.equals("for")) {
-                        // For directive
-                        if ((!directivesStack.isEmpty()) && (directivesStack.peek().getType() == DirectiveType.FOREACH)) {
-                            // Get opening tag
-                            Directive openingDir = directivesStack.pop();
-                            String[] openingDirTokens = openingDir.getTokens();
-
-                            // Get enclosed snippet
-                            String snippet = input.substring(openingDir.getEndNumber(), interpolationStartIndex);
-
-                            // Gets the array/iterable
-                            Object value = parseExpression(openingDirTokens[3], namespace, directiveVariables);
-
-                            StringBuilder newSnippet = new StringBuilder();
-
-                            if (value.getClass().isArray()) {
-                                for (Object v : (Object[]) value) {
-                                    // Parse with target variable in namespace
-                                    namespace.put(openingDirTokens[1], v);
-                                    String parsedSnippet = template(snippet, namespace);
-                                    namespace.remove(openingDirTokens[1]);
-
-                                    // Add snippet
-                                    newSnippet.append(parsedSnippet);
-                                }
-
-                            } else if (value instanceof Iterable) {
-                                for (Object v : (Iterable<?>) value) {
-                                    // Parse with target variable in namespace
-                                    namespace.put(openingDirTokens[1], v);
-                                    String parsedSnippet = template(snippet, namespace);
-                                    namespace.remove(openingDirTokens[1]);
-
-                                    // Add snippet
-                                    newSnippet.append(parsedSnippet);
-                                }
-                            } else {
-                                throw new TemplateSyntaxException("target of for directive must be either an array or iterable");
-                            }
-
-                            // Remove target variable from allowed roots
-                            directiveVariables.remove(openingDirTokens[1]);
-
-                            // Insert snippet
-                            String newInput = input = input.substring(0, openingDir.getStartNumber()) + newSnippet + input.substring(interpolationEndIndex + 1);
-                            i += (newInput.length() - input.length());
-                            input = newInput;
-                        } else {
-                            throw new TemplateSyntaxException("mismatched directives");
-                        }
-                    } else if (directiveType.equals("if")) {
-                        // If directive
-                        if ((!directivesStack.isEmpty()) && (directivesStack.peek().getType() == DirectiveType.IF)) {
-                            // Get opening tag
-                            Directive openingDir = directivesStack.pop();
-                            String[] openingDirTokens = openingDir.getTokens();
-
-                            // Get enclosed sprite
-                            String snippet = input.substring(openingDir.getEndNumber(), interpolationStartIndex);
-
-                            // Evaluate target boolean
-                            Object value = parseExpression(openingDirTokens[1], namespace, directiveVariables);
-
-                            // skip if the root is an allowed root
-                            if (!directiveVariables.contains(openingDirTokens[1].split("\\.")[0])) {
-                                // check for boolean
-                                if (value instanceof Boolean) {
-                                    boolean showSnippet = (Boolean) value;
-
-                                    if (!showSnippet) {
-                                        snippet = "";
-                                    }
-                                }
-                                else {
-                                    System.out.println("VALUE: " + value);
-                                    throw new TemplateSyntaxException("If condition must be a boolean value: " + openingDir);
-                                }
-                            }
-
-                            // Insert snippet
-                            String newInput = input.substring(0, openingDir.getStartNumber()) + snippet + input.substring(interpolationEndIndex + 1);
-                            i += (newInput.length() - input.length());
-                            input = newInput;
-                        } else {
-                            throw new TemplateSyntaxException("mismatched directives");
-                        }
-                    } else {
-                        throw new TemplateSyntaxException("Illegal directive closing tag");
-                    }
-                } else {
-                    // Do not evaluate values inside an if directive if the directive will not be rendered
-                    Directive topDirective = directivesStack.peek();
-
-                    if ((topDirective != null) && (topDirective.getType() == DirectiveType.IF)) {
-                        String ifValue = topDirective.getTokens()[1];
-
-                        Object value = parseExpression(ifValue, namespace, directiveVariables);
-
-                        // Skip value
-                        if (value instanceof Boolean) {
-                            if (!((Boolean) value)) {
-                                interpolationStartIndex = -1;
-                                interpolationEndIndex = -1;
-                                continue;
-                            }
-                        }
-                    }
+    /**
+     * render
+     * templates a file into an HTML string, appending it to an existing output
+     * @param inputFile the registered path of a template
+     * @param data the root `data` object
+     * @param output the output to append the rendered template to
+     * @param <T> the type of the root `data` object
+     * @throws IOException if an error occurs while appending to the output
+     * @throws TemplateSyntaxException if a syntax error occurs while compiling the template
+     * @throws TemplateNotFoundException if the requested template is not registered
+     */
+    public <T> void render(String inputFile, T data, Appendable output) throws IOException, TemplateSyntaxException, TemplateNotFoundException {
+        Rendering pinned = this.rendering.get();
 
-                    // Expression
-                    String replacedExpr = parseExpression(token, namespace, directiveVariables).toString();
+        // Included templates are rendered from the same version as the template including them
+        if (pinned != null) {
+            this.render(pinned.registry, inputFile, data, output);
+            return;
+        }
 
-                    // Insert snippet
-                    String newInput = input.substring(0, interpolationStartIndex) + replacedExpr + input.substring(interpolationEndIndex + 1);
-                    i += (newInput.length() - input.length());
-                    input = newInput;
-                }
+        // The generation is read before the templates, as reloading replaces the templates before invalidating the cache
+        long generation = this.fragmentCache.getGeneration();
+        Rendering rendering = new Rendering(this.registry, generation);
 
-                // Reset indices
-                interpolationStartIndex = -1;
-                interpolationEndIndex = -1;
-            }
+        this.rendering.set(rendering);
 
-            i++;
+        try {
+            this.render(rendering.registry, inputFile, data, output);
+        } finally {
+            this.rendering.remove();
         }
-
-        return input;
     }
 
-    private void shiftPositions(Deque<Directive> queue, int shiftBy) {
+    /**
+     * cacheFragment
+     * caches a fragment rendered by a `{#cache}` directive, unless the fragment cache was invalidated
+     * after the render in progress on this thread started, as the fragment may then be rendered from stale templates or data
+     * @param key the key of the fragment
+     * @param content the rendered fragment
+     * @param timeToLive the number of milliseconds the fragment stays valid
+     */
+    public void cacheFragment(String key, String content, long timeToLive) {
+        Rendering rendering = this.rendering.get();
 
-        for (Directive dir : queue) {
-            dir.setStartNumber(dir.getStartNumber() + shiftBy);
-            dir.setEndNumber(dir.getEndNumber() + shiftBy);
+        // Not rendering through this engine, so there is no way to tell if the fragment is stale
+        if (rendering == null) {
+            return;
         }
+
+        this.fragmentCache.put(key, content, timeToLive, rendering.fragmentGeneration);
     }
 
     /**
-     * parseExpression
-     * parses an expression in interpolation braces
-     * An expression is any value in the template expected to be computed dynamically (e.g. data.product.price)
-     * @param exp the expression to parse
-     * @param namespace a map containing the different variables and values in the current directive scope
-     * @param allowedRoots the allowed roots of an expression (i.e. the first token of an expression).
-     *                     Allows certain expressions to be skipped until their roots can be populated with a
-     *                     concrete value. This is used in for directives where the target variable cannot be populated
-     *                     until the end of the directive is reached, and so skips certain expressions.
-     * @throws TemplateSyntaxException if a syntax error occurs while parsing and evaluating the expression
-     * */
-    private Object parseExpression(String exp, Map<String, Object> namespace, Set<String> allowedRoots) {
-        // Split into tokens
-        String[] commands = exp.split("\\.");
+     * render
+     * templates a file from a version of the templates, appending it to an existing output
+     * @param registry the version of the templates
+     * @param inputFile the registered path of a template
+     * @param data the root `data` object
+     * @param output the output to append the rendered template to
+     * @throws IOException if an error occurs while appending to the output
+     * @throws TemplateSyntaxException if a syntax error occurs while compiling the template
+     * @throws TemplateNotFoundException if the requested template is not registered
+     */
+    private void render(Registry registry, String inputFile, Object data, Appendable output) throws IOException {
+        // Use the compiled template if it was specialized for this data
+        CompiledTemplate compiled = registry.compiledTemplates.get(inputFile);
 
-        String root = commands[0];
+        if ((compiled != null) && (compiled.getDataType().isInstance(data))) {
+            compiled.render(data, this, output);
+            return;
+        }
+
+        Template template = registry.parsedTemplates.get(inputFile);
 
-        // Support for basic negation
-        if (commands[0].startsWith("!")) {
-            root = commands[0].substring(1);
+        if (template == null) {
+            if (registry.syntaxErrors.containsKey(inputFile)) {
+                throw registry.syntaxErrors.get(inputFile);
+            }
+
+            throw new TemplateNotFoundException("Template " + inputFile + " cannot be found");
         }
 
-        // Variable lookup
-        if (namespace.containsKey(root)) {
-            // Data interpolation with variable
+        // put data object into namespace
+        Map<String, Object> namespace = new HashMap<>();
+        namespace.put("data", data);
 
-            return evaluateValue(commands, namespace.get(root));
-        } else if (allowedRoots.contains(commands[0])) {
-            //Skip this expression
+        template.render(namespace, this, output);
+    }
 
-            return "{" + exp + "}";
-        } else {
-            throw new TemplateSyntaxException("variable " + commands[0] + " does not exist");
+    /**
+     * parse
+     * parses a template, recording its syntax error instead if it cannot be parsed
+     * @param path the registered path of the template
+     * @param source the source of the template
+     * @param parsedTemplates the parsed templates to add the template to
+     * @param syntaxErrors the syntax errors to add the error to
+     */
+    private static void parse(String path, String source, Map<String, Template> parsedTemplates, Map<String, TemplateSyntaxException> syntaxErrors) {
+        try {
+            parsedTemplates.put(path, TemplateParser.parse(source));
+            syntaxErrors.remove(path);
+        } catch (TemplateSyntaxException e) {
+            // Not every registered file has to be a valid template, so errors are only thrown if it is compiled
+            parsedTemplates.remove(path);
+            syntaxErrors.put(path, e);
         }
     }
 
     /**
-     * evaluateValue
-     * evaluates and computes an expression with the root data
-     * @param <T> the type of the root data, usually
-     * @param path the path to the data from the root (e.g. data.product.name)
-     * @param data the root data object (e.g. data)
-     *             This object should contain public fields to allow for data access.
-     * @throws TemplateSyntaxException if the expression contains a field that does not exist or cannot be accessed
+     * compile
+     * compiles a template to a class for a type of root `data` object, leaving it to the interpreter if it cannot be compiled
+     * @param path the registered path of the template
+     * @param dataType the type of the root `data` object
+     * @param parsedTemplates the parsed templates, which the template and any templates it includes are read from
+     * @param compiledTemplates the compiled templates to add the template to
+     * @return true if the template was compiled
      */
-    private <T> Object evaluateValue(String[] path, T data)  {
-        if (path.length == 1) {
-            return data;
+    private static boolean compile(String path, Class<?> dataType, Map<String, Template> parsedTemplates, Map<String, CompiledTemplate> compiledTemplates) {
+        Template template = parsedTemplates.get(path);
+
+        if (template != null) {
+            try {
+                compiledTemplates.put(path, new TemplateCompiler(parsedTemplates).compile(path, template, dataType));
+                return true;
+            } catch (TemplateCompilationException e) {
+                // Interpret the template instead
+            }
         }
 
-        boolean negateValue = false;
+        compiledTemplates.remove(path);
 
-        // Negation
-        if (path[0].startsWith("!")) {
-            path[0] = path[0].substring(1);
-            negateValue = true;
-        }
+        return false;
+    }
 
-        try {
-            Field current = data.getClass().getDeclaredField(path[1]);
+    /**
+     * read
+     * opens and reads a file and joins its content together into one string
+     * @param inputFile the path of the file to read from
+     * @return the contents of the input file as a string
+     * @throws IOException if an error occurs while opening or reading the file
+     */
+    private String read(String inputFile) throws IOException {
+        StringBuilder content = new StringBuilder();
 
-            for (int i = 2; i < path.length; i++) {
-                String field = path[i];
-                current = current.getClass().getDeclaredField(field);
-            }
+        try (BufferedReader input = new BufferedReader(new FileReader(inputFile))) {
+            int currentChar = input.read();
 
-            Object value = current.get(data);
+            while (currentChar != -1) {
+                content.append((char) currentChar);
 
-            if ((negateValue) && (value instanceof Boolean)) {
-                return !((Boolean) value);
+                currentChar = input.read();
             }
+        }
 
-            return value;
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            throw new TemplateSyntaxException(e);
+        return content.toString();
+    }
+
+    /**
+     * A render in progress, with the version of the templates it uses and the generation of the fragment cache when it started
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Rendering {
+        /** the version of the templates the render uses */
+        private final Registry registry;
+
+        /** the generation of the fragment cache when the render started */
+        private final long fragmentGeneration;
+
+        /**
+         * Constructs a render in progress
+         * @param registry the version of the templates the render uses
+         * @param fragmentGeneration the generation of the fragment cache when the render started
+         */
+        Rendering(Registry registry, long fragmentGeneration) {
+            this.registry = registry;
+            this.fragmentGeneration = fragmentGeneration;
+        }
+    }
+
+    /**
+     * A version of the registered templates, which is never modified once it is published
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Registry {
+        /** the sources of the templates by their registered path */
+        private final Map<String, String> templates;
+
+        /** the parsed templates by their registered path */
+        private final Map<String, Template> parsedTemplates;
+
+        /** the syntax errors of templates which cannot be parsed, thrown when they are compiled */
+        private final Map<String, TemplateSyntaxException> syntaxErrors;
+
+        /** the templates which have been compiled to classes for a type of root `data` object */
+        private final Map<String, CompiledTemplate> compiledTemplates;
+
+        /**
+         * Constructs a version of the templates, taking ownership of the maps
+         * @param templates the sources of the templates by their registered path
+         * @param parsedTemplates the parsed templates by their registered path
+         * @param syntaxErrors the syntax errors of templates which cannot be parsed
+         * @param compiledTemplates the templates which have been compiled to classes
+         */
+        Registry(Map<String, String> templates, Map<String, Template> parsedTemplates, Map<String, TemplateSyntaxException> syntaxErrors, Map<String, CompiledTemplate> compiledTemplates) {
+            this.templates = Collections.unmodifiableMap(templates);
+            this.parsedTemplates = Collections.unmodifiableMap(parsedTemplates);
+            this.syntaxErrors = Collections.unmodifiableMap(syntaxErrors);
+            this.compiledTemplates = Collections.unmodifiableMap(compiledTemplates);
         }
     }
-}
\ No newline at end of file
+}
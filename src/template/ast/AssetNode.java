@@ -0,0 +1,48 @@
+package template.ast;
+
+import template.TemplateEngine;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A node which outputs the URL an asset is served on (e.g. {#asset /static/css/nav.css}).
+ * The engine resolves the logical URL to the fingerprinted URL of the current version of the asset,
+ * so pages always link to an asset which can be cached forever.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class AssetNode implements Node {
+    /** the logical URL of the asset */
+    private final String url;
+
+    /**
+     * Constructs an asset node
+     * @param url the logical URL of the asset
+     */
+    public AssetNode(String url) {
+        this.url = url;
+    }
+
+    /**
+     * getUrl
+     * gets the logical URL of the asset
+     * @return the logical URL
+     */
+    public String getUrl() {
+        return this.url;
+    }
+
+    /**
+     * render
+     * appends the URL the asset is served on
+     * @param namespace a map of the variables in the current scope and their values
+     * @param engine the template engine, which resolves asset URLs
+     * @param output the output of the template
+     * @throws IOException if an error occurs while appending to the output
+     */
+    @Override
+    public void render(Map<String, Object> namespace, TemplateEngine engine, Appendable output) throws IOException {
+        output.append(engine.resolveAsset(this.url));
+    }
+}
@@ -0,0 +1,118 @@
+package template.ast;
+
+import template.FragmentCache;
+import template.TemplateEngine;
+import template.TemplateSyntaxException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node which caches the rendered output of its children in the engine's {@link FragmentCache}
+ * (e.g. {#cache problem-list data.solvedKey ttl=300} ... {/cache}).
+ * The fragment is cached under the name of the directive and the values of its key expressions,
+ * so the key expressions must cover everything the children depend on.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class CacheNode implements Node {
+    /** the name of the directive, which is used to invalidate its fragments */
+    private final String name;
+
+    /** the expressions whose values are part of the key */
+    private final List<ExpressionNode> keys;
+
+    /** the number of milliseconds a fragment stays valid */
+    private final long timeToLive;
+
+    /** the nodes whose output is cached */
+    private final List<Node> children;
+
+    /**
+     * Constructs a cache node
+     * @param name the name of the directive
+     * @param keys the expressions whose values are part of the key
+     * @param timeToLive the number of milliseconds a fragment stays valid
+     * @param children the nodes whose output is cached
+     */
+    public CacheNode(String name, List<ExpressionNode> keys, long timeToLive, List<Node> children) {
+        this.name = name;
+        this.keys = keys;
+        this.timeToLive = timeToLive;
+        this.children = children;
+    }
+
+    /**
+     * getName
+     * gets the name of the directive
+     * @return the name of the directive
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * getKeys
+     * gets the expressions whose values are part of the key
+     * @return the key expressions
+     */
+    public List<ExpressionNode> getKeys() {
+        return this.keys;
+    }
+
+    /**
+     * getTimeToLive
+     * gets the number of milliseconds a fragment stays valid
+     * @return the time to live in milliseconds
+     */
+    public long getTimeToLive() {
+        return this.timeToLive;
+    }
+
+    /**
+     * getChildren
+     * gets the nodes whose output is cached
+     * @return the children
+     */
+    public List<Node> getChildren() {
+        return this.children;
+    }
+
+    /**
+     * render
+     * appends the cached fragment, rendering and caching the children first if it is not cached
+     * @param namespace a map of the variables in the current scope and their values
+     * @param engine the template engine, which renders included templates
+     * @param output the output of the template
+     * @throws IOException if an error occurs while appending to the output
+     * @throws TemplateSyntaxException if a key expression or child cannot be evaluated
+     */
+    @Override
+    public void render(Map<String, Object> namespace, TemplateEngine engine, Appendable output) throws IOException {
+        FragmentCache cache = engine.getFragmentCache();
+
+        // Build the key from the current values
+        Object[] values = new Object[this.keys.size()];
+
+        for (int i = 0; i < values.length; i++) {
+            values[i] = this.keys.get(i).evaluate(namespace);
+        }
+
+        String key = FragmentCache.key(this.name, values);
+        String fragment = cache.get(key);
+
+        if (fragment == null) {
+            StringBuilder rendered = new StringBuilder();
+
+            for (Node child : this.children) {
+                child.render(namespace, engine, rendered);
+            }
+
+            fragment = rendered.toString();
+            engine.cacheFragment(key, fragment, this.timeToLive);
+        }
+
+        output.append(fragment);
+    }
+}
@@ -0,0 +1,202 @@
+package template.ast;
+
+import template.TemplateEngine;
+import template.TemplateSyntaxException;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.util.Map;
+
+/**
+ * A node which interpolates the value of an expression (e.g. {data.product.price}).
+ * An expression starts with a variable in the namespace, followed by the fields to access on it,
+ * and may be negated with a leading `!` if it evaluates to a boolean.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ExpressionNode implements Node {
+    /** the expression as written in the template */
+    private final String expression;
+
+    /** the tokens of the expression, where the first is the variable (e.g. data) */
+    private final String[] path;
+
+    /** the variable the expression starts with, without any negation */
+    private final String root;
+
+    /** if the value is negated */
+    private final boolean negated;
+
+    /** the getter of each field of the path for the class it was last read from, which is almost always the same on every render */
+    private final CachedGetter[] cachedGetters;
+
+    /**
+     * Constructs an expression node
+     * @param expression the expression as written in the template
+     */
+    public ExpressionNode(String expression) {
+        this.expression = expression;
+        this.path = expression.split("\\.");
+        this.negated = this.path[0].startsWith("!");
+        this.root = this.negated ? this.path[0].substring(1) : this.path[0];
+        this.cachedGetters = new CachedGetter[this.path.length];
+    }
+
+    /**
+     * getExpression
+     * gets the expression as written in the template
+     * @return the expression
+     */
+    public String getExpression() {
+        return this.expression;
+    }
+
+    /**
+     * getPath
+     * gets the tokens of the expression, where the first is the variable with any negation
+     * @return a copy of the tokens
+     */
+    public String[] getPath() {
+        return this.path.clone();
+    }
+
+    /**
+     * getRoot
+     * gets the variable the expression starts with, without any negation
+     * @return the variable
+     */
+    public String getRoot() {
+        return this.root;
+    }
+
+    /**
+     * isNegated
+     * checks if the value of the expression is negated
+     * @return true if the expression starts with `!`
+     */
+    public boolean isNegated() {
+        return this.negated;
+    }
+
+    /**
+     * evaluate
+     * computes the value of the expression
+     * @param namespace a map of the variables in the current scope and their values
+     * @return the value of the expression
+     * @throws TemplateSyntaxException if the variable does not exist, or a field does not exist or cannot be accessed
+     */
+    public Object evaluate(Map<String, Object> namespace) {
+        // Variable lookup
+        if (!namespace.containsKey(this.root)) {
+            throw new TemplateSyntaxException("variable " + this.path[0] + " does not exist");
+        }
+
+        Object data = namespace.get(this.root);
+
+        if (this.path.length == 1) {
+            return data;
+        }
+
+        Object value = data;
+
+        // Read each field on the value of the previous one
+        for (int i = 1; i < this.path.length; i++) {
+            if (value == null) {
+                throw new TemplateSyntaxException("cannot read " + this.path[i] + " of null in " + this.expression);
+            }
+
+            MethodHandle getter = this.getter(i, value.getClass());
+
+            try {
+                value = (Object) getter.invokeExact(value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                // Field getters cannot throw checked exceptions
+                throw new TemplateSyntaxException(e);
+            }
+        }
+
+        if ((this.negated) && (value instanceof Boolean)) {
+            return !((Boolean) value);
+        }
+
+        return value;
+    }
+
+    /**
+     * getter
+     * gets the getter of a field of the path for a class, which is cached until the field is read from a different class
+     * @param index the index of the field in the path
+     * @param type the class the field is read from
+     * @return the getter of the field
+     * @throws TemplateSyntaxException if the field does not exist or cannot be accessed
+     */
+    private MethodHandle getter(int index, Class<?> type) {
+        // The class and getter are replaced together, so threads never see a getter paired with the wrong class
+        CachedGetter cached = this.cachedGetters[index];
+
+        if ((cached != null) && (cached.type == type)) {
+            return cached.getter;
+        }
+
+        MethodHandle getter = FieldAccessors.getter(type, this.path[index]);
+        this.cachedGetters[index] = new CachedGetter(type, getter);
+
+        return getter;
+    }
+
+    /**
+     * render
+     * appends the value of the expression to the output, unescaping any escaped braces in it
+     * @param namespace a map of the variables in the current scope and their values
+     * @param engine the template engine, which renders included templates
+     * @param output the output of the template
+     * @throws IOException if an error occurs while appending to the output
+     * @throws TemplateSyntaxException if the expression cannot be evaluated
+     */
+    @Override
+    public void render(Map<String, Object> namespace, TemplateEngine engine, Appendable output) throws IOException {
+        String value = this.evaluate(namespace).toString();
+
+        // Escaped braces in values are unescaped like the rest of the template
+        if (value.indexOf('\\') != -1) {
+            value = TemplateParser.unescape(value);
+        }
+
+        output.append(value);
+    }
+
+    /**
+     * toString
+     * converts the node to a string
+     * @return the expression in braces
+     */
+    @Override
+    public String toString() {
+        return "{" + this.expression + "}";
+    }
+
+    /**
+     * A getter along with the class it reads from
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class CachedGetter {
+        /** the class the getter reads from */
+        private final Class<?> type;
+
+        /** the getter of type (Object) Object */
+        private final MethodHandle getter;
+
+        /**
+         * Constructs a cached getter
+         * @param type the class the getter reads from
+         * @param getter the getter
+         */
+        CachedGetter(Class<?> type, MethodHandle getter) {
+            this.type = type;
+            this.getter = getter;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package template.ast;
+
+import template.TemplateSyntaxException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of the method handles which read fields in template expressions.
+ * The field of each (class, name) pair is only looked up by reflection once. Every later read is a method handle call.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+class FieldAccessors {
+    /** The lookup used to create the getters, which can read the same fields as reflection from this package */
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /** The type every getter is adapted to, so they can all be invoked exactly */
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    /** The getters of each class by field name */
+    private static final ClassValue<Map<String, MethodHandle>> GETTERS = new ClassValue<>() {
+        @Override
+        protected Map<String, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Private constructor of this static utility class
+     */
+    private FieldAccessors() {
+    }
+
+    /**
+     * getter
+     * gets the getter of a field of a class, creating and caching it on the first call
+     * @param type the class of the object the field is read from
+     * @param name the name of the field
+     * @return a method handle of type (Object) Object which reads the field
+     * @throws TemplateSyntaxException if the field does not exist or cannot be accessed
+     */
+    static MethodHandle getter(Class<?> type, String name) {
+        Map<String, MethodHandle> getters = GETTERS.get(type);
+        MethodHandle getter = getters.get(name);
+
+        if (getter == null) {
+            getter = createGetter(type, name);
+            getters.put(name, getter);
+        }
+
+        return getter;
+    }
+
+    /**
+     * createGetter
+     * finds a field on a class or its superclasses and creates a getter for it
+     * @param type the class of the object the field is read from
+     * @param name the name of the field
+     * @return a method handle of type (Object) Object which reads the field
+     * @throws TemplateSyntaxException if the field does not exist or cannot be accessed
+     */
+    private static MethodHandle createGetter(Class<?> type, String name) {
+        Field field = null;
+
+        for (Class<?> current = type; (current != null) && (field == null); current = current.getSuperclass()) {
+            try {
+                field = current.getDeclaredField(name);
+            } catch (NoSuchFieldException e) {
+                // Check the superclass
+            }
+        }
+
+        if (field == null) {
+            throw new TemplateSyntaxException(new NoSuchFieldException(name));
+        }
+
+        try {
+            MethodHandle getter = LOOKUP.unreflectGetter(field);
+
+            // Static getters take no receiver
+            if (Modifier.isStatic(field.getModifiers())) {
+                getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            }
+
+            return getter.asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new TemplateSyntaxException(e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package template.ast;
+
+import template.TemplateEngine;
+import template.TemplateSyntaxException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node which renders its body once for each element of an array or iterable
+ * (e.g. {#for problem in data.problems} ... {/for}).
+ * The current element is available in the body under the name of the loop variable.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class ForNode implements Node {
+    /** the name of the loop variable */
+    private final String variable;
+
+    /** the array or iterable to loop over */
+    private final ExpressionNode iterable;
+
+    /** the nodes rendered for each element */
+    private final List<Node> body;
+
+    /**
+     * Constructs a for node
+     * @param variable the name of the loop variable
+     * @param iterable the array or iterable to loop over
+     * @param body the nodes rendered for each element
+     */
+    public ForNode(String variable, ExpressionNode iterable, List<Node> body) {
+        this.variable = variable;
+        this.iterable = iterable;
+        this.body = body;
+    }
+
+    /**
+     * getVariable
+     * gets the name of the loop variable
+     * @return the name of the loop variable
+     */
+    public String getVariable() {
+        return this.variable;
+    }
+
+    /**
+     * getIterable
+     * gets the expression of the array or iterable to loop over
+     * @return the expression of the array or iterable
+     */
+    public ExpressionNode getIterable() {
+        return this.iterable;
+    }
+
+    /**
+     * getBody
+     * gets the nodes rendered for each element
+     * @return the nodes of the body
+     */
+    public List<Node> getBody() {
+        return this.body;
+    }
+
+    /**
+     * render
+     * renders the body once for each element, with the element in the namespace
+     * @param namespace a map of the variables in the current scope and their values
+     * @param engine the template engine, which renders included templates
+     * @param output the output of the template
+     * @throws IOException if an error occurs while appending to the output
+     * @throws TemplateSyntaxException if the target is neither an array nor an iterable
+     */
+    @Override
+    public void render(Map<String, Object> namespace, TemplateEngine engine, Appendable output) throws IOException {
+        Object value = this.iterable.evaluate(namespace);
+
+        // Restore any variable the loop variable shadows once the loop is done
+        boolean shadowing = namespace.containsKey(this.variable);
+        Object shadowed = namespace.get(this.variable);
+
+        try {
+            if (value instanceof Object[]) {
+                for (Object element : (Object[]) value) {
+                    this.renderBody(element, namespace, engine, output);
+                }
+            } else if (value instanceof Iterable) {
+                for (Object element : (Iterable<?>) value) {
+                    this.renderBody(element, namespace, engine, output);
+                }
+            } else {
+                throw new TemplateSyntaxException("target of for directive must be either an array or iterable");
+            }
+        } finally {
+            if (shadowing) {
+                namespace.put(this.variable, shadowed);
+            } else {
+                namespace.remove(this.variable);
+            }
+        }
+    }
+
+    /**
+     * renderBody
+     * renders the body for a single element
+     * @param element the current element
+     * @param namespace a map of the variables in the current scope and their values
+     * @param engine the template engine, which renders included templates
+     * @param output the output of the template
+     * @throws IOException if an error occurs while appending to the output
+     */
+    private void renderBody(Object element, Map<String, Object> namespace, TemplateEngine engine, Appendable output) throws IOException {
+        namespace.put(this.variable, element);
+
+        for (Node child : this.body) {
+            child.render(namespace, engine, output);
+        }
+    }
+}
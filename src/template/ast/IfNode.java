@@ -0,0 +1,75 @@
+package template.ast;
+
+import template.TemplateEngine;
+import template.TemplateSyntaxException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node which only renders its children if its condition is true (e.g. {#if data.loggedIn} ... {/if})
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class IfNode implements Node {
+    /** the condition, which must evaluate to a boolean */
+    private final ExpressionNode condition;
+
+    /** the nodes rendered if the condition is true */
+    private final List<Node> children;
+
+    /**
+     * Constructs an if node
+     * @param condition the condition, which must evaluate to a boolean
+     * @param children the nodes rendered if the condition is true
+     */
+    public IfNode(ExpressionNode condition, List<Node> children) {
+        this.condition = condition;
+        this.children = children;
+    }
+
+    /**
+     * getCondition
+     * gets the condition of the node
+     * @return the condition
+     */
+    public ExpressionNode getCondition() {
+        return this.condition;
+    }
+
+    /**
+     * getChildren
+     * gets the nodes rendered if the condition is true
+     * @return the children
+     */
+    public List<Node> getChildren() {
+        return this.children;
+    }
+
+    /**
+     * render
+     * renders the children if the condition is true
+     * @param namespace a map of the variables in the current scope and their values
+     * @param engine the template engine, which renders included templates
+     * @param output the output of the template
+     * @throws IOException if an error occurs while appending to the output
+     * @throws TemplateSyntaxException if the condition is not a boolean
+     */
+    @Override
+    public void render(Map<String, Object> namespace, TemplateEngine engine, Appendable output) throws IOException {
+        Object value = this.condition.evaluate(namespace);
+
+        if (!(value instanceof Boolean)) {
+            throw new TemplateSyntaxException("If condition must be a boolean value: " + this.condition);
+        }
+
+        if (!((Boolean) value)) {
+            return;
+        }
+
+        for (Node child : this.children) {
+            child.render(namespace, engine, output);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package template.ast;
+
+import template.TemplateEngine;
+import template.TemplateNotFoundException;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A node which renders another template in its place (e.g. {#include frontend/templates/nav.th}).
+ * The included template only has access to the root `data` object, not to loop variables.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class IncludeNode implements Node {
+    /** the registered path of the included template */
+    private final String path;
+
+    /**
+     * Constructs an include node
+     * @param path the registered path of the included template
+     */
+    public IncludeNode(String path) {
+        this.path = path;
+    }
+
+    /**
+     * getPath
+     * gets the registered path of the included template
+     * @return the path of the included template
+     */
+    public String getPath() {
+        return this.path;
+    }
+
+    /**
+     * render
+     * renders the included template with the root data object
+     * @param namespace a map of the variables in the current scope and their values
+     * @param engine the template engine, which renders included templates
+     * @param output the output of the template
+     * @throws IOException if an error occurs while appending to the output
+     * @throws TemplateNotFoundException if the included template is not registered
+     */
+    @Override
+    public void render(Map<String, Object> namespace, TemplateEngine engine, Appendable output) throws IOException {
+        engine.render(this.path, namespace.get("data"), output);
+    }
+}
@@ -0,0 +1,26 @@
+package template.ast;
+
+import template.TemplateEngine;
+import template.TemplateSyntaxException;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A node in the tree of a parsed .th template.
+ * Each node renders itself, and any nodes it contains, into the output of the template.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public interface Node {
+    /**
+     * render
+     * renders the node into the output of the template
+     * @param namespace a map of the variables in the current scope and their values
+     * @param engine the template engine, which renders included templates
+     * @param output the output of the template
+     * @throws IOException if an error occurs while appending to the output
+     * @throws TemplateSyntaxException if an expression cannot be evaluated
+     */
+    void render(Map<String, Object> namespace, TemplateEngine engine, Appendable output) throws IOException;
+}
@@ -0,0 +1,51 @@
+package template.ast;
+
+import template.TemplateEngine;
+import template.TemplateSyntaxException;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A .th template which has been parsed into a tree of {@link Node Nodes}.
+ * The tree is immutable, so it is parsed once and shared by every render.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class Template {
+    /** the top level nodes of the template */
+    private final List<Node> nodes;
+
+    /**
+     * Constructs a template from its top level nodes
+     * @param nodes the top level nodes
+     */
+    public Template(List<Node> nodes) {
+        this.nodes = nodes;
+    }
+
+    /**
+     * getNodes
+     * gets the top level nodes of the template
+     * @return the top level nodes
+     */
+    public List<Node> getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * render
+     * renders the template into the output
+     * @param namespace a map of the variables in the current scope and their values
+     * @param engine the template engine, which renders included templates
+     * @param output the output of the template
+     * @throws IOException if an error occurs while appending to the output
+     * @throws TemplateSyntaxException if an expression cannot be evaluated
+     */
+    public void render(Map<String, Object> namespace, TemplateEngine engine, Appendable output) throws IOException {
+        for (Node node : this.nodes) {
+            node.render(namespace, engine, output);
+        }
+    }
+}
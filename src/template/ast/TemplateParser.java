@@ -0,0 +1,216 @@
+package template.ast;
+
+import template.DirectiveType;
+import template.TemplateSyntaxException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Parses the source of a .th template into a {@link Template} in a single pass.
+ * Interpolations are delimited by single braces, which can be escaped with a backslash (e.g. \{).
+ * An unescaped opening brace restarts the interpolation, so only the innermost pair of braces is interpolated.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class TemplateParser {
+    /** The number of seconds a cached fragment stays valid if its directive has no `ttl=` option */
+    private static final long DEFAULT_CACHE_TTL = 300;
+
+    /**
+     * Private constructor of this static utility class
+     */
+    private TemplateParser() {
+    }
+
+    /**
+     * parse
+     * parses the source of a template into a tree of nodes
+     * @param source the source of the template
+     * @return the parsed template
+     * @throws TemplateSyntaxException if the template contains an invalid or mismatched directive
+     */
+    public static Template parse(String source) {
+        // The open directives and the nodes in each of them, where the bottom frame is the template itself
+        Deque<Frame> frames = new ArrayDeque<>();
+        frames.push(new Frame(null, null));
+
+        int textStart = 0;
+        int interpolationStart = -1;
+
+        for (int i = 0; i < source.length(); i++) {
+            char c = source.charAt(i);
+            char prev = (i - 1) >= 0 ? source.charAt(i - 1) : ' ';
+
+            // Opening of interpolation
+            if ((c == '{') && (prev != '\\')) {
+                interpolationStart = i;
+                continue;
+            }
+
+            if ((c != '}') || (prev == '\\') || (interpolationStart == -1)) {
+                continue;
+            }
+
+            // Text before the interpolation
+            addText(frames.peek().children, source, textStart, interpolationStart);
+
+            String token = source.substring(interpolationStart + 1, i).trim();
+
+            if (token.startsWith("#")) {
+                // Start directive
+                String[] directiveTokens = token.replaceFirst("#", "").split(" ");
+
+                if ((directiveTokens.length == 4) && (directiveTokens[0].equals("for")) && (directiveTokens[2].equals("in"))) {
+                    frames.push(new Frame(DirectiveType.FOREACH, directiveTokens));
+                } else if ((directiveTokens.length == 2) && (directiveTokens[0].equals("if"))) {
+                    frames.push(new Frame(DirectiveType.IF, directiveTokens));
+                } else if ((directiveTokens.length >= 2) && (directiveTokens[0].equals("cache"))) {
+                    frames.push(new Frame(DirectiveType.CACHE, directiveTokens));
+                } else if ((directiveTokens.length == 2) && (directiveTokens[0].equals("include"))) {
+                    frames.peek().children.add(new IncludeNode(directiveTokens[1]));
+                } else if ((directiveTokens.length == 2) && (directiveTokens[0].equals("asset"))) {
+                    frames.peek().children.add(new AssetNode(directiveTokens[1]));
+                } else {
+                    throw new TemplateSyntaxException("no directive type exists for this syntax");
+                }
+            } else if (token.startsWith("/")) {
+                // End directive
+                String directiveType = token.replaceFirst("/", "");
+                DirectiveType type;
+
+                if (directiveType.equals("for")) {
+                    type = DirectiveType.FOREACH;
+                } else if (directiveType.equals("if")) {
+                    type = DirectiveType.IF;
+                } else if (directiveType.equals("cache")) {
+                    type = DirectiveType.CACHE;
+                } else {
+                    throw new TemplateSyntaxException("Illegal directive closing tag");
+                }
+
+                if (frames.peek().type != type) {
+                    throw new TemplateSyntaxException("mismatched directives");
+                }
+
+                Frame closed = frames.pop();
+                frames.peek().children.add(closed.toNode());
+            } else {
+                // Expression
+                frames.peek().children.add(new ExpressionNode(token));
+            }
+
+            textStart = i + 1;
+            interpolationStart = -1;
+        }
+
+        if (frames.size() > 1) {
+            throw new TemplateSyntaxException("unclosed " + String.join(" ", frames.peek().tokens) + " directive");
+        }
+
+        addText(frames.peek().children, source, textStart, source.length());
+
+        return new Template(frames.peek().children);
+    }
+
+    /**
+     * unescape
+     * replaces escaped braces with the braces themselves
+     * @param text the text to unescape
+     * @return the unescaped text
+     */
+    public static String unescape(String text) {
+        return text.replace("\\{", "{").replace("\\}", "}");
+    }
+
+    /**
+     * addText
+     * adds a text node for part of the source, if that part is not empty
+     * @param nodes the nodes to add to
+     * @param source the source of the template
+     * @param start the start index of the text, inclusive
+     * @param end the end index of the text, exclusive
+     */
+    private static void addText(List<Node> nodes, String source, int start, int end) {
+        if (start < end) {
+            nodes.add(new TextNode(unescape(source.substring(start, end))));
+        }
+    }
+
+    /**
+     * toCacheNode
+     * creates the node of a cache directive, whose tokens are its name followed by key expressions and an optional `ttl=` option in seconds
+     * @param tokens the tokens of the opening tag
+     * @param children the nodes inside the directive
+     * @return the cache node
+     * @throws TemplateSyntaxException if the time to live is not a positive number
+     */
+    private static CacheNode toCacheNode(String[] tokens, List<Node> children) {
+        List<ExpressionNode> keys = new ArrayList<>();
+        long timeToLive = DEFAULT_CACHE_TTL;
+
+        for (int i = 2; i < tokens.length; i++) {
+            if (tokens[i].startsWith("ttl=")) {
+                try {
+                    timeToLive = Long.parseLong(tokens[i].substring(4));
+                } catch (NumberFormatException e) {
+                    throw new TemplateSyntaxException("ttl of cache directive must be a number of seconds");
+                }
+
+                if (timeToLive <= 0) {
+                    throw new TemplateSyntaxException("ttl of cache directive must be positive");
+                }
+            } else if (!tokens[i].isEmpty()) {
+                keys.add(new ExpressionNode(tokens[i]));
+            }
+        }
+
+        return new CacheNode(tokens[1], keys, timeToLive * 1000, children);
+    }
+
+    /**
+     * An open directive and the nodes parsed inside of it so far
+     * @author Harry Xu
+     * @version 1.0 - October 18th 2026
+     */
+    private static class Frame {
+        /** the type of the directive, or null for the template itself */
+        private final DirectiveType type;
+
+        /** the tokens of the opening tag */
+        private final String[] tokens;
+
+        /** the nodes inside the directive */
+        private final List<Node> children;
+
+        /**
+         * Constructs a frame for an opening tag
+         * @param type the type of the directive
+         * @param tokens the tokens of the opening tag
+         */
+        Frame(DirectiveType type, String[] tokens) {
+            this.type = type;
+            this.tokens = tokens;
+            this.children = new ArrayList<>();
+        }
+
+        /**
+         * toNode
+         * creates the node for the directive once it is closed
+         * @return the directive node
+         */
+        Node toNode() {
+            if (this.type == DirectiveType.FOREACH) {
+                return new ForNode(this.tokens[1], new ExpressionNode(this.tokens[3]), this.children);
+            }
+
+            if (this.type == DirectiveType.CACHE) {
+                return toCacheNode(this.tokens, this.children);
+            }
+
+            return new IfNode(new ExpressionNode(this.tokens[1]), this.children);
+        }
+    }
+}
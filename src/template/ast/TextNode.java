@@ -0,0 +1,46 @@
+package template.ast;
+
+import template.TemplateEngine;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A node of static text, which is output as is
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class TextNode implements Node {
+    /** the text, with escaped braces already unescaped */
+    private final String text;
+
+    /**
+     * Constructs a text node
+     * @param text the text with escaped braces already unescaped
+     */
+    public TextNode(String text) {
+        this.text = text;
+    }
+
+    /**
+     * getText
+     * gets the text of the node
+     * @return the text
+     */
+    public String getText() {
+        return this.text;
+    }
+
+    /**
+     * render
+     * appends the text to the output
+     * @param namespace a map of the variables in the current scope and their values
+     * @param engine the template engine, which renders included templates
+     * @param output the output of the template
+     * @throws IOException if an error occurs while appending to the output
+     */
+    @Override
+    public void render(Map<String, Object> namespace, TemplateEngine engine, Appendable output) throws IOException {
+        output.append(this.text);
+    }
+}
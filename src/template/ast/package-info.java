@@ -0,0 +1,6 @@
+/**
+ * A package containing the node tree .th templates are parsed into, so they only have to be parsed once
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+package template.ast;
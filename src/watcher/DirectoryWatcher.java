@@ -0,0 +1,141 @@
+package watcher;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watches directories with a {@link WatchService} on a background thread,
+ * and notifies a listener of every file in them which is created, modified, or deleted.
+ * Editors often write a file in several steps, so events which arrive close together are coalesced,
+ * and the listener is called once per changed file.
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+public class DirectoryWatcher implements Runnable {
+    /** The number of milliseconds to wait for more events after the first one before notifying the listener */
+    private static final long COALESCE_MILLIS = 50;
+
+    /** The watch service the directories are registered with */
+    private final WatchService watchService;
+
+    /** The watched directories by their watch key */
+    private final Map<WatchKey, Path> directories;
+
+    /** Called with the path of each changed file */
+    private final Consumer<Path> listener;
+
+    /**
+     * Constructs a watcher for a collection of directories
+     * @param directories the directories to watch
+     * @param listener called with the path of each changed file, which is the directory resolved against the file name
+     * @throws IOException if a directory cannot be watched
+     */
+    public DirectoryWatcher(Collection<Path> directories, Consumer<Path> listener) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.directories = new HashMap<>();
+        this.listener = listener;
+
+        for (Path directory : directories) {
+            WatchKey key = directory.register(
+                    this.watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE
+            );
+
+            this.directories.put(key, directory);
+        }
+    }
+
+    /**
+     * start
+     * starts watching on a daemon thread, so the watcher never keeps the application alive
+     * @param name the name of the thread
+     * @return the started thread
+     */
+    public Thread start(String name) {
+        Thread thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+
+        return thread;
+    }
+
+    /**
+     * run
+     * waits for changes and notifies the listener until the watcher is closed or the thread is interrupted
+     */
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+
+                // Block for the first event, then collect any which follow it closely
+                WatchKey key = this.watchService.take();
+
+                while (key != null) {
+                    this.collect(key, changed);
+                    key = this.watchService.poll(COALESCE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+
+                for (Path file : changed) {
+                    try {
+                        this.listener.accept(file);
+                    } catch (RuntimeException e) {
+                        // A file which cannot be reloaded must not stop the watcher
+                        System.out.println("[WARN] Cannot reload " + file + ": " + e);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // The watcher was closed
+        }
+    }
+
+    /**
+     * collect
+     * adds the files changed in the events of a watch key, and resets the key to receive more events
+     * @param key the signalled watch key
+     * @param changed the changed files collected so far
+     */
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path directory = this.directories.get(key);
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            // Events were lost, so nothing is known about which files changed
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                System.out.println("[WARN] Changes to " + directory + " were missed and will not be reloaded");
+                continue;
+            }
+
+            changed.add(directory.resolve((Path) event.context()));
+        }
+
+        key.reset();
+    }
+
+    /**
+     * close
+     * stops watching, which also ends the watcher thread
+     * @throws IOException if an error occurs while closing the watch service
+     */
+    public void close() throws IOException {
+        this.watchService.close();
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * A package for watching registered files for changes, so engines can reload them without restarting the server
+ * @author Harry Xu
+ * @version 1.0 - October 18th 2026
+ */
+package watcher;